@@ -0,0 +1,47 @@
+-- =====================================================
+-- Cookmate: composite indexes for keyset (cursor) pagination
+-- =====================================================
+-- Purpose: Back the cursor mode of the recipe list endpoints, which seek on
+--          (sort key, id) instead of using OFFSET. Hibernate (ddl-auto=update)
+--          creates the same indexes; this script is for managed databases.
+-- Safe: Yes - skips indexes that already exist
+-- =====================================================
+
+USE cookmate;
+
+DROP PROCEDURE IF EXISTS add_index_if_missing;
+
+DELIMITER //
+CREATE PROCEDURE add_index_if_missing(IN idx_name VARCHAR(64), IN ddl TEXT)
+BEGIN
+    IF (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+        WHERE TABLE_SCHEMA = 'cookmate'
+          AND TABLE_NAME = 'recipes'
+          AND INDEX_NAME = idx_name) = 0 THEN
+        SET @sql = ddl;
+        PREPARE stmt FROM @sql;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+-- /api/recipes/top-rated and sortBy=averageRating
+CALL add_index_if_missing('idx_recipes_rating_id',
+    'CREATE INDEX idx_recipes_rating_id ON recipes (average_rating, id)');
+
+-- /api/recipes/most-viewed and sortBy=viewCount
+CALL add_index_if_missing('idx_recipes_views_id',
+    'CREATE INDEX idx_recipes_views_id ON recipes (view_count, id)');
+
+-- /api/recipes/recent and the default sortBy=createdAt
+CALL add_index_if_missing('idx_recipes_created_id',
+    'CREATE INDEX idx_recipes_created_id ON recipes (created_at, id)');
+
+-- /api/recipes/my-recipes
+CALL add_index_if_missing('idx_recipes_creator_created_id',
+    'CREATE INDEX idx_recipes_creator_created_id ON recipes (created_by, created_at, id)');
+
+DROP PROCEDURE IF EXISTS add_index_if_missing;
+
+SHOW INDEX FROM recipes;
@@ -0,0 +1,50 @@
+-- =====================================================
+-- Cookmate: one recently_viewed row per (user, recipe), capped per user
+-- =====================================================
+-- Purpose: The application now upserts recently-viewed entries in batches on
+--          (user_id, recipe_id) and keeps only the newest 50 per user
+--          (recently-viewed.max-per-user). This script removes duplicate
+--          rows, adds the unique key the upsert relies on and trims each
+--          user's history to the cap. Hibernate (ddl-auto=update) can only
+--          add the key once the duplicates are gone.
+-- Safe: Yes - keeps the newest row per pair and skips the key if present
+-- =====================================================
+
+USE cookmate;
+
+-- Keep the newest row of each (user, recipe) pair
+DELETE rv FROM recently_viewed rv
+JOIN recently_viewed newer
+  ON newer.user_id = rv.user_id
+ AND newer.recipe_id = rv.recipe_id
+ AND (newer.viewed_at > rv.viewed_at OR (newer.viewed_at = rv.viewed_at AND newer.id > rv.id));
+
+DROP PROCEDURE IF EXISTS add_recently_viewed_unique_key;
+
+DELIMITER //
+CREATE PROCEDURE add_recently_viewed_unique_key()
+BEGIN
+    IF (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+        WHERE TABLE_SCHEMA = 'cookmate'
+          AND TABLE_NAME = 'recently_viewed'
+          AND INDEX_NAME = 'uk_recently_viewed_user_recipe') = 0 THEN
+        ALTER TABLE recently_viewed
+            ADD CONSTRAINT uk_recently_viewed_user_recipe UNIQUE (user_id, recipe_id);
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_recently_viewed_unique_key();
+DROP PROCEDURE IF EXISTS add_recently_viewed_unique_key;
+
+-- Trim every user to the newest 50 entries
+DELETE rv FROM recently_viewed rv
+JOIN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY viewed_at DESC, id DESC) AS position
+        FROM recently_viewed
+    ) ranked
+    WHERE position > 50
+) old ON old.id = rv.id;
+
+SHOW INDEX FROM recently_viewed;
@@ -0,0 +1,71 @@
+-- =====================================================
+-- Cookmate: recipe_cards read model for the recipe list endpoints
+-- =====================================================
+-- Purpose: Denormalized copy of the list-view fields of every recipe plus the
+--          creator's username, so list pages never read the recipes table
+--          (image BLOB, joins to users). Hibernate (ddl-auto=update) creates
+--          the same table; the application re-syncs it from recipes at startup
+--          and keeps it current on recipe, review and username writes.
+-- Safe: Yes - CREATE TABLE IF NOT EXISTS, and the backfill is an upsert
+-- =====================================================
+
+USE cookmate;
+
+CREATE TABLE IF NOT EXISTS recipe_cards (
+    recipe_id BIGINT NOT NULL PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    cuisine_type VARCHAR(50),
+    meal_type VARCHAR(50),
+    difficulty_level VARCHAR(20),
+    prep_time INT,
+    cook_time INT,
+    total_time INT,
+    servings INT,
+    protein DECIMAL(10,2),
+    carbs DECIMAL(10,2),
+    fat DECIMAL(10,2),
+    fiber DECIMAL(10,2),
+    image_url VARCHAR(500),
+    video_url VARCHAR(500),
+    is_vegetarian BOOLEAN,
+    is_vegan BOOLEAN,
+    is_gluten_free BOOLEAN,
+    is_dairy_free BOOLEAN,
+    average_rating DECIMAL(3,2),
+    total_reviews INT,
+    view_count INT,
+    created_at DATETIME,
+    created_by_id BIGINT,
+    created_by_username VARCHAR(50),
+    INDEX idx_recipe_cards_rating_id (average_rating, recipe_id),
+    INDEX idx_recipe_cards_views_id (view_count, recipe_id),
+    INDEX idx_recipe_cards_created_id (created_at, recipe_id),
+    INDEX idx_recipe_cards_creator_created_id (created_by_id, created_at, recipe_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Backfill (the application does the same in batches at startup)
+INSERT INTO recipe_cards (recipe_id, title, description, cuisine_type, meal_type,
+    difficulty_level, prep_time, cook_time, total_time, servings, protein, carbs, fat, fiber,
+    image_url, video_url, is_vegetarian, is_vegan, is_gluten_free, is_dairy_free,
+    average_rating, total_reviews, view_count, created_at, created_by_id, created_by_username)
+SELECT r.id, r.title, r.description, r.cuisine_type, r.meal_type,
+    r.difficulty_level, r.prep_time, r.cook_time, r.total_time, r.servings, r.protein, r.carbs, r.fat, r.fiber,
+    r.image_url, r.video_url, r.is_vegetarian, r.is_vegan, r.is_gluten_free, r.is_dairy_free,
+    r.average_rating, r.total_reviews, r.view_count, r.created_at, r.created_by, u.username
+FROM recipes r
+LEFT JOIN users u ON u.id = r.created_by
+ON DUPLICATE KEY UPDATE
+    title = VALUES(title), description = VALUES(description),
+    cuisine_type = VALUES(cuisine_type), meal_type = VALUES(meal_type),
+    difficulty_level = VALUES(difficulty_level), prep_time = VALUES(prep_time),
+    cook_time = VALUES(cook_time), total_time = VALUES(total_time), servings = VALUES(servings),
+    protein = VALUES(protein), carbs = VALUES(carbs), fat = VALUES(fat), fiber = VALUES(fiber),
+    image_url = VALUES(image_url), video_url = VALUES(video_url),
+    is_vegetarian = VALUES(is_vegetarian), is_vegan = VALUES(is_vegan),
+    is_gluten_free = VALUES(is_gluten_free), is_dairy_free = VALUES(is_dairy_free),
+    average_rating = VALUES(average_rating), total_reviews = VALUES(total_reviews),
+    view_count = VALUES(view_count), created_at = VALUES(created_at),
+    created_by_id = VALUES(created_by_id), created_by_username = VALUES(created_by_username);
+
+SELECT (SELECT COUNT(*) FROM recipes) AS recipes, (SELECT COUNT(*) FROM recipe_cards) AS recipe_cards;
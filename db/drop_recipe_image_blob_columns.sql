@@ -0,0 +1,40 @@
+-- =====================================================
+-- Cookmate: drop the legacy recipe image blob columns
+-- =====================================================
+-- Purpose: Final step of the image migration. The application moves every
+--          recipes.image_data blob to the uploads directory in the background
+--          (progress: GET /api/admin/image-migration). Once that reports no
+--          failures, this script removes the now-empty columns.
+-- Safe: Yes - does nothing while any blob is still present or if the
+--       columns are already gone
+-- =====================================================
+
+USE cookmate;
+
+DROP PROCEDURE IF EXISTS drop_image_blob_columns;
+
+DELIMITER //
+CREATE PROCEDURE drop_image_blob_columns()
+BEGIN
+    IF (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_SCHEMA = 'cookmate'
+          AND TABLE_NAME = 'recipes'
+          AND COLUMN_NAME = 'image_data') = 0 THEN
+        SELECT 'Blob columns already dropped' AS Message;
+    ELSEIF (SELECT COUNT(*) FROM recipes WHERE image_data IS NOT NULL) > 0 THEN
+        SELECT 'Blobs remain - run or resume the image migration first' AS Message,
+               COUNT(*) AS recipes_with_blob
+        FROM recipes WHERE image_data IS NOT NULL;
+    ELSE
+        ALTER TABLE recipes
+            DROP COLUMN image_data,
+            DROP COLUMN image_filename,
+            DROP COLUMN image_content_type;
+        SELECT 'Blob columns dropped' AS Message;
+    END IF;
+END //
+DELIMITER ;
+
+CALL drop_image_blob_columns();
+
+DROP PROCEDURE IF EXISTS drop_image_blob_columns;
@@ -0,0 +1,99 @@
+package com.cookmate.backend.config;
+
+import com.cookmate.backend.service.ResourceVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for cacheable read endpoints.
+ *
+ * The resource's version is checked against If-None-Match (or, without it, If-Modified-Since)
+ * before the body is built, so a 304 costs only the version lookup. Anonymous responses may
+ * be stored by shared caches for a short while; authenticated ones are private and have to be
+ * revalidated on every use. Both vary by Authorization.
+ */
+@Component
+public class HttpCachePolicy {
+
+    private final CacheControl anonymous;
+    private final CacheControl authenticated = CacheControl.noCache().cachePrivate();
+
+    public HttpCachePolicy(@Value("${http-cache.public-max-age-seconds:60}") long publicMaxAgeSeconds) {
+        this.anonymous = CacheControl.maxAge(publicMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+
+    /**
+     * 304 if the client's copy is still current, else 200 with the body from the supplier.
+     * Without a version (e.g. an unknown id) the body is built unconditionally, so the
+     * supplier's own errors still surface.
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, Authentication authentication,
+                                         ResourceVersion version, Supplier<T> body) {
+        CacheControl cacheControl = isAuthenticated(authentication) ? authenticated : anonymous;
+        if (version == null) {
+            return ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .body(body.get());
+        }
+
+        boolean notModified = notModified(request, version);
+        ResponseEntity.BodyBuilder builder = notModified
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok();
+        builder.eTag(version.getEtag())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION);
+        if (version.getLastModified() != null) {
+            builder.lastModified(version.getLastModified());
+        }
+        return notModified ? builder.build() : builder.body(body.get());
+    }
+
+    private boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated();
+    }
+
+    private boolean notModified(WebRequest request, ResourceVersion version) {
+        // If-None-Match takes precedence; If-None-Match uses the weak comparison
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(version.getEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || version.getLastModified() == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            // HTTP dates have whole seconds
+            return !version.getLastModified().truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -92,6 +92,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/recipes/filter").permitAll()
                         .requestMatchers("/api/recipes/{id}").permitAll()
                         .requestMatchers("/api/recipes/substitutions").permitAll()
+                        .requestMatchers("/api/ingredients/autocomplete").permitAll()
                         .requestMatchers("/api/ai-chat/**").permitAll()
                         .requestMatchers("/uploads/**").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -2,6 +2,7 @@ package com.cookmate.backend.controller;
 
 import com.cookmate.backend.dto.AIChatRequest;
 import com.cookmate.backend.dto.AIChatResponse;
+import com.cookmate.backend.monitoring.SqlBudget;
 import com.cookmate.backend.service.AIChatbotService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,7 @@ public class AIChatController {
     /**
      * Get recipe suggestions with simple ingredient list (for quick queries)
      */
+    @SqlBudget(statements = 6)
     @GetMapping("/quick-suggestions")
     public ResponseEntity<AIChatResponse> getQuickSuggestions(
             @RequestParam String ingredients,
@@ -3,6 +3,7 @@ package com.cookmate.backend.controller;
 import com.cookmate.backend.dto.IngredientSubstitutionDto;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.monitoring.SqlBudget;
 import com.cookmate.backend.service.IngredientSubstitutionService;
 import com.cookmate.backend.service.RecommendationService;
 import jakarta.validation.constraints.Min;
@@ -24,6 +25,7 @@ public class AIController {
     @Autowired
     private IngredientSubstitutionService substitutionService;
 
+    @SqlBudget(statements = 15)
     @GetMapping("/recommendations")
     public ResponseEntity<PageResponse<RecipeDto>> recommendations(
             Authentication authentication,
@@ -42,6 +44,7 @@ public class AIController {
         return ResponseEntity.ok(dto);
     }
 
+    @SqlBudget(statements = 6)
     @GetMapping("/substitutions")
     public ResponseEntity<IngredientSubstitutionDto> getSubstitutions(
             @RequestParam String ingredient,
@@ -0,0 +1,234 @@
+package com.cookmate.backend.controller;
+
+import com.cookmate.backend.dto.AlsoLikedStatus;
+import com.cookmate.backend.dto.ApiResponse;
+import com.cookmate.backend.dto.CacheInvalidationStatus;
+import com.cookmate.backend.dto.HotListStatus;
+import com.cookmate.backend.dto.ImageMigrationStatus;
+import com.cookmate.backend.dto.IngredientDictionaryStatus;
+import com.cookmate.backend.dto.RecipeCacheStatus;
+import com.cookmate.backend.dto.RecipeImportError;
+import com.cookmate.backend.dto.RecipeImportStatus;
+import com.cookmate.backend.dto.RecommendationCacheStatus;
+import com.cookmate.backend.dto.SqlEndpointStatus;
+import com.cookmate.backend.dto.TrendingStatus;
+import com.cookmate.backend.dto.ViewCounterStatus;
+import com.cookmate.backend.importer.ImportFormat;
+import com.cookmate.backend.monitoring.SqlBudget;
+import com.cookmate.backend.monitoring.SqlBudgetMonitor;
+import com.cookmate.backend.service.CacheInvalidationService;
+import com.cookmate.backend.service.HotListService;
+import com.cookmate.backend.service.IngredientDictionary;
+import com.cookmate.backend.service.ItemSimilarityService;
+import com.cookmate.backend.service.RecipeDetailCache;
+import com.cookmate.backend.service.RecipeExportService;
+import com.cookmate.backend.service.RecipeImageMigrationService;
+import com.cookmate.backend.service.RecipeImportService;
+import com.cookmate.backend.service.RecommendationRefresher;
+import com.cookmate.backend.service.TrendingService;
+import com.cookmate.backend.service.ViewCountService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+@SqlBudget(statements = 6)
+public class AdminController {
+    
+    @Autowired
+    private RecipeImageMigrationService recipeImageMigrationService;
+    
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private RecipeDetailCache recipeDetailCache;
+    
+    @Autowired
+    private IngredientDictionary ingredientDictionary;
+    
+    @Autowired
+    private HotListService hotListService;
+    
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private ItemSimilarityService itemSimilarityService;
+    
+    @Autowired
+    private RecommendationRefresher recommendationRefresher;
+    
+    @Autowired
+    private SqlBudgetMonitor sqlBudgetMonitor;
+    
+    @Autowired
+    private RecipeExportService recipeExportService;
+    
+    @Autowired
+    private RecipeImportService recipeImportService;
+    
+    @GetMapping("/image-migration")
+    public ResponseEntity<ImageMigrationStatus> getImageMigrationStatus() {
+        return ResponseEntity.ok(recipeImageMigrationService.getStatus());
+    }
+    
+    // Starts (or resumes) moving legacy image blobs to the file store
+    @PostMapping("/image-migration")
+    public ResponseEntity<ApiResponse> startImageMigration() {
+        if (!recipeImageMigrationService.start()) {
+            return new ResponseEntity<>(new ApiResponse(false, "Image migration is already running",
+                    recipeImageMigrationService.getStatus()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(new ApiResponse(true, "Image migration started",
+                recipeImageMigrationService.getStatus()), HttpStatus.ACCEPTED);
+    }
+    
+    // Pending write-behind view counts and how far behind the database they are
+    @GetMapping("/view-counters")
+    public ResponseEntity<ViewCounterStatus> getViewCounterStatus() {
+        return ResponseEntity.ok(viewCountService.getStatus());
+    }
+    
+    // Recipe detail cache size, hit/miss ratios and evictions
+    @GetMapping("/recipe-cache")
+    public ResponseEntity<RecipeCacheStatus> getRecipeCacheStatus() {
+        return ResponseEntity.ok(recipeDetailCache.getStatus());
+    }
+    
+    // Ingredient name dictionary size and hit rate
+    @GetMapping("/ingredient-dictionary")
+    public ResponseEntity<IngredientDictionaryStatus> getIngredientDictionaryStatus() {
+        return ResponseEntity.ok(ingredientDictionary.getStatus());
+    }
+    
+    // Hot list snapshot ages and how many requests they answered
+    @GetMapping("/hot-lists")
+    public ResponseEntity<HotListStatus> getHotListStatus() {
+        return ResponseEntity.ok(hotListService.getStatus());
+    }
+    
+    // This node's position in the cache invalidation log and its replication lag
+    @GetMapping("/cache-invalidation")
+    public ResponseEntity<CacheInvalidationStatus> getCacheInvalidationStatus() {
+        return ResponseEntity.ok(cacheInvalidationService.getStatus());
+    }
+    
+    // Trending score half-life, tracked recipes and the last replay from history
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingStatus> getTrendingStatus() {
+        return ResponseEntity.ok(trendingService.getStatus());
+    }
+    
+    // Rebuilds trending scores from view, favorite and review history in the background
+    @PostMapping("/trending/replay")
+    public ResponseEntity<ApiResponse> replayTrending() {
+        if (!trendingService.startReplay()) {
+            return new ResponseEntity<>(new ApiResponse(false, "Trending replay is disabled or already running",
+                    trendingService.getStatus()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(new ApiResponse(true, "Trending replay started",
+                trendingService.getStatus()), HttpStatus.ACCEPTED);
+    }
+    
+    // Also-liked neighbour table size and memory, and the last rebuild and incremental pass
+    @GetMapping("/also-liked")
+    public ResponseEntity<AlsoLikedStatus> getAlsoLikedStatus() {
+        return ResponseEntity.ok(itemSimilarityService.getStatus());
+    }
+    
+    // Recomputes every also-liked list from favorites and views in the background
+    @PostMapping("/also-liked/rebuild")
+    public ResponseEntity<ApiResponse> rebuildAlsoLiked() {
+        if (!itemSimilarityService.startRebuild()) {
+            return new ResponseEntity<>(new ApiResponse(false, "Also-liked rebuild is disabled or already running",
+                    itemSimilarityService.getStatus()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(new ApiResponse(true, "Also-liked rebuild started",
+                itemSimilarityService.getStatus()), HttpStatus.ACCEPTED);
+    }
+    
+    // Stored per-user recommendation lists: hit rates, refresh queue and the last regeneration
+    @GetMapping("/recommendation-cache")
+    public ResponseEntity<RecommendationCacheStatus> getRecommendationCacheStatus() {
+        return ResponseEntity.ok(recommendationRefresher.getStatus());
+    }
+    
+    // SQL statements per endpoint against their budgets, worst offenders first
+    @GetMapping("/sql-budget")
+    public ResponseEntity<List<SqlEndpointStatus>> getSqlBudgetStatus() {
+        return ResponseEntity.ok(sqlBudgetMonitor.getStatus());
+    }
+    
+    /**
+     * Streams every recipe with its ingredients and instructions as NDJSON, one recipe per
+     * line in id order, optionally gzip-encoded. Pass updatedSince (ISO date-time) for an
+     * incremental export of recipes updated at or after it.
+     */
+    @SqlBudget(statements = 8)
+    @GetMapping("/recipes/export")
+    public void exportRecipes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recipes.ndjson\"");
+        if (gzip) {
+            // Content-Encoding, so clients that ask for gzip still see plain NDJSON once decoded
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192, true);
+            recipeExportService.exportRecipes(updatedSince, out);
+            out.finish();
+        } else {
+            recipeExportService.exportRecipes(updatedSince, response.getOutputStream());
+        }
+    }
+    
+    /**
+     * Bulk recipe import, in the background, from the raw request body: NDJSON (one recipe per
+     * line, e.g. an export), a JSON array of recipes, or CSV with RecipeRequest property names
+     * as the header. The recipes are created by the calling admin.
+     */
+    @PostMapping(value = "/recipes/import", consumes = {"application/x-ndjson", "application/json", "text/csv"})
+    public ResponseEntity<ApiResponse> importRecipes(HttpServletRequest request, Authentication authentication)
+            throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        if (!recipeImportService.start(format, request.getInputStream(), authentication)) {
+            return new ResponseEntity<>(new ApiResponse(false, "A recipe import is already running",
+                    recipeImportService.getStatus()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(new ApiResponse(true, "Recipe import started",
+                recipeImportService.getStatus()), HttpStatus.ACCEPTED);
+    }
+    
+    // Progress of the current (or last) recipe import
+    @GetMapping("/recipes/import")
+    public ResponseEntity<RecipeImportStatus> getRecipeImportStatus() {
+        return ResponseEntity.ok(recipeImportService.getStatus());
+    }
+    
+    // Rows the current (or last) recipe import rejected, with the reason
+    @GetMapping("/recipes/import/errors")
+    public ResponseEntity<List<RecipeImportError>> getRecipeImportErrors() {
+        return ResponseEntity.ok(recipeImportService.getErrors());
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.cookmate.backend.controller;
 
 import com.cookmate.backend.dto.*;
 import com.cookmate.backend.entity.User;
+import com.cookmate.backend.monitoring.SqlBudget;
 import com.cookmate.backend.service.AuthService;
 import com.cookmate.backend.dto.AuthRequest;
 import com.cookmate.backend.security.service.UserDetailsImpl;
@@ -56,6 +57,7 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @SqlBudget(statements = 8)
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal UserDetailsImpl userDetails) {
         User user = authService.getCurrentUser(userDetails.getUsername());
@@ -4,6 +4,7 @@ import com.cookmate.backend.dto.ApiResponse;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
 import com.cookmate.backend.service.FavoriteService;
+import com.cookmate.backend.monitoring.SqlBudget;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -35,6 +36,7 @@ public class FavoriteController {
         return ResponseEntity.ok(response);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping
     public ResponseEntity<PageResponse<RecipeDto>> getUserFavorites(
             Authentication authentication,
@@ -44,6 +46,7 @@ public class FavoriteController {
         return ResponseEntity.ok(favorites);
     }
     
+    @SqlBudget(statements = 6)
     @GetMapping("/check/{recipeId}")
     public ResponseEntity<Boolean> isFavorite(
             @PathVariable Long recipeId,
@@ -0,0 +1,27 @@
+package com.cookmate.backend.controller;
+
+import com.cookmate.backend.dto.AutocompleteSuggestion;
+import com.cookmate.backend.monitoring.SqlBudget;
+import com.cookmate.backend.service.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ingredients")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class IngredientController {
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @SqlBudget(statements = 6)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocompleteIngredients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteService.completeIngredients(q, limit));
+    }
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.cookmate.backend.dto.MealPlanDto;
 import com.cookmate.backend.dto.MealPlanRequest;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.service.MealPlanService;
+import com.cookmate.backend.monitoring.SqlBudget;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -49,6 +50,7 @@ public class MealPlanController {
         return ResponseEntity.ok(response);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping("/{id}")
     public ResponseEntity<MealPlanDto> getMealPlanById(
             @PathVariable Long id,
@@ -57,6 +59,7 @@ public class MealPlanController {
         return ResponseEntity.ok(mealPlan);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping
     public ResponseEntity<PageResponse<MealPlanDto>> getUserMealPlans(
             Authentication authentication,
@@ -66,6 +69,7 @@ public class MealPlanController {
         return ResponseEntity.ok(mealPlans);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping("/active")
     public ResponseEntity<List<MealPlanDto>> getActiveMealPlans(Authentication authentication) {
         List<MealPlanDto> mealPlans = mealPlanService.getActiveMealPlans(authentication);
@@ -1,5 +1,6 @@
 package com.cookmate.backend.controller;
 
+import com.cookmate.backend.monitoring.SqlBudget;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,6 +13,7 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class OAuth2Controller {
 
+    @SqlBudget(statements = 6)
     @GetMapping("/login/{provider}")
     public void redirectToOAuth2(@PathVariable String provider, HttpServletResponse response) throws IOException {
         // Check if OAuth2 is properly configured
@@ -27,6 +29,7 @@ public class OAuth2Controller {
         response.sendRedirect(redirectUrl);
     }
 
+    @SqlBudget(statements = 6)
     @GetMapping("/status")
     public Map<String, String> getOAuth2Status() {
         Map<String, String> status = new HashMap<>();
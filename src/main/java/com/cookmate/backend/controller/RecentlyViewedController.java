@@ -3,6 +3,7 @@ package com.cookmate.backend.controller;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
 import com.cookmate.backend.service.RecentlyViewedService;
+import com.cookmate.backend.monitoring.SqlBudget;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +19,7 @@ public class RecentlyViewedController {
     @Autowired
     private RecentlyViewedService recentlyViewedService;
     
+    @SqlBudget(statements = 10)
     @GetMapping
     public ResponseEntity<PageResponse<RecipeDto>> getRecentlyViewed(
             Authentication authentication,
@@ -1,13 +1,20 @@
 package com.cookmate.backend.controller;
 
+import com.cookmate.backend.config.HttpCachePolicy;
 import com.cookmate.backend.dto.*;
 import com.cookmate.backend.entity.Recipe;
 import com.cookmate.backend.repository.RecipeRepository;
 import com.cookmate.backend.exception.ResourceNotFoundException;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.service.AutocompleteService;
 import com.cookmate.backend.service.FileStorageService;
 import com.cookmate.backend.service.IngredientSubstitutionService;
+import com.cookmate.backend.service.RecipeAllergenService;
 import com.cookmate.backend.service.RecipeService;
+import com.cookmate.backend.service.RecipeVersionService;
 import com.cookmate.backend.service.RecommendationService;
+import com.cookmate.backend.service.ResourceVersion;
+import com.cookmate.backend.monitoring.SqlBudget;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -45,6 +53,18 @@ public class RecipeController {
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private RecipeVersionService recipeVersionService;
+    
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
+    @Autowired
+    private RecipeAllergenService recipeAllergenService;
+    
     @Value("${spring.servlet.multipart.max-file-size:5MB}")
     private String maxFileSize;
     
@@ -131,33 +151,58 @@ public class RecipeController {
         return ResponseEntity.ok(new ApiResponse(true, "Recipe deleted successfully"));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/{id}")
     public ResponseEntity<RecipeDto> getRecipeById(
             @PathVariable Long id,
-            Authentication authentication) {
-        RecipeDto recipe = recipeService.getRecipeById(id, authentication);
-        return ResponseEntity.ok(recipe);
+            Authentication authentication,
+            WebRequest webRequest) {
+        ResponseEntity<RecipeDto> response = httpCachePolicy.respond(webRequest, authentication,
+                recipeVersionService.forRecipe(id).orElse(null),
+                () -> recipeService.getRecipeById(id, authentication));
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            // Revalidating a cached copy still counts as viewing the recipe
+            recipeService.recordView(id, authentication);
+        }
+        return response;
     }
     
+    /**
+     * List endpoints accept either page/size (offset paging, always counted) or a cursor.
+     * Pass an empty cursor to start cursor paging, then follow nextCursor from each response;
+     * totalElements is only computed in cursor mode when includeTotal=true.
+     */
+    @SqlBudget(statements = 10)
     @GetMapping
     public ResponseEntity<PageResponse<RecipeDto>> getAllRecipes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
-        PageResponse<RecipeDto> recipes = recipeService.getAllRecipes(page, size, sortBy, sortDir);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication, recipeVersionService.forRecipeLists(),
+                () -> cursor != null
+                        ? recipeService.getAllRecipes(cursor, size, sortBy, sortDir, includeTotal)
+                        : recipeService.getAllRecipes(page, size, sortBy, sortDir));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/search")
     public ResponseEntity<PageResponse<RecipeDto>> searchRecipes(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.searchRecipes(keyword, page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        return httpCachePolicy.respond(webRequest, authentication, recipeListVersion(exclusion),
+                () -> recipeService.searchRecipes(keyword, exclusion, page, size));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/filter")
     public ResponseEntity<PageResponse<RecipeDto>> filterRecipes(
             @RequestParam(required = false) String cuisineType,
@@ -167,55 +212,99 @@ public class RecipeController {
             @RequestParam(required = false) Boolean isVegetarian,
             @RequestParam(required = false) Boolean isVegan,
             @RequestParam(required = false) Boolean isGlutenFree,
+            @RequestParam(required = false) Boolean isDairyFree,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.filterRecipes(
-                cuisineType, mealType, difficultyLevel, maxTime,
-                isVegetarian, isVegan, isGlutenFree, page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        return httpCachePolicy.respond(webRequest, authentication, recipeListVersion(exclusion),
+                () -> recipeService.filterRecipes(
+                        cuisineType, mealType, difficultyLevel, maxTime,
+                        isVegetarian, isVegan, isGlutenFree, isDairyFree, exclusion, page, size));
     }
     
+    @SqlBudget(statements = 6)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocompleteRecipes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteService.completeRecipes(q, limit));
+    }
+    
+    @SqlBudget(statements = 10)
     @GetMapping("/search-by-ingredients")
     public ResponseEntity<PageResponse<RecipeDto>> searchByIngredients(
             @RequestParam List<String> ingredients,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.searchByIngredients(ingredients, page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        return httpCachePolicy.respond(webRequest, authentication, recipeListVersion(exclusion),
+                () -> recipeService.searchByIngredients(ingredients, exclusion, page, size));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/top-rated")
     public ResponseEntity<PageResponse<RecipeDto>> getTopRatedRecipes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.getTopRatedRecipes(page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication, recipeVersionService.forRecipeLists(),
+                () -> cursor != null
+                        ? recipeService.getTopRatedRecipes(cursor, size, includeTotal)
+                        : recipeService.getTopRatedRecipes(page, size));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/most-viewed")
     public ResponseEntity<PageResponse<RecipeDto>> getMostViewedRecipes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.getMostViewedRecipes(page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication, recipeVersionService.forViewRankedLists(),
+                () -> cursor != null
+                        ? recipeService.getMostViewedRecipes(cursor, size, includeTotal)
+                        : recipeService.getMostViewedRecipes(page, size));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/recent")
     public ResponseEntity<PageResponse<RecipeDto>> getRecentRecipes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.getRecentRecipes(page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication, recipeVersionService.forRecipeLists(),
+                () -> cursor != null
+                        ? recipeService.getRecentRecipes(cursor, size, includeTotal)
+                        : recipeService.getRecentRecipes(page, size));
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/my-recipes")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<PageResponse<RecipeDto>> getMyRecipes(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        PageResponse<RecipeDto> recipes = recipeService.getMyRecipes(authentication, page, size);
-        return ResponseEntity.ok(recipes);
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication,
+                recipeVersionService.forRecipeLists().scopedTo(authentication.getName()),
+                () -> cursor != null
+                        ? recipeService.getMyRecipes(authentication, cursor, size, includeTotal)
+                        : recipeService.getMyRecipes(authentication, page, size));
     }
 
     // AI-Powered Features
@@ -223,6 +312,7 @@ public class RecipeController {
     /**
      * Get recipe recommendations based on type (personalized, history, preferences, trending)
      */
+    @SqlBudget(statements = 15)
     @GetMapping("/recommendations")
     public ResponseEntity<PageResponse<RecipeDto>> getRecommendations(
             Authentication authentication,
@@ -235,6 +325,7 @@ public class RecipeController {
     /**
      * Get recommendations based on user's viewing history
      */
+    @SqlBudget(statements = 15)
     @GetMapping("/recommendations/history")
     public ResponseEntity<PageResponse<RecipeDto>> getRecommendationsByHistory(
             Authentication authentication,
@@ -246,6 +337,7 @@ public class RecipeController {
     /**
      * Get recommendations based on user preferences
      */
+    @SqlBudget(statements = 15)
     @GetMapping("/recommendations/preferences")
     public ResponseEntity<PageResponse<RecipeDto>> getRecommendationsByPreferences(
             Authentication authentication,
@@ -271,16 +363,45 @@ public class RecipeController {
     /**
      * Get trending recipes
      */
+    @SqlBudget(statements = 10)
     @GetMapping("/recommendations/trending")
     public ResponseEntity<PageResponse<RecipeDto>> getTrendingRecipes(
+            Authentication authentication,
             @RequestParam(defaultValue = "10") int limit) {
-        PageResponse<RecipeDto> recommendations = recommendationService.getTrendingRecipes(limit);
+        PageResponse<RecipeDto> recommendations = recommendationService.getTrendingRecipes(authentication, limit);
+        return ResponseEntity.ok(recommendations);
+    }
+
+    /**
+     * Get recipes with similar ingredients
+     */
+    @SqlBudget(statements = 10)
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<PageResponse<RecipeDto>> getSimilarRecipes(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit) {
+        PageResponse<RecipeDto> similar = recommendationService.getSimilarRecipes(id, authentication, limit);
+        return ResponseEntity.ok(similar);
+    }
+
+    /**
+     * Get recipes that users who liked this recipe also liked
+     */
+    @SqlBudget(statements = 10)
+    @GetMapping("/{id}/also-liked")
+    public ResponseEntity<PageResponse<RecipeDto>> getAlsoLiked(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit) {
+        PageResponse<RecipeDto> recommendations = recommendationService.getAlsoLiked(id, authentication, limit);
         return ResponseEntity.ok(recommendations);
     }
 
     /**
      * Get ingredient substitutions
      */
+    @SqlBudget(statements = 6)
     @GetMapping("/substitutions")
     public ResponseEntity<IngredientSubstitutionDto> getIngredientSubstitutions(
             @RequestParam String ingredient,
@@ -379,6 +500,15 @@ public class RecipeController {
         return ResponseEntity.ok(scaled);
     }
     
+    /**
+     * The recipe list version, scoped to the exclusion mask when it hides recipes, since users
+     * with different allergies see different lists
+     */
+    private ResourceVersion recipeListVersion(AllergenExclusion exclusion) {
+        ResourceVersion version = recipeVersionService.forRecipeLists();
+        return exclusion.isEmpty() ? version : version.scopedTo("allergens:" + exclusion.getMask());
+    }
+    
     /**
      * Parse fraction strings like "1/2", "2 1/4", "1.5" into double
      */
@@ -1,9 +1,12 @@
 package com.cookmate.backend.controller;
 
+import com.cookmate.backend.config.HttpCachePolicy;
 import com.cookmate.backend.dto.ApiResponse;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.ReviewDto;
 import com.cookmate.backend.dto.ReviewRequest;
+import com.cookmate.backend.monitoring.SqlBudget;
+import com.cookmate.backend.service.RecipeVersionService;
 import com.cookmate.backend.service.ReviewService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/reviews")
@@ -21,6 +25,12 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
     
+    @Autowired
+    private RecipeVersionService recipeVersionService;
+    
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
     @PostMapping("/recipe/{recipeId}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ReviewDto> createReview(
@@ -50,15 +60,20 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
     
+    @SqlBudget(statements = 10)
     @GetMapping("/recipe/{recipeId}")
     public ResponseEntity<PageResponse<ReviewDto>> getRecipeReviews(
             @PathVariable Long recipeId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PageResponse<ReviewDto> reviews = reviewService.getRecipeReviews(recipeId, page, size);
-        return ResponseEntity.ok(reviews);
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        return httpCachePolicy.respond(webRequest, authentication,
+                recipeVersionService.forRecipeReviews(recipeId).orElse(null),
+                () -> reviewService.getRecipeReviews(recipeId, page, size));
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping("/my-reviews")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<PageResponse<ReviewDto>> getUserReviews(
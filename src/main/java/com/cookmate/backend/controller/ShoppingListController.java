@@ -2,6 +2,7 @@ package com.cookmate.backend.controller;
 
 import com.cookmate.backend.dto.*;
 import com.cookmate.backend.service.ShoppingListService;
+import com.cookmate.backend.monitoring.SqlBudget;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -44,6 +45,7 @@ public class ShoppingListController {
         return ResponseEntity.ok(response);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping("/{id}")
     public ResponseEntity<ShoppingListDto> getShoppingListById(
             @PathVariable Long id,
@@ -52,6 +54,7 @@ public class ShoppingListController {
         return ResponseEntity.ok(shoppingList);
     }
     
+    @SqlBudget(statements = 8)
     @GetMapping
     public ResponseEntity<PageResponse<ShoppingListDto>> getUserShoppingLists(
             Authentication authentication,
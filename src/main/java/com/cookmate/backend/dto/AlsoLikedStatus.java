@@ -0,0 +1,40 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlsoLikedStatus {
+    
+    private Boolean enabled;
+    private Boolean ready;
+    private Boolean running;
+    
+    // COSINE or JACCARD, and the neighbours kept per recipe
+    private String measure;
+    private Integer neighbors;
+    
+    // The favorite and view graph held for incremental updates
+    private Long interactions;
+    private Integer users;
+    private Long graphMemoryBytes;
+    
+    // The neighbour table: recipes with a list, entries over all lists and bytes in memory
+    private Integer recipes;
+    private Long entries;
+    private Long tableMemoryBytes;
+    
+    // The last full rebuild: when it finished and how long it took
+    private LocalDateTime lastRebuildAt;
+    private Long lastRebuildMs;
+    
+    // The last incremental pass: when it ran, how long it took and the lists it rewrote
+    private LocalDateTime lastUpdateAt;
+    private Long lastUpdateMs;
+    private Integer lastUpdatedRecipes;
+}
\ No newline at end of file
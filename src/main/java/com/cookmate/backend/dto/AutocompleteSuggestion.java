@@ -0,0 +1,14 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    
+    private Long id;
+    private String text;
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationStatus {
+    
+    private Boolean enabled;
+    private String nodeId;
+    
+    // Last log id read by this node, the newest id in the log, and how far apart they are
+    private Long cursor;
+    private Long headId;
+    private Long rowsBehind;
+    
+    // Ids skipped because they were not yet committed, still awaited
+    private Integer pendingGaps;
+    
+    private LocalDateTime lastPollAt;
+    
+    // Time from a row being written on another node to this node applying it
+    private Long lastLagMs;
+    private Long maxLagMs;
+    
+    private Long written;
+    private Long applied;
+    private Long lateApplied;
+    private Long expiredGaps;
+    private Long pollErrors;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.cookmate.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class FacetedPageResponse<T> extends PageResponse<T> {
+    
+    // Facet name -> value -> number of recipes, e.g. facets.cuisineType.Italian = 42
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Long>> facets;
+    
+    public FacetedPageResponse(List<T> content, Integer pageNumber, Integer pageSize,
+                               Long totalElements, Integer totalPages, Boolean last,
+                               Map<String, Map<String, Long>> facets) {
+        super(content, pageNumber, pageSize, totalElements, totalPages, last);
+        this.facets = facets;
+    }
+}
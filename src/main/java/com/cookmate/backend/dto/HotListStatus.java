@@ -0,0 +1,29 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotListStatus {
+    
+    private Boolean enabled;
+    private Boolean ready;
+    
+    // When the global lists and the segment lists were last rebuilt, and how long that took
+    private LocalDateTime listsBuiltAt;
+    private Long listsBuildMs;
+    private LocalDateTime segmentsBuiltAt;
+    private Long segmentsBuildMs;
+    
+    private Integer listSize;
+    private Integer segmentCount;
+    
+    // Requests answered from the snapshots and those that fell back to SQL
+    private Long served;
+    private Long fallbacks;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageMigrationStatus {
+    
+    private Boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    
+    // Recipes that still had a blob when the current (or last) run started
+    private Long totalAtStart;
+    private Long migrated;
+    private Long failed;
+    private Long bytesMigrated;
+    private Long lastRecipeId;
+    private String lastError;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientDictionaryStatus {
+    
+    // False until the startup load has finished
+    private Boolean warm;
+    private Long size;
+    
+    // Name lookups answered from memory and those that went to the database
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    
+    // Ingredients created through the dictionary since startup
+    private Long created;
+}
\ No newline at end of file
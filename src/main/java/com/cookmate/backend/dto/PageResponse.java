@@ -1,5 +1,6 @@
 package com.cookmate.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,4 +18,22 @@ public class PageResponse<T> {
     private Long totalElements;
     private Integer totalPages;
     private Boolean last;
+    
+    // Opaque cursor for the next page in cursor (keyset) mode; absent in page/size mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    
+    // The query with misspelled words corrected, when results were matched under that spelling
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String didYouMean;
+    
+    public PageResponse(List<T> content, Integer pageNumber, Integer pageSize,
+                        Long totalElements, Integer totalPages, Boolean last) {
+        this.content = content;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.last = last;
+    }
 }
\ No newline at end of file
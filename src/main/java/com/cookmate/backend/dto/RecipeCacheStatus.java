@@ -0,0 +1,30 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeCacheStatus {
+    
+    private Boolean enabled;
+    
+    // Cached recipes and their estimated footprint against the configured bound
+    private Long entries;
+    private Long weightBytes;
+    private Long maxWeightBytes;
+    
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    private Double missRate;
+    
+    // Entries dropped to stay within the bound (invalidations are not counted)
+    private Long evictionCount;
+    private Long evictionWeightBytes;
+    
+    private Long loadFailureCount;
+    private Double averageLoadPenaltyMs;
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.cookmate.backend.dto;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeCard;
+import com.cookmate.backend.exception.BadRequestException;
+import com.cookmate.backend.repository.RecipeSortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last recipe on a keyset page: its sort value and id.
+ * Clients only ever see the encoded, opaque form.
+ */
+public class RecipeCursor {
+    
+    private static final String VERSION = "v1";
+    
+    private final RecipeSortKey sortKey;
+    private final boolean ascending;
+    private final Object value;
+    private final Long id;
+    
+    public RecipeCursor(RecipeSortKey sortKey, boolean ascending, Object value, Long id) {
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.value = value;
+        this.id = id;
+    }
+    
+    public static RecipeCursor after(RecipeSortKey sortKey, boolean ascending, Recipe recipe) {
+        return new RecipeCursor(sortKey, ascending, sortKey.valueOf(recipe), recipe.getId());
+    }
+    
+    public static RecipeCursor after(RecipeSortKey sortKey, boolean ascending, RecipeCard card) {
+        return new RecipeCursor(sortKey, ascending, sortKey.valueOf(card), card.getId());
+    }
+    
+    /**
+     * Decode a cursor issued for the given ordering. Blank input means "first page".
+     */
+    public static RecipeCursor decode(String encoded, RecipeSortKey sortKey, boolean ascending) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unknown cursor format");
+            }
+            if (!sortKey.name().equals(parts[1]) || ascending != "asc".equals(parts[2])) {
+                throw new BadRequestException("Cursor does not match the requested sort order");
+            }
+            return new RecipeCursor(sortKey, ascending, sortKey.parse(parts[3]), Long.valueOf(parts[4]));
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = VERSION + "|" + sortKey.name() + "|" + (ascending ? "asc" : "desc") + "|" +
+                sortKey.format(value) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public Object getValue() {
+        return value;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cookmate.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -42,4 +43,12 @@ public class RecipeDto {
     private LocalDateTime createdAt;
     private List<RecipeIngredientDto> ingredients;
     private List<InstructionDto> instructions;
+    
+    // Only set by search-by-ingredients: "you have matched of total", plus what is missing
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer matchedIngredientCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalIngredientCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> missingIngredients;
 }
\ No newline at end of file
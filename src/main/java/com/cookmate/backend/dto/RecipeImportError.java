@@ -0,0 +1,17 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportError {
+    
+    private Long rowNumber;
+    private String message;
+    
+    // The rejected row as read, shortened if long
+    private String row;
+}
\ No newline at end of file
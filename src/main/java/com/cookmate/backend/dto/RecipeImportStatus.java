@@ -0,0 +1,26 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportStatus {
+    
+    private Boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String format;
+    
+    // Rows read from the file so far; each ends up imported or failed
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+    private Long chunksCommitted;
+    private Double recipesPerSecond;
+    private String lastError;
+}
\ No newline at end of file
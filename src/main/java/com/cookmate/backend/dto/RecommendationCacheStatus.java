@@ -0,0 +1,38 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationCacheStatus {
+    
+    private Boolean enabled;
+    
+    // Lists are fresh for ttlMs and served stale, while recomputed, up to maxStaleMs
+    private Long ttlMs;
+    private Long maxStaleMs;
+    private Integer parallelism;
+    
+    // Reads served fresh or stale from stored lists, and computed in the request
+    private Long freshHits;
+    private Long staleHits;
+    private Long misses;
+    
+    // Lists queued for the refresher, and lists it wrote or failed to since startup
+    private Integer pending;
+    private Long refreshedLists;
+    private Long failedRefreshes;
+    
+    // The last regeneration of active users' lists
+    private Boolean regenerating;
+    private LocalDateTime lastRegenerationAt;
+    private Long lastRegenerationMs;
+    private Integer lastRegeneratedUsers;
+    private Integer lastRegeneratedLists;
+    private Integer lastPrunedRows;
+}
\ No newline at end of file
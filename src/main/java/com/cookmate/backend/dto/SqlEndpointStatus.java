@@ -0,0 +1,29 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlEndpointStatus {
+    
+    // HTTP method and matched path pattern, e.g. "GET /api/recipes/{id}"
+    private String endpoint;
+    private Integer budget;
+    
+    private Long requests;
+    private Long overBudgetRequests;
+    
+    // Requests that ran one statement shape at least the repeated-statement threshold times
+    private Long repeatedStatementRequests;
+    
+    private Integer maxStatements;
+    private Double averageStatements;
+    private Double averageDbTimeMs;
+    
+    // Most recent repeated shape and how often it ran in that request
+    private String lastRepeatedStatement;
+    private Integer lastRepeatedCount;
+}
\ No newline at end of file
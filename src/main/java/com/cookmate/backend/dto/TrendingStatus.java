@@ -0,0 +1,30 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingStatus {
+    
+    private Boolean enabled;
+    private Boolean ready;
+    private Boolean replaying;
+    
+    private Double halfLifeHours;
+    private Integer capacity;
+    // Recipes with a trending score
+    private Integer tracked;
+    
+    // The last replay from history: when it finished, how long it took and the events it read
+    private LocalDateTime lastReplayAt;
+    private Long lastReplayMs;
+    private Long replayedEvents;
+    
+    // Live view, favorite and review events applied since start
+    private Long appliedEvents;
+}
\ No newline at end of file
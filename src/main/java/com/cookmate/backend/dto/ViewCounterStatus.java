@@ -0,0 +1,30 @@
+package com.cookmate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewCounterStatus {
+    
+    // Recipes with views counted in memory but not yet written
+    private Integer pendingRecipes;
+    private Long pendingViews;
+    
+    // Age of the oldest unwritten view
+    private Long pendingLagMs;
+    
+    private Long flushedViews;
+    private Long failedFlushes;
+    private LocalDateTime lastFlushAt;
+    private Long lastFlushDurationMs;
+    
+    // Time from the oldest view in the last flush to that flush committing
+    private Long lastFlushLagMs;
+    private Integer lastFlushRecipes;
+    private String lastError;
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.cookmate.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the cross-node cache invalidation log: which entity changed and how, and which
+ * node wrote it. Rows are appended by CacheInvalidationService in the same transaction as
+ * the change and read back by every node in id order.
+ */
+@Entity
+@Table(name = "cache_invalidation_log",
+       indexes = @Index(name = "idx_cache_invalidation_log_created", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // RECIPE, USER or IMPORT
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private String entityType;
+    
+    // Recipe or user id; for IMPORT rows the number of recipes imported
+    @Column(name = "entity_id")
+    private Long entityId;
+    
+    // CREATED, UPDATED, DELETED, INGREDIENTS, RATING, USERNAME, CHUNK or FINISHED
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+    
+    @Column(nullable = false, length = 36)
+    private String origin;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.cookmate.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named lease on a scheduled job that several instances run: which node holds it and until
+ * when. Rows are claimed and renewed by JobLockService, so one node does the job's writes.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLock {
+    
+    @Id
+    @Column(length = 64)
+    private String name;
+    
+    @Column(nullable = false, length = 36)
+    private String owner;
+    
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
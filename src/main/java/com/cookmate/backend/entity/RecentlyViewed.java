@@ -9,7 +9,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "recently_viewed")
+@Table(name = "recently_viewed",
+       uniqueConstraints = @UniqueConstraint(name = "uk_recently_viewed_user_recipe", columnNames = {"user_id", "recipe_id"}),
+       indexes = @Index(name = "idx_recently_viewed_user_viewed", columnList = "user_id, viewed_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,10 +19,19 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "recipes")
+@Table(name = "recipes", indexes = {
+        // Composite (sort key, id) indexes backing keyset pagination of the list endpoints
+        @Index(name = "idx_recipes_rating_id", columnList = "average_rating, id"),
+        @Index(name = "idx_recipes_views_id", columnList = "view_count, id"),
+        @Index(name = "idx_recipes_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_recipes_creator_created_id", columnList = "created_by, created_at, id"),
+        // Incremental catalog exports (updatedSince)
+        @Index(name = "idx_recipes_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@BatchSize(size = 50)
 public class Recipe {
     
     @Id
@@ -73,15 +83,9 @@ public class Recipe {
     @Column(name = "image_url", length = 500)
     private String imageUrl;
     
-    @Lob
-    @Column(name = "image_data", columnDefinition = "MEDIUMBLOB")
-    private byte[] imageData;
-    
-    @Column(name = "image_filename")
-    private String imageFilename;
-    
-    @Column(name = "image_content_type")
-    private String imageContentType;
+    // The legacy image_data / image_filename / image_content_type blob columns are deliberately
+    // not mapped, so loading a recipe never reads them; RecipeImageMigrationService moves any
+    // remaining blobs to the file store.
     
     @Column(name = "video_url", length = 500)
     private String videoUrl;
@@ -104,9 +108,16 @@ public class Recipe {
     @Column(name = "total_reviews")
     private Integer totalReviews = 0;
     
-    @Column(name = "view_count")
+    // Written only by ViewCountService's relative updates, so saving a loaded recipe never
+    // overwrites views flushed since it was read
+    @Column(name = "view_count", updatable = false)
     private Integer viewCount = 0;
     
+    // Allergen and diet bits (search.Allergens) derived from the ingredients; written only by
+    // RecipeAllergenService, null until it has classified the recipe
+    @Column(name = "allergen_mask", insertable = false, updatable = false)
+    private Integer allergenMask;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
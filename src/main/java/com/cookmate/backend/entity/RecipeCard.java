@@ -0,0 +1,109 @@
+package com.cookmate.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized list-view row of a recipe: exactly the fields of the simple RecipeDto,
+ * including the creator's username, so list endpoints never touch the recipes table
+ * (and its image BLOB) or join users.
+ *
+ * Rows are written only by RecipeCardService, in the same transaction as the recipe,
+ * review or user change they mirror.
+ */
+@Entity
+@Table(name = "recipe_cards", indexes = {
+        @Index(name = "idx_recipe_cards_rating_id", columnList = "average_rating, recipe_id"),
+        @Index(name = "idx_recipe_cards_views_id", columnList = "view_count, recipe_id"),
+        @Index(name = "idx_recipe_cards_created_id", columnList = "created_at, recipe_id"),
+        @Index(name = "idx_recipe_cards_creator_created_id", columnList = "created_by_id, created_at, recipe_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeCard {
+    
+    // Same value as recipes.id
+    @Id
+    @Column(name = "recipe_id")
+    private Long id;
+    
+    @Column(nullable = false, length = 200)
+    private String title;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "cuisine_type", length = 50)
+    private String cuisineType;
+    
+    @Column(name = "meal_type", length = 50)
+    private String mealType;
+    
+    @Column(name = "difficulty_level", length = 20)
+    private String difficultyLevel;
+    
+    @Column(name = "prep_time")
+    private Integer prepTime;
+    
+    @Column(name = "cook_time")
+    private Integer cookTime;
+    
+    @Column(name = "total_time")
+    private Integer totalTime;
+    
+    private Integer servings;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal protein;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal carbs;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal fat;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal fiber;
+    
+    @Column(name = "image_url", length = 500)
+    private String imageUrl;
+    
+    @Column(name = "video_url", length = 500)
+    private String videoUrl;
+    
+    @Column(name = "is_vegetarian")
+    private Boolean isVegetarian;
+    
+    @Column(name = "is_vegan")
+    private Boolean isVegan;
+    
+    @Column(name = "is_gluten_free")
+    private Boolean isGlutenFree;
+    
+    @Column(name = "is_dairy_free")
+    private Boolean isDairyFree;
+    
+    @Column(name = "average_rating", precision = 3, scale = 2)
+    private BigDecimal averageRating;
+    
+    @Column(name = "total_reviews")
+    private Integer totalReviews;
+    
+    @Column(name = "view_count")
+    private Integer viewCount;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "created_by_id")
+    private Long createdById;
+    
+    @Column(name = "created_by_username", length = 50)
+    private String createdByUsername;
+}
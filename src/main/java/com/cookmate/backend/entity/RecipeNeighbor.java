@@ -0,0 +1,46 @@
+package com.cookmate.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a recipe's "also liked" list: a recipe that users of this one also favorited
+ * or viewed, its rank in the list and its similarity. Rows are written and read in bulk by
+ * ItemSimilarityService, which replaces a recipe's whole list at once.
+ */
+@Entity
+@Table(name = "recipe_neighbors",
+       uniqueConstraints = @UniqueConstraint(name = "uk_recipe_neighbors_position",
+                                             columnNames = {"recipe_id", "position"}),
+       indexes = @Index(name = "idx_recipe_neighbors_computed", columnList = "computed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeNeighbor {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "recipe_id", nullable = false)
+    private Long recipeId;
+    
+    @Column(name = "neighbor_id", nullable = false)
+    private Long neighborId;
+    
+    // 0 for the most similar recipe
+    @Column(nullable = false)
+    private Integer position;
+    
+    // Cosine or Jaccard similarity, in (0, 1]
+    @Column(nullable = false)
+    private Float score;
+    
+    // Other instances compare the newest value to reload the lists when they change
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
\ No newline at end of file
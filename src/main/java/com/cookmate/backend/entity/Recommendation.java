@@ -8,8 +8,15 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * One entry of a user's precomputed recommendation list: the recipe, its rank and the list it
+ * belongs to, such as "personalized:10". Rows are written and read in bulk by
+ * RecommendationStore, which replaces a user's whole list at once; createdAt is when the list
+ * was computed and bounds how long it is served.
+ */
 @Entity
-@Table(name = "recommendations")
+@Table(name = "recommendations",
+       indexes = @Index(name = "idx_recommendations_user_type", columnList = "user_id, type, position"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +37,10 @@ public class Recommendation {
     @Column(name = "type", nullable = false, length = 50)
     private String type;
 
+    // 0 for the first recipe of the list
+    @Column(name = "position", nullable = false)
+    private Integer position;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,21 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by HotListService when a refresh swapped in lists that differ from the ones
+ * served before, so list versions can move with what the list pages now show.
+ */
+public class HotListsRefreshedEvent {
+
+    private final boolean viewRankedOnly;
+
+    public HotListsRefreshedEvent(boolean viewRankedOnly) {
+        this.viewRankedOnly = viewRankedOnly;
+    }
+
+    /**
+     * True when only the most-viewed list changed.
+     */
+    public boolean isViewRankedOnly() {
+        return viewRankedOnly;
+    }
+}
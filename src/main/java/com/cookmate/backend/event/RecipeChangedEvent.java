@@ -0,0 +1,34 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by RecipeService whenever a recipe is created, updated or deleted.
+ * In-memory read structures listen for it to stay in sync with the database.
+ */
+public class RecipeChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long recipeId;
+    private final Type type;
+
+    public RecipeChangedEvent(Long recipeId, Type type) {
+        this.recipeId = recipeId;
+        this.type = type;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
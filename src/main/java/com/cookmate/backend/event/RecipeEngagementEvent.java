@@ -0,0 +1,36 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published when a user favorites or reviews a recipe, for signals that weigh recent
+ * engagement such as the trending scores, and for the user's cached recommendations.
+ * Views reach them via ViewCountsFlushedEvent.
+ */
+public class RecipeEngagementEvent {
+
+    public enum Type {
+        FAVORITED,
+        REVIEWED
+    }
+
+    private final Long recipeId;
+    private final Long userId;
+    private final Type type;
+
+    public RecipeEngagementEvent(Long recipeId, Long userId, Type type) {
+        this.recipeId = recipeId;
+        this.userId = userId;
+        this.type = type;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by RecipeImportService when an import run ends, with how many recipes it created.
+ */
+public class RecipeImportFinishedEvent {
+
+    private final long imported;
+
+    public RecipeImportFinishedEvent(long imported) {
+        this.imported = imported;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+}
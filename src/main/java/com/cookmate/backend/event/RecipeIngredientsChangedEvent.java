@@ -0,0 +1,29 @@
+package com.cookmate.backend.event;
+
+import java.util.Map;
+
+/**
+ * Published by RecipeService after a recipe's ingredient list has been (re)written.
+ * Carries the resolved ingredient ids and names so listeners need no extra query.
+ */
+public class RecipeIngredientsChangedEvent {
+
+    private final Long recipeId;
+    private final Map<Long, String> ingredients;
+
+    public RecipeIngredientsChangedEvent(Long recipeId, Map<Long, String> ingredients) {
+        this.recipeId = recipeId;
+        this.ingredients = ingredients;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    /**
+     * Ingredient id to ingredient name, for every ingredient the recipe now uses.
+     */
+    public Map<Long, String> getIngredients() {
+        return ingredients;
+    }
+}
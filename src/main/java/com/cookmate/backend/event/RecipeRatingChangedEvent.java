@@ -0,0 +1,18 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by ReviewService after a review write has recalculated a recipe's
+ * average rating and review count.
+ */
+public class RecipeRatingChangedEvent {
+
+    private final Long recipeId;
+
+    public RecipeRatingChangedEvent(Long recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+}
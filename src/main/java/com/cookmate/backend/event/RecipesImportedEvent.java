@@ -0,0 +1,21 @@
+package com.cookmate.backend.event;
+
+import java.util.List;
+
+/**
+ * Published by RecipeImportService inside each committed import chunk, for the recipes the
+ * chunk created. Stands in for one RecipeChangedEvent per recipe; the in-memory indexes are
+ * rebuilt once on RecipeImportFinishedEvent instead (see IndexRebuildCoordinator).
+ */
+public class RecipesImportedEvent {
+
+    private final List<Long> recipeIds;
+
+    public RecipesImportedEvent(List<Long> recipeIds) {
+        this.recipeIds = recipeIds;
+    }
+
+    public List<Long> getRecipeIds() {
+        return recipeIds;
+    }
+}
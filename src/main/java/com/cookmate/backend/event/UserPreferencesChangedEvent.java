@@ -0,0 +1,18 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by AuthService when a user's preferences are saved, so what is derived from
+ * them, such as the user's allergen exclusions, can be recompiled.
+ */
+public class UserPreferencesChangedEvent {
+
+    private final Long userId;
+
+    public UserPreferencesChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
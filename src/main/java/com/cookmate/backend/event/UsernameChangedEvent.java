@@ -0,0 +1,24 @@
+package com.cookmate.backend.event;
+
+/**
+ * Published by AuthService when a user changes their username, so read models that
+ * copy the creator's name onto recipes can follow.
+ */
+public class UsernameChangedEvent {
+
+    private final Long userId;
+    private final String username;
+
+    public UsernameChangedEvent(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
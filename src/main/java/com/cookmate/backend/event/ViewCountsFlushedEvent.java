@@ -0,0 +1,21 @@
+package com.cookmate.backend.event;
+
+import java.util.Map;
+
+/**
+ * Published by ViewCountService after a flush has written view count deltas to the
+ * database, so copies of view_count held in memory can absorb them.
+ */
+public class ViewCountsFlushedEvent {
+
+    private final Map<Long, Long> deltas;
+
+    public ViewCountsFlushedEvent(Map<Long, Long> deltas) {
+        this.deltas = deltas;
+    }
+
+    // Views written per recipe id
+    public Map<Long, Long> getDeltas() {
+        return deltas;
+    }
+}
@@ -0,0 +1,43 @@
+package com.cookmate.backend.importer;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Recipe import file formats, chosen by the request's content type.
+ */
+public enum ImportFormat {
+
+    // One recipe object per line, e.g. the output of the admin catalog export
+    NDJSON("application/x-ndjson"),
+    // A single JSON array of recipe objects
+    JSON(MediaType.APPLICATION_JSON_VALUE),
+    // A header row naming RecipeRequest properties, then one recipe per record
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * The format for a Content-Type header value (parameters such as charset are ignored),
+     * or null if it is not an import format.
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (MediaType.parseMediaType(format.contentType).equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
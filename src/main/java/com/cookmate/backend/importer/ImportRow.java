@@ -0,0 +1,67 @@
+package com.cookmate.backend.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * One record of an import file, split off sequentially and mapped later in parallel.
+ * Exactly one of text (an NDJSON line), json (a JSON array element) or columns (a CSV record
+ * keyed by header) is set.
+ */
+public class ImportRow {
+
+    private final long rowNumber;
+    private final String text;
+    private final JsonNode json;
+    private final Map<String, String> columns;
+
+    private ImportRow(long rowNumber, String text, JsonNode json, Map<String, String> columns) {
+        this.rowNumber = rowNumber;
+        this.text = text;
+        this.json = json;
+        this.columns = columns;
+    }
+
+    static ImportRow ofText(long rowNumber, String text) {
+        return new ImportRow(rowNumber, text, null, null);
+    }
+
+    static ImportRow ofJson(long rowNumber, JsonNode json) {
+        return new ImportRow(rowNumber, null, json, null);
+    }
+
+    static ImportRow ofColumns(long rowNumber, Map<String, String> columns) {
+        return new ImportRow(rowNumber, null, null, columns);
+    }
+
+    /**
+     * 1-based position of the record in the file: the line for NDJSON, the array element for
+     * JSON, the data record (after the header) for CSV.
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    JsonNode getJson() {
+        return json;
+    }
+
+    Map<String, String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * The record as it appeared in the file (re-serialized for JSON and CSV), for error reports.
+     */
+    public String raw() {
+        if (text != null) {
+            return text;
+        }
+        return json != null ? json.toString() : columns.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package com.cookmate.backend.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits an import file into rows without mapping them, so a single thread can read ahead
+ * while earlier batches are mapped in parallel. Only one batch is held in memory at a time.
+ */
+public abstract class RecipeImportReader implements Closeable {
+
+    private long rowNumber;
+
+    public static RecipeImportReader open(ImportFormat format, InputStream in, ObjectMapper objectMapper)
+            throws IOException {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonReader(in);
+            case JSON:
+                return new JsonArrayReader(objectMapper.getFactory().createParser(in), objectMapper);
+            case CSV:
+                return new CsvReader(in);
+            default:
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+    }
+
+    /**
+     * The next rows of the file, at most max of them; empty at the end of the file.
+     */
+    public List<ImportRow> nextBatch(int max) throws IOException {
+        List<ImportRow> batch = new ArrayList<>(Math.min(max, 1024));
+        ImportRow row;
+        while (batch.size() < max && (row = next()) != null) {
+            batch.add(row);
+        }
+        return batch;
+    }
+
+    protected abstract ImportRow next() throws IOException;
+
+    protected long nextRowNumber() {
+        return ++rowNumber;
+    }
+
+    private static BufferedReader utf8(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static final class NdjsonReader extends RecipeImportReader {
+        private final BufferedReader reader;
+
+        NdjsonReader(InputStream in) {
+            this.reader = utf8(in);
+        }
+
+        @Override
+        protected ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Row numbers are line numbers, blank lines included
+                long number = nextRowNumber();
+                if (!line.isBlank()) {
+                    return ImportRow.ofText(number, line);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class JsonArrayReader extends RecipeImportReader {
+        private final JsonParser parser;
+        private boolean started;
+
+        JsonArrayReader(JsonParser parser, ObjectMapper objectMapper) {
+            this.parser = parser;
+            parser.setCodec(objectMapper);
+        }
+
+        @Override
+        protected ImportRow next() throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("A JSON import must be an array of recipes");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            // Reads just this element; a malformed one breaks the stream and fails the run
+            JsonNode element = parser.readValueAsTree();
+            return ImportRow.ofJson(nextRowNumber(), element);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV: comma separated, fields optionally quoted with "" as an escaped quote,
+     * quoted fields may span lines. The first record names the columns; header names are
+     * matched case-insensitively.
+     */
+    private static final class CsvReader extends RecipeImportReader {
+        private final Reader reader;
+        private List<String> header;
+        private int pushedBack = -2;
+
+        CsvReader(InputStream in) {
+            this.reader = utf8(in);
+        }
+
+        @Override
+        protected ImportRow next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = new ArrayList<>(names.size());
+                for (String name : names) {
+                    header.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            Map<String, String> columns = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i), i < fields.size() ? fields.get(i) : null);
+            }
+            return ImportRow.ofColumns(nextRowNumber(), columns);
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted CSV field");
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(following);
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            unread(following);
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            pushedBack = c;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.cookmate.backend.importer;
+
+import com.cookmate.backend.dto.InstructionRequest;
+import com.cookmate.backend.dto.RecipeIngredientRequest;
+import com.cookmate.backend.dto.RecipeRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps import rows to RecipeRequests. Stateless and thread-safe, so rows can be mapped in
+ * parallel.
+ *
+ * JSON rows use the RecipeRequest property names and ignore anything else, so lines of the
+ * admin NDJSON export import as they are. CSV columns are RecipeRequest property names too;
+ * the ingredients cell holds one "name|quantity|unit|notes" item per line and the
+ * instructions cell one step per line. Mapping errors are IllegalArgumentExceptions with a
+ * message meant for the error report.
+ */
+public class RecipeRowMapper {
+
+    private final ObjectReader recipeReader;
+
+    public RecipeRowMapper(ObjectMapper objectMapper) {
+        this.recipeReader = objectMapper.readerFor(RecipeRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public RecipeRequest map(ImportRow row) {
+        RecipeRequest request;
+        if (row.getColumns() != null) {
+            request = fromColumns(row.getColumns());
+        } else {
+            try {
+                request = row.getJson() != null
+                        ? recipeReader.readValue(row.getJson())
+                        : recipeReader.readValue(row.getText());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid recipe JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid recipe JSON: " + e.getMessage());
+            }
+        }
+        if (request.getImageData() != null) {
+            throw new IllegalArgumentException("imageData is not supported by imports, use imageUrl");
+        }
+        numberSteps(request.getInstructions());
+        return request;
+    }
+
+    private static RecipeRequest fromColumns(Map<String, String> columns) {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle(text(columns, "title"));
+        request.setDescription(text(columns, "description"));
+        request.setCuisineType(text(columns, "cuisinetype"));
+        request.setMealType(text(columns, "mealtype"));
+        request.setDifficultyLevel(text(columns, "difficultylevel"));
+        request.setPrepTime(integer(columns, "preptime"));
+        request.setCookTime(integer(columns, "cooktime"));
+        request.setServings(integer(columns, "servings"));
+        request.setCalories(integer(columns, "calories"));
+        request.setProtein(decimal(columns, "protein"));
+        request.setCarbs(decimal(columns, "carbs"));
+        request.setFat(decimal(columns, "fat"));
+        request.setFiber(decimal(columns, "fiber"));
+        request.setImageUrl(text(columns, "imageurl"));
+        request.setVideoUrl(text(columns, "videourl"));
+        request.setIsVegetarian(flag(columns, "isvegetarian"));
+        request.setIsVegan(flag(columns, "isvegan"));
+        request.setIsGlutenFree(flag(columns, "isglutenfree"));
+        request.setIsDairyFree(flag(columns, "isdairyfree"));
+        request.setIngredients(ingredients(text(columns, "ingredients")));
+        request.setInstructions(instructions(text(columns, "instructions")));
+        return request;
+    }
+
+    private static List<RecipeIngredientRequest> ingredients(String cell) {
+        List<RecipeIngredientRequest> ingredients = new ArrayList<>();
+        if (cell == null) {
+            return ingredients;
+        }
+        for (String line : cell.split("\\R")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split("\\|", -1);
+            RecipeIngredientRequest ingredient = new RecipeIngredientRequest();
+            ingredient.setIngredientName(parts[0].trim());
+            ingredient.setQuantity(parts.length > 1 ? toDecimal("ingredient quantity", parts[1]) : null);
+            ingredient.setUnit(parts.length > 2 ? blankToNull(parts[2]) : null);
+            ingredient.setNotes(parts.length > 3 ? blankToNull(parts[3]) : null);
+            ingredients.add(ingredient);
+        }
+        return ingredients;
+    }
+
+    private static List<InstructionRequest> instructions(String cell) {
+        List<InstructionRequest> instructions = new ArrayList<>();
+        if (cell == null) {
+            return instructions;
+        }
+        for (String line : cell.split("\\R")) {
+            if (!line.isBlank()) {
+                InstructionRequest instruction = new InstructionRequest();
+                instruction.setInstruction(line.trim());
+                instructions.add(instruction);
+            }
+        }
+        return instructions;
+    }
+
+    // Steps without a number take their position in the list
+    private static void numberSteps(List<InstructionRequest> instructions) {
+        if (instructions == null) {
+            return;
+        }
+        for (int i = 0; i < instructions.size(); i++) {
+            if (instructions.get(i) != null && instructions.get(i).getStepNumber() == null) {
+                instructions.get(i).setStepNumber(i + 1);
+            }
+        }
+    }
+
+    private static String text(Map<String, String> columns, String name) {
+        return blankToNull(columns.get(name));
+    }
+
+    private static Integer integer(Map<String, String> columns, String name) {
+        String value = text(columns, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static BigDecimal decimal(Map<String, String> columns, String name) {
+        return toDecimal(name, columns.get(name));
+    }
+
+    private static BigDecimal toDecimal(String name, String value) {
+        value = blankToNull(value);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static Boolean flag(Map<String, String> columns, String name) {
+        String value = text(columns, name);
+        if (value == null) {
+            return false;
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException(name + " is not a boolean: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
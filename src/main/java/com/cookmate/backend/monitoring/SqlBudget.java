@@ -0,0 +1,20 @@
+package com.cookmate.backend.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one request to the annotated endpoint may run, including
+ * authentication. On a controller class it applies to every endpoint without its own budget;
+ * endpoints without any fall back to {@code sql.budget.default-statements}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SqlBudget {
+
+    int statements();
+}
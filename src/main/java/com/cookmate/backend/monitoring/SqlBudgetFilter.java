@@ -0,0 +1,54 @@
+package com.cookmate.backend.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each request and hands them to SqlBudgetMonitor once the
+ * request is done. Runs outside the security filters so authentication queries are counted.
+ *
+ * The stats and the endpoint's budget are left on the request as attributes, so tests driving
+ * the application through MockMvc can assert the budget of any endpoint they call.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATS_ATTRIBUTE = RequestSqlStats.class.getName();
+    public static final String BUDGET_ATTRIBUTE = SqlBudget.class.getName();
+
+    private final SqlBudgetMonitor monitor;
+
+    public SqlBudgetFilter(SqlBudgetMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !monitor.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.end();
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            int budget = monitor.budgetFor(handler);
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+            request.setAttribute(BUDGET_ATTRIBUTE, budget);
+            // Unmapped requests (static files, 404s) are not tracked per endpoint
+            if (pattern != null) {
+                monitor.record(request.getMethod() + " " + pattern, stats, budget);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cookmate.backend.monitoring;
+
+import com.cookmate.backend.dto.SqlEndpointStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Checks each request's SQL statements against its endpoint's budget and keeps per-endpoint
+ * totals. A request over budget, or one that ran the same statement shape at least
+ * {@code sql.budget.repeated-statement-threshold} times (an N+1), is logged with the
+ * offending shape and counted against the endpoint.
+ */
+@Service
+public class SqlBudgetMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetMonitor.class);
+
+    @Value("${sql.budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sql.budget.default-statements:20}")
+    private int defaultStatements;
+
+    @Value("${sql.budget.repeated-statement-threshold:5}")
+    private int repeatedStatementThreshold;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getRepeatedStatementThreshold() {
+        return repeatedStatementThreshold;
+    }
+
+    /**
+     * The statement budget of the endpoint served by the handler: its own @SqlBudget, else
+     * its controller's, else the default.
+     */
+    public int budgetFor(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            SqlBudget budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), SqlBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SqlBudget.class);
+            }
+            if (budget != null) {
+                return budget.statements();
+            }
+        }
+        return defaultStatements;
+    }
+
+    public void record(String endpoint, RequestSqlStats stats, int budget) {
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatedStatementThreshold);
+        boolean overBudget = stats.getStatementCount() > budget;
+        endpoints.computeIfAbsent(endpoint, EndpointStats::new).add(stats, budget, overBudget, repeated);
+
+        if (overBudget || !repeated.isEmpty()) {
+            Map.Entry<String, Integer> worst = repeated.isEmpty() ? null : repeated.entrySet().iterator().next();
+            logger.warn("{} ran {} SQL statements (budget {}) in {} ms{}", endpoint, stats.getStatementCount(), budget,
+                    String.format("%.1f", stats.getDbTimeMs()),
+                    worst != null ? "; repeated " + worst.getValue() + "x: " + worst.getKey() : "");
+        }
+    }
+
+    public List<SqlEndpointStatus> getStatus() {
+        return endpoints.values().stream()
+                .map(EndpointStats::toStatus)
+                .sorted(Comparator.comparing(SqlEndpointStatus::getOverBudgetRequests)
+                        .thenComparing(SqlEndpointStatus::getRepeatedStatementRequests)
+                        .reversed()
+                        .thenComparing(SqlEndpointStatus::getEndpoint))
+                .collect(Collectors.toList());
+    }
+
+    private static final class EndpointStats {
+        private final String endpoint;
+        private int budget;
+        private long requests;
+        private long overBudgetRequests;
+        private long repeatedStatementRequests;
+        private int maxStatements;
+        private long totalStatements;
+        private double totalDbTimeMs;
+        private String lastRepeatedStatement;
+        private Integer lastRepeatedCount;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void add(RequestSqlStats stats, int budget, boolean overBudget, Map<String, Integer> repeated) {
+            this.budget = budget;
+            requests++;
+            if (overBudget) {
+                overBudgetRequests++;
+            }
+            if (!repeated.isEmpty()) {
+                repeatedStatementRequests++;
+                Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+                lastRepeatedStatement = worst.getKey();
+                lastRepeatedCount = worst.getValue();
+            }
+            maxStatements = Math.max(maxStatements, stats.getStatementCount());
+            totalStatements += stats.getStatementCount();
+            totalDbTimeMs += stats.getDbTimeMs();
+        }
+
+        synchronized SqlEndpointStatus toStatus() {
+            return new SqlEndpointStatus(
+                    endpoint,
+                    budget,
+                    requests,
+                    overBudgetRequests,
+                    repeatedStatementRequests,
+                    maxStatements,
+                    requests > 0 ? (double) totalStatements / requests : 0.0,
+                    requests > 0 ? totalDbTimeMs / requests : 0.0,
+                    lastRepeatedStatement,
+                    lastRepeatedCount);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -27,4 +29,14 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     void deleteByUser_IdAndRecipe_Id(Long userId, Long recipeId);
     
     Long countByRecipe_Id(Long recipeId);
+    
+    // (id, recipe id, createdAt) at or after since, in id order, for replaying trending scores
+    @Query("SELECT f.id, f.recipe.id, f.createdAt FROM Favorite f " +
+           "WHERE f.id > :afterId AND f.createdAt >= :since ORDER BY f.id")
+    List<Object[]> findHistoryAfter(@Param("afterId") Long afterId, @Param("since") LocalDateTime since,
+                                    Pageable pageable);
+    
+    // (id, user id, recipe id) in id order, for the item-to-item similarity graph
+    @Query("SELECT f.id, f.user.id, f.recipe.id FROM Favorite f WHERE f.id > :afterId ORDER BY f.id")
+    List<Object[]> findInteractionsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.cookmate.backend.repository;
 
 import com.cookmate.backend.entity.Ingredient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,13 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     List<Ingredient> searchByKeyword(@Param("keyword") String keyword);
 
     Boolean existsByNameIgnoreCase(String name);
+
+    // Ingredient names with the number of recipes using them, in ascending id order
+    @Query("SELECT i.id, i.name, (SELECT COUNT(ri) FROM RecipeIngredient ri WHERE ri.ingredient = i) " +
+           "FROM Ingredient i WHERE i.id > :afterId ORDER BY i.id")
+    List<Object[]> findCompletionFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i.id, i.name, (SELECT COUNT(ri) FROM RecipeIngredient ri WHERE ri.ingredient = i) " +
+           "FROM Ingredient i WHERE i.id IN :ids")
+    List<Object[]> findCompletionFieldsByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -2,8 +2,11 @@ package com.cookmate.backend.repository;
 
 import com.cookmate.backend.entity.Instruction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,10 @@ public interface InstructionRepository extends JpaRepository<Instruction, Long>
     List<Instruction> findByRecipe_IdOrderByStepNumberAsc(Long recipeId);
     
     void deleteByRecipe_Id(Long recipeId);
+    
+    // Instructions for a batch of recipes, in step order within each recipe
+    @Query("SELECT i FROM Instruction i " +
+           "WHERE i.recipe.id IN :recipeIds " +
+           "ORDER BY i.stepNumber, i.id")
+    List<Instruction> findByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
 }
\ No newline at end of file
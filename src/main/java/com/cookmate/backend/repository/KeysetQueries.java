@@ -0,0 +1,70 @@
+package com.cookmate.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared keyset page query for the recipe tables. The selected entity must be aliased "r"
+ * and expose the {@link RecipeSortKey} properties and "id".
+ */
+final class KeysetQueries {
+    
+    private KeysetQueries() {
+    }
+    
+    static <T> List<T> findPageAfter(EntityManager entityManager, Class<T> type, String select, String creatorPath,
+                                     RecipeSortKey sortKey, boolean ascending, Long createdById,
+                                     Object afterValue, Long afterId, int limit) {
+        String column = "r." + sortKey.getProperty();
+        String op = ascending ? ">" : "<";
+        String dir = ascending ? "ASC" : "DESC";
+        
+        List<String> conditions = new ArrayList<>();
+        if (createdById != null) {
+            conditions.add(creatorPath + " = :createdById");
+        }
+        if (afterId != null) {
+            conditions.add(seekCondition(column, op, ascending, afterValue == null));
+        }
+        
+        StringBuilder jpql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(dir)
+            .append(", r.id ").append(dir);
+        
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        if (createdById != null) {
+            query.setParameter("createdById", createdById);
+        }
+        if (afterId != null) {
+            if (afterValue != null) {
+                query.setParameter("afterValue", afterValue);
+            }
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+    
+    /**
+     * Rows after the cursor. NULLs sort lowest (MySQL and H2 alike): first when ascending,
+     * last when descending, and no comparison matches them, so they get their own branch.
+     * Each branch is a range on the (column, id) index.
+     */
+    private static String seekCondition(String column, String op, boolean ascending, boolean afterNull) {
+        String byId = "r.id " + op + " :afterId";
+        if (afterNull) {
+            // Past the NULL block ascending means every non-NULL value; descending nothing more
+            return ascending
+                    ? "((" + column + " IS NULL AND " + byId + ") OR " + column + " IS NOT NULL)"
+                    : "(" + column + " IS NULL AND " + byId + ")";
+        }
+        // Expanded row comparison so MySQL can turn it into a range on the (column, id) index
+        String seek = column + " " + op + " :afterValue OR (" + column + " = :afterValue AND " + byId + ")";
+        return ascending ? "(" + seek + ")" : "(" + seek + " OR " + column + " IS NULL)";
+    }
+}
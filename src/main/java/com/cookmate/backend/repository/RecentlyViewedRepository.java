@@ -4,8 +4,12 @@ import com.cookmate.backend.entity.RecentlyViewed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,22 @@ public interface RecentlyViewedRepository extends JpaRepository<RecentlyViewed,
     Optional<RecentlyViewed> findByUser_IdAndRecipe_Id(Long userId, Long recipeId);
     
     void deleteByUser_IdAndRecipe_Id(Long userId, Long recipeId);
+    
+    @Query("SELECT rv.recipe.id FROM RecentlyViewed rv WHERE rv.user.id = :userId ORDER BY rv.viewedAt DESC, rv.id DESC")
+    List<Long> findRecipeIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // (recipe id, viewedAt) newest first, for the recently-viewed list
+    @Query("SELECT r.id, rv.viewedAt FROM RecentlyViewed rv JOIN rv.recipe r WHERE rv.user.id = :userId " +
+           "ORDER BY rv.viewedAt DESC, rv.id DESC")
+    List<Object[]> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // (id, recipe id, viewedAt) at or after since, in id order, for replaying trending scores
+    @Query("SELECT rv.id, rv.recipe.id, rv.viewedAt FROM RecentlyViewed rv " +
+           "WHERE rv.id > :afterId AND rv.viewedAt >= :since ORDER BY rv.id")
+    List<Object[]> findHistoryAfter(@Param("afterId") Long afterId, @Param("since") LocalDateTime since,
+                                    Pageable pageable);
+    
+    // (id, user id, recipe id) in id order, for the item-to-item similarity graph
+    @Query("SELECT rv.id, rv.user.id, rv.recipe.id FROM RecentlyViewed rv WHERE rv.id > :afterId ORDER BY rv.id")
+    List<Object[]> findInteractionsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
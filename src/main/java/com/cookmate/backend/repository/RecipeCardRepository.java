@@ -0,0 +1,35 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.RecipeCard;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RecipeCardRepository extends JpaRepository<RecipeCard, Long>, RecipeCardRepositoryCustom {
+    
+    Page<RecipeCard> findByCreatedById(Long createdById, Pageable pageable);
+    
+    long countByCreatedById(Long createdById);
+    
+    // Cards whose recipe no longer exists, e.g. after rows were deleted outside the application
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RecipeCard c WHERE NOT EXISTS (SELECT r.id FROM Recipe r WHERE r.id = c.id)")
+    int deleteOrphans();
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RecipeCard c WHERE c.id = :recipeId")
+    int deleteByRecipeId(@Param("recipeId") Long recipeId);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE RecipeCard c SET c.createdByUsername = :username WHERE c.createdById = :userId")
+    int updateCreatorUsername(@Param("userId") Long userId, @Param("username") String username);
+}
@@ -0,0 +1,21 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.RecipeCard;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RecipeCardRepositoryCustom {
+    
+    /**
+     * Keyset page of recipe cards ordered by (sortKey, id), as {@link RecipeRepositoryCustom#findPageAfter}.
+     */
+    List<RecipeCard> findPageAfter(RecipeSortKey sortKey, boolean ascending, Long createdById,
+                                   Object afterValue, Long afterId, int limit);
+    
+    /**
+     * Copy the given recipes (with their creator's username) into recipe_cards, inserting or
+     * overwriting rows. Flushes first so pending entity changes in the current transaction are included.
+     */
+    int upsertFromRecipes(Collection<Long> recipeIds);
+}
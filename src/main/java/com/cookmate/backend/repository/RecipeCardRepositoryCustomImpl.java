@@ -0,0 +1,75 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.RecipeCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public class RecipeCardRepositoryCustomImpl implements RecipeCardRepositoryCustom {
+    
+    private static final String CARD_COLUMNS = "recipe_id, title, description, cuisine_type, meal_type, " +
+            "difficulty_level, prep_time, cook_time, total_time, servings, protein, carbs, fat, fiber, " +
+            "image_url, video_url, is_vegetarian, is_vegan, is_gluten_free, is_dairy_free, " +
+            "average_rating, total_reviews, view_count, created_at, created_by_id, created_by_username";
+    
+    private static final String FROM_RECIPES = "SELECT r.id, r.title, r.description, r.cuisine_type, r.meal_type, " +
+            "r.difficulty_level, r.prep_time, r.cook_time, r.total_time, r.servings, r.protein, r.carbs, r.fat, r.fiber, " +
+            "r.image_url, r.video_url, r.is_vegetarian, r.is_vegan, r.is_gluten_free, r.is_dairy_free, " +
+            "r.average_rating, r.total_reviews, r.view_count, r.created_at, r.created_by, u.username " +
+            "FROM recipes r LEFT JOIN users u ON u.id = r.created_by " +
+            "WHERE r.id IN (:recipeIds)";
+    
+    // MySQL has no MERGE and H2 has no ON DUPLICATE KEY UPDATE, so each gets its own upsert
+    private static final String MYSQL_UPSERT = "INSERT INTO recipe_cards (" + CARD_COLUMNS + ") " + FROM_RECIPES +
+            " ON DUPLICATE KEY UPDATE title = VALUES(title), description = VALUES(description), " +
+            "cuisine_type = VALUES(cuisine_type), meal_type = VALUES(meal_type), " +
+            "difficulty_level = VALUES(difficulty_level), prep_time = VALUES(prep_time), " +
+            "cook_time = VALUES(cook_time), total_time = VALUES(total_time), servings = VALUES(servings), " +
+            "protein = VALUES(protein), carbs = VALUES(carbs), fat = VALUES(fat), fiber = VALUES(fiber), " +
+            "image_url = VALUES(image_url), video_url = VALUES(video_url), " +
+            "is_vegetarian = VALUES(is_vegetarian), is_vegan = VALUES(is_vegan), " +
+            "is_gluten_free = VALUES(is_gluten_free), is_dairy_free = VALUES(is_dairy_free), " +
+            "average_rating = VALUES(average_rating), total_reviews = VALUES(total_reviews), " +
+            "view_count = VALUES(view_count), created_at = VALUES(created_at), " +
+            "created_by_id = VALUES(created_by_id), created_by_username = VALUES(created_by_username)";
+    
+    private static final String H2_UPSERT =
+            "MERGE INTO recipe_cards (" + CARD_COLUMNS + ") KEY (recipe_id) " + FROM_RECIPES;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile String upsert;
+    
+    @Override
+    public List<RecipeCard> findPageAfter(RecipeSortKey sortKey, boolean ascending, Long createdById,
+                                          Object afterValue, Long afterId, int limit) {
+        return KeysetQueries.findPageAfter(entityManager, RecipeCard.class,
+                "SELECT r FROM RecipeCard r", "r.createdById",
+                sortKey, ascending, createdById, afterValue, afterId, limit);
+    }
+    
+    @Override
+    @Transactional
+    public int upsertFromRecipes(Collection<Long> recipeIds) {
+        // Pending entity changes in the current transaction are included
+        entityManager.flush();
+        return entityManager.createNativeQuery(upsertStatement())
+                .setParameter("recipeIds", recipeIds)
+                .executeUpdate();
+    }
+    
+    private String upsertStatement() {
+        if (upsert == null) {
+            SessionFactoryImplementor sessionFactory =
+                    entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+            upsert = sessionFactory.getJdbcServices().getDialect() instanceof H2Dialect ? H2_UPSERT : MYSQL_UPSERT;
+        }
+        return upsert;
+    }
+}
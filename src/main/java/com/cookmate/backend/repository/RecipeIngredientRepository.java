@@ -2,8 +2,11 @@ package com.cookmate.backend.repository;
 
 import com.cookmate.backend.entity.RecipeIngredient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,23 @@ public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredie
     List<RecipeIngredient> findByRecipe_Id(Long recipeId);
     
     void deleteByRecipe_Id(Long recipeId);
+    
+    // (recipeId, ingredientName) pairs for a batch of recipes
+    @Query("SELECT ri.recipe.id, i.name FROM RecipeIngredient ri " +
+           "JOIN ri.ingredient i " +
+           "WHERE ri.recipe.id IN :recipeIds")
+    List<Object[]> findIngredientNamesByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
+    
+    // (recipeId, ingredientId, ingredientName) triples for a batch of recipes
+    @Query("SELECT ri.recipe.id, i.id, i.name FROM RecipeIngredient ri " +
+           "JOIN ri.ingredient i " +
+           "WHERE ri.recipe.id IN :recipeIds")
+    List<Object[]> findIngredientRefsByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
+    
+    // Ingredient rows with their ingredient for a batch of recipes, in insertion order
+    @Query("SELECT ri FROM RecipeIngredient ri " +
+           "JOIN FETCH ri.ingredient " +
+           "WHERE ri.recipe.id IN :recipeIds " +
+           "ORDER BY ri.id")
+    List<RecipeIngredient> findWithIngredientByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
 }
\ No newline at end of file
@@ -8,11 +8,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeRepositoryCustom {
     
     // Override findById to include JOIN FETCH for createdBy only
     @Query("SELECT r FROM Recipe r " +
@@ -26,15 +27,19 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            countQuery = "SELECT COUNT(r) FROM Recipe r")
     Page<Recipe> findAllWithDetails(Pageable pageable);
     
-    // Search by title or description
+    // Search by title or description, leaving out recipes sharing a bit with excludedMask
+    // (0 excludes nothing; otherwise recipes not yet classified are left out too)
     @Query(value = "SELECT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
-           "WHERE LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(r.description) LIKE LOWER(CONCAT('%', :keyword, '%'))",
+           "WHERE (LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(r.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)",
            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE " +
-           "LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(r.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Recipe> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+           "(LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(r.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)")
+    Page<Recipe> searchByKeyword(@Param("keyword") String keyword, @Param("excludedMask") int excludedMask,
+                                 Pageable pageable);
     
     // Filter by cuisine type
     @Query(value = "SELECT r FROM Recipe r " +
@@ -82,19 +87,22 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.isDairyFree = :isDairyFree")
     Page<Recipe> findByIsDairyFree(@Param("isDairyFree") Boolean isDairyFree, Pageable pageable);
     
-    // Search by ingredients
+    // Search by ingredients, leaving out recipes sharing a bit with excludedMask
     @Query(value = "SELECT DISTINCT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
            "JOIN r.recipeIngredients ri " +
            "JOIN ri.ingredient i " +
-           "WHERE LOWER(i.name) IN :ingredientNames",
+           "WHERE LOWER(i.name) IN :ingredientNames AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)",
            countQuery = "SELECT COUNT(DISTINCT r) FROM Recipe r " +
            "JOIN r.recipeIngredients ri " +
            "JOIN ri.ingredient i " +
-           "WHERE LOWER(i.name) IN :ingredientNames")
-    Page<Recipe> findByIngredients(@Param("ingredientNames") List<String> ingredientNames, Pageable pageable);
+           "WHERE LOWER(i.name) IN :ingredientNames AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)")
+    Page<Recipe> findByIngredients(@Param("ingredientNames") List<String> ingredientNames,
+                                   @Param("excludedMask") int excludedMask, Pageable pageable);
     
-    // Advanced search with multiple filters
+    // Advanced search with multiple filters, leaving out recipes sharing a bit with excludedMask
     @Query(value = "SELECT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
            "WHERE (:cuisineType IS NULL OR r.cuisineType = :cuisineType) AND " +
@@ -103,7 +111,9 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            "(:maxTime IS NULL OR r.totalTime <= :maxTime) AND " +
            "(:isVegetarian IS NULL OR r.isVegetarian = :isVegetarian) AND " +
            "(:isVegan IS NULL OR r.isVegan = :isVegan) AND " +
-           "(:isGlutenFree IS NULL OR r.isGlutenFree = :isGlutenFree)",
+           "(:isGlutenFree IS NULL OR r.isGlutenFree = :isGlutenFree) AND " +
+           "(:isDairyFree IS NULL OR r.isDairyFree = :isDairyFree) AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)",
            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE " +
            "(:cuisineType IS NULL OR r.cuisineType = :cuisineType) AND " +
            "(:mealType IS NULL OR r.mealType = :mealType) AND " +
@@ -111,7 +121,9 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            "(:maxTime IS NULL OR r.totalTime <= :maxTime) AND " +
            "(:isVegetarian IS NULL OR r.isVegetarian = :isVegetarian) AND " +
            "(:isVegan IS NULL OR r.isVegan = :isVegan) AND " +
-           "(:isGlutenFree IS NULL OR r.isGlutenFree = :isGlutenFree)")
+           "(:isGlutenFree IS NULL OR r.isGlutenFree = :isGlutenFree) AND " +
+           "(:isDairyFree IS NULL OR r.isDairyFree = :isDairyFree) AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)")
     Page<Recipe> findByFilters(
             @Param("cuisineType") String cuisineType,
             @Param("mealType") String mealType,
@@ -120,27 +132,61 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
             @Param("isVegetarian") Boolean isVegetarian,
             @Param("isVegan") Boolean isVegan,
             @Param("isGlutenFree") Boolean isGlutenFree,
+            @Param("isDairyFree") Boolean isDairyFree,
+            @Param("excludedMask") int excludedMask,
             Pageable pageable
     );
     
+    // Ids matching recommendation preferences, best rated first, without excludeIds (which must not
+    // be empty) and recipes sharing a bit with excludedMask
+    @Query("SELECT r.id FROM Recipe r WHERE " +
+           "(:cuisineType IS NULL OR LOWER(r.cuisineType) = LOWER(:cuisineType)) AND " +
+           "(:mealType IS NULL OR LOWER(r.mealType) = LOWER(:mealType)) AND " +
+           "(:isVegetarian IS NULL OR r.isVegetarian = :isVegetarian) AND " +
+           "(:isVegan IS NULL OR r.isVegan = :isVegan) AND " +
+           "(:isGlutenFree IS NULL OR r.isGlutenFree = :isGlutenFree) AND " +
+           "r.id NOT IN :excludeIds AND " +
+           "(cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0) " +
+           "ORDER BY r.averageRating DESC, r.viewCount DESC, r.id DESC")
+    List<Long> findIdsByPreferences(
+            @Param("cuisineType") String cuisineType,
+            @Param("mealType") String mealType,
+            @Param("isVegetarian") Boolean isVegetarian,
+            @Param("isVegan") Boolean isVegan,
+            @Param("isGlutenFree") Boolean isGlutenFree,
+            @Param("excludeIds") Collection<Long> excludeIds,
+            @Param("excludedMask") int excludedMask,
+            Pageable pageable
+    );
+    
+    // Best rated ids, in the order of findByOrderByAverageRatingDesc, whose stored mask shares no
+    // bit with excludedMask (recipes not yet classified are left out)
+    @Query("SELECT r.id FROM Recipe r WHERE (cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0) " +
+           "ORDER BY r.averageRating DESC, r.id DESC")
+    List<Long> findTopRatedIds(@Param("excludedMask") int excludedMask, Pageable pageable);
+    
+    // Those of the given ids whose stored mask shares no bit with excludedMask
+    @Query("SELECT r.id FROM Recipe r WHERE r.id IN :ids AND (cast(:excludedMask as Integer) = 0 OR bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0)")
+    List<Long> findIdsAllowedByMask(@Param("ids") Collection<Long> ids, @Param("excludedMask") int excludedMask);
+    
     // Top rated recipes
     @Query(value = "SELECT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
-           "ORDER BY r.averageRating DESC",
+           "ORDER BY r.averageRating DESC, r.id DESC",
            countQuery = "SELECT COUNT(r) FROM Recipe r")
     Page<Recipe> findByOrderByAverageRatingDesc(Pageable pageable);
     
     // Most viewed recipes
     @Query(value = "SELECT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
-           "ORDER BY r.viewCount DESC",
+           "ORDER BY r.viewCount DESC, r.id DESC",
            countQuery = "SELECT COUNT(r) FROM Recipe r")
     Page<Recipe> findByOrderByViewCountDesc(Pageable pageable);
     
     // Recent recipes
     @Query(value = "SELECT r FROM Recipe r " +
            "LEFT JOIN FETCH r.createdBy " +
-           "ORDER BY r.createdAt DESC",
+           "ORDER BY r.createdAt DESC, r.id DESC",
            countQuery = "SELECT COUNT(r) FROM Recipe r")
     Page<Recipe> findByOrderByCreatedAtDesc(Pageable pageable);
     
@@ -150,4 +196,76 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            "WHERE r.createdBy.id = :userId",
            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.createdBy.id = :userId")
     Page<Recipe> findByCreatedBy_Id(@Param("userId") Long userId, Pageable pageable);
+    
+    long countByCreatedBy_Id(Long userId);
+    
+    // Load a set of recipes with their creator, e.g. for ranked search hits
+    @Query("SELECT r FROM Recipe r " +
+           "LEFT JOIN FETCH r.createdBy " +
+           "WHERE r.id IN :ids")
+    List<Recipe> findAllByIdWithDetails(@Param("ids") Collection<Long> ids);
+    
+    // Searchable text fields for the in-memory search index, in id order for batched loading
+    @Query("SELECT r.id, r.title, r.description FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT r.id, r.title, r.description FROM Recipe r WHERE r.id = :id")
+    List<Object[]> findSearchFieldsById(@Param("id") Long id);
+    
+    // Filterable attributes (id, cuisineType, mealType, difficultyLevel, totalTime and the four
+    // dietary flags) in ascending id order, for loading the facet index
+    @Query("SELECT r.id, r.cuisineType, r.mealType, r.difficultyLevel, r.totalTime, " +
+           "r.isVegetarian, r.isVegan, r.isGlutenFree, r.isDairyFree " +
+           "FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findFacetFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT r.id, r.cuisineType, r.mealType, r.difficultyLevel, r.totalTime, " +
+           "r.isVegetarian, r.isVegan, r.isGlutenFree, r.isDairyFree " +
+           "FROM Recipe r WHERE r.id = :id")
+    List<Object[]> findFacetFieldsById(@Param("id") Long id);
+    
+    // Recipe ids in ascending order, for batched loading of in-memory indexes
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Those of the given ids whose recipe still exists
+    @Query("SELECT r.id FROM Recipe r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Title and ranking signals for the autocomplete index, in ascending id order
+    @Query("SELECT r.id, r.title, r.viewCount, r.averageRating FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findCompletionFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT r.id, r.title, r.viewCount, r.averageRating FROM Recipe r WHERE r.id = :id")
+    List<Object[]> findCompletionFieldsById(@Param("id") Long id);
+    
+    // Ranking and filtering signals for the recommendation feature store (id, averageRating,
+    // viewCount, totalReviews, createdAt, cuisineType, mealType and the four dietary flags),
+    // in ascending id order
+    @Query("SELECT r.id, r.averageRating, r.viewCount, r.totalReviews, r.createdAt, r.cuisineType, r.mealType, " +
+           "r.isVegetarian, r.isVegan, r.isGlutenFree, r.isDairyFree " +
+           "FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findFeatureFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT r.id, r.averageRating, r.viewCount, r.totalReviews, r.createdAt, r.cuisineType, r.mealType, " +
+           "r.isVegetarian, r.isVegan, r.isGlutenFree, r.isDairyFree " +
+           "FROM Recipe r WHERE r.id IN :ids")
+    List<Object[]> findFeatureFieldsByIds(@Param("ids") Collection<Long> ids);
+    
+    // Cuisine and meal types (id, cuisineType, mealType) of the given recipes
+    @Query("SELECT r.id, r.cuisineType, r.mealType FROM Recipe r WHERE r.id IN :ids")
+    List<Object[]> findCuisineAndMealTypesByIds(@Param("ids") Collection<Long> ids);
+    
+    // HTTP validators of a recipe detail: updatedAt, createdAt, averageRating, totalReviews and
+    // the creator's username, i.e. everything the detail shows that can change except views
+    @Query("SELECT r.updatedAt, r.createdAt, r.averageRating, r.totalReviews, u.username " +
+           "FROM Recipe r LEFT JOIN r.createdBy u WHERE r.id = :id")
+    List<Object[]> findVersionFieldsById(@Param("id") Long id);
+    
+    // HTTP validators of a recipe's review pages: updatedAt, createdAt, totalReviews and the
+    // latest review update
+    @Query("SELECT r.updatedAt, r.createdAt, r.totalReviews, " +
+           "(SELECT MAX(rv.updatedAt) FROM Review rv WHERE rv.recipe.id = r.id) " +
+           "FROM Recipe r WHERE r.id = :id")
+    List<Object[]> findReviewVersionFieldsById(@Param("id") Long id);
 }
\ No newline at end of file
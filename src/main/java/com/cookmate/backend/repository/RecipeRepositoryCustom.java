@@ -0,0 +1,22 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
+
+import java.util.List;
+
+public interface RecipeRepositoryCustom {
+    
+    /**
+     * Keyset page: recipes ordered by (sortKey, id) strictly after the given position.
+     * Pass a null afterId for the first page and a null createdById for all creators.
+     */
+    List<Recipe> findPageAfter(RecipeSortKey sortKey, boolean ascending, Long createdById,
+                               Object afterValue, Long afterId, int limit);
+    
+    /**
+     * Ids of the best rated recipes passing a feature store filter, ties broken by views then
+     * id, both descending, as the store ranks them.
+     */
+    List<Long> findTopRatedIdsMatching(Filter filter, int limit);
+}
@@ -0,0 +1,93 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.search.RecipeFeatureStore;
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Recipe> findPageAfter(RecipeSortKey sortKey, boolean ascending, Long createdById,
+                                      Object afterValue, Long afterId, int limit) {
+        return KeysetQueries.findPageAfter(entityManager, Recipe.class,
+                "SELECT r FROM Recipe r LEFT JOIN FETCH r.createdBy", "r.createdBy.id",
+                sortKey, ascending, createdById, afterValue, afterId, limit);
+    }
+    
+    @Override
+    public List<Long> findTopRatedIdsMatching(Filter filter, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        List<String> conditions = new ArrayList<>();
+        String cuisine = typeCondition("r.cuisineType", "cuisineTypes", filter.getCuisineTypes(), params);
+        String meal = typeCondition("r.mealType", "mealTypes", filter.getMealTypes(), params);
+        if (cuisine != null && meal != null && filter.isEither()) {
+            conditions.add("(" + cuisine + " OR " + meal + ")");
+        } else {
+            if (cuisine != null) {
+                conditions.add(cuisine);
+            }
+            if (meal != null) {
+                conditions.add(meal);
+            }
+        }
+        flagCondition("r.isVegetarian", filter.getFlag(RecipeFeatureStore.VEGETARIAN), conditions);
+        flagCondition("r.isVegan", filter.getFlag(RecipeFeatureStore.VEGAN), conditions);
+        flagCondition("r.isGlutenFree", filter.getFlag(RecipeFeatureStore.GLUTEN_FREE), conditions);
+        flagCondition("r.isDairyFree", filter.getFlag(RecipeFeatureStore.DAIRY_FREE), conditions);
+        List<Long> excluded = filter.getExcluded();
+        if (!excluded.isEmpty()) {
+            conditions.add("r.id NOT IN :excluded");
+            params.put("excluded", excluded);
+        }
+        int mask = filter.getAllergens().getMask();
+        if (mask != 0) {
+            // Unclassified recipes (NULL mask) are left out, as while the masks load
+            conditions.add("bitand(r.allergenMask, cast(:excludedMask as Integer)) = 0");
+            params.put("excludedMask", mask);
+        }
+        
+        StringBuilder jpql = new StringBuilder("SELECT r.id FROM Recipe r");
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        // NULL rating and views rank as zero, like in the store
+        jpql.append(" ORDER BY COALESCE(r.averageRating, 0) DESC, COALESCE(r.viewCount, 0) DESC, r.id DESC");
+        
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+    
+    // Null means any value; an empty set matches nothing, like the store
+    private static String typeCondition(String column, String name, Set<String> values, Map<String, Object> params) {
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return "1 = 0";
+        }
+        params.put(name, values);
+        return "LOWER(TRIM(" + column + ")) IN :" + name;
+    }
+    
+    private static void flagCondition(String column, Boolean value, List<String> conditions) {
+        if (value != null) {
+            conditions.add(column + " = " + value);
+        }
+    }
+}
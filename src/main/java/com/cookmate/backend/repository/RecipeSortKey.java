@@ -0,0 +1,68 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeCard;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Recipe columns that support keyset (cursor) pagination. Each one is backed by a
+ * composite (column, id) index declared on {@link Recipe} and on {@link RecipeCard}.
+ * The columns are nullable; a NULL sort value is written to cursors as an empty string.
+ */
+public enum RecipeSortKey {
+    
+    AVERAGE_RATING("averageRating", Recipe::getAverageRating, RecipeCard::getAverageRating, BigDecimal::new),
+    VIEW_COUNT("viewCount", Recipe::getViewCount, RecipeCard::getViewCount, Integer::valueOf),
+    CREATED_AT("createdAt", Recipe::getCreatedAt, RecipeCard::getCreatedAt, LocalDateTime::parse);
+    
+    private final String property;
+    private final Function<Recipe, Object> getter;
+    private final Function<RecipeCard, Object> cardGetter;
+    private final Function<String, Object> parser;
+    
+    RecipeSortKey(String property, Function<Recipe, Object> getter, Function<RecipeCard, Object> cardGetter,
+                  Function<String, Object> parser) {
+        this.property = property;
+        this.getter = getter;
+        this.cardGetter = cardGetter;
+        this.parser = parser;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    /**
+     * Sort key for an entity property name as used in sortBy, or null if keyset paging is not supported for it.
+     */
+    public static RecipeSortKey fromProperty(String property) {
+        for (RecipeSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        return null;
+    }
+    
+    public Object valueOf(Recipe recipe) {
+        return getter.apply(recipe);
+    }
+    
+    public Object valueOf(RecipeCard card) {
+        return cardGetter.apply(card);
+    }
+    
+    public String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+    
+    public Object parse(String value) {
+        return value.isEmpty() ? null : parser.apply(value);
+    }
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -35,4 +37,10 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Double calculateAverageRating(@Param("recipeId") Long recipeId);
     
     Long countByRecipe_Id(Long recipeId);
+    
+    // (id, recipe id, createdAt) at or after since, in id order, for replaying trending scores
+    @Query("SELECT r.id, r.recipe.id, r.createdAt FROM Review r " +
+           "WHERE r.id > :afterId AND r.createdAt >= :since ORDER BY r.id")
+    List<Object[]> findHistoryAfter(@Param("afterId") Long afterId, @Param("since") LocalDateTime since,
+                                    Pageable pageable);
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package com.cookmate.backend.repository;
 
 import com.cookmate.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +24,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
     
     Optional<User> findByProviderAndProviderId(User.AuthProvider provider, String providerId);
+    
+    // (id, username) pairs, e.g. for the creators of a batch of recipes
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+    List<Object[]> findUsernamesByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.cookmate.backend.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A user's exclusion mask over the recipe masks: a recipe is excluded when its mask shares a
+ * bit with the user's. Scans test each candidate with excludes, bitmap indexes subtract
+ * excludedRecipes. NONE excludes nothing and costs nothing.
+ *
+ * A pending exclusion stands in while the recipe masks are not loaded: it fails closed and
+ * excludes every recipe, so callers that can filter by the stored allergen_mask instead check
+ * isResolved and do that.
+ */
+public final class AllergenExclusion {
+
+    public static final AllergenExclusion NONE = new AllergenExclusion(null, 0);
+
+    private static final RoaringBitmap NO_RECIPES = new RoaringBitmap();
+
+    private static final RoaringBitmap ALL_RECIPES = RoaringBitmap.bitmapOfRange(0, 0x100000000L);
+
+    private final RecipeAllergenMasks masks;
+    private final int mask;
+
+    AllergenExclusion(RecipeAllergenMasks masks, int mask) {
+        this.masks = masks;
+        this.mask = mask;
+    }
+
+    /**
+     * The exclusion of this mask before the recipe masks are known.
+     */
+    public static AllergenExclusion pending(int mask) {
+        return mask == 0 ? NONE : new AllergenExclusion(null, mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /**
+     * Whether excludes and excludedRecipes know the recipe masks; false while pending.
+     */
+    public boolean isResolved() {
+        return mask == 0 || masks != null;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean excludes(long recipeId) {
+        return mask != 0 && (masks == null || (masks.get(recipeId) & mask) != 0);
+    }
+
+    /**
+     * Ids of every excluded recipe. Shared: callers must not modify it.
+     */
+    public RoaringBitmap excludedRecipes() {
+        if (mask == 0) {
+            return NO_RECIPES;
+        }
+        return masks != null ? masks.withAny(mask) : ALL_RECIPES;
+    }
+
+    /**
+     * The ids that are not excluded, in order, up to limit.
+     */
+    public List<Long> retain(Collection<Long> recipeIds, int limit) {
+        List<Long> kept = new ArrayList<>(Math.min(recipeIds.size(), limit));
+        for (Long recipeId : recipeIds) {
+            if (kept.size() == limit) {
+                break;
+            }
+            if (recipeId != null && !excludes(recipeId)) {
+                kept.add(recipeId);
+            }
+        }
+        return kept;
+    }
+}
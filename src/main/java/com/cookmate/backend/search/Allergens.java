@@ -0,0 +1,227 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Allergen and diet bits of a recipe, derived from its ingredient names, and the compilation of
+ * a user's food allergies and dietary restrictions into the bits they rule out. A recipe is
+ * excluded for a user when the two masks share a bit.
+ *
+ * Names are matched word by word against keyword phrases per bit ("egg" matches "2 large eggs"
+ * but not "eggplant"), and a rule does not fire on names carrying one of its exceptions
+ * ("peanut butter" is no dairy, "oyster mushroom" no shellfish). The lists err towards
+ * flagging: a missed allergen costs more than a recipe hidden by mistake.
+ */
+public final class Allergens {
+
+    public static final int PEANUTS = 1;
+    public static final int TREE_NUTS = 1 << 1;
+    public static final int DAIRY = 1 << 2;
+    public static final int EGG = 1 << 3;
+    public static final int GLUTEN = 1 << 4;
+    public static final int SOY = 1 << 5;
+    public static final int FISH = 1 << 6;
+    public static final int SHELLFISH = 1 << 7;
+    public static final int SESAME = 1 << 8;
+    // Beef, poultry, game and gelatin; pork has its own bit for halal and kosher diets
+    public static final int MEAT = 1 << 9;
+    public static final int PORK = 1 << 10;
+    public static final int ALCOHOL = 1 << 11;
+    public static final int HONEY = 1 << 12;
+
+    private static final String[] NAMES = {"peanuts", "tree nuts", "dairy", "egg", "gluten", "soy", "fish",
+            "shellfish", "sesame", "meat", "pork", "alcohol", "honey"};
+
+    private static final int VEGETARIAN = MEAT | PORK | FISH | SHELLFISH;
+
+    private static final List<Rule> RULES = List.of(
+            new Rule(PEANUTS, List.of("peanut", "groundnut", "arachis"), List.of()),
+            new Rule(TREE_NUTS, List.of("nut", "almond", "walnut", "cashew", "pecan", "pistachio", "hazelnut",
+                    "macadamia", "brazil nut", "pine nut", "praline", "marzipan", "frangipane", "nutella", "pesto"),
+                    List.of("nut free")),
+            new Rule(DAIRY, List.of("dairy", "milk", "buttermilk", "cheese", "butter", "cream", "yogurt", "yoghurt",
+                    "ghee", "whey", "casein", "lactose", "kefir", "custard", "parmesan", "mozzarella", "cheddar",
+                    "ricotta", "feta", "mascarpone", "brie", "gouda", "gruyere", "pecorino", "halloumi", "paneer",
+                    "creme fraiche"),
+                    List.of("dairy free", "non dairy", "coconut milk", "coconut cream", "almond milk", "oat milk",
+                            "soy milk", "rice milk", "cashew milk", "peanut butter", "almond butter", "cashew butter",
+                            "nut butter", "cocoa butter", "apple butter", "butter bean", "cream of tartar",
+                            "vegan cheese", "vegan butter")),
+            new Rule(EGG, List.of("egg", "mayonnaise", "mayo", "meringue", "aioli", "albumen"),
+                    List.of("egg free", "vegan mayo", "egg replacer")),
+            new Rule(GLUTEN, List.of("gluten", "wheat", "flour", "bread", "breadcrumb", "bread crumb", "panko",
+                    "pasta", "spaghetti", "macaroni", "penne", "fettuccine", "linguine", "lasagna", "lasagne", "orzo",
+                    "gnocchi", "noodle", "couscous", "bulgur", "semolina", "barley", "rye", "spelt", "farro",
+                    "seitan", "malt", "cracker", "crouton", "soy sauce", "beer"),
+                    List.of("gluten free", "rice flour", "almond flour", "coconut flour", "chickpea flour",
+                            "tapioca flour", "potato flour", "corn flour", "rice noodle", "glass noodle")),
+            new Rule(SOY, List.of("soy", "soya", "soybean", "tofu", "tempeh", "edamame", "miso", "tamari",
+                    "bean curd"),
+                    List.of("soy free")),
+            new Rule(FISH, List.of("fish", "salmon", "tuna", "cod", "anchovy", "anchovies", "sardine", "trout",
+                    "tilapia", "halibut", "mackerel", "haddock", "snapper", "bass", "catfish", "swordfish", "herring",
+                    "pollock", "worcestershire"),
+                    List.of("fish free")),
+            new Rule(SHELLFISH, List.of("shellfish", "shrimp", "prawn", "crab", "lobster", "scallop", "mussel",
+                    "clam", "oyster", "crawfish", "crayfish", "langoustine", "squid", "calamari", "octopus"),
+                    List.of("oyster mushroom", "shellfish free")),
+            new Rule(SESAME, List.of("sesame", "tahini"), List.of()),
+            new Rule(MEAT, List.of("meat", "beef", "steak", "veal", "chicken", "turkey", "duck", "goose", "lamb",
+                    "mutton", "goat", "venison", "rabbit", "bison", "quail", "sausage", "gelatin", "gelatine",
+                    "bone broth"),
+                    List.of("meat free", "meatless", "vegan", "vegetarian", "plant based")),
+            new Rule(PORK, List.of("pork", "bacon", "ham", "prosciutto", "pancetta", "guanciale", "chorizo",
+                    "salami", "pepperoni", "lard"),
+                    List.of("turkey bacon", "vegan", "vegetarian")),
+            new Rule(ALCOHOL, List.of("alcohol", "wine", "beer", "rum", "vodka", "brandy", "whiskey", "whisky",
+                    "bourbon", "sake", "mirin", "sherry", "liqueur", "cognac", "tequila", "gin", "champagne",
+                    "prosecco", "vermouth", "kirsch", "amaretto", "marsala"),
+                    List.of("wine vinegar", "non alcoholic", "alcohol free")),
+            new Rule(HONEY, List.of("honey"), List.of()));
+
+    // Allergy and diet names whose bits are not those of the same word as an ingredient
+    private static final Map<String, Integer> TERMS = new HashMap<>();
+
+    static {
+        TERMS.put("nut", PEANUTS | TREE_NUTS);
+        TERMS.put("nuts", PEANUTS | TREE_NUTS);
+        TERMS.put("milk", DAIRY);
+        TERMS.put("lactose", DAIRY);
+        TERMS.put("celiac", GLUTEN);
+        TERMS.put("coeliac", GLUTEN);
+        TERMS.put("crustacean", SHELLFISH);
+        TERMS.put("crustaceans", SHELLFISH);
+        TERMS.put("mollusc", SHELLFISH);
+        TERMS.put("seafood", FISH | SHELLFISH);
+        TERMS.put("vegetarian", VEGETARIAN);
+        TERMS.put("vegan", VEGETARIAN | DAIRY | EGG | HONEY);
+        TERMS.put("plant based", VEGETARIAN | DAIRY | EGG | HONEY);
+        TERMS.put("pescatarian", MEAT | PORK);
+        TERMS.put("pescetarian", MEAT | PORK);
+        TERMS.put("halal", PORK | ALCOHOL);
+        TERMS.put("kosher", PORK | SHELLFISH);
+    }
+
+    private Allergens() {
+    }
+
+    /**
+     * The bits of a recipe with these ingredients.
+     */
+    public static int classify(Collection<String> ingredientNames) {
+        int mask = 0;
+        for (String name : ingredientNames) {
+            mask |= classify(name);
+        }
+        return mask;
+    }
+
+    /**
+     * The bits of one ingredient name, 0 if it matches no rule.
+     */
+    public static int classify(String ingredientName) {
+        String text = normalize(ingredientName);
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        for (Rule rule : RULES) {
+            if ((mask & rule.bit) == 0 && rule.matches(text)) {
+                mask |= rule.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The bits a user rules out: foodAllergies is free text listing allergens ("peanuts, dairy;
+     * shellfish"), restrictions are diet names ("Vegetarian", "Gluten-Free", "Halal"). Unknown
+     * terms are read as ingredient names, so "almonds" excludes tree nuts; diets that are not
+     * about ingredients, such as "Keto", exclude nothing.
+     */
+    public static int exclusionsOf(String foodAllergies, Collection<String> restrictions) {
+        int mask = 0;
+        if (foodAllergies != null) {
+            for (String term : foodAllergies.split("(?i)[,;/\\n&]|\\band\\b")) {
+                mask |= termBits(term);
+            }
+        }
+        if (restrictions != null) {
+            for (String restriction : restrictions) {
+                mask |= termBits(restriction);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Names of the bits set in mask, for display and logs.
+     */
+    public static List<String> names(int mask) {
+        List<String> names = new ArrayList<>();
+        for (int bit = 0; bit < NAMES.length; bit++) {
+            if ((mask & (1 << bit)) != 0) {
+                names.add(NAMES[bit]);
+            }
+        }
+        return names;
+    }
+
+    private static int termBits(String term) {
+        String text = normalize(term).trim()
+                .replaceFirst("^(no|non|avoid|allergic to|allergy to) ", "")
+                .replaceFirst(" (free|allergy|allergies|intolerance|intolerant|sensitivity)$", "")
+                .trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        Integer bits = TERMS.get(text);
+        return bits != null ? bits : classify(text);
+    }
+
+    // Lower-case words separated by single spaces, padded with one space each side
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String words = text.toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", " ").trim();
+        return words.isEmpty() ? "" : " " + words + " ";
+    }
+
+    private static final class Rule {
+        private final int bit;
+        private final List<String> keywords;
+        private final List<String> exceptions;
+
+        Rule(int bit, List<String> keywords, List<String> exceptions) {
+            this.bit = bit;
+            this.keywords = keywords;
+            this.exceptions = exceptions;
+        }
+
+        boolean matches(String text) {
+            for (String exception : exceptions) {
+                if (containsPhrase(text, exception)) {
+                    return false;
+                }
+            }
+            for (String keyword : keywords) {
+                if (containsPhrase(text, keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // The phrase as whole words, its last word optionally in a plural form
+        private static boolean containsPhrase(String text, String phrase) {
+            return text.contains(" " + phrase + " ") || text.contains(" " + phrase + "s ")
+                    || text.contains(" " + phrase + "es ");
+        }
+    }
+}
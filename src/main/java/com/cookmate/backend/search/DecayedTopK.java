@@ -0,0 +1,168 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exponentially time-decayed scores per recipe with the best capacity of them kept ranked.
+ *
+ * A score halves every half-life. Rather than decaying every score as time passes, each event
+ * is stored scaled up by 2^((t - origin) / halfLife): all stored scores then shrink by the same
+ * factor over time, so their order only changes when an event arrives, and an event only
+ * raises one score. The ranked set therefore stays exact with one update per event, and a read
+ * of the top k walks k entries of a concurrent skip list without locking. When the scale
+ * factor grows large the origin moves forward and every stored score is rescaled.
+ *
+ * Writes are serialized; removing a ranked recipe rescans all scores for its replacement.
+ */
+public class DecayedTopK {
+
+    // Rebase after this many half-lives, long before 2^x leaves double range
+    private static final double REBASE_HALF_LIVES = 64;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<Long, Double> scores = new HashMap<>();
+    private volatile ConcurrentSkipListSet<Ranked> ranked = new ConcurrentSkipListSet<>();
+    private final int capacity;
+    private final double halfLifeSeconds;
+    private volatile long originEpochSecond;
+
+    public DecayedTopK(int capacity, double halfLifeSeconds, long originEpochSecond) {
+        if (capacity <= 0 || halfLifeSeconds <= 0) {
+            throw new IllegalArgumentException("capacity and half-life must be positive");
+        }
+        this.capacity = capacity;
+        this.halfLifeSeconds = halfLifeSeconds;
+        this.originEpochSecond = originEpochSecond;
+    }
+
+    /**
+     * Add weight to a recipe's score as of atEpochSecond. Weights must not be negative.
+     */
+    public void add(long recipeId, double weight, long atEpochSecond) {
+        if (weight <= 0) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if ((atEpochSecond - originEpochSecond) / halfLifeSeconds > REBASE_HALF_LIVES) {
+                rebase(atEpochSecond);
+            }
+            double scaled = weight * Math.pow(2, (atEpochSecond - originEpochSecond) / halfLifeSeconds);
+            Double old = scores.get(recipeId);
+            double updated = (old != null ? old : 0.0) + scaled;
+            scores.put(recipeId, updated);
+
+            if (old != null && ranked.remove(new Ranked(old, recipeId))) {
+                ranked.add(new Ranked(updated, recipeId));
+            } else if (ranked.size() < capacity) {
+                ranked.add(new Ranked(updated, recipeId));
+            } else if (ranked.last().compareTo(new Ranked(updated, recipeId)) > 0) {
+                ranked.add(new Ranked(updated, recipeId));
+                ranked.pollLast();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        writeLock.lock();
+        try {
+            Double old = scores.remove(recipeId);
+            if (old == null || !ranked.remove(new Ranked(old, recipeId))) {
+                return;
+            }
+            // Promote the best recipe not ranked yet
+            Ranked best = null;
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Ranked candidate = new Ranked(entry.getValue(), entry.getKey());
+                if ((best == null || candidate.compareTo(best) < 0) && !ranked.contains(candidate)) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                ranked.add(best);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ids of the k highest scores, best first; at most capacity of them.
+     */
+    public List<Long> top(int k) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(k, capacity)));
+        Iterator<Ranked> iterator = ranked.iterator();
+        while (ids.size() < k && iterator.hasNext()) {
+            ids.add(iterator.next().recipeId);
+        }
+        return ids;
+    }
+
+    /**
+     * A recipe's score decayed to nowEpochSecond, 0 if it has none.
+     */
+    public double score(long recipeId, long nowEpochSecond) {
+        writeLock.lock();
+        try {
+            Double stored = scores.get(recipeId);
+            return stored != null ? stored * Math.pow(2, (originEpochSecond - nowEpochSecond) / halfLifeSeconds) : 0.0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        writeLock.lock();
+        try {
+            return scores.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getOriginEpochSecond() {
+        return originEpochSecond;
+    }
+
+    // Scaling every score by the same factor keeps their order; readers keep the old ranking
+    // until the rescaled one is swapped in
+    private void rebase(long newOriginEpochSecond) {
+        double factor = Math.pow(2, (originEpochSecond - newOriginEpochSecond) / halfLifeSeconds);
+        scores.replaceAll((id, stored) -> stored * factor);
+        ConcurrentSkipListSet<Ranked> rescaled = new ConcurrentSkipListSet<>();
+        for (Ranked entry : ranked) {
+            rescaled.add(new Ranked(scores.get(entry.recipeId), entry.recipeId));
+        }
+        ranked = rescaled;
+        originEpochSecond = newOriginEpochSecond;
+    }
+
+    // Highest score first, then highest id
+    private static final class Ranked implements Comparable<Ranked> {
+        private final double score;
+        private final long recipeId;
+
+        Ranked(double score, long recipeId) {
+            this.score = score;
+            this.recipeId = recipeId;
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(other.recipeId, recipeId);
+        }
+    }
+}
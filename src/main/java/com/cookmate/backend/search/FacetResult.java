@@ -0,0 +1,36 @@
+package com.cookmate.backend.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of filtered recipe ids, the total match count and per-facet value counts.
+ */
+public class FacetResult {
+
+    private final List<Long> recipeIds;
+    private final long totalHits;
+    private final Map<String, Map<String, Long>> facets;
+
+    public FacetResult(List<Long> recipeIds, long totalHits, Map<String, Map<String, Long>> facets) {
+        this.recipeIds = recipeIds;
+        this.totalHits = totalHits;
+        this.facets = facets;
+    }
+
+    public List<Long> getRecipeIds() {
+        return recipeIds;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Facet name to (value to count). Each facet is counted with every other active filter applied
+     * but not its own, so the UI can show how many results switching that facet would give.
+     */
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,196 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Spelling correction against a vocabulary, using symmetric deletes (SymSpell): every word is
+ * registered under all strings reachable by deleting up to {@link #MAX_EDIT_DISTANCE} characters
+ * from its first {@link #PREFIX_LENGTH} characters. A lookup generates the same deletes for the
+ * input, so candidates come from a few hash probes instead of a scan, and each candidate is then
+ * verified with a bounded Damerau-Levenshtein distance (adjacent transpositions count as one edit).
+ *
+ * The allowed distance grows with word length so short words are never "corrected" into other
+ * short words: none up to 4 characters, one edit up to 8, two beyond.
+ *
+ * Not thread-safe; the owning index guards it with its own lock.
+ */
+public class FuzzyMatcher {
+
+    static final int MAX_EDIT_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+
+    private final Map<String, Integer> words = new HashMap<>();
+    private final Map<String, List<String>> wordsByDelete = new HashMap<>();
+
+    /**
+     * Add a word; adding the same word again only increments its reference count.
+     */
+    public void add(String word) {
+        if (word == null || word.isEmpty() || words.merge(word, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (String delete : deletes(word)) {
+            wordsByDelete.computeIfAbsent(delete, k -> new ArrayList<>(1)).add(word);
+        }
+    }
+
+    /**
+     * Release one reference to a word; it leaves the vocabulary when none remain.
+     */
+    public void remove(String word) {
+        Integer count = words.get(word);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            words.put(word, count - 1);
+            return;
+        }
+        words.remove(word);
+        for (String delete : deletes(word)) {
+            List<String> bucket = wordsByDelete.get(delete);
+            if (bucket != null) {
+                bucket.remove(word);
+                if (bucket.isEmpty()) {
+                    wordsByDelete.remove(delete);
+                }
+            }
+        }
+    }
+
+    public boolean contains(String word) {
+        return words.containsKey(word);
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * The closest vocabulary word to the input, or null if the input is itself in the vocabulary
+     * or nothing is within the allowed distance. Ties on distance go to the most popular word,
+     * then to the alphabetically first.
+     */
+    public String correct(String input, ToIntFunction<String> popularity) {
+        if (input == null || words.containsKey(input)) {
+            return null;
+        }
+        List<String> candidates = lookup(input);
+        String best = null;
+        int bestPopularity = Integer.MIN_VALUE;
+        for (String candidate : candidates) {
+            int p = popularity.applyAsInt(candidate);
+            if (p > bestPopularity || (p == bestPopularity && candidate.compareTo(best) < 0)) {
+                best = candidate;
+                bestPopularity = p;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * All vocabulary words at the smallest edit distance from the input that is within the
+     * allowed distance for its length; empty if there are none.
+     */
+    public List<String> lookup(String input) {
+        int maxDistance = maxDistanceFor(input.length());
+        List<String> best = new ArrayList<>();
+        if (maxDistance == 0) {
+            return best;
+        }
+        int bestDistance = maxDistance + 1;
+        Set<String> seen = new HashSet<>();
+        for (String delete : deletes(input)) {
+            List<String> bucket = wordsByDelete.get(delete);
+            if (bucket == null) {
+                continue;
+            }
+            for (String candidate : bucket) {
+                if (!seen.add(candidate) || Math.abs(candidate.length() - input.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = distance(input, candidate, Math.min(maxDistance, bestDistance));
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best.clear();
+                    best.add(candidate);
+                } else if (distance == bestDistance) {
+                    best.add(candidate);
+                }
+            }
+        }
+        return best;
+    }
+
+    static int maxDistanceFor(int length) {
+        if (length <= 4) {
+            return 0;
+        }
+        return length <= 8 ? 1 : MAX_EDIT_DISTANCE;
+    }
+
+    // The word's prefix with 0..MAX_EDIT_DISTANCE characters deleted, including the prefix itself
+    private static Set<String> deletes(String word) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> deletes = new HashSet<>();
+        deletes.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for (int d = 0; d < MAX_EDIT_DISTANCE; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : frontier) {
+                for (int i = 0; i < s.length(); i++) {
+                    String deleted = s.substring(0, i) + s.substring(i + 1);
+                    if (deletes.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return deletes;
+    }
+
+    /**
+     * Optimal string alignment distance, or max + 1 as soon as it is known to exceed max.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], max + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.cookmate.backend.search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of recipes ranked by how much of their ingredient list the user already has,
+ * plus any misspelled ingredient names that were matched under a corrected name.
+ */
+public class IngredientMatchResult {
+
+    private static final IngredientMatchResult EMPTY = new IngredientMatchResult(Collections.emptyList(), 0);
+
+    private final List<Match> matches;
+    private final long totalHits;
+    private final Map<String, String> corrections;
+
+    public IngredientMatchResult(List<Match> matches, long totalHits) {
+        this(matches, totalHits, Collections.emptyMap());
+    }
+
+    public IngredientMatchResult(List<Match> matches, long totalHits, Map<String, String> corrections) {
+        this.matches = matches;
+        this.totalHits = totalHits;
+        this.corrections = corrections;
+    }
+
+    public static IngredientMatchResult empty() {
+        return EMPTY;
+    }
+
+    public List<Match> getMatches() {
+        return matches;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Requested name to the ingredient name it was matched as, for names that were misspelled.
+     */
+    public Map<String, String> getCorrections() {
+        return corrections;
+    }
+
+    public static class Match {
+
+        private final long recipeId;
+        private final int matchedCount;
+        private final int totalCount;
+        private final List<String> missingIngredients;
+
+        public Match(long recipeId, int matchedCount, int totalCount, List<String> missingIngredients) {
+            this.recipeId = recipeId;
+            this.matchedCount = matchedCount;
+            this.totalCount = totalCount;
+            this.missingIngredients = missingIngredients;
+        }
+
+        public long getRecipeId() {
+            return recipeId;
+        }
+
+        public int getMatchedCount() {
+            return matchedCount;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public List<String> getMissingIngredients() {
+            return missingIngredients;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.cookmate.backend.search;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory "what can I cook" index: every ingredient id maps to a compressed bitmap of the
+ * recipe ids that use it, and every recipe keeps its sorted ingredient ids for coverage scoring.
+ *
+ * Recipe ids are stored as ints in the bitmaps, which holds for any realistic catalog
+ * (ids are AUTO_INCREMENT BIGINT but stay far below 2^31).
+ *
+ * Ingredient names that are not known exactly are spell-corrected against the known names
+ * ("tomatos" -> "tomato"), preferring the ingredient used by the most recipes.
+ */
+public class IngredientRecipeIndex {
+
+    private static final long[] NO_INGREDIENTS = new long[0];
+
+    // Best coverage first, then more matched ingredients, then newer recipes
+    private static final Comparator<Candidate> RANKING = (a, b) -> {
+        int cmp = Long.compare((long) a.matched * b.total, (long) b.matched * a.total);
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Integer.compare(a.matched, b.matched);
+        return cmp != 0 ? cmp : Integer.compare(a.recipeId, b.recipeId);
+    };
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, RoaringBitmap> recipesByIngredient = new HashMap<>();
+    private final Map<Integer, long[]> ingredientsByRecipe = new HashMap<>();
+    private final Map<String, Long> ingredientIdByName = new HashMap<>();
+    private final Map<Long, String> ingredientNameById = new HashMap<>();
+    private final FuzzyMatcher vocabulary = new FuzzyMatcher();
+
+    public static String normalizeName(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Replace the ingredient set of a recipe. An empty map removes the recipe from the index.
+     */
+    public void setRecipeIngredients(long recipeId, Map<Long, String> ingredients) {
+        int id = Math.toIntExact(recipeId);
+        long[] ingredientIds = ingredients.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            for (Map.Entry<Long, String> e : ingredients.entrySet()) {
+                ingredientNameById.put(e.getKey(), e.getValue());
+                String normalized = normalizeName(e.getValue());
+                if (ingredientIdByName.put(normalized, e.getKey()) == null) {
+                    vocabulary.add(normalized);
+                }
+                recipesByIngredient.computeIfAbsent(e.getKey(), k -> new RoaringBitmap()).add(id);
+            }
+            if (ingredientIds.length > 0) {
+                ingredientsByRecipe.put(id, ingredientIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRecipe(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int recipeCount() {
+        lock.readLock().lock();
+        try {
+            return ingredientsByRecipe.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes containing at least one of the given ingredients, ranked by coverage
+     * (matched / total ingredients). Misspelled names are corrected and the corrections
+     * reported; names with no close match are ignored.
+     */
+    public IngredientMatchResult match(Collection<String> ingredientNames, int offset, int limit) {
+        return match(ingredientNames, AllergenExclusion.NONE, offset, limit);
+    }
+
+    /**
+     * As match, without the recipes the exclusion rules out.
+     */
+    public IngredientMatchResult match(Collection<String> ingredientNames, AllergenExclusion exclusion,
+                                       int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Long> wanted = new HashSet<>();
+            List<RoaringBitmap> bitmaps = new ArrayList<>();
+            Map<String, String> corrections = new LinkedHashMap<>();
+            for (String name : ingredientNames) {
+                String normalized = normalizeName(name);
+                Long ingredientId = resolveInternal(normalized);
+                if (ingredientId != null && !ingredientIdByName.containsKey(normalized)) {
+                    corrections.put(name, ingredientNameById.get(ingredientId));
+                }
+                if (ingredientId != null && wanted.add(ingredientId)) {
+                    RoaringBitmap recipes = recipesByIngredient.get(ingredientId);
+                    if (recipes != null) {
+                        bitmaps.add(recipes);
+                    }
+                }
+            }
+            if (bitmaps.isEmpty() || limit <= 0) {
+                return corrections.isEmpty() ? IngredientMatchResult.empty()
+                        : new IngredientMatchResult(List.of(), 0, corrections);
+            }
+
+            RoaringBitmap candidates = FastAggregation.or(bitmaps.iterator());
+            if (!exclusion.isEmpty()) {
+                candidates.andNot(exclusion.excludedRecipes());
+            }
+            int hits = candidates.getCardinality();
+            int keep = Math.min(offset + limit, hits);
+            if (offset >= keep) {
+                return new IngredientMatchResult(List.of(), hits, corrections);
+            }
+
+            PriorityQueue<Candidate> heap = new PriorityQueue<>(keep + 1, RANKING);
+            IntIterator it = candidates.getIntIterator();
+            while (it.hasNext()) {
+                int recipeId = it.next();
+                long[] ingredients = ingredientsByRecipe.getOrDefault(recipeId, NO_INGREDIENTS);
+                int matched = 0;
+                for (long ingredientId : ingredients) {
+                    if (wanted.contains(ingredientId)) {
+                        matched++;
+                    }
+                }
+                Candidate candidate = new Candidate(recipeId, matched, Math.max(1, ingredients.length));
+                if (heap.size() < keep) {
+                    heap.add(candidate);
+                } else if (RANKING.compare(candidate, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+
+            Candidate[] ranked = new Candidate[heap.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = heap.poll();
+            }
+            List<IngredientMatchResult.Match> page = new ArrayList<>(ranked.length - offset);
+            for (Candidate c : Arrays.asList(ranked).subList(offset, ranked.length)) {
+                List<String> missing = new ArrayList<>();
+                for (long ingredientId : ingredientsByRecipe.getOrDefault(c.recipeId, NO_INGREDIENTS)) {
+                    if (!wanted.contains(ingredientId)) {
+                        missing.add(ingredientNameById.get(ingredientId));
+                    }
+                }
+                page.add(new IngredientMatchResult.Match(c.recipeId, c.matched, c.total, missing));
+            }
+            return new IngredientMatchResult(page, hits, corrections);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Long resolveInternal(String normalized) {
+        Long ingredientId = ingredientIdByName.get(normalized);
+        if (ingredientId != null) {
+            return ingredientId;
+        }
+        String correction = vocabulary.correct(normalized, this::usage);
+        return correction != null ? ingredientIdByName.get(correction) : null;
+    }
+
+    private int usage(String normalizedName) {
+        RoaringBitmap recipes = recipesByIngredient.get(ingredientIdByName.get(normalizedName));
+        return recipes != null ? recipes.getCardinality() : 0;
+    }
+
+    private void removeInternal(int recipeId) {
+        long[] previous = ingredientsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (long ingredientId : previous) {
+            RoaringBitmap recipes = recipesByIngredient.get(ingredientId);
+            if (recipes != null) {
+                recipes.remove(recipeId);
+                if (recipes.isEmpty()) {
+                    recipesByIngredient.remove(ingredientId);
+                }
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final int recipeId;
+        final int matched;
+        final int total;
+
+        Candidate(int recipeId, int matched, int total) {
+            this.recipeId = recipeId;
+            this.matched = matched;
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.cookmate.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Which users interacted with which recipes (favorited or viewed), as a binary user x recipe
+ * matrix kept in both directions: the recipes of each user and the users of each recipe.
+ * Users and recipes are numbered densely through LongIntHashMaps, and both adjacency lists
+ * are int arrays, so a million interactions take under 20 MB, growth slack included.
+ *
+ * Each user counts at most maxItemsPerUser recipes, the first ones added, which keeps the
+ * co-occurrence work of a few very active accounts bounded. Not thread-safe.
+ */
+public final class InteractionGraph {
+
+    private final int maxItemsPerUser;
+    private final LongIntHashMap userIndex = new LongIntHashMap();
+    private final LongIntHashMap itemIndex = new LongIntHashMap();
+
+    long[] itemIds = new long[256];
+    int[][] itemUsers = new int[256][];
+    int[] itemUserCounts = new int[256];
+    int[][] userItems = new int[256][];
+    int[] userItemCounts = new int[256];
+    int items;
+    private int users;
+    private long interactions;
+
+    public InteractionGraph(int maxItemsPerUser) {
+        this.maxItemsPerUser = maxItemsPerUser;
+    }
+
+    /**
+     * Record that a user interacted with a recipe.
+     *
+     * @return false if already recorded or the user is at maxItemsPerUser
+     */
+    public boolean add(long userId, long recipeId) {
+        int user = userIndex.get(userId);
+        if (user < 0) {
+            user = users++;
+            if (user == userItems.length) {
+                userItems = Arrays.copyOf(userItems, user * 2);
+                userItemCounts = Arrays.copyOf(userItemCounts, user * 2);
+            }
+            userItems[user] = new int[4];
+            userIndex.put(userId, user);
+        }
+        int count = userItemCounts[user];
+        if (count >= maxItemsPerUser) {
+            return false;
+        }
+        int[] mine = userItems[user];
+        int item = itemIndex.get(recipeId);
+        if (item >= 0) {
+            for (int i = 0; i < count; i++) {
+                if (mine[i] == item) {
+                    return false;
+                }
+            }
+        } else {
+            item = items++;
+            if (item == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, item * 2);
+                itemUsers = Arrays.copyOf(itemUsers, item * 2);
+                itemUserCounts = Arrays.copyOf(itemUserCounts, item * 2);
+            }
+            itemIds[item] = recipeId;
+            itemUsers[item] = new int[4];
+            itemIndex.put(recipeId, item);
+        }
+        userItems[user] = append(mine, count, item);
+        userItemCounts[user]++;
+        itemUsers[item] = append(itemUsers[item], itemUserCounts[item], user);
+        itemUserCounts[item]++;
+        interactions++;
+        return true;
+    }
+
+    /**
+     * Recipe ids the user interacted with.
+     */
+    public long[] recipesOf(long userId) {
+        int user = userIndex.get(userId);
+        if (user < 0) {
+            return new long[0];
+        }
+        long[] recipeIds = new long[userItemCounts[user]];
+        for (int i = 0; i < recipeIds.length; i++) {
+            recipeIds[i] = itemIds[userItems[user][i]];
+        }
+        return recipeIds;
+    }
+
+    // Dense index of a recipe, -1 if it has no interactions
+    int itemOf(long recipeId) {
+        return itemIndex.get(recipeId);
+    }
+
+    public int recipeCount() {
+        return items;
+    }
+
+    public int userCount() {
+        return users;
+    }
+
+    public long interactionCount() {
+        return interactions;
+    }
+
+    // Bytes held by the index maps and adjacency arrays, array headers included
+    public long memoryBytes() {
+        long bytes = userIndex.memoryBytes() + itemIndex.memoryBytes();
+        bytes += itemIds.length * 8L + itemUserCounts.length * 4L + userItemCounts.length * 4L;
+        bytes += (itemUsers.length + userItems.length) * 4L;
+        for (int i = 0; i < items; i++) {
+            bytes += 16 + itemUsers[i].length * 4L;
+        }
+        for (int u = 0; u < users; u++) {
+            bytes += 16 + userItems[u].length * 4L;
+        }
+        return bytes;
+    }
+
+    private static int[] append(int[] values, int count, int value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count] = value;
+        return values;
+    }
+}
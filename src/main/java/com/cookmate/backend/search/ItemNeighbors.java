@@ -0,0 +1,397 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable top-M similar recipes per recipe ("users who liked this also liked"), computed
+ * from the co-occurrence of recipes across the users of an InteractionGraph.
+ *
+ * The co-occurrence matrix is never materialized: row i is accumulated by walking the users
+ * of recipe i and their recipes into a dense counter array, scored, cut to the top M and
+ * cleared, so memory stays at one counter array per worker. Rows are computed in parallel
+ * with fork-join. Similarity is cosine, c / sqrt(n_i * n_j), or Jaccard, c / (n_i + n_j - c),
+ * where c counts the users of both recipes and n the users of each; pairs with fewer than
+ * minCoOccurrence common users are skipped as noise.
+ */
+public final class ItemNeighbors {
+
+    public enum Measure { COSINE, JACCARD }
+
+    // Recipes per fork-join leaf; each leaf allocates its own counter arrays
+    private static final int MIN_LEAF_SIZE = 64;
+
+    private static final ItemNeighbors EMPTY = new ItemNeighbors(new LongIntHashMap(), new long[0], new long[0][],
+            new float[0][], 0);
+
+    private final LongIntHashMap rows;
+    private final long[] recipeIds;
+    private final long[][] neighborIds;
+    private final float[][] scores;
+    private final int size;
+
+    private ItemNeighbors(LongIntHashMap rows, long[] recipeIds, long[][] neighborIds, float[][] scores, int size) {
+        this.rows = rows;
+        this.recipeIds = recipeIds;
+        this.neighborIds = neighborIds;
+        this.scores = scores;
+        this.size = size;
+    }
+
+    public static ItemNeighbors empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Neighbours of every recipe in the graph.
+     */
+    public static ItemNeighbors compute(InteractionGraph graph, Settings settings, ForkJoinPool pool) {
+        int[] items = new int[graph.items];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i;
+        }
+        Builder builder = new Builder(items.length);
+        computeRows(graph, items, settings, pool, builder);
+        return builder.build();
+    }
+
+    /**
+     * A copy with the rows of the given recipes recomputed from the graph; recipes without
+     * neighbours any more lose their row.
+     */
+    public ItemNeighbors recompute(InteractionGraph graph, Collection<Long> recipeIds, Settings settings,
+                                   ForkJoinPool pool) {
+        List<Integer> found = new ArrayList<>();
+        LongIntHashMap replaced = new LongIntHashMap(recipeIds.size());
+        for (Long recipeId : recipeIds) {
+            if (recipeId != null && replaced.get(recipeId) < 0) {
+                replaced.put(recipeId, 0);
+                int item = graph.itemOf(recipeId);
+                if (item >= 0) {
+                    found.add(item);
+                }
+            }
+        }
+        Builder builder = new Builder(size + found.size());
+        for (int row = 0; row < size; row++) {
+            if (replaced.get(this.recipeIds[row]) < 0) {
+                builder.add(this.recipeIds[row], neighborIds[row], scores[row]);
+            }
+        }
+        computeRows(graph, found.stream().mapToInt(Integer::intValue).toArray(), settings, pool, builder);
+        return builder.build();
+    }
+
+    /**
+     * Neighbour ids of a recipe, most similar first; empty if it has none.
+     */
+    public long[] neighbors(long recipeId) {
+        int row = rows.get(recipeId);
+        return row >= 0 ? neighborIds[row].clone() : new long[0];
+    }
+
+    /**
+     * Similarity scores aligned with neighbors(recipeId).
+     */
+    public float[] scores(long recipeId) {
+        int row = rows.get(recipeId);
+        return row >= 0 ? scores[row].clone() : new float[0];
+    }
+
+    /**
+     * Recipes most similar to any of the seeds, by summed similarity, skipping the excluded.
+     */
+    public List<Long> similarToAll(Collection<Long> seedIds, Collection<Long> excludeIds, int limit) {
+        Map<Long, Double> summed = new HashMap<>();
+        for (Long seedId : seedIds) {
+            int row = seedId != null ? rows.get(seedId) : -1;
+            if (row < 0) {
+                continue;
+            }
+            for (int i = 0; i < neighborIds[row].length; i++) {
+                summed.merge(neighborIds[row][i], (double) scores[row][i], Double::sum);
+            }
+        }
+        excludeIds.forEach(summed::remove);
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(summed.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    public void forEach(RowConsumer consumer) {
+        for (int row = 0; row < size; row++) {
+            consumer.accept(recipeIds[row], neighborIds[row], scores[row]);
+        }
+    }
+
+    // Recipes with at least one neighbour
+    public int size() {
+        return size;
+    }
+
+    public long entryCount() {
+        long entries = 0;
+        for (int row = 0; row < size; row++) {
+            entries += neighborIds[row].length;
+        }
+        return entries;
+    }
+
+    // Bytes held by the table: the row map, the row arrays and 12 bytes per neighbour
+    public long memoryBytes() {
+        long bytes = rows.memoryBytes() + recipeIds.length * 8L + (neighborIds.length + scores.length) * 4L;
+        for (int row = 0; row < size; row++) {
+            bytes += 32 + neighborIds[row].length * 12L;
+        }
+        return bytes;
+    }
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long recipeId, long[] neighborIds, float[] scores);
+    }
+
+    /**
+     * How rows are computed: neighbours kept per recipe, the measure and the minimum number
+     * of users two recipes need in common.
+     */
+    public static final class Settings {
+        private final int neighbors;
+        private final Measure measure;
+        private final int minCoOccurrence;
+
+        public Settings(int neighbors, Measure measure, int minCoOccurrence) {
+            this.neighbors = neighbors;
+            this.measure = measure;
+            this.minCoOccurrence = Math.max(1, minCoOccurrence);
+        }
+    }
+
+    /**
+     * Collects rows, e.g. read back from the database, in any order.
+     */
+    public static final class Builder {
+        private final LongIntHashMap rows;
+        private long[] recipeIds;
+        private long[][] neighborIds;
+        private float[][] scores;
+        private int size;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            rows = new LongIntHashMap(capacity);
+            recipeIds = new long[capacity];
+            neighborIds = new long[capacity][];
+            scores = new float[capacity][];
+        }
+
+        // Rows without neighbours are skipped; a recipe added twice keeps its last row
+        public synchronized Builder add(long recipeId, long[] neighbors, float[] neighborScores) {
+            if (neighbors.length == 0) {
+                return this;
+            }
+            int row = rows.get(recipeId);
+            if (row < 0) {
+                row = size++;
+                if (row == recipeIds.length) {
+                    recipeIds = Arrays.copyOf(recipeIds, row * 2);
+                    neighborIds = Arrays.copyOf(neighborIds, row * 2);
+                    scores = Arrays.copyOf(scores, row * 2);
+                }
+                rows.put(recipeId, row);
+                recipeIds[row] = recipeId;
+            }
+            neighborIds[row] = neighbors;
+            scores[row] = neighborScores;
+            return this;
+        }
+
+        public ItemNeighbors build() {
+            return new ItemNeighbors(rows, recipeIds, neighborIds, scores, size);
+        }
+    }
+
+    private static void computeRows(InteractionGraph graph, int[] items, Settings settings, ForkJoinPool pool,
+                                    Builder builder) {
+        if (items.length == 0) {
+            return;
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, items.length / (pool.getParallelism() * 8));
+        pool.invoke(new RowTask(graph, items, 0, items.length, leafSize, settings, builder));
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private final InteractionGraph graph;
+        private final int[] items;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final Settings settings;
+        private final Builder builder;
+
+        RowTask(InteractionGraph graph, int[] items, int from, int to, int leafSize, Settings settings,
+                Builder builder) {
+            this.graph = graph;
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.settings = settings;
+            this.builder = builder;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(graph, items, from, middle, leafSize, settings, builder),
+                        new RowTask(graph, items, middle, to, leafSize, settings, builder));
+                return;
+            }
+            int[] counts = new int[graph.items];
+            int[] touched = new int[graph.items];
+            TopNeighbors top = new TopNeighbors(settings.neighbors);
+            for (int k = from; k < to; k++) {
+                int item = items[k];
+                int touchedCount = accumulate(item, counts, touched);
+                top.clear();
+                double ownUsers = graph.itemUserCounts[item];
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    int common = counts[other];
+                    counts[other] = 0;
+                    if (common >= settings.minCoOccurrence) {
+                        double otherUsers = graph.itemUserCounts[other];
+                        double score = settings.measure == Measure.JACCARD
+                                ? common / (ownUsers + otherUsers - common)
+                                : common / Math.sqrt(ownUsers * otherUsers);
+                        top.offer(graph.itemIds[other], score);
+                    }
+                }
+                builder.add(graph.itemIds[item], top.ids(), top.scores());
+            }
+        }
+
+        // Row item of the co-occurrence matrix into counts; returns how many entries it touched
+        private int accumulate(int item, int[] counts, int[] touched) {
+            int touchedCount = 0;
+            int[] users = graph.itemUsers[item];
+            for (int u = 0; u < graph.itemUserCounts[item]; u++) {
+                int user = users[u];
+                int[] userItems = graph.userItems[user];
+                for (int j = 0; j < graph.userItemCounts[user]; j++) {
+                    int other = userItems[j];
+                    if (other != item && counts[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            return touchedCount;
+        }
+    }
+
+    // Bounded min-heap of (score, id), worst first; ties rank the higher id first
+    private static final class TopNeighbors {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        TopNeighbors(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                up(size++);
+            } else if (ids.length > 0 && better(id, score, ids[0], scores[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                down(0);
+            }
+        }
+
+        long[] ids() {
+            sortDescending();
+            return Arrays.copyOf(ids, size);
+        }
+
+        float[] scores() {
+            float[] result = new float[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = (float) scores[i];
+            }
+            return result;
+        }
+
+        // Heap sort in place, leaving the best first; scores() then reads the same order
+        private void sortDescending() {
+            int n = size;
+            while (size > 1) {
+                swap(0, --size);
+                down(0);
+            }
+            size = n;
+        }
+
+        private static boolean better(long idA, double scoreA, long idB, double scoreB) {
+            return scoreA != scoreB ? scoreA > scoreB : idA > idB;
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(ids[parent], scores[parent], ids[i], scores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(ids[worst], scores[worst], ids[left], scores[left])) {
+                    worst = left;
+                }
+                if (right < size && better(ids[worst], scores[worst], ids[right], scores[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
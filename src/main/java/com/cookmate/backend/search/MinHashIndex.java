@@ -0,0 +1,312 @@
+package com.cookmate.backend.search;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory "similar recipes" index over ingredient sets, with MinHash locality-sensitive
+ * hashing so a lookup compares a recipe with a few candidates instead of the whole catalog.
+ *
+ * Each recipe's ingredient set gets a signature of bands x rowsPerBand MinHash values, and
+ * each band of the signature is hashed into a bucket; recipes sharing any bucket are
+ * candidates. Two sets with Jaccard similarity s share a given band with probability s^rows,
+ * so candidates are likely above (1/bands)^(1/rows) and unlikely well below it. Candidates
+ * are then ranked by weighted Jaccard similarity, where each ingredient weighs
+ * ln(1 + recipes / recipes using it): sharing saffron says more than sharing salt.
+ *
+ * Buckets holding more than maxBucketSize recipes are skipped at lookup: they come from
+ * bands of staples (salt, oil, garlic), would make most of the candidates, and rank low.
+ *
+ * Recipe ids are stored as ints in the bucket bitmaps, as in IngredientRecipeIndex.
+ */
+public class MinHashIndex {
+
+    private static final long[] NO_INGREDIENTS = new long[0];
+
+    // Most similar first, then newer recipes
+    private static final Comparator<Scored> RANKING = (a, b) -> {
+        int cmp = Double.compare(a.score, b.score);
+        return cmp != 0 ? cmp : Integer.compare(a.recipeId, b.recipeId);
+    };
+
+    private final int bands;
+    private final int rowsPerBand;
+    private final int maxBucketSize;
+    private final long[] hashSeeds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, long[]> ingredientsByRecipe = new HashMap<>();
+    private final Map<Integer, long[]> bucketKeysByRecipe = new HashMap<>();
+    private final List<Map<Long, RoaringBitmap>> buckets = new ArrayList<>();
+    private final Map<Long, Integer> recipesByIngredient = new HashMap<>();
+
+    public MinHashIndex(int bands, int rowsPerBand, int maxBucketSize) {
+        if (bands <= 0 || rowsPerBand <= 0) {
+            throw new IllegalArgumentException("Bands and rows per band must be positive");
+        }
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.maxBucketSize = maxBucketSize;
+        // Fixed seeds: signatures only need to agree within one index
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        hashSeeds = new long[bands * rowsPerBand];
+        for (int i = 0; i < hashSeeds.length; i++) {
+            hashSeeds[i] = random.nextLong();
+        }
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Replace the ingredient set of a recipe. An empty set removes the recipe from the index.
+     */
+    public void setRecipeIngredients(long recipeId, Collection<Long> ingredientIds) {
+        int id = Math.toIntExact(recipeId);
+        long[] ingredients = ingredientIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        long[] bucketKeys = ingredients.length > 0 ? bucketKeys(ingredients) : null;
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (bucketKeys == null) {
+                return;
+            }
+            ingredientsByRecipe.put(id, ingredients);
+            bucketKeysByRecipe.put(id, bucketKeys);
+            for (long ingredientId : ingredients) {
+                recipesByIngredient.merge(ingredientId, 1, Integer::sum);
+            }
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).computeIfAbsent(bucketKeys[band], k -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRecipe(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long recipeId) {
+        lock.readLock().lock();
+        try {
+            return ingredientsByRecipe.containsKey(Math.toIntExact(recipeId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int recipeCount() {
+        lock.readLock().lock();
+        try {
+            return ingredientsByRecipe.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the recipes most similar to this one by weighted Jaccard similarity, best first,
+     * among those sharing an LSH bucket with it. Empty if the recipe is not indexed.
+     */
+    public List<Long> similar(long recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            int id = Math.toIntExact(recipeId);
+            long[] ingredients = ingredientsByRecipe.get(id);
+            if (ingredients == null || limit <= 0) {
+                return List.of();
+            }
+            return rank(id, ingredients, candidatesInternal(id).getIntIterator(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The same ranking as similar over every indexed recipe, for measuring recall.
+     */
+    public List<Long> similarExact(long recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            int id = Math.toIntExact(recipeId);
+            long[] ingredients = ingredientsByRecipe.get(id);
+            if (ingredients == null || limit <= 0) {
+                return List.of();
+            }
+            RoaringBitmap all = new RoaringBitmap();
+            ingredientsByRecipe.keySet().forEach(all::add);
+            all.remove(id);
+            return rank(id, ingredients, all.getIntIterator(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Recipes sharing a bucket with this one, itself excluded
+    int candidateCount(long recipeId) {
+        lock.readLock().lock();
+        try {
+            return candidatesInternal(Math.toIntExact(recipeId)).getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Weighted Jaccard similarity of two recipes' ingredient sets, 0 if either is not indexed.
+     */
+    public double similarity(long recipeIdA, long recipeIdB) {
+        lock.readLock().lock();
+        try {
+            long[] a = ingredientsByRecipe.get(Math.toIntExact(recipeIdA));
+            long[] b = ingredientsByRecipe.get(Math.toIntExact(recipeIdB));
+            return a != null && b != null ? weightedJaccard(a, b) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap candidatesInternal(int recipeId) {
+        long[] bucketKeys = bucketKeysByRecipe.get(recipeId);
+        if (bucketKeys == null) {
+            return new RoaringBitmap();
+        }
+        List<RoaringBitmap> shared = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            RoaringBitmap bucket = buckets.get(band).get(bucketKeys[band]);
+            if (bucket != null && bucket.getCardinality() > 1 && bucket.getCardinality() <= maxBucketSize) {
+                shared.add(bucket);
+            }
+        }
+        RoaringBitmap candidates = shared.isEmpty() ? new RoaringBitmap() : FastAggregation.or(shared.iterator());
+        candidates.remove(recipeId);
+        return candidates;
+    }
+
+    private List<Long> rank(int recipeId, long[] ingredients, IntIterator candidates, int limit) {
+        PriorityQueue<Scored> heap = new PriorityQueue<>(limit + 1, RANKING);
+        while (candidates.hasNext()) {
+            int candidate = candidates.next();
+            double score = weightedJaccard(ingredients,
+                    ingredientsByRecipe.getOrDefault(candidate, NO_INGREDIENTS));
+            if (score <= 0) {
+                continue;
+            }
+            Scored scored = new Scored(candidate, score);
+            if (heap.size() < limit) {
+                heap.add(scored);
+            } else if (RANKING.compare(scored, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+        Long[] ranked = new Long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = (long) heap.poll().recipeId;
+        }
+        return List.of(ranked);
+    }
+
+    // Both arrays sorted; shared ingredient weight over the weight of either's ingredients
+    private double weightedJaccard(long[] a, long[] b) {
+        double shared = 0;
+        double union = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                union += weight(a[i++]);
+            } else if (i == a.length || b[j] < a[i]) {
+                union += weight(b[j++]);
+            } else {
+                double w = weight(a[i]);
+                shared += w;
+                union += w;
+                i++;
+                j++;
+            }
+        }
+        return union > 0 ? shared / union : 0;
+    }
+
+    private double weight(long ingredientId) {
+        int recipes = recipesByIngredient.getOrDefault(ingredientId, 1);
+        return Math.log1p((double) ingredientsByRecipe.size() / recipes);
+    }
+
+    // One key per band: the band's MinHash values hashed together with the band number
+    private long[] bucketKeys(long[] ingredients) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rowsPerBand; row++) {
+                long seed = hashSeeds[band * rowsPerBand + row];
+                long min = Long.MAX_VALUE;
+                for (long ingredientId : ingredients) {
+                    min = Math.min(min, mix(ingredientId ^ seed));
+                }
+                key = mix(key * 31 + min);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private void removeInternal(int recipeId) {
+        long[] previous = ingredientsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (long ingredientId : previous) {
+            recipesByIngredient.computeIfPresent(ingredientId, (k, count) -> count > 1 ? count - 1 : null);
+        }
+        long[] bucketKeys = bucketKeysByRecipe.remove(recipeId);
+        for (int band = 0; band < bands; band++) {
+            Map<Long, RoaringBitmap> bandBuckets = buckets.get(band);
+            RoaringBitmap bucket = bandBuckets.get(bucketKeys[band]);
+            if (bucket != null) {
+                bucket.remove(recipeId);
+                if (bucket.isEmpty()) {
+                    bandBuckets.remove(bucketKeys[band]);
+                }
+            }
+        }
+    }
+
+    // SplitMix64 finalizer: a cheap hash with good avalanche, one per MinHash seed
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Scored {
+        final int recipeId;
+        final double score;
+
+        Scored(int recipeId, double score) {
+            this.recipeId = recipeId;
+            this.score = score;
+        }
+    }
+}
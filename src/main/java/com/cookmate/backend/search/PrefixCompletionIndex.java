@@ -0,0 +1,456 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted prefix completion over short texts such as recipe titles and ingredient names.
+ * A text matches when the query is a prefix of the whole text or of any word in it
+ * ("carb" completes "Spaghetti Carbonara").
+ *
+ * The bulk of the entries live in an immutable base: one sorted array of (text, word offset)
+ * pairs packed into longs, plus a max-weight segment tree over it, so a query is two binary
+ * searches and then O(log n) per returned completion, whatever the prefix length. Memory is
+ * one normalized string per text and one long and two ints per indexed word.
+ *
+ * Writes after the base was built go to a small sorted delta that queries merge in; texts
+ * replaced or removed since the build are masked in the base. Callers rebuild the base
+ * (see {@link #needsCompaction()}) to fold the delta in and refresh weights.
+ */
+public class PrefixCompletionIndex {
+
+    // Only the first words of a text and the first characters of each word suffix are indexed
+    static final int MAX_WORDS_PER_TEXT = 8;
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private static final int DEFAULT_MAX_DELTA = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxDelta;
+
+    private Base base = Base.EMPTY;
+    private final Set<Long> maskedInBase = new HashSet<>();
+    private final NavigableMap<String, Doc> delta = new TreeMap<>();
+    private final Map<Long, Doc> deltaDocs = new HashMap<>();
+
+    public PrefixCompletionIndex() {
+        this(DEFAULT_MAX_DELTA);
+    }
+
+    public PrefixCompletionIndex(int maxDelta) {
+        this.maxDelta = maxDelta;
+    }
+
+    /**
+     * Replace the whole index with the given texts, e.g. at startup or on a periodic rebuild.
+     */
+    public static PrefixCompletionIndex build(List<Completion> texts, int maxDelta) {
+        PrefixCompletionIndex index = new PrefixCompletionIndex(maxDelta);
+        index.base = Base.build(texts);
+        return index;
+    }
+
+    /**
+     * Add or replace the text of an id.
+     */
+    public void put(long id, String text, double weight) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            Doc doc = new Doc(id, text, normalized, weight);
+            deltaDocs.put(id, doc);
+            for (int offset : wordOffsets(normalized)) {
+                delta.put(normalized.substring(offset) + '\u0000' + id, doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether enough writes accumulated outside the base that it should be rebuilt.
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return delta.size() > maxDelta || maskedInBase.size() > maxDelta;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int masked = 0;
+            for (Long id : maskedInBase) {
+                if (base.contains(id)) {
+                    masked++;
+                }
+            }
+            return base.docIds.length - masked + deltaDocs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit completions of the prefix, highest weight first, one per id.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String normalized = normalizeQuery(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Completion> hits = new HashMap<>();
+
+            // Delta first: its entries win over masked base entries
+            Doc[] best = new Doc[limit];
+            int found = 0;
+            for (Doc doc : delta.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+                if (found == limit && !outranks(doc, best[found - 1])) {
+                    continue;
+                }
+                if (indexOf(best, found, doc) >= 0) {
+                    continue;
+                }
+                int at = found < limit ? found++ : found - 1;
+                while (at > 0 && outranks(doc, best[at - 1])) {
+                    best[at] = best[at - 1];
+                    at--;
+                }
+                best[at] = doc;
+            }
+            for (int i = 0; i < found; i++) {
+                hits.put(best[i].id, new Completion(best[i].id, best[i].text, best[i].weight));
+            }
+
+            base.collect(normalized, limit, maskedInBase, hits);
+
+            List<Completion> result = new ArrayList<>(hits.values());
+            result.sort(Completion.BY_WEIGHT);
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean outranks(Doc a, Doc b) {
+        return a.weight > b.weight || (a.weight == b.weight && a.id > b.id);
+    }
+
+    private static int indexOf(Doc[] docs, int count, Doc doc) {
+        for (int i = 0; i < count; i++) {
+            if (docs[i] == doc) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeInternal(long id) {
+        Doc previous = deltaDocs.remove(id);
+        if (previous != null) {
+            for (int offset : wordOffsets(previous.normalized)) {
+                delta.remove(previous.normalized.substring(offset) + '\u0000' + id);
+            }
+        }
+        if (base.contains(id)) {
+            maskedInBase.add(id);
+        }
+    }
+
+    /**
+     * Lower-case letters and digits with single spaces between words, cut to the indexed length.
+     */
+    static String normalize(String text) {
+        String normalized = normalizeQuery(text);
+        return normalized.length() > MAX_TEXT_LENGTH ? normalized.substring(0, MAX_TEXT_LENGTH) : normalized;
+    }
+
+    private static String normalizeQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    static int[] wordOffsets(String normalized) {
+        int[] offsets = new int[MAX_WORDS_PER_TEXT];
+        int count = 0;
+        for (int i = 0; i < normalized.length() && count < MAX_WORDS_PER_TEXT; i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                offsets[count++] = i;
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * One completion: the id, its original text and its weight.
+     */
+    public static final class Completion {
+
+        static final Comparator<Completion> BY_WEIGHT = Comparator.comparingDouble(Completion::getWeight).reversed()
+                .thenComparing(Comparator.comparingLong(Completion::getId).reversed());
+
+        private final long id;
+        private final String text;
+        private final double weight;
+
+        public Completion(long id, String text, double weight) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    private static final class Doc {
+        final long id;
+        final String text;
+        final String normalized;
+        final double weight;
+
+        Doc(long id, String text, String normalized, double weight) {
+            this.id = id;
+            this.text = text;
+            this.normalized = normalized;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Immutable sorted suffix arrays. entries[i] packs (doc index << 8 | word offset) and is
+     * ordered by the text suffix starting at that offset; tree is an iterative segment tree
+     * holding, for each node, the entry index with the highest doc weight below it.
+     */
+    private static final class Base {
+
+        static final Base EMPTY = build(List.of());
+
+        final long[] docIds;
+        final String[] texts;
+        final String[] normalized;
+        final double[] weights;
+        final long[] entries;
+        final int[] tree;
+        final Map<Long, Integer> docById;
+
+        private Base(long[] docIds, String[] texts, String[] normalized, double[] weights, long[] entries) {
+            this.docIds = docIds;
+            this.texts = texts;
+            this.normalized = normalized;
+            this.weights = weights;
+            this.entries = entries;
+            this.docById = new HashMap<>(docIds.length * 2);
+            for (int i = 0; i < docIds.length; i++) {
+                docById.put(docIds[i], i);
+            }
+            int n = entries.length;
+            this.tree = new int[2 * Math.max(n, 1)];
+            for (int i = 0; i < n; i++) {
+                tree[n + i] = i;
+            }
+            for (int p = n - 1; p > 0; p--) {
+                tree[p] = better(tree[2 * p], tree[2 * p + 1]);
+            }
+        }
+
+        static Base build(List<Completion> completions) {
+            List<Completion> docs = new ArrayList<>(completions.size());
+            List<String> normalizedTexts = new ArrayList<>(completions.size());
+            Set<Long> seen = new HashSet<>();
+            for (Completion c : completions) {
+                String n = normalize(c.getText());
+                if (!n.isEmpty() && seen.add(c.getId())) {
+                    docs.add(c);
+                    normalizedTexts.add(n);
+                }
+            }
+
+            int size = docs.size();
+            long[] docIds = new long[size];
+            String[] texts = new String[size];
+            String[] normalized = normalizedTexts.toArray(new String[0]);
+            double[] weights = new double[size];
+            List<Long> packed = new ArrayList<>();
+            for (int d = 0; d < size; d++) {
+                docIds[d] = docs.get(d).getId();
+                texts[d] = docs.get(d).getText();
+                weights[d] = docs.get(d).getWeight();
+                for (int offset : wordOffsets(normalized[d])) {
+                    packed.add(((long) d << 8) | offset);
+                }
+            }
+            Long[] boxed = packed.toArray(new Long[0]);
+            Arrays.sort(boxed, (a, b) -> compareSuffixes(normalized, a, b));
+            long[] entries = new long[boxed.length];
+            for (int i = 0; i < boxed.length; i++) {
+                entries[i] = boxed[i];
+            }
+            return new Base(docIds, texts, normalized, weights, entries);
+        }
+
+        boolean contains(long id) {
+            return docById.containsKey(id);
+        }
+
+        /**
+         * Add the best base completions of the prefix to hits until limit ids are collected,
+         * skipping masked ids and ids already present.
+         */
+        void collect(String prefix, int limit, Set<Long> masked, Map<Long, Completion> hits) {
+            int lo = lowerBound(prefix, false);
+            int hi = lowerBound(prefix, true);
+            if (lo >= hi) {
+                return;
+            }
+            int wanted = limit + hits.size();
+            PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                    (a, b) -> better(a[2], b[2]) == a[2] ? -1 : 1);
+            ranges.add(new int[]{lo, hi, argmax(lo, hi)});
+            while (!ranges.isEmpty() && hits.size() < wanted) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                int doc = doc(entries[best]);
+                long id = docIds[doc];
+                if (!masked.contains(id) && !hits.containsKey(id)) {
+                    hits.put(id, new Completion(id, texts[doc], weights[doc]));
+                }
+                if (range[0] < best) {
+                    ranges.add(new int[]{range[0], best, argmax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(new int[]{best + 1, range[1], argmax(best + 1, range[1])});
+                }
+            }
+        }
+
+        // First entry whose suffix is >= prefix, or (afterMatches) the first after all that start with it
+        private int lowerBound(String prefix, boolean afterMatches) {
+            int lo = 0;
+            int hi = entries.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = compareToPrefix(entries[mid], prefix);
+                if (cmp < 0 || (afterMatches && cmp == 0)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Negative if the suffix sorts before the prefix, 0 if it starts with it, positive after
+        private int compareToPrefix(long entry, String prefix) {
+            String text = normalized[doc(entry)];
+            int offset = offset(entry);
+            int length = Math.min(text.length() - offset, prefix.length());
+            for (int i = 0; i < length; i++) {
+                int diff = text.charAt(offset + i) - prefix.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length < prefix.length() ? -1 : 0;
+        }
+
+        private int argmax(int from, int to) {
+            int n = entries.length;
+            int best = from;
+            for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            double wa = weights[doc(entries[a])];
+            double wb = weights[doc(entries[b])];
+            if (wa != wb) {
+                return wa > wb ? a : b;
+            }
+            return docIds[doc(entries[a])] >= docIds[doc(entries[b])] ? a : b;
+        }
+
+        private static int compareSuffixes(String[] normalized, long a, long b) {
+            String ta = normalized[doc(a)];
+            String tb = normalized[doc(b)];
+            int oa = offset(a);
+            int ob = offset(b);
+            int length = Math.min(ta.length() - oa, tb.length() - ob);
+            for (int i = 0; i < length; i++) {
+                int diff = ta.charAt(oa + i) - tb.charAt(ob + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (ta.length() - oa) - (tb.length() - ob);
+        }
+
+        private static int doc(long entry) {
+            return (int) (entry >>> 8);
+        }
+
+        private static int offset(long entry) {
+            return (int) (entry & 0xFF);
+        }
+    }
+}
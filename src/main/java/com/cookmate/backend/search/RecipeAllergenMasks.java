@@ -0,0 +1,88 @@
+package com.cookmate.backend.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allergen masks of every recipe (bits of Allergens) in one int array indexed by recipe id, so
+ * finding a recipe's mask is an array read and testing it against a user's exclusions one AND.
+ * Recipe ids are auto-increment keys, so the array takes about 4 bytes per recipe ever created.
+ *
+ * Reads take no lock and see each mask as before or after a concurrent write; writes are
+ * synchronized and grow the array by copying. For the bitmap indexes, the recipes having any
+ * bit of an exclusion mask are built once per mask and kept until the next write.
+ */
+public final class RecipeAllergenMasks {
+
+    private volatile int[] masks = new int[1024];
+    private volatile Map<Integer, RoaringBitmap> recipesWithAny = new ConcurrentHashMap<>();
+
+    /**
+     * The mask of a recipe, 0 if unknown.
+     */
+    public int get(long recipeId) {
+        int[] current = masks;
+        return recipeId >= 0 && recipeId < current.length ? current[(int) recipeId] : 0;
+    }
+
+    public synchronized void set(long recipeId, int mask) {
+        int id = Math.toIntExact(recipeId);
+        int[] current = masks;
+        if (id < current.length ? current[id] == mask : mask == 0) {
+            return;
+        }
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length + (current.length >> 1)));
+        }
+        current[id] = mask;
+        masks = current;
+        recipesWithAny = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The exclusion of recipes sharing a bit with this mask.
+     */
+    public AllergenExclusion exclusion(int mask) {
+        return mask == 0 ? AllergenExclusion.NONE : new AllergenExclusion(this, mask);
+    }
+
+    /**
+     * Ids of the recipes sharing a bit with this mask. Shared: callers must not modify it.
+     */
+    RoaringBitmap withAny(int mask) {
+        Map<Integer, RoaringBitmap> cache = recipesWithAny;
+        return cache.computeIfAbsent(mask, m -> {
+            int[] current = masks;
+            RoaringBitmap recipes = new RoaringBitmap();
+            for (int id = 0; id < current.length; id++) {
+                if ((current[id] & m) != 0) {
+                    recipes.add(id);
+                }
+            }
+            recipes.runOptimize();
+            return recipes;
+        });
+    }
+
+    /**
+     * Recipes with a non-zero mask.
+     */
+    public int flaggedCount() {
+        int[] current = masks;
+        int count = 0;
+        for (int mask : current) {
+            if (mask != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Bytes held by the mask array
+    public long memoryBytes() {
+        return masks.length * 4L;
+    }
+}
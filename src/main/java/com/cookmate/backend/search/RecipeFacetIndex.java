@@ -0,0 +1,309 @@
+package com.cookmate.backend.search;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory store of the filterable recipe attributes. Every attribute value owns a
+ * compressed bitmap of the recipe ids that have it, so any filter combination is a handful of
+ * bitmap ANDs and every facet count is one AND-cardinality, with no per-recipe work.
+ *
+ * Matching mirrors the SQL filter it replaces: text values compare case-insensitively (the
+ * MySQL collation), maxTime is inclusive and excludes recipes without a total time, and a
+ * dietary flag matches only recipes where it is explicitly set to the requested value.
+ */
+public class RecipeFacetIndex {
+
+    public static final String CUISINE_TYPE = "cuisineType";
+    public static final String MEAL_TYPE = "mealType";
+    public static final String DIFFICULTY_LEVEL = "difficultyLevel";
+    public static final String MAX_TIME = "maxTime";
+    public static final String IS_VEGETARIAN = "isVegetarian";
+    public static final String IS_VEGAN = "isVegan";
+    public static final String IS_GLUTEN_FREE = "isGlutenFree";
+    public static final String IS_DAIRY_FREE = "isDairyFree";
+
+    // Upper bounds (minutes, inclusive) reported in the maxTime facet
+    private static final int[] TIME_BUCKETS = {15, 30, 45, 60, 90, 120};
+
+    private static final String[] FLAG_NAMES = {IS_VEGETARIAN, IS_VEGAN, IS_GLUTEN_FREE, IS_DAIRY_FREE};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final TextColumn cuisineTypes = new TextColumn();
+    private final TextColumn mealTypes = new TextColumn();
+    private final TextColumn difficultyLevels = new TextColumn();
+    private final NavigableMap<Integer, RoaringBitmap> recipesByTotalTime = new TreeMap<>();
+    private final RoaringBitmap[] flagTrue = newBitmaps(FLAG_NAMES.length);
+    private final RoaringBitmap[] flagFalse = newBitmaps(FLAG_NAMES.length);
+    private final Map<Integer, Attributes> attributesByRecipe = new HashMap<>();
+
+    /**
+     * Add or replace the filterable attributes of a recipe.
+     */
+    public void index(long recipeId, String cuisineType, String mealType, String difficultyLevel,
+                      Integer totalTime, Boolean isVegetarian, Boolean isVegan,
+                      Boolean isGlutenFree, Boolean isDairyFree) {
+        int id = Math.toIntExact(recipeId);
+        Attributes attributes = new Attributes(cuisineType, mealType, difficultyLevel, totalTime,
+                new Boolean[]{isVegetarian, isVegan, isGlutenFree, isDairyFree});
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            all.add(id);
+            cuisineTypes.add(cuisineType, id);
+            mealTypes.add(mealType, id);
+            difficultyLevels.add(difficultyLevel, id);
+            if (totalTime != null) {
+                recipesByTotalTime.computeIfAbsent(totalTime, k -> new RoaringBitmap()).add(id);
+            }
+            for (int flag = 0; flag < FLAG_NAMES.length; flag++) {
+                Boolean value = attributes.flags[flag];
+                if (value != null) {
+                    (value ? flagTrue[flag] : flagFalse[flag]).add(id);
+                }
+            }
+            attributesByRecipe.put(id, attributes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of matching recipe ids in ascending id order, the total number of matches, and
+     * per-facet counts. Each facet is counted against every active filter except its own, so
+     * selecting a cuisine still reports how many results the other cuisines would give.
+     */
+    public FacetResult filter(RecipeFilter filter, int offset, int limit) {
+        return filter(filter, AllergenExclusion.NONE, offset, limit);
+    }
+
+    /**
+     * As filter, over the recipes the exclusion leaves; results and facet counts both leave
+     * the excluded recipes out.
+     */
+    public FacetResult filter(RecipeFilter filter, AllergenExclusion exclusion, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap allowed = exclusion.isEmpty() ? all : RoaringBitmap.andNot(all, exclusion.excludedRecipes());
+            RoaringBitmap cuisine = filter.getCuisineType() == null ? null : cuisineTypes.get(filter.getCuisineType());
+            RoaringBitmap meal = filter.getMealType() == null ? null : mealTypes.get(filter.getMealType());
+            RoaringBitmap difficulty = filter.getDifficultyLevel() == null ? null
+                    : difficultyLevels.get(filter.getDifficultyLevel());
+            RoaringBitmap time = filter.getMaxTime() == null ? null : upToTime(filter.getMaxTime());
+            RoaringBitmap[] flags = new RoaringBitmap[FLAG_NAMES.length];
+            Boolean[] wanted = {filter.getIsVegetarian(), filter.getIsVegan(),
+                    filter.getIsGlutenFree(), filter.getIsDairyFree()};
+            for (int flag = 0; flag < FLAG_NAMES.length; flag++) {
+                if (wanted[flag] != null) {
+                    flags[flag] = wanted[flag] ? flagTrue[flag] : flagFalse[flag];
+                }
+            }
+
+            RoaringBitmap matches = intersect(allowed, cuisine, meal, difficulty, time, flags, null);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(CUISINE_TYPE,
+                    cuisineTypes.counts(intersect(allowed, null, meal, difficulty, time, flags, null)));
+            facets.put(MEAL_TYPE,
+                    mealTypes.counts(intersect(allowed, cuisine, null, difficulty, time, flags, null)));
+            facets.put(DIFFICULTY_LEVEL,
+                    difficultyLevels.counts(intersect(allowed, cuisine, meal, null, time, flags, null)));
+            facets.put(MAX_TIME, timeCounts(intersect(allowed, cuisine, meal, difficulty, null, flags, null)));
+            for (int flag = 0; flag < FLAG_NAMES.length; flag++) {
+                RoaringBitmap base = intersect(allowed, cuisine, meal, difficulty, time, flags, flag);
+                Map<String, Long> counts = new LinkedHashMap<>();
+                counts.put("true", (long) RoaringBitmap.andCardinality(base, flagTrue[flag]));
+                counts.put("false", (long) RoaringBitmap.andCardinality(base, flagFalse[flag]));
+                facets.put(FLAG_NAMES[flag], counts);
+            }
+
+            return new FacetResult(page(matches, offset, limit), matches.getLongCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap cuisine, RoaringBitmap meal,
+                                    RoaringBitmap difficulty, RoaringBitmap time, RoaringBitmap[] flags,
+                                    Integer skipFlag) {
+        RoaringBitmap result = base.clone();
+        for (RoaringBitmap bitmap : new RoaringBitmap[]{cuisine, meal, difficulty, time}) {
+            if (bitmap != null) {
+                result.and(bitmap);
+            }
+        }
+        for (int flag = 0; flag < flags.length; flag++) {
+            if (flags[flag] != null && (skipFlag == null || skipFlag != flag)) {
+                result.and(flags[flag]);
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap upToTime(int maxTime) {
+        return RoaringBitmap.or(recipesByTotalTime.headMap(maxTime, true).values().iterator());
+    }
+
+    private Map<String, Long> timeCounts(RoaringBitmap base) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        RoaringBitmap upTo = new RoaringBitmap();
+        int from = Integer.MIN_VALUE;
+        for (int bucket : TIME_BUCKETS) {
+            for (RoaringBitmap bitmap : recipesByTotalTime.subMap(from, false, bucket, true).values()) {
+                upTo.or(bitmap);
+            }
+            from = bucket;
+            counts.put(String.valueOf(bucket), (long) RoaringBitmap.andCardinality(base, upTo));
+        }
+        return counts;
+    }
+
+    private static List<Long> page(RoaringBitmap matches, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, matches.getCardinality() - offset)));
+        if (offset >= matches.getCardinality() || limit <= 0) {
+            return ids;
+        }
+        PeekableIntIterator it = matches.getIntIterator();
+        it.advanceIfNeeded(matches.select(offset));
+        while (it.hasNext() && ids.size() < limit) {
+            ids.add((long) it.next());
+        }
+        return ids;
+    }
+
+    private void removeInternal(int recipeId) {
+        Attributes previous = attributesByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        all.remove(recipeId);
+        cuisineTypes.remove(previous.cuisineType, recipeId);
+        mealTypes.remove(previous.mealType, recipeId);
+        difficultyLevels.remove(previous.difficultyLevel, recipeId);
+        if (previous.totalTime != null) {
+            RoaringBitmap recipes = recipesByTotalTime.get(previous.totalTime);
+            if (recipes != null) {
+                recipes.remove(recipeId);
+                if (recipes.isEmpty()) {
+                    recipesByTotalTime.remove(previous.totalTime);
+                }
+            }
+        }
+        for (int flag = 0; flag < FLAG_NAMES.length; flag++) {
+            flagTrue[flag].remove(recipeId);
+            flagFalse[flag].remove(recipeId);
+        }
+    }
+
+    private static RoaringBitmap[] newBitmaps(int n) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[n];
+        for (int i = 0; i < n; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Bitmaps of one text attribute, keyed case-insensitively. Facet counts are reported under
+     * the first spelling seen for each value.
+     */
+    private static final class TextColumn {
+        private final Map<String, RoaringBitmap> recipesByValue = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+
+        void add(String value, int recipeId) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = normalize(value);
+            labels.putIfAbsent(key, value.trim());
+            recipesByValue.computeIfAbsent(key, k -> new RoaringBitmap()).add(recipeId);
+        }
+
+        void remove(String value, int recipeId) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = normalize(value);
+            RoaringBitmap recipes = recipesByValue.get(key);
+            if (recipes != null) {
+                recipes.remove(recipeId);
+                if (recipes.isEmpty()) {
+                    recipesByValue.remove(key);
+                    labels.remove(key);
+                }
+            }
+        }
+
+        RoaringBitmap get(String value) {
+            RoaringBitmap recipes = recipesByValue.get(normalize(value));
+            return recipes != null ? recipes : new RoaringBitmap();
+        }
+
+        Map<String, Long> counts(RoaringBitmap base) {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>();
+            recipesByValue.forEach((key, recipes) -> {
+                long count = RoaringBitmap.andCardinality(base, recipes);
+                if (count > 0) {
+                    entries.add(Map.entry(labels.get(key), count));
+                }
+            });
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> counts = new LinkedHashMap<>();
+            entries.forEach(e -> counts.put(e.getKey(), e.getValue()));
+            return counts;
+        }
+    }
+
+    private static final class Attributes {
+        final String cuisineType;
+        final String mealType;
+        final String difficultyLevel;
+        final Integer totalTime;
+        final Boolean[] flags;
+
+        Attributes(String cuisineType, String mealType, String difficultyLevel, Integer totalTime, Boolean[] flags) {
+            this.cuisineType = cuisineType;
+            this.mealType = mealType;
+            this.difficultyLevel = difficultyLevel;
+            this.totalTime = totalTime;
+            this.flags = flags;
+        }
+    }
+}
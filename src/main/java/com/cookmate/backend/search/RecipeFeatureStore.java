@@ -0,0 +1,473 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory store of the recipe attributes the recommendation strategies rank and
+ * filter on: rating, views, review count, creation time, cuisine and meal type, and the
+ * dietary flags. Each attribute is one primitive array indexed by a slot per recipe, with
+ * cuisine and meal types as ordinals into small dictionaries and the flags as two bitmasks
+ * (set to true, set to false), so a full scan touches about 34 bytes per recipe and creates
+ * no objects. Slots of removed recipes are reused.
+ *
+ * Text values compare case-insensitively, like the MySQL collation; a dietary flag matches
+ * only recipes where it is explicitly set to the requested value.
+ */
+public class RecipeFeatureStore {
+
+    public static final int VEGETARIAN = 0;
+    public static final int VEGAN = 1;
+    public static final int GLUTEN_FREE = 2;
+    public static final int DAIRY_FREE = 3;
+
+    private static final int FLAGS = 4;
+    // Stands in for a missing creation time
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * Score of a recipe from its numeric features; higher ranks first.
+     */
+    @FunctionalInterface
+    public interface Scorer {
+        double score(double averageRating, int viewCount, int totalReviews, long createdAtEpochSecond);
+    }
+
+    public static final Scorer BY_RATING = (rating, views, reviews, createdAt) -> rating;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private final Dictionary cuisineTypes = new Dictionary();
+    private final Dictionary mealTypes = new Dictionary();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int used;
+
+    private long[] ids = new long[0];
+    private float[] ratings = new float[0];
+    private int[] views = new int[0];
+    private int[] reviews = new int[0];
+    private long[] createdAt = new long[0];
+    private short[] cuisines = new short[0];
+    private short[] meals = new short[0];
+    private byte[] flagsTrue = new byte[0];
+    private byte[] flagsFalse = new byte[0];
+
+    /**
+     * Add or replace the features of a recipe. createdAtEpochSecond is NO_TIME when unknown.
+     */
+    public void put(long recipeId, double averageRating, int viewCount, int totalReviews, long createdAtEpochSecond,
+                    String cuisineType, String mealType, Boolean isVegetarian, Boolean isVegan,
+                    Boolean isGlutenFree, Boolean isDairyFree) {
+        Boolean[] flags = {isVegetarian, isVegan, isGlutenFree, isDairyFree};
+        byte setTrue = 0;
+        byte setFalse = 0;
+        for (int flag = 0; flag < FLAGS; flag++) {
+            if (flags[flag] != null) {
+                if (flags[flag]) {
+                    setTrue |= 1 << flag;
+                } else {
+                    setFalse |= 1 << flag;
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            int slot = slots.get(recipeId);
+            if (slot < 0) {
+                slot = allocate();
+                slots.put(recipeId, slot);
+                ids[slot] = recipeId;
+            }
+            ratings[slot] = (float) averageRating;
+            views[slot] = viewCount;
+            reviews[slot] = totalReviews;
+            createdAt[slot] = createdAtEpochSecond;
+            cuisines[slot] = cuisineTypes.ordinal(cuisineType);
+            meals[slot] = mealTypes.ordinal(mealType);
+            flagsTrue[slot] = setTrue;
+            flagsFalse[slot] = setFalse;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slots.remove(recipeId);
+            if (slot >= 0) {
+                ids[slot] = 0;
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add flushed views to a recipe's count; unknown recipes are ignored.
+     */
+    public void addViews(long recipeId, long delta) {
+        lock.writeLock().lock();
+        try {
+            int slot = slots.get(recipeId);
+            if (slot >= 0) {
+                views[slot] = (int) Math.min(Integer.MAX_VALUE, views[slot] + delta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long recipeId) {
+        lock.readLock().lock();
+        try {
+            return slots.get(recipeId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter for recipes sharing a cuisine or meal type with the given ones.
+     */
+    public Filter similarTo(Collection<Long> recipeIds) {
+        List<String> cuisineValues = new ArrayList<>();
+        List<String> mealValues = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long recipeId : recipeIds) {
+                int slot = recipeId != null ? slots.get(recipeId) : -1;
+                if (slot < 0) {
+                    continue;
+                }
+                if (cuisines[slot] != 0) {
+                    cuisineValues.add(cuisineTypes.value(cuisines[slot]));
+                }
+                if (meals[slot] != 0) {
+                    mealValues.add(mealTypes.value(meals[slot]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Filter.sharingCuisineOrMealType(cuisineValues, mealValues);
+    }
+
+    /**
+     * Ids of the n best scoring recipes that pass the filter, ties broken by views then id,
+     * both descending.
+     */
+    public long[] top(int n, Filter filter, Scorer scorer) {
+        if (n <= 0) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            boolean[] cuisineMatch = filter.cuisineTypes != null ? cuisineTypes.matching(filter.cuisineTypes) : null;
+            boolean[] mealMatch = filter.mealTypes != null ? mealTypes.matching(filter.mealTypes) : null;
+            TopSlots best = new TopSlots(n);
+            for (int slot = 0; slot < used; slot++) {
+                long id = ids[slot];
+                if (id == 0 || !matches(slot, filter, cuisineMatch, mealMatch) || Arrays.binarySearch(filter.excluded, id) >= 0
+                        || filter.allergens.excludes(id)) {
+                    continue;
+                }
+                best.offer(slot, scorer.score(ratings[slot], views[slot], reviews[slot], createdAt[slot]));
+            }
+            return best.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(int slot, Filter filter, boolean[] cuisineMatch, boolean[] mealMatch) {
+        boolean cuisine = cuisineMatch == null || cuisineMatch[cuisines[slot]];
+        boolean meal = mealMatch == null || mealMatch[meals[slot]];
+        if (filter.either ? !(cuisine || meal) : !(cuisine && meal)) {
+            return false;
+        }
+        return (flagsTrue[slot] & filter.requiredTrue) == filter.requiredTrue
+                && (flagsFalse[slot] & filter.requiredFalse) == filter.requiredFalse;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (used == ids.length) {
+            int capacity = Math.max(1024, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            views = Arrays.copyOf(views, capacity);
+            reviews = Arrays.copyOf(reviews, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            cuisines = Arrays.copyOf(cuisines, capacity);
+            meals = Arrays.copyOf(meals, capacity);
+            flagsTrue = Arrays.copyOf(flagsTrue, capacity);
+            flagsFalse = Arrays.copyOf(flagsFalse, capacity);
+        }
+        return used++;
+    }
+
+    /**
+     * What top keeps: cuisine and meal types (any when unset), dietary flags that have to be
+     * set to a value, and ids to skip.
+     */
+    public static final class Filter {
+        private Set<String> cuisineTypes;
+        private Set<String> mealTypes;
+        private boolean either;
+        private byte requiredTrue;
+        private byte requiredFalse;
+        private long[] excluded = new long[0];
+        private AllergenExclusion allergens = AllergenExclusion.NONE;
+
+        /**
+         * Recipes in one of the cuisines or one of the meal types. Like the history strategy
+         * it serves, a side without values matches everything.
+         */
+        public static Filter sharingCuisineOrMealType(Collection<String> cuisineTypes, Collection<String> mealTypes) {
+            Filter filter = new Filter();
+            if (cuisineTypes.stream().anyMatch(value -> value != null && !value.isBlank())
+                    && mealTypes.stream().anyMatch(value -> value != null && !value.isBlank())) {
+                filter.cuisineTypes(cuisineTypes).mealTypes(mealTypes).either = true;
+            }
+            return filter;
+        }
+
+        public Filter cuisineTypes(Collection<String> values) {
+            cuisineTypes = normalize(values);
+            return this;
+        }
+
+        public Filter mealTypes(Collection<String> values) {
+            mealTypes = normalize(values);
+            return this;
+        }
+
+        /**
+         * Require a dietary flag (VEGETARIAN, VEGAN, GLUTEN_FREE or DAIRY_FREE) to be set to
+         * value; null leaves it unconstrained.
+         */
+        public Filter flag(int flag, Boolean value) {
+            if (value != null) {
+                if (value) {
+                    requiredTrue |= 1 << flag;
+                } else {
+                    requiredFalse |= 1 << flag;
+                }
+            }
+            return this;
+        }
+
+        public Filter excluding(Collection<Long> recipeIds) {
+            // Sorted, so the scan checks membership without boxing every id
+            excluded = recipeIds.stream().filter(id -> id != null).mapToLong(Long::longValue).sorted().toArray();
+            return this;
+        }
+
+        public Filter excludingAllergens(AllergenExclusion exclusion) {
+            allergens = exclusion;
+            return this;
+        }
+
+        /**
+         * Lower-cased, trimmed cuisine types, or null for any.
+         */
+        public Set<String> getCuisineTypes() {
+            return cuisineTypes;
+        }
+
+        public Set<String> getMealTypes() {
+            return mealTypes;
+        }
+
+        /**
+         * Whether a recipe has to match the cuisine or the meal types rather than both.
+         */
+        public boolean isEither() {
+            return either;
+        }
+
+        /**
+         * The value a dietary flag has to have, or null when unconstrained.
+         */
+        public Boolean getFlag(int flag) {
+            if ((requiredTrue & 1 << flag) != 0) {
+                return true;
+            }
+            return (requiredFalse & 1 << flag) != 0 ? false : null;
+        }
+
+        public List<Long> getExcluded() {
+            List<Long> ids = new ArrayList<>(excluded.length);
+            for (long id : excluded) {
+                ids.add(id);
+            }
+            return ids;
+        }
+
+        public AllergenExclusion getAllergens() {
+            return allergens;
+        }
+
+        private static Set<String> normalize(Collection<String> values) {
+            Set<String> normalized = new HashSet<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    normalized.add(value.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            return normalized;
+        }
+    }
+
+    // Ordinal 0 is "no value"; values are lower-cased, so ordinals compare case-insensitively
+    private static final class Dictionary {
+        private final Map<String, Short> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>(List.of(""));
+
+        short ordinal(String value) {
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            String key = value.trim().toLowerCase(Locale.ROOT);
+            Short ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                if (values.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct values");
+                }
+                ordinal = (short) values.size();
+                ordinals.put(key, ordinal);
+                values.add(key);
+            }
+            return ordinal;
+        }
+
+        String value(short ordinal) {
+            return values.get(ordinal);
+        }
+
+        boolean[] matching(Set<String> wanted) {
+            boolean[] match = new boolean[values.size()];
+            for (String value : wanted) {
+                Short ordinal = ordinals.get(value);
+                if (ordinal != null) {
+                    match[ordinal] = true;
+                }
+            }
+            return match;
+        }
+    }
+
+    // Bounded min-heap of slots, worst first, so scanning allocates nothing per recipe
+    private final class TopSlots {
+        private final int[] heap;
+        private final double[] scores;
+        private int size;
+
+        TopSlots(int capacity) {
+            heap = new int[Math.min(capacity, Math.max(used, 1))];
+            scores = new double[heap.length];
+        }
+
+        void offer(int slot, double score) {
+            if (size < heap.length) {
+                heap[size] = slot;
+                scores[size] = score;
+                up(size++);
+            } else if (better(slot, score, heap[0], scores[0])) {
+                heap[0] = slot;
+                scores[0] = score;
+                down(0);
+            }
+        }
+
+        long[] ids() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> better(heap[a], scores[a], heap[b], scores[b]) ? -1
+                    : better(heap[b], scores[b], heap[a], scores[a]) ? 1 : 0);
+            long[] result = new long[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = ids[heap[order[i]]];
+            }
+            return result;
+        }
+
+        private boolean better(int slotA, double scoreA, int slotB, double scoreB) {
+            if (scoreA != scoreB) {
+                return scoreA > scoreB;
+            }
+            if (views[slotA] != views[slotB]) {
+                return views[slotA] > views[slotB];
+            }
+            return ids[slotA] > ids[slotB];
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(heap[parent], scores[parent], heap[i], scores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(heap[worst], scores[worst], heap[left], scores[left])) {
+                    worst = left;
+                }
+                if (right < size && better(heap[worst], scores[worst], heap[right], scores[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = heap[a];
+            heap[a] = heap[b];
+            heap[b] = slot;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.cookmate.backend.search;
+
+/**
+ * Filter criteria of /api/recipes/filter. A null field means "any".
+ */
+public class RecipeFilter {
+
+    private final String cuisineType;
+    private final String mealType;
+    private final String difficultyLevel;
+    private final Integer maxTime;
+    private final Boolean isVegetarian;
+    private final Boolean isVegan;
+    private final Boolean isGlutenFree;
+    private final Boolean isDairyFree;
+
+    public RecipeFilter(String cuisineType, String mealType, String difficultyLevel, Integer maxTime,
+                        Boolean isVegetarian, Boolean isVegan, Boolean isGlutenFree, Boolean isDairyFree) {
+        this.cuisineType = cuisineType;
+        this.mealType = mealType;
+        this.difficultyLevel = difficultyLevel;
+        this.maxTime = maxTime;
+        this.isVegetarian = isVegetarian;
+        this.isVegan = isVegan;
+        this.isGlutenFree = isGlutenFree;
+        this.isDairyFree = isDairyFree;
+    }
+
+    public String getCuisineType() {
+        return cuisineType;
+    }
+
+    public String getMealType() {
+        return mealType;
+    }
+
+    public String getDifficultyLevel() {
+        return difficultyLevel;
+    }
+
+    public Integer getMaxTime() {
+        return maxTime;
+    }
+
+    public Boolean getIsVegetarian() {
+        return isVegetarian;
+    }
+
+    public Boolean getIsVegan() {
+        return isVegan;
+    }
+
+    public Boolean getIsGlutenFree() {
+        return isGlutenFree;
+    }
+
+    public Boolean getIsDairyFree() {
+        return isDairyFree;
+    }
+}
@@ -0,0 +1,370 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over recipe title, description and ingredient names, ranked with BM25.
+ *
+ * Documents get a dense internal ordinal; postings are parallel int/float arrays per term.
+ * Updating a recipe tombstones its old ordinal and appends a new one, and the postings are
+ * compacted once the dead fraction grows, so writes never rewrite every list they touch.
+ * Document frequencies include tombstoned postings until the next compaction, which only
+ * nudges idf slightly between compactions.
+ *
+ * The indexed terms double as a spelling vocabulary: a query word that matches no term, not
+ * even as a prefix, is replaced by its closest term ("chiken" -> "chicken") and the corrected
+ * query is reported back as a suggestion.
+ */
+public class RecipeSearchIndex {
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float INGREDIENT_WEIGHT = 2.0f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByRecipeId = new HashMap<>();
+    // Spelling vocabulary over the terms, and an unstemmed word for each term to show users
+    private FuzzyMatcher vocabulary = new FuzzyMatcher();
+    private final Map<String, String> surfaceByTerm = new HashMap<>();
+
+    private long[] recipeIds = new long[1024];
+    // Weighted document length; negative marks a deleted (tombstoned) ordinal
+    private float[] docLengths = new float[1024];
+    private int maxDoc;
+    private int deadDocs;
+    private double totalLength;
+
+    /**
+     * Add or replace the document for a recipe.
+     */
+    public void index(long recipeId, String title, String description, Collection<String> ingredientNames) {
+        Map<String, Float> freqs = new HashMap<>();
+        Map<String, String> surfaces = new HashMap<>();
+        float length = 0;
+        length += accumulate(freqs, surfaces, title, TITLE_WEIGHT);
+        length += accumulate(freqs, surfaces, description, DESCRIPTION_WEIGHT);
+        if (ingredientNames != null) {
+            for (String name : ingredientNames) {
+                length += accumulate(freqs, surfaces, name, INGREDIENT_WEIGHT);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+            int ordinal = maxDoc++;
+            ensureCapacity(maxDoc);
+            recipeIds[ordinal] = recipeId;
+            docLengths[ordinal] = length;
+            totalLength += length;
+            ordinalByRecipeId.put(recipeId, ordinal);
+            for (Map.Entry<String, Float> e : freqs.entrySet()) {
+                Postings postings = terms.get(e.getKey());
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(e.getKey(), postings);
+                    vocabulary.add(e.getKey());
+                    surfaceByTerm.put(e.getKey(), surfaces.get(e.getKey()));
+                }
+                postings.add(ordinal, e.getValue());
+            }
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinalByRecipeId.clear();
+            vocabulary = new FuzzyMatcher();
+            surfaceByTerm.clear();
+            recipeIds = new long[1024];
+            docLengths = new float[1024];
+            maxDoc = 0;
+            deadDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalByRecipeId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long recipeId) {
+        lock.readLock().lock();
+        try {
+            return ordinalByRecipeId.containsKey(recipeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank all recipes matching any query term and return the requested slice.
+     * Query terms with no exact postings are expanded as prefixes, so partially typed
+     * words ("chick") still match like the old substring search did, and terms that match
+     * nothing at all are spell-corrected.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        return search(query, offset, limit, AllergenExclusion.NONE);
+    }
+
+    /**
+     * As search, leaving out the recipes the exclusion rules out; the total counts only the
+     * recipes that remain.
+     */
+    public SearchResult search(String query, int offset, int limit, AllergenExclusion exclusion) {
+        Map<String, String> queryTerms = new LinkedHashMap<>();
+        for (String token : TextAnalyzer.tokenize(query)) {
+            queryTerms.putIfAbsent(TextAnalyzer.stem(token), token);
+        }
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchResult.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = maxDoc - deadDocs;
+            if (liveDocs == 0) {
+                return SearchResult.empty();
+            }
+            float avgLength = (float) (totalLength / liveDocs);
+            float[] scores = new float[maxDoc];
+            int[] touched = new int[Math.min(maxDoc, 1024)];
+            int hits = 0;
+            String suggestion = query;
+            boolean corrected = false;
+
+            for (Map.Entry<String, String> queryTerm : queryTerms.entrySet()) {
+                List<Postings> matching = expand(queryTerm.getKey());
+                if (matching.isEmpty()) {
+                    String correction = vocabulary.correct(queryTerm.getKey(), t -> terms.get(t).size);
+                    if (correction != null) {
+                        matching = List.of(terms.get(correction));
+                        suggestion = replaceWord(suggestion, queryTerm.getValue(), surfaceByTerm.get(correction));
+                        corrected = true;
+                    }
+                }
+                for (Postings postings : matching) {
+                    float idf = idf(liveDocs, postings.size);
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        float len = docLengths[doc];
+                        if (len < 0) {
+                            continue;
+                        }
+                        float tf = postings.freqs[i];
+                        float norm = K1 * (1 - B + B * len / avgLength);
+                        if (scores[doc] == 0) {
+                            if (hits == touched.length) {
+                                touched = Arrays.copyOf(touched, Math.min(maxDoc, hits * 2));
+                            }
+                            touched[hits++] = doc;
+                        }
+                        scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                    }
+                }
+            }
+
+            if (!corrected) {
+                suggestion = null;
+            }
+            if (!exclusion.isEmpty()) {
+                // One AND per hit; the kept docs are compacted to the front of touched
+                int kept = 0;
+                for (int i = 0; i < hits; i++) {
+                    if (!exclusion.excludes(recipeIds[touched[i]])) {
+                        touched[kept++] = touched[i];
+                    }
+                }
+                hits = kept;
+            }
+            int wanted = Math.min(offset + limit, hits);
+            if (offset >= wanted) {
+                return new SearchResult(List.of(), hits, suggestion);
+            }
+            // Bounded min-heap keeps only the top (offset + limit) hits
+            PriorityQueue<Integer> heap = new PriorityQueue<>(wanted + 1, (a, c) -> compare(scores, a, c));
+            for (int i = 0; i < hits; i++) {
+                int doc = touched[i];
+                if (heap.size() < wanted) {
+                    heap.add(doc);
+                } else if (compare(scores, doc, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(doc);
+                }
+            }
+            Long[] ranked = new Long[heap.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = recipeIds[heap.poll()];
+            }
+            return new SearchResult(List.of(ranked).subList(offset, ranked.length), hits, suggestion);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Higher score first; ties go to the newer (larger) recipe id
+    private int compare(float[] scores, int a, int b) {
+        int cmp = Float.compare(scores[a], scores[b]);
+        return cmp != 0 ? cmp : Long.compare(recipeIds[a], recipeIds[b]);
+    }
+
+    private List<Postings> expand(String term) {
+        Postings exact = terms.get(term);
+        if (exact != null) {
+            return List.of(exact);
+        }
+        List<Postings> expanded = new ArrayList<>();
+        for (Postings postings : terms.subMap(term, term + Character.MAX_VALUE).values()) {
+            if (expanded.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expanded.add(postings);
+        }
+        return expanded;
+    }
+
+    private static float idf(int liveDocs, int docFreq) {
+        int df = Math.min(docFreq, liveDocs);
+        return (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+    }
+
+    // Replace whole-word, case-insensitive occurrences of word in text
+    private static String replaceWord(String text, String word, String replacement) {
+        return Pattern.compile("(?<![\\p{L}\\p{N}])" + Pattern.quote(word) + "(?![\\p{L}\\p{N}])",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                .matcher(text).replaceAll(Matcher.quoteReplacement(replacement));
+    }
+
+    private static float accumulate(Map<String, Float> freqs, Map<String, String> surfaces, String text, float weight) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            String term = TextAnalyzer.stem(token);
+            freqs.merge(term, weight, Float::sum);
+            surfaces.putIfAbsent(term, token);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void removeInternal(long recipeId) {
+        Integer ordinal = ordinalByRecipeId.remove(recipeId);
+        if (ordinal != null) {
+            totalLength -= docLengths[ordinal];
+            docLengths[ordinal] = -1;
+            deadDocs++;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > recipeIds.length) {
+            int newLength = Math.max(capacity, recipeIds.length * 2);
+            recipeIds = Arrays.copyOf(recipeIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    private void maybeCompact() {
+        if (deadDocs >= MIN_DEAD_FOR_COMPACTION && deadDocs * 4 >= maxDoc) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop tombstoned ordinals and renumber the remaining documents densely.
+     * Caller must hold the write lock.
+     */
+    void compact() {
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (docLengths[doc] >= 0) {
+                remap[doc] = next;
+                recipeIds[next] = recipeIds[doc];
+                docLengths[next] = docLengths[doc];
+                ordinalByRecipeId.put(recipeIds[next], next);
+                next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        terms.entrySet().removeIf(e -> {
+            if (e.getValue().compact(remap) > 0) {
+                return false;
+            }
+            vocabulary.remove(e.getKey());
+            surfaceByTerm.remove(e.getKey());
+            return true;
+        });
+        maxDoc = next;
+        deadDocs = 0;
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] freqs = new float[4];
+        int size;
+
+        void add(int doc, float freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[docs[i]];
+                if (mapped >= 0) {
+                    docs[kept] = mapped;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cookmate.backend.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of ranked recipe ids plus the total number of matching recipes, and the query
+ * with misspelled words corrected when any were.
+ */
+public class SearchResult {
+
+    private static final SearchResult EMPTY = new SearchResult(Collections.emptyList(), 0);
+
+    private final List<Long> recipeIds;
+    private final long totalHits;
+    private final String suggestion;
+
+    public SearchResult(List<Long> recipeIds, long totalHits) {
+        this(recipeIds, totalHits, null);
+    }
+
+    public SearchResult(List<Long> recipeIds, long totalHits, String suggestion) {
+        this.recipeIds = recipeIds;
+        this.totalHits = totalHits;
+        this.suggestion = suggestion;
+    }
+
+    public static SearchResult empty() {
+        return EMPTY;
+    }
+
+    public List<Long> getRecipeIds() {
+        return recipeIds;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * The query as it was actually matched ("did you mean"), or null if no word was corrected.
+     */
+    public String getSuggestion() {
+        return suggestion;
+    }
+}
@@ -0,0 +1,184 @@
+package com.cookmate.backend.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable top-N recipe ids per segment, a segment being a cuisine type, a meal type and a
+ * dietary flag, each of which may also be "any". Every recipe is counted in all the segments
+ * it falls into (at most 2 x 2 x 4 of them), so one lookup answers any combination of those
+ * three filters without touching the other recipes.
+ *
+ * Ids are ranked by average rating, then view count, then id, all descending. Cuisine and meal
+ * types compare case-insensitively, like the MySQL collation the SQL filter uses.
+ */
+public final class SegmentTopLists {
+
+    public enum Diet { VEGETARIAN, VEGAN, GLUTEN_FREE }
+
+    private static final Segment EMPTY = new Segment(new long[0], 0);
+
+    private final Map<String, Segment> segments;
+    private final int limit;
+    private final int recipes;
+
+    private SegmentTopLists(Map<String, Segment> segments, int limit, int recipes) {
+        this.segments = segments;
+        this.limit = limit;
+        this.recipes = recipes;
+    }
+
+    public static Builder builder(int limitPerSegment) {
+        return new Builder(limitPerSegment);
+    }
+
+    public static SegmentTopLists empty() {
+        return new SegmentTopLists(Map.of(), 0, 0);
+    }
+
+    /**
+     * The best ranked ids of a segment, at most the per-segment limit of them. Null arguments
+     * mean any value.
+     */
+    public long[] top(String cuisineType, String mealType, Diet diet) {
+        return segment(cuisineType, mealType, diet).ids.clone();
+    }
+
+    /**
+     * Whether top returns every recipe in the segment, not just the best ranked ones.
+     */
+    public boolean isComplete(String cuisineType, String mealType, Diet diet) {
+        Segment segment = segment(cuisineType, mealType, diet);
+        return segment.total == segment.ids.length;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public int recipeCount() {
+        return recipes;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private Segment segment(String cuisineType, String mealType, Diet diet) {
+        return segments.getOrDefault(key(normalize(cuisineType), normalize(mealType), diet), EMPTY);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String cuisineType, String mealType, Diet diet) {
+        // NUL cannot occur in a stored value, so "any" never collides with a real one
+        return (cuisineType != null ? cuisineType : "\0") + '\0'
+                + (mealType != null ? mealType : "\0") + '\0'
+                + (diet != null ? diet.name() : "");
+    }
+
+    private static final class Segment {
+        final long[] ids;
+        final int total;
+
+        Segment(long[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    public static final class Builder {
+
+        // Worst ranked first, so the head is what a better recipe displaces
+        private static final Comparator<Ranked> WORST_FIRST = Comparator
+                .comparingDouble((Ranked r) -> r.rating)
+                .thenComparingLong(r -> r.views)
+                .thenComparingLong(r -> r.id);
+
+        private final int limit;
+        private final Map<String, PriorityQueue<Ranked>> heaps = new HashMap<>();
+        private final Map<String, int[]> totals = new HashMap<>();
+        private int recipes;
+
+        private Builder(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            this.limit = limit;
+        }
+
+        public Builder add(long recipeId, String cuisineType, String mealType, boolean vegetarian,
+                           boolean vegan, boolean glutenFree, double averageRating, long viewCount) {
+            Ranked ranked = new Ranked(recipeId, averageRating, viewCount);
+            String[] cuisines = {null, normalize(cuisineType)};
+            String[] meals = {null, normalize(mealType)};
+            Diet[] diets = {null, vegetarian ? Diet.VEGETARIAN : null, vegan ? Diet.VEGAN : null,
+                    glutenFree ? Diet.GLUTEN_FREE : null};
+            for (int c = 0; c < cuisines.length; c++) {
+                if (c > 0 && cuisines[c] == null) {
+                    continue;
+                }
+                for (int m = 0; m < meals.length; m++) {
+                    if (m > 0 && meals[m] == null) {
+                        continue;
+                    }
+                    for (int d = 0; d < diets.length; d++) {
+                        if (d > 0 && diets[d] == null) {
+                            continue;
+                        }
+                        offer(key(cuisines[c], meals[m], diets[d]), ranked);
+                    }
+                }
+            }
+            recipes++;
+            return this;
+        }
+
+        private void offer(String key, Ranked ranked) {
+            totals.computeIfAbsent(key, k -> new int[1])[0]++;
+            PriorityQueue<Ranked> heap = heaps.computeIfAbsent(key, k -> new PriorityQueue<>(WORST_FIRST));
+            if (heap.size() < limit) {
+                heap.add(ranked);
+            } else if (WORST_FIRST.compare(ranked, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(ranked);
+            }
+        }
+
+        public SegmentTopLists build() {
+            Map<String, Segment> segments = new HashMap<>(heaps.size() * 2);
+            heaps.forEach((key, heap) -> {
+                Ranked[] ranked = heap.toArray(new Ranked[0]);
+                Arrays.sort(ranked, WORST_FIRST.reversed());
+                long[] ids = new long[ranked.length];
+                for (int i = 0; i < ranked.length; i++) {
+                    ids[i] = ranked[i].id;
+                }
+                segments.put(key, new Segment(ids, totals.get(key)[0]));
+            });
+            return new SegmentTopLists(segments, limit, recipes);
+        }
+    }
+
+    private static final class Ranked {
+        final long id;
+        final double rating;
+        final long views;
+
+        Ranked(long id, double rating, long views) {
+            this.id = id;
+            this.rating = rating;
+            this.views = views;
+        }
+    }
+}
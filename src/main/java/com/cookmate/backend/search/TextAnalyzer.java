@@ -0,0 +1,159 @@
+package com.cookmate.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits free text into lower-cased, stemmed terms for the recipe search index.
+ * The same analyzer is applied to documents and queries so both sides agree on terms.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "the", "this", "to", "with", "your", "you"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Tokenize and stem the given text. Stop words and single characters are dropped.
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = tokenize(text);
+        terms.replaceAll(TextAnalyzer::stem);
+        return terms;
+    }
+
+    /**
+     * The lower-cased words {@link #analyze(String)} would keep, before stemming.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letterOrDigit = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                addToken(tokens, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalize a single raw token the way {@link #analyze(String)} would, or null if it is dropped.
+     */
+    public static String normalize(String token) {
+        List<String> terms = analyze(token);
+        return terms.isEmpty() ? null : terms.get(0);
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() < 2 || STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(token);
+    }
+
+    /**
+     * Light English suffix stripper (Porter steps 1a-1c). It is deliberately conservative:
+     * recipe vocabulary is mostly nouns, so plural and participle forms are what matters
+     * ("tomatoes" -> "tomato", "baked" -> "bake", "berries" -> "berry").
+     */
+    static String stem(String word) {
+        if (word.length() <= 3 || !isAlpha(word)) {
+            return word;
+        }
+        String w = word;
+
+        // Step 1a: plurals
+        if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ies")) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("oes")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) {
+            w = w.substring(0, w.length() - 1);
+        }
+
+        // Step 1b: -ed / -ing
+        String base = null;
+        if (w.endsWith("eed")) {
+            if (w.length() > 4) {
+                w = w.substring(0, w.length() - 1);
+            }
+        } else if (w.endsWith("ed") && hasVowel(w, w.length() - 2)) {
+            base = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ing") && hasVowel(w, w.length() - 3)) {
+            base = w.substring(0, w.length() - 3);
+        }
+        if (base != null && base.length() >= 2) {
+            if (base.endsWith("at") || base.endsWith("bl") || base.endsWith("iz")) {
+                w = base + "e";
+            } else if (endsWithDoubleConsonant(base)
+                    && !base.endsWith("l") && !base.endsWith("s") && !base.endsWith("z")) {
+                w = base.substring(0, base.length() - 1);
+            } else if (base.length() <= 3 && endsCvc(base)) {
+                w = base + "e";
+            } else {
+                w = base;
+            }
+        }
+
+        // Step 1c: terminal y -> i is skipped so "curry" and "curries" both end in "curry"
+
+        // Step 5a: drop a silent trailing e on longer words so "slice" and "sliced" meet
+        if (w.length() > 4 && w.endsWith("e") && !w.endsWith("ee")) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    private static boolean isAlpha(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private static boolean hasVowel(String w, int end) {
+        for (int i = 0; i < end; i++) {
+            if (isVowel(w.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithDoubleConsonant(String w) {
+        int n = w.length();
+        return n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && !isVowel(w.charAt(n - 1));
+    }
+
+    private static boolean endsCvc(String w) {
+        int n = w.length();
+        if (n < 3) {
+            return false;
+        }
+        char c3 = w.charAt(n - 1);
+        return !isVowel(w.charAt(n - 3)) && isVowel(w.charAt(n - 2)) && !isVowel(c3)
+                && c3 != 'w' && c3 != 'x' && c3 != 'y';
+    }
+}
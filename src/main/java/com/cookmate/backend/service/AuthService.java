@@ -4,6 +4,8 @@ import com.cookmate.backend.dto.*;
 import com.cookmate.backend.entity.PasswordResetToken;
 import com.cookmate.backend.entity.User;
 import com.cookmate.backend.entity.UserPreferences;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
 import com.cookmate.backend.exception.BadRequestException;
 import com.cookmate.backend.repository.PasswordResetTokenRepository;
 import com.cookmate.backend.repository.UserRepository;
@@ -11,6 +13,7 @@ import com.cookmate.backend.repository.UserPreferencesRepository;
 import com.cookmate.backend.security.jwt.JwtUtils;
 import com.cookmate.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -46,6 +49,9 @@ public class AuthService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Authenticate user and generate JWT token
      */
@@ -260,6 +266,7 @@ public class AuthService {
                 throw new BadRequestException("Username is already taken");
             }
             user.setUsername(request.getUsername());
+            eventPublisher.publishEvent(new UsernameChangedEvent(user.getId(), user.getUsername()));
         }
         if (request.getImageUrl() != null) {
             user.setImageUrl(request.getImageUrl());
@@ -391,6 +398,7 @@ public class AuthService {
             }
             
             userPreferencesRepository.save(preferences);
+            eventPublisher.publishEvent(new UserPreferencesChangedEvent(user.getId()));
         }
         
         user.setUpdatedAt(LocalDateTime.now());
@@ -0,0 +1,240 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.AutocompleteSuggestion;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.repository.IngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.PrefixCompletionIndex;
+import com.cookmate.backend.search.PrefixCompletionIndex.Completion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead for recipe titles and ingredient names, served from in-memory prefix indexes.
+ *
+ * Both indexes are built in the background once the application is ready and kept current
+ * from recipe and ingredient change events. Recipe completions are ranked by views and rating,
+ * ingredient completions by how many recipes use them; a periodic rebuild refreshes those
+ * weights and compacts incremental writes. Until an index is ready it returns no suggestions.
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_DELTA = 10_000;
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Value("${search.autocomplete.enabled:true}")
+    private boolean enabled;
+
+    private volatile PrefixCompletionIndex recipeIndex = new PrefixCompletionIndex();
+    private volatile PrefixCompletionIndex ingredientIndex = new PrefixCompletionIndex();
+    private volatile boolean ready;
+    private volatile Set<Long> recipesChangedDuringRebuild;
+    private volatile Set<Long> ingredientsChangedDuringRebuild;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Autocomplete disabled");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "autocomplete-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Refresh completion weights (views, ratings, usage counts) that change without an event.
+     */
+    @Scheduled(fixedDelayString = "${search.autocomplete.rebuild-interval-ms:600000}",
+            initialDelayString = "${search.autocomplete.rebuild-interval-ms:600000}")
+    public void refreshWeights() {
+        if (enabled && ready) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild both indexes from the database and swap them in.
+     * Recipes and ingredients changed while the rebuild runs are reloaded after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changedRecipes = ConcurrentHashMap.newKeySet();
+        Set<Long> changedIngredients = ConcurrentHashMap.newKeySet();
+        recipesChangedDuringRebuild = changedRecipes;
+        ingredientsChangedDuringRebuild = changedIngredients;
+        try {
+            PrefixCompletionIndex recipes = load(recipeRepository::findCompletionFieldsAfter, AutocompleteService::recipeCompletion);
+            PrefixCompletionIndex ingredients = load(ingredientRepository::findCompletionFieldsAfter, AutocompleteService::ingredientCompletion);
+            recipeIndex = recipes;
+            ingredientIndex = ingredients;
+            ready = true;
+            recipesChangedDuringRebuild = null;
+            ingredientsChangedDuringRebuild = null;
+            changedRecipes.forEach(this::reindexRecipe);
+            reindexIngredients(changedIngredients);
+            logger.info("Autocomplete indexes built: {} recipes, {} ingredients in {} ms",
+                    recipes.size(), ingredients.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            recipesChangedDuringRebuild = null;
+            ingredientsChangedDuringRebuild = null;
+            logger.error("Failed to build autocomplete indexes: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public List<AutocompleteSuggestion> completeRecipes(String prefix, int limit) {
+        return complete(recipeIndex, prefix, limit);
+    }
+
+    public List<AutocompleteSuggestion> completeIngredients(String prefix, int limit) {
+        return complete(ingredientIndex, prefix, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> changed = recipesChangedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getRecipeId());
+        }
+        try {
+            if (event.isDeleted()) {
+                recipeIndex.remove(event.getRecipeId());
+            } else {
+                reindexRecipe(event.getRecipeId());
+            }
+            compactIfNeeded();
+        } catch (Exception e) {
+            logger.error("Failed to update autocomplete for recipe {}: {}", event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        if (!enabled || event.getIngredients().isEmpty()) {
+            return;
+        }
+        Set<Long> changed = ingredientsChangedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(event.getIngredients().keySet());
+        }
+        try {
+            reindexIngredients(event.getIngredients().keySet());
+            compactIfNeeded();
+        } catch (Exception e) {
+            logger.error("Failed to update autocomplete for ingredients of recipe {}: {}",
+                    event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    private static List<AutocompleteSuggestion> complete(PrefixCompletionIndex index, String prefix, int limit) {
+        return index.complete(prefix, Math.min(Math.max(limit, 0), MAX_LIMIT)).stream()
+                .map(c -> new AutocompleteSuggestion(c.getId(), c.getText()))
+                .collect(Collectors.toList());
+    }
+
+    private void reindexRecipe(Long recipeId) {
+        List<Object[]> rows = recipeRepository.findCompletionFieldsById(recipeId);
+        if (rows.isEmpty()) {
+            recipeIndex.remove(recipeId);
+            return;
+        }
+        Completion completion = recipeCompletion(rows.get(0));
+        recipeIndex.put(completion.getId(), completion.getText(), completion.getWeight());
+    }
+
+    private void reindexIngredients(Set<Long> ingredientIds) {
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+        for (Object[] row : ingredientRepository.findCompletionFieldsByIds(ingredientIds)) {
+            Completion completion = ingredientCompletion(row);
+            ingredientIndex.put(completion.getId(), completion.getText(), completion.getWeight());
+        }
+    }
+
+    // Writes land in a small delta on top of the index; fold it in once it grows large
+    private void compactIfNeeded() {
+        if ((recipeIndex.needsCompaction() || ingredientIndex.needsCompaction()) && compacting.compareAndSet(false, true)) {
+            Thread compactor = new Thread(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    compacting.set(false);
+                }
+            }, "autocomplete-compaction");
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+    }
+
+    private static PrefixCompletionIndex load(BiFunction<Long, PageRequest, List<Object[]>> batchLoader,
+                                              Function<Object[], Completion> toCompletion) {
+        List<Completion> completions = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = batchLoader.apply(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                completions.add(toCompletion.apply(row));
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        return PrefixCompletionIndex.build(completions, MAX_DELTA);
+    }
+
+    // Views count logarithmically so a viral recipe does not bury every well-rated one
+    private static Completion recipeCompletion(Object[] row) {
+        Integer viewCount = (Integer) row[2];
+        BigDecimal averageRating = (BigDecimal) row[3];
+        double rating = averageRating != null ? averageRating.doubleValue() / 5.0 : 0.0;
+        double views = Math.log1p(viewCount != null ? viewCount : 0);
+        return new Completion((Long) row[0], (String) row[1], views * (1.0 + rating) + rating);
+    }
+
+    private static Completion ingredientCompletion(Object[] row) {
+        return new Completion((Long) row[0], (String) row[1], ((Number) row[2]).doubleValue());
+    }
+}
@@ -0,0 +1,403 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.CacheInvalidationStatus;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeImportFinishedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-memory caches of several instances coherent through the
+ * cache_invalidation_log table, with nothing but the shared database.
+ *
+ * Recipe, ingredient list, rating, username, preference and import events are appended to the
+ * log in the transaction that publishes them, tagged with this node's id, so a change and its log
+ * row commit or roll back together. Every node tails the log by primary key every
+ * cache-invalidation.poll-interval-ms and republishes other nodes' rows as the same events,
+ * which the caches, indexes and versions already listen to; listeners that write to the
+ * database skip replayed events (see {@link #isReplaying()}), as the origin node wrote those
+ * rows already. Replays run on the scheduler's polling thread, so listeners only make
+ * incremental updates there; the index rebuilds a replayed import calls for are handed to
+ * IndexRebuildCoordinator's thread, and the scheduler pool keeps the other jobs running.
+ *
+ * Auto-increment ids are allocated at insert but become visible at commit, so a lower id can
+ * appear after a higher one was read. Skipped ids are re-checked on every poll until
+ * cache-invalidation.gap-timeout-ms, which has to exceed the longest write transaction; ids
+ * lost to rollbacks simply expire. Staleness on a node is therefore bounded by the poll
+ * interval, or the gap timeout for a transaction that commits out of order.
+ *
+ * View count flushes are not logged: each node flushes its own, and view counts are already
+ * approximate. Rows older than cache-invalidation.retention-hours are pruned, so a node has
+ * to poll at least that often to miss nothing.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cache_invalidation_log (entity_type, entity_id, change_type, origin, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT id, entity_type, entity_id, change_type, origin, created_at FROM cache_invalidation_log ";
+
+    // Caps the ids remembered as possibly late, e.g. with auto_increment_increment > 1
+    private static final int MAX_GAPS = 10_000;
+    private static final int MAX_BATCHES_PER_POLL = 100;
+
+    private static final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> false);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cache-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache-invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache-invalidation.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    @Value("${cache-invalidation.retention-hours:24}")
+    private long retentionHours;
+
+    private final String nodeId;
+
+    private volatile long cursor = -1;
+    // Skipped id -> when to stop waiting for it; only touched by the polling thread
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private volatile int pendingGaps;
+    private volatile LocalDateTime lastPollAt;
+    private volatile long lastLagMs;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong lateApplied = new AtomicLong();
+    private final AtomicLong expiredGaps = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    private final AtomicLong pollErrors = new AtomicLong();
+
+    public CacheInvalidationService(@Value("${cache-invalidation.node-id:}") String nodeId) {
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * True while this thread republishes another node's change. Listeners that write to the
+     * database check it, since the origin node has written the change already.
+     */
+    public static boolean isReplaying() {
+        return replaying.get();
+    }
+
+    /**
+     * Start tailing at the current end of the log. Runs before the other ready listeners
+     * start their warm-ups, so nothing committed after the caches read the database is missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void startTailing() {
+        if (!enabled) {
+            logger.info("Cache invalidation log disabled");
+            return;
+        }
+        try {
+            Long head = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidation_log", Long.class);
+            cursor = head != null ? head : 0;
+            logger.info("Cache invalidation node {} tailing after id {}", nodeId, cursor);
+        } catch (Exception e) {
+            // The first poll retries
+            logger.error("Failed to read the cache invalidation log: {}", e.getMessage());
+        }
+    }
+
+    // Appended in the publishing transaction, hence plain (synchronous) listeners
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        append("RECIPE", event.getRecipeId(), event.getType().name());
+    }
+
+    @EventListener
+    public void onIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        append("RECIPE", event.getRecipeId(), "INGREDIENTS");
+    }
+
+    @EventListener
+    public void onRatingChanged(RecipeRatingChangedEvent event) {
+        append("RECIPE", event.getRecipeId(), "RATING");
+    }
+
+    @EventListener
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        append("USER", event.getUserId(), "USERNAME");
+    }
+
+    @EventListener
+    public void onUserPreferencesChanged(UserPreferencesChangedEvent event) {
+        append("USER", event.getUserId(), "PREFERENCES");
+    }
+
+    // One row per import chunk and run rather than one per recipe
+
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        append("IMPORT", (long) event.getRecipeIds().size(), "CHUNK");
+    }
+
+    @EventListener
+    public void onRecipeImportFinished(RecipeImportFinishedEvent event) {
+        append("IMPORT", event.getImported(), "FINISHED");
+    }
+
+    private void append(String entityType, Long entityId, String changeType) {
+        if (!enabled || isReplaying()) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, entityType, entityId, changeType, nodeId, Timestamp.valueOf(LocalDateTime.now()));
+        written.incrementAndGet();
+    }
+
+    /**
+     * Apply the rows other nodes appended since the last poll, and any late rows that have
+     * committed since.
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.poll-interval-ms:500}",
+            initialDelayString = "${cache-invalidation.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (cursor < 0) {
+                startTailing();
+                if (cursor < 0) {
+                    return;
+                }
+            }
+            for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+                List<LogRow> rows = jdbcTemplate.query(SELECT_SQL + "WHERE id > ? ORDER BY id LIMIT ?",
+                        ROW_MAPPER, cursor, batchSize);
+                for (LogRow row : rows) {
+                    rememberGaps(cursor + 1, row.id);
+                    cursor = row.id;
+                    apply(row);
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+            }
+            recheckGaps();
+            lastPollAt = LocalDateTime.now();
+        } catch (Exception e) {
+            pollErrors.incrementAndGet();
+            logger.error("Failed to poll the cache invalidation log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete rows past the retention period.
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.prune-interval-ms:3600000}",
+            initialDelayString = "${cache-invalidation.prune-interval-ms:3600000}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM cache_invalidation_log WHERE created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+            if (deleted > 0) {
+                logger.info("Pruned {} cache invalidation log rows", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to prune the cache invalidation log: {}", e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public CacheInvalidationStatus getStatus() {
+        Long head = null;
+        if (enabled) {
+            try {
+                head = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidation_log", Long.class);
+            } catch (Exception e) {
+                logger.warn("Failed to read the cache invalidation log head: {}", e.getMessage());
+            }
+        }
+        long position = cursor;
+        return new CacheInvalidationStatus(
+                enabled,
+                nodeId,
+                position,
+                head,
+                head != null && position >= 0 ? Math.max(0, head - position) : null,
+                pendingGaps,
+                lastPollAt,
+                lastLagMs,
+                maxLagMs.get(),
+                written.get(),
+                applied.get(),
+                lateApplied.get(),
+                expiredGaps.get(),
+                pollErrors.get()
+        );
+    }
+
+    private void rememberGaps(long from, long to) {
+        long deadline = System.currentTimeMillis() + gapTimeoutMs;
+        for (long id = from; id < to && gaps.size() < MAX_GAPS; id++) {
+            gaps.put(id, deadline);
+        }
+    }
+
+    private void recheckGaps() {
+        if (gaps.isEmpty()) {
+            pendingGaps = 0;
+            return;
+        }
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            List<LogRow> rows = namedParameterJdbcTemplate.query(SELECT_SQL + "WHERE id IN (:ids) ORDER BY id",
+                    new MapSqlParameterSource("ids", chunk), ROW_MAPPER);
+            for (LogRow row : rows) {
+                gaps.remove(row.id);
+                if (apply(row)) {
+                    lateApplied.incrementAndGet();
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        int before = gaps.size();
+        gaps.values().removeIf(deadline -> deadline <= now);
+        expiredGaps.addAndGet(before - gaps.size());
+        pendingGaps = gaps.size();
+    }
+
+    /**
+     * Republish another node's row as the event it was written from. Returns false for this
+     * node's own rows, whose events were handled locally when they happened.
+     */
+    private boolean apply(LogRow row) {
+        if (nodeId.equals(row.origin)) {
+            return false;
+        }
+        Object event = toEvent(row);
+        if (event == null) {
+            logger.warn("Skipping unknown cache invalidation {} {}", row.entityType, row.changeType);
+            return false;
+        }
+        replaying.set(true);
+        try {
+            eventPublisher.publishEvent(event);
+        } finally {
+            replaying.set(false);
+        }
+        applied.incrementAndGet();
+        if (row.createdAt != null) {
+            // Includes clock skew between the nodes
+            lastLagMs = Math.max(0, System.currentTimeMillis() - row.createdAt.getTime());
+            maxLagMs.accumulateAndGet(lastLagMs, Math::max);
+        }
+        return true;
+    }
+
+    private Object toEvent(LogRow row) {
+        switch (row.entityType + "/" + row.changeType) {
+            case "RECIPE/CREATED":
+            case "RECIPE/UPDATED":
+            case "RECIPE/DELETED":
+                return new RecipeChangedEvent(row.entityId, RecipeChangedEvent.Type.valueOf(row.changeType));
+            case "RECIPE/INGREDIENTS":
+                return new RecipeIngredientsChangedEvent(row.entityId, loadIngredientNames(row.entityId));
+            case "RECIPE/RATING":
+                return new RecipeRatingChangedEvent(row.entityId);
+            case "USER/USERNAME":
+                List<String> usernames = jdbcTemplate.queryForList(
+                        "SELECT username FROM users WHERE id = ?", String.class, row.entityId);
+                return new UsernameChangedEvent(row.entityId, usernames.isEmpty() ? null : usernames.get(0));
+            case "USER/PREFERENCES":
+                return new UserPreferencesChangedEvent(row.entityId);
+            case "IMPORT/CHUNK":
+                // Only the database-writing listeners use the ids, and they skip replays
+                return new RecipesImportedEvent(List.of());
+            case "IMPORT/FINISHED":
+                // Rebuilds in the background; the poll carries on with the next row
+                return new RecipeImportFinishedEvent(row.entityId != null ? row.entityId : 0);
+            default:
+                return null;
+        }
+    }
+
+    // The event carries the names so listeners need no query; rebuild them from the database
+    private Map<Long, String> loadIngredientNames(Long recipeId) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT i.id, i.name FROM recipe_ingredients ri JOIN ingredients i ON i.id = ri.ingredient_id " +
+                        "WHERE ri.recipe_id = ? ORDER BY ri.id",
+                rs -> {
+                    names.put(rs.getLong(1), rs.getString(2));
+                }, recipeId);
+        return names;
+    }
+
+    private static final RowMapper<LogRow> ROW_MAPPER = (rs, rowNum) -> new LogRow(
+            rs.getLong(1), rs.getString(2), rs.getObject(3, Long.class), rs.getString(4), rs.getString(5),
+            rs.getTimestamp(6));
+
+    private static final class LogRow {
+        final long id;
+        final String entityType;
+        final Long entityId;
+        final String changeType;
+        final String origin;
+        final Timestamp createdAt;
+
+        LogRow(long id, String entityType, Long entityId, String changeType, String origin, Timestamp createdAt) {
+            this.id = id;
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.changeType = changeType;
+            this.origin = origin;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.cookmate.backend.dto.RecipeDto;
 import com.cookmate.backend.entity.Favorite;
 import com.cookmate.backend.entity.Recipe;
 import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeEngagementEvent;
 import com.cookmate.backend.exception.BadRequestException;
 import com.cookmate.backend.exception.ResourceNotFoundException;
 import com.cookmate.backend.repository.FavoriteRepository;
@@ -13,6 +14,7 @@ import com.cookmate.backend.repository.RecipeRepository;
 import com.cookmate.backend.repository.UserRepository;
 import com.cookmate.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -38,6 +40,9 @@ public class FavoriteService {
     @Autowired
     private RecipeService recipeService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Transactional
     public ApiResponse addFavorite(Long recipeId, Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -57,6 +62,7 @@ public class FavoriteService {
         favorite.setRecipe(recipe);
         
         favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new RecipeEngagementEvent(recipeId, user.getId(), RecipeEngagementEvent.Type.FAVORITED));
         
         return new ApiResponse(true, "Recipe added to favorites");
     }
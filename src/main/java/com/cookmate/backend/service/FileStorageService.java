@@ -95,6 +95,29 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Stream data into a new file without buffering it in memory and return the generated filename (no prefix).
+     */
+    public String storeFile(InputStream data, String originalFilename) {
+        String filename = StringUtils.cleanPath(originalFilename == null ? "file" : originalFilename);
+        try {
+            String uniqueFilename = System.currentTimeMillis() + "_" + filename;
+            Path destinationFile = this.rootLocation.resolve(Paths.get(uniqueFilename))
+                    .normalize().toAbsolutePath();
+
+            // Ensure the destination is within the uploads directory
+            if (!destinationFile.getParent().equals(this.rootLocation.toAbsolutePath())) {
+                throw new RuntimeException("Cannot store file outside current directory.");
+            }
+
+            Files.copy(data, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+
+            return uniqueFilename;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file " + filename, e);
+        }
+    }
+
     /**
      * Delete a stored file by its filename (the generated name, not a path).
      */
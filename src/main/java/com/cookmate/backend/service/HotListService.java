@@ -0,0 +1,388 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.HotListStatus;
+import com.cookmate.backend.dto.PageResponse;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.event.HotListsRefreshedEvent;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.repository.RecipeCardRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.SegmentTopLists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized first pages of the top-rated, most-viewed and recent lists, plus the best
+ * rated recipes of every cuisine x meal type x dietary flag segment for the preference
+ * recommendations.
+ *
+ * Both are immutable snapshots swapped in whole by a background refresh: on startup, within
+ * hot-lists.check-interval-ms of a relevant write event and at least every
+ * hot-lists.refresh-interval-ms. Write events only mark a snapshot stale; the segments take a
+ * scan of every recipe, so writes rebuild them at most once per hot-lists.segment-min-interval-ms.
+ * The global lists come from the recipe cards once those are ready (else from the recipes
+ * table) with the same ordering as the SQL they stand in for, so a page past the snapshot
+ * continues seamlessly from SQL. Reads may trail a write by one check interval, segments by up
+ * to the minimum interval. A refresh that changes what the lists show publishes
+ * HotListsRefreshedEvent.
+ */
+@Service
+public class HotListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotListService.class);
+
+    private static final String SEGMENT_SQL =
+            "SELECT id, cuisine_type, meal_type, is_vegetarian, is_vegan, is_gluten_free, average_rating, view_count " +
+            "FROM recipes";
+
+    public enum HotList { TOP_RATED, MOST_VIEWED, RECENT }
+
+    @Autowired
+    private RecipeCardService recipeCardService;
+
+    @Autowired
+    private RecipeCardRepository recipeCardRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeDtoAssembler recipeDtoAssembler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${hot-lists.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hot-lists.size:120}")
+    private int listSize;
+
+    @Value("${hot-lists.segment-size:50}")
+    private int segmentSize;
+
+    @Value("${hot-lists.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    @Value("${hot-lists.segment-min-interval-ms:10000}")
+    private long segmentMinIntervalMs;
+
+    private volatile Lists lists;
+    private volatile SegmentTopLists segments;
+    private volatile boolean listsStale = true;
+    private volatile boolean segmentsStale = true;
+    private volatile long segmentsBuiltAtMillis;
+    private volatile LocalDateTime segmentsBuiltAt;
+    private volatile long segmentsBuildMs;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Hot lists disabled");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "hot-lists-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the snapshots that were marked stale or have outlived the refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${hot-lists.check-interval-ms:1000}",
+            initialDelayString = "${hot-lists.check-interval-ms:1000}")
+    public void refreshIfStale() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Lists current = lists;
+        boolean listsDue = current == null || listsStale || now - current.builtAtMillis >= refreshIntervalMs;
+        long segmentsAge = now - segmentsBuiltAtMillis;
+        // A burst of writes shares one segment scan
+        boolean segmentsDue = segments == null || (segmentsStale && segmentsAge >= segmentMinIntervalMs)
+                || segmentsAge >= refreshIntervalMs;
+        if (listsDue || segmentsDue) {
+            rebuild(listsDue, segmentsDue);
+        }
+    }
+
+    /**
+     * Rebuild both snapshots from the database and swap them in.
+     */
+    public void rebuild() {
+        rebuild(true, true);
+    }
+
+    private synchronized void rebuild(boolean rebuildLists, boolean rebuildSegments) {
+        try {
+            if (rebuildLists) {
+                // Cleared before reading, so an event arriving mid-build schedules another pass
+                listsStale = false;
+                Lists current = lists;
+                Lists rebuilt = buildLists();
+                lists = rebuilt;
+                if (current != null && (rebuilt.total != current.total || !rebuilt.content.equals(current.content))) {
+                    boolean viewsOnly = rebuilt.total == current.total
+                            && rebuilt.content.get(HotList.TOP_RATED).equals(current.content.get(HotList.TOP_RATED))
+                            && rebuilt.content.get(HotList.RECENT).equals(current.content.get(HotList.RECENT));
+                    eventPublisher.publishEvent(new HotListsRefreshedEvent(viewsOnly));
+                }
+            }
+            if (rebuildSegments) {
+                segmentsStale = false;
+                long start = System.currentTimeMillis();
+                segments = buildSegments();
+                segmentsBuiltAtMillis = start;
+                segmentsBuiltAt = LocalDateTime.now();
+                segmentsBuildMs = System.currentTimeMillis() - start;
+            }
+        } catch (Exception e) {
+            listsStale |= rebuildLists;
+            segmentsStale |= rebuildSegments;
+            logger.error("Failed to refresh hot lists: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && lists != null && segments != null;
+    }
+
+    /**
+     * A page of a global list from the snapshot, or null when the page reaches past it and
+     * has to come from SQL.
+     */
+    public PageResponse<RecipeDto> page(HotList list, int page, int size) {
+        Lists snapshot = lists;
+        if (!enabled || snapshot == null || page < 0 || size <= 0) {
+            return null;
+        }
+        List<RecipeDto> content = snapshot.content.get(list);
+        long from = (long) page * size;
+        if (from + size > content.size() && snapshot.total > content.size()) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        served.incrementAndGet();
+        List<RecipeDto> pageContent = from >= content.size()
+                ? List.of()
+                : copies(content.subList((int) from, (int) Math.min(from + size, content.size())));
+        int totalPages = (int) ((snapshot.total + size - 1) / size);
+        return new PageResponse<>(pageContent, page, size, snapshot.total, totalPages,
+                from + size >= snapshot.total);
+    }
+
+    /**
+     * The first n ids of a global list, or null when the snapshot holds fewer than n and
+     * there are more recipes.
+     */
+    public List<Long> topIds(HotList list, int n) {
+        Lists snapshot = lists;
+        if (!enabled || snapshot == null) {
+            return null;
+        }
+        List<RecipeDto> content = snapshot.content.get(list);
+        if (n > content.size() && snapshot.total > content.size()) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        served.incrementAndGet();
+        return content.stream().limit(n).map(RecipeDto::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * The best rated ids matching the recommendation preferences, skipping excluded ids and
+     * those the allergen exclusion rules out, or null when the segments cannot answer: a
+     * dietary flag required to be false, more than one required flag, too many of the
+     * segment's ids excluded, or an exclusion still pending.
+     */
+    public List<Long> preferredIds(String cuisineType, String mealType, Boolean isVegetarian,
+                                   Boolean isVegan, Boolean isGlutenFree, Collection<Long> excludeIds,
+                                   AllergenExclusion exclusion, int limit) {
+        SegmentTopLists snapshot = segments;
+        if (!enabled || snapshot == null || !exclusion.isResolved() || Boolean.FALSE.equals(isVegetarian)
+                || Boolean.FALSE.equals(isVegan) || Boolean.FALSE.equals(isGlutenFree)) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        List<SegmentTopLists.Diet> diets = new ArrayList<>();
+        if (Boolean.TRUE.equals(isVegetarian)) diets.add(SegmentTopLists.Diet.VEGETARIAN);
+        if (Boolean.TRUE.equals(isVegan)) diets.add(SegmentTopLists.Diet.VEGAN);
+        if (Boolean.TRUE.equals(isGlutenFree)) diets.add(SegmentTopLists.Diet.GLUTEN_FREE);
+        if (diets.size() > 1) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        SegmentTopLists.Diet diet = diets.isEmpty() ? null : diets.get(0);
+
+        List<Long> ids = new ArrayList<>(limit);
+        for (long id : snapshot.top(cuisineType, mealType, diet)) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            if (!excludeIds.contains(id) && !exclusion.excludes(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() < limit && !snapshot.isComplete(cuisineType, mealType, diet)) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        served.incrementAndGet();
+        return ids;
+    }
+
+    public HotListStatus getStatus() {
+        Lists snapshot = lists;
+        SegmentTopLists segmentSnapshot = segments;
+        return new HotListStatus(
+                enabled,
+                isReady(),
+                snapshot != null ? snapshot.builtAt : null,
+                snapshot != null ? snapshot.buildMs : null,
+                segmentsBuiltAt,
+                segmentSnapshot != null ? segmentsBuildMs : null,
+                listSize,
+                segmentSnapshot != null ? segmentSnapshot.segmentCount() : 0,
+                served.get(),
+                fallbacks.get()
+        );
+    }
+
+    // Rating, creation or deletion can move a recipe in every list and segment
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        listsStale = true;
+        segmentsStale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RecipeRatingChangedEvent event) {
+        listsStale = true;
+        segmentsStale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipesImported(RecipesImportedEvent event) {
+        listsStale = true;
+        segmentsStale = true;
+    }
+
+    // Segments hold ids only and rank by rating first, so these only touch the list DTOs
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        listsStale = true;
+    }
+
+    @EventListener
+    public void onViewCountsFlushed(ViewCountsFlushedEvent event) {
+        listsStale = true;
+    }
+
+    private Lists buildLists() {
+        long start = System.currentTimeMillis();
+        Map<HotList, List<RecipeDto>> content = new EnumMap<>(HotList.class);
+        long total;
+        PageRequest first = PageRequest.of(0, listSize);
+        if (recipeCardService.isReady()) {
+            // Same sorts as RecipeService's card queries
+            content.put(HotList.TOP_RATED, cards(PageRequest.of(0, listSize, Sort.by(Sort.Direction.DESC, "averageRating", "id"))));
+            content.put(HotList.MOST_VIEWED, cards(PageRequest.of(0, listSize, Sort.by(Sort.Direction.DESC, "viewCount", "id"))));
+            content.put(HotList.RECENT, cards(PageRequest.of(0, listSize, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+            total = recipeCardRepository.count();
+        } else {
+            content.put(HotList.TOP_RATED, recipes(recipeRepository.findByOrderByAverageRatingDesc(first).getContent()));
+            content.put(HotList.MOST_VIEWED, recipes(recipeRepository.findByOrderByViewCountDesc(first).getContent()));
+            content.put(HotList.RECENT, recipes(recipeRepository.findByOrderByCreatedAtDesc(first).getContent()));
+            total = recipeRepository.count();
+        }
+        return new Lists(content, total, start, System.currentTimeMillis() - start);
+    }
+
+    private List<RecipeDto> cards(PageRequest pageRequest) {
+        return convert(recipeCardRepository.findAll(pageRequest).getContent(), recipeDtoAssembler::toListDto);
+    }
+
+    private List<RecipeDto> recipes(List<Recipe> recipes) {
+        return convert(recipes, recipeDtoAssembler::toListDto);
+    }
+
+    private static <T> List<RecipeDto> convert(List<T> rows, Function<T, RecipeDto> converter) {
+        return List.copyOf(rows.stream().map(converter).collect(Collectors.toList()));
+    }
+
+    private SegmentTopLists buildSegments() {
+        SegmentTopLists.Builder builder = SegmentTopLists.builder(segmentSize);
+        jdbcTemplate.query(SEGMENT_SQL, (RowCallbackHandler) (ResultSet rs) -> {
+            BigDecimal rating = rs.getBigDecimal(7);
+            builder.add(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getBoolean(4), rs.getBoolean(5), rs.getBoolean(6),
+                    rating != null ? rating.doubleValue() : 0, rs.getLong(8));
+        });
+        return builder.build();
+    }
+
+    // Snapshot DTOs are shared; callers get copies they are free to modify
+    private static List<RecipeDto> copies(List<RecipeDto> dtos) {
+        List<RecipeDto> copies = new ArrayList<>(dtos.size());
+        for (RecipeDto dto : dtos) {
+            RecipeDto copy = new RecipeDto();
+            BeanUtils.copyProperties(dto, copy);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static final class Lists {
+        final Map<HotList, List<RecipeDto>> content;
+        final long total;
+        final long builtAtMillis;
+        final LocalDateTime builtAt = LocalDateTime.now();
+        final long buildMs;
+
+        Lists(Map<HotList, List<RecipeDto>> content, long total, long builtAtMillis, long buildMs) {
+            this.content = content;
+            this.total = total;
+            this.builtAtMillis = builtAtMillis;
+            this.buildMs = buildMs;
+        }
+    }
+}
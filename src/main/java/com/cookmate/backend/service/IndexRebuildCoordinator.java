@@ -0,0 +1,113 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeImportFinishedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuilds the in-memory recipe indexes after a bulk import. An import adds recipes in bulk, so
+ * instead of one update per recipe each enabled index is rebuilt once, in turn, on a dedicated
+ * background thread: the import worker (or the invalidation poller replaying another
+ * instance's import) returns at once, and two rebuilds never compete for the database.
+ *
+ * Imports finishing while a round is queued share it; one finishing while a round runs queues
+ * the next, so the last import is always covered.
+ */
+@Service
+public class IndexRebuildCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexRebuildCoordinator.class);
+
+    @Autowired
+    private RecipeAllergenService recipeAllergenService;
+
+    @Autowired
+    private RecipeSearchService recipeSearchService;
+
+    @Autowired
+    private RecipeFacetService recipeFacetService;
+
+    @Autowired
+    private IngredientMatchService ingredientMatchService;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private RecipeFeatureService recipeFeatureService;
+
+    @Autowired
+    private SimilarRecipeService similarRecipeService;
+
+    private ExecutorService executor;
+
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onRecipeImportFinished(RecipeImportFinishedEvent event) {
+        if (event.getImported() > 0 && queued.compareAndSet(false, true)) {
+            executor.execute(this::rebuildAll);
+        }
+    }
+
+    private void rebuildAll() {
+        queued.set(false);
+        long start = System.currentTimeMillis();
+        // Allergen masks first, so the rebuilt indexes exclude new recipes from the start
+        Map<String, Runnable> rebuilds = new LinkedHashMap<>();
+        if (recipeAllergenService.isEnabled()) {
+            rebuilds.put("allergen masks", recipeAllergenService::rebuild);
+        }
+        if (recipeSearchService.isEnabled()) {
+            rebuilds.put("search", recipeSearchService::rebuild);
+        }
+        if (recipeFacetService.isEnabled()) {
+            rebuilds.put("facets", recipeFacetService::rebuild);
+        }
+        if (ingredientMatchService.isEnabled()) {
+            rebuilds.put("ingredient match", ingredientMatchService::rebuild);
+        }
+        if (autocompleteService.isEnabled()) {
+            rebuilds.put("autocomplete", autocompleteService::rebuild);
+        }
+        if (recipeFeatureService.isEnabled()) {
+            rebuilds.put("features", recipeFeatureService::rebuild);
+        }
+        if (similarRecipeService.isEnabled()) {
+            rebuilds.put("similar recipes", similarRecipeService::rebuild);
+        }
+        rebuilds.forEach((name, rebuild) -> {
+            try {
+                rebuild.run();
+            } catch (Exception e) {
+                logger.error("Failed to rebuild the {} index after an import: {}", name, e.getMessage());
+            }
+        });
+        logger.info("Indexes rebuilt after an import in {} ms", System.currentTimeMillis() - start);
+    }
+}
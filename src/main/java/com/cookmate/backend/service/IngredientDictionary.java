@@ -0,0 +1,255 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.IngredientDictionaryStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory dictionary of ingredient ids by normalized name (trimmed, inner whitespace
+ * collapsed, lower case), warmed from the ingredients table at startup.
+ *
+ * Ingredients are never deleted, so a cached id stays valid and entries are never evicted;
+ * the dictionary holds one entry per ingredient. Names it does not know are looked up with one
+ * IN query. Unknown names are created with a single multi-row INSERT ... ON DUPLICATE KEY and
+ * their ids re-read with a locking read, so concurrent transactions creating the same name
+ * wait for each other on the unique index instead of failing, and both end up with the id
+ * that committed. Names are inserted in sorted order so two such transactions cannot
+ * deadlock. Ids read or created inside a transaction enter the dictionary only after it
+ * commits, so a rollback cannot leave an id behind that does not exist.
+ *
+ * Name matching relies on the column's case- and accent-insensitive collation, as the unique
+ * constraint on ingredients.name already does; a name found under another spelling is cached
+ * under both.
+ */
+@Service
+public class IngredientDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngredientDictionary.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Keeps each statement well under MySQL's placeholder limit
+    private static final int MAX_NAMES_PER_STATEMENT = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private volatile boolean warm;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread warmer = new Thread(this::load, "ingredient-dictionary-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Load every ingredient into the dictionary, replacing what it holds for those names.
+     * Lookups made meanwhile fall back to the database and fill the dictionary as they go.
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.query("SELECT id, name FROM ingredients", (ResultSet rs) -> {
+                String name = rs.getString(2);
+                idsByName.put(normalize(name), rs.getLong(1));
+                namesById.put(rs.getLong(1), name);
+            });
+            warm = true;
+            logger.info("Ingredient dictionary loaded: {} names in {} ms",
+                    idsByName.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to load ingredient dictionary, names resolve through the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The key names are resolved under: names differing only in case or whitespace are the
+     * same ingredient.
+     */
+    public static String normalize(String name) {
+        return WHITESPACE.matcher(name.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ids of the existing ingredients with these names, by normalized name. Names without an
+     * ingredient are left out.
+     */
+    public Map<String, Long> findAll(Collection<String> names) {
+        Map<String, Long> found = new HashMap<>();
+        Map<String, String> unknown = new TreeMap<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (key.isEmpty() || found.containsKey(key) || unknown.containsKey(key)) {
+                continue;
+            }
+            Long id = idsByName.get(key);
+            if (id != null) {
+                hits.incrementAndGet();
+                found.put(key, id);
+            } else {
+                misses.incrementAndGet();
+                unknown.put(key, displayName(name));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            select(unknown.values(), false, found);
+        }
+        return found;
+    }
+
+    /**
+     * Ids for all these names, by normalized name: existing ingredients and the rest created.
+     * Only exact normalized names match; a name one letter away from an existing ingredient
+     * ("pears", "peas") is a different ingredient. Call it inside the transaction that will use
+     * the ids.
+     */
+    public Map<String, Long> resolveAll(Collection<String> names) {
+        Map<String, Long> resolved = findAll(names);
+        Map<String, String> missing = new TreeMap<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (!key.isEmpty() && !resolved.containsKey(key)) {
+                missing.putIfAbsent(key, displayName(name));
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        List<String> sorted = new ArrayList<>(missing.values());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < sorted.size(); from += MAX_NAMES_PER_STATEMENT) {
+            List<String> slice = sorted.subList(from, Math.min(sorted.size(), from + MAX_NAMES_PER_STATEMENT));
+            List<Object> args = new ArrayList<>(slice.size() * 2);
+            for (String name : slice) {
+                args.add(name);
+                args.add(now);
+            }
+            // A name created concurrently is left as it is; the locking read below returns its id
+            int rows = jdbcTemplate.update("INSERT INTO ingredients (name, created_at) VALUES " +
+                    String.join(", ", Collections.nCopies(slice.size(), "(?, ?)")) +
+                    " ON DUPLICATE KEY UPDATE id = id", args.toArray());
+            created.addAndGet(Math.min(rows, slice.size()));
+        }
+        select(sorted, true, resolved);
+        return resolved;
+    }
+
+    /**
+     * The stored name of an ingredient the dictionary has seen, or null.
+     */
+    public String nameOf(Long id) {
+        return namesById.get(id);
+    }
+
+    public IngredientDictionaryStatus getStatus() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        return new IngredientDictionaryStatus(warm, (long) idsByName.size(), hitCount, missCount,
+                requests == 0 ? 1.0 : (double) hitCount / requests, created.get());
+    }
+
+    private void select(Collection<String> names, boolean forUpdate, Map<String, Long> into) {
+        List<String> all = new ArrayList<>(names);
+        Map<Long, String> read = new HashMap<>();
+        for (int from = 0; from < all.size(); from += MAX_NAMES_PER_STATEMENT) {
+            List<String> slice = all.subList(from, Math.min(all.size(), from + MAX_NAMES_PER_STATEMENT));
+            // The locking read sees rows committed by transactions it waited for, which a plain
+            // read in a repeatable-read snapshot would not
+            namedParameterJdbcTemplate.query("SELECT id, name FROM ingredients WHERE name IN (:names)" +
+                            (forUpdate ? " FOR UPDATE" : ""),
+                    new MapSqlParameterSource("names", slice),
+                    (ResultSet rs) -> {
+                        read.put(rs.getLong(1), rs.getString(2));
+                    });
+        }
+
+        // The collation also ignores accents, so "jalapeno" finds "Jalapeño": each requested
+        // name takes the row with its own key if there is one, else the row equal to it unaccented
+        Map<String, Long> byKey = new HashMap<>();
+        Map<String, Long> byUnaccentedKey = new HashMap<>();
+        read.forEach((id, name) -> {
+            byKey.putIfAbsent(normalize(name), id);
+            byUnaccentedKey.putIfAbsent(unaccented(normalize(name)), id);
+        });
+        Map<String, Long> matched = new HashMap<>();
+        for (String name : all) {
+            String key = normalize(name);
+            Long id = byKey.getOrDefault(key, byUnaccentedKey.get(unaccented(key)));
+            if (id != null) {
+                into.putIfAbsent(key, id);
+                matched.put(key, id);
+            }
+        }
+        rememberAfterCommit(read, matched);
+    }
+
+    private void rememberAfterCommit(Map<Long, String> read, Map<String, Long> matched) {
+        if (read.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(read, matched);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(read, matched);
+            }
+        });
+    }
+
+    private void remember(Map<Long, String> read, Map<String, Long> matched) {
+        read.forEach((id, name) -> {
+            idsByName.putIfAbsent(normalize(name), id);
+            namesById.putIfAbsent(id, name);
+        });
+        matched.forEach(idsByName::putIfAbsent);
+    }
+
+    private static String unaccented(String key) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(key, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static String displayName(String name) {
+        return WHITESPACE.matcher(name.trim()).replaceAll(" ");
+    }
+}
@@ -0,0 +1,144 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.repository.RecipeIngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.IngredientMatchResult;
+import com.cookmate.backend.search.IngredientRecipeIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves "what can I cook with what I have" queries from the in-memory ingredient bitmap index.
+ *
+ * The index is loaded in the background at startup and then maintained from the ingredient
+ * lists RecipeService writes, so ingredient searches never touch MySQL once it is ready.
+ */
+@Service
+public class IngredientMatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngredientMatchService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Value("${search.ingredient-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile IngredientRecipeIndex index = new IngredientRecipeIndex();
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Ingredient index disabled; ingredient search uses SQL");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "ingredient-index-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the index from recipe_ingredients and swap it in.
+     * Recipes changed while the rebuild runs are reloaded after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            IngredientRecipeIndex fresh = new IngredientRecipeIndex();
+            long afterId = 0L;
+            while (true) {
+                List<Long> ids = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                load(fresh, ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+            index = fresh;
+            ready = true;
+            changedDuringRebuild = null;
+            for (Long recipeId : changed) {
+                load(fresh, List.of(recipeId));
+            }
+            logger.info("Ingredient index built: {} recipes in {} ms",
+                    fresh.recipeCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build ingredient index, ingredient search stays on SQL: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public IngredientMatchResult match(List<String> ingredientNames, AllergenExclusion exclusion,
+                                       int offset, int limit) {
+        return index.match(ingredientNames, exclusion, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        index.setRecipeIngredients(event.getRecipeId(), event.getIngredients());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled || !event.isDeleted()) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        index.removeRecipe(event.getRecipeId());
+    }
+
+    private void markChanged(Long recipeId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(recipeId);
+        }
+    }
+
+    private void load(IngredientRecipeIndex target, List<Long> recipeIds) {
+        Map<Long, Map<Long, String>> byRecipe = new HashMap<>();
+        for (Long recipeId : recipeIds) {
+            byRecipe.put(recipeId, new HashMap<>());
+        }
+        for (Object[] row : recipeIngredientRepository.findIngredientRefsByRecipeIds(recipeIds)) {
+            byRecipe.get((Long) row[0]).put((Long) row[1], (String) row[2]);
+        }
+        byRecipe.forEach(target::setRecipeIngredients);
+    }
+}
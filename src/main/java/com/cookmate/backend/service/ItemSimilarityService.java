@@ -0,0 +1,515 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.AlsoLikedStatus;
+import com.cookmate.backend.repository.FavoriteRepository;
+import com.cookmate.backend.repository.RecentlyViewedRepository;
+import com.cookmate.backend.search.InteractionGraph;
+import com.cookmate.backend.search.ItemNeighbors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * "Users who liked this also liked": item-to-item collaborative filtering over favorites and
+ * recently viewed recipes. Every recipe gets its top-M most similar recipes by cosine or
+ * Jaccard similarity of the users who favorited or viewed them, computed in parallel from an
+ * in-memory InteractionGraph and persisted to recipe_neighbors.
+ *
+ * At startup the persisted lists are served as they are while the graph is read. A scheduled
+ * incremental pass then reads favorites and views past the last ids it saw and recomputes the
+ * lists of every recipe of the users involved; a scheduled full rebuild recomputes everything,
+ * which also drops removed favorites and picks up rows committed out of id order.
+ *
+ * With several instances only the one holding the "also-liked" job lock (see JobLockService)
+ * keeps the graph, runs both passes and writes recipe_neighbors. The others reload the
+ * persisted lists on every incremental interval in which they changed, and take the job over,
+ * starting with a full rebuild, when its holder stops renewing the lease.
+ */
+@Service
+public class ItemSimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSimilarityService.class);
+
+    private static final String JOB_LOCK = "also-liked";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String NEIGHBOR_INSERT =
+            "INSERT INTO recipe_neighbors (recipe_id, neighbor_id, position, score, computed_at) VALUES ";
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecentlyViewedRepository recentlyViewedRepository;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${also-liked.enabled:true}")
+    private boolean enabled;
+
+    @Value("${also-liked.neighbors:20}")
+    private int neighborsPerRecipe;
+
+    @Value("${also-liked.measure:cosine}")
+    private String measure;
+
+    @Value("${also-liked.min-co-occurrence:2}")
+    private int minCoOccurrence;
+
+    @Value("${also-liked.max-items-per-user:200}")
+    private int maxItemsPerUser;
+
+    // Fork-join workers for a computation, 0 for one per processor
+    @Value("${also-liked.parallelism:0}")
+    private int parallelism;
+
+    // Renewed on every pass, so it has to outlast the incremental interval
+    @Value("${also-liked.lock-lease-ms:900000}")
+    private long lockLeaseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ItemNeighbors neighbors = ItemNeighbors.empty();
+    private volatile boolean ready;
+
+    // Newest computed_at of the lists loaded from another instance's writes
+    private volatile Timestamp loadedVersion;
+
+    // Guarded by this: the graph the lists were computed from and the last ids read into it
+    private InteractionGraph graph;
+    private long favoriteWatermark;
+    private long viewWatermark;
+
+    // Size of the graph as of the last pass, for the status without taking the lock
+    private volatile long graphInteractions;
+    private volatile int graphUsers;
+    private volatile long graphMemoryBytes;
+
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+    private volatile LocalDateTime lastUpdateAt;
+    private volatile long lastUpdateMs;
+    private volatile int lastUpdatedRecipes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Also-liked lists disabled; recommendations fall back to similar cuisines and meal types");
+            return;
+        }
+        if (running.compareAndSet(false, true)) {
+            Thread warmer = new Thread(() -> {
+                try {
+                    warmStart();
+                } finally {
+                    running.set(false);
+                }
+            }, "also-liked-warmup");
+            warmer.setDaemon(true);
+            warmer.start();
+        }
+    }
+
+    /**
+     * Rebuild every list in the background.
+     *
+     * @return false if disabled, a rebuild or update is already running, or another instance
+     *         computes the lists
+     */
+    public boolean startRebuild() {
+        if (!enabled || !jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs) || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread rebuilder = new Thread(() -> {
+            try {
+                rebuild();
+            } finally {
+                running.set(false);
+            }
+        }, "also-liked-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${also-liked.rebuild-interval-ms:86400000}",
+            initialDelayString = "${also-liked.rebuild-interval-ms:86400000}")
+    public void scheduledRebuild() {
+        if (isReady()) {
+            startRebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${also-liked.incremental-interval-ms:300000}",
+            initialDelayString = "${also-liked.incremental-interval-ms:300000}")
+    public void scheduledUpdate() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (!jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs)) {
+                reloadPersisted();
+            } else if (!updateIncrementallyIfLoaded()) {
+                // Taken over from another instance, or the warm-up failed: no graph to update
+                rebuild();
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Read the whole graph, recompute every list, persist them and swap them in.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            InteractionGraph fresh = new InteractionGraph(maxItemsPerUser);
+            long favorites = readInteractions(fresh, 0L, favoriteRepository::findInteractionsAfter, null);
+            long views = readInteractions(fresh, 0L, recentlyViewedRepository::findInteractionsAfter, null);
+            ItemNeighbors table = withPool(pool -> ItemNeighbors.compute(fresh, settings(), pool));
+            if (!persistIfHeld(table, null)) {
+                return;
+            }
+
+            graph = fresh;
+            recordGraphSize();
+            favoriteWatermark = favorites;
+            viewWatermark = views;
+            neighbors = table;
+            ready = true;
+            lastRebuildMs = System.currentTimeMillis() - start;
+            lastRebuildAt = LocalDateTime.now();
+            logger.info("Also-liked lists rebuilt: {} interactions of {} users, {} recipes with {} neighbours in {} ms",
+                    fresh.interactionCount(), fresh.userCount(), table.size(), table.entryCount(), lastRebuildMs);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild also-liked lists: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add favorites and views recorded since the last pass to the graph and recompute the
+     * lists of every recipe their users interacted with. Other lists keep the old counts of
+     * these recipes until the next rebuild.
+     *
+     * @return the number of lists recomputed
+     */
+    public synchronized int updateIncrementally() {
+        InteractionGraph current = graph;
+        if (current == null) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Set<Long> touchedUsers = new HashSet<>();
+            favoriteWatermark = readInteractions(current, favoriteWatermark,
+                    favoriteRepository::findInteractionsAfter, touchedUsers);
+            viewWatermark = readInteractions(current, viewWatermark,
+                    recentlyViewedRepository::findInteractionsAfter, touchedUsers);
+            if (touchedUsers.isEmpty()) {
+                return 0;
+            }
+            Set<Long> affected = new HashSet<>();
+            for (Long userId : touchedUsers) {
+                for (long recipeId : current.recipesOf(userId)) {
+                    affected.add(recipeId);
+                }
+            }
+            ItemNeighbors updated = withPool(pool -> neighbors.recompute(current, affected, settings(), pool));
+            if (!persistIfHeld(updated, affected)) {
+                return 0;
+            }
+
+            neighbors = updated;
+            recordGraphSize();
+            lastUpdatedRecipes = affected.size();
+            lastUpdateMs = System.currentTimeMillis() - start;
+            lastUpdateAt = LocalDateTime.now();
+            logger.debug("Also-liked lists of {} recipes updated in {} ms", affected.size(), lastUpdateMs);
+            return affected.size();
+        } catch (Exception e) {
+            logger.error("Failed to update also-liked lists: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Load the lists another instance persisted, if they changed since the last load.
+     *
+     * @return true if new lists were swapped in
+     */
+    public synchronized boolean reloadPersisted() {
+        try {
+            Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(computed_at) FROM recipe_neighbors",
+                    Timestamp.class);
+            if (latest == null || latest.equals(loadedVersion)) {
+                return false;
+            }
+            ItemNeighbors persisted = loadPersisted();
+            neighbors = persisted;
+            ready = true;
+            loadedVersion = latest;
+            // Only the instance computing the lists keeps the graph
+            graph = null;
+            graphInteractions = 0;
+            graphUsers = 0;
+            graphMemoryBytes = 0;
+            logger.debug("Also-liked lists reloaded: {} recipes computed by another instance", persisted.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to reload also-liked lists: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ids of the recipes most similar to this one, best first, or null while lists are not
+     * available. Recipes without enough co-occurring users have an empty list.
+     */
+    public List<Long> alsoLiked(Long recipeId, int limit) {
+        if (!isReady() || recipeId == null) {
+            return null;
+        }
+        long[] ids = neighbors.neighbors(recipeId);
+        List<Long> result = new ArrayList<>(Math.min(ids.length, limit));
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Ids of the recipes most similar to the seeds together, by summed similarity, or null
+     * while lists are not available.
+     */
+    public List<Long> recommendFor(Collection<Long> seedIds, Collection<Long> excludeIds, int limit) {
+        if (!isReady()) {
+            return null;
+        }
+        return neighbors.similarToAll(seedIds, excludeIds, limit);
+    }
+
+    public AlsoLikedStatus getStatus() {
+        ItemNeighbors table = neighbors;
+        return new AlsoLikedStatus(
+                enabled,
+                isReady(),
+                running.get(),
+                measure.toUpperCase(Locale.ROOT),
+                neighborsPerRecipe,
+                graphInteractions,
+                graphUsers,
+                graphMemoryBytes,
+                table.size(),
+                table.entryCount(),
+                table.memoryBytes(),
+                lastRebuildAt,
+                lastRebuildMs,
+                lastUpdateAt,
+                lastUpdateMs,
+                lastUpdatedRecipes
+        );
+    }
+
+    // Serve the persisted lists right away, then read the graph; without lists, rebuild.
+    // Another instance holding the job computes the lists, so then only load them
+    private synchronized void warmStart() {
+        try {
+            if (!jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs)) {
+                reloadPersisted();
+                return;
+            }
+            ItemNeighbors persisted = loadPersisted();
+            if (persisted.size() == 0) {
+                rebuild();
+                return;
+            }
+            neighbors = persisted;
+            ready = true;
+            InteractionGraph fresh = new InteractionGraph(maxItemsPerUser);
+            favoriteWatermark = readInteractions(fresh, 0L, favoriteRepository::findInteractionsAfter, null);
+            viewWatermark = readInteractions(fresh, 0L, recentlyViewedRepository::findInteractionsAfter, null);
+            graph = fresh;
+            recordGraphSize();
+            logger.info("Also-liked lists loaded: {} recipes, graph of {} interactions",
+                    persisted.size(), fresh.interactionCount());
+        } catch (Exception e) {
+            logger.error("Failed to load also-liked lists: {}", e.getMessage());
+        }
+    }
+
+    private ItemNeighbors loadPersisted() {
+        ItemNeighbors.Builder builder = new ItemNeighbors.Builder(1024);
+        long[] ids = new long[neighborsPerRecipe];
+        float[] scores = new float[neighborsPerRecipe];
+        long recipeId = 0L;
+        int position = -1;
+        int count = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT recipe_id, neighbor_id, position, score FROM recipe_neighbors " +
+                            "WHERE recipe_id > ? OR (recipe_id = ? AND position > ?) " +
+                            "ORDER BY recipe_id, position LIMIT ?",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getFloat(4)},
+                    recipeId, recipeId, position, LOAD_BATCH_SIZE);
+            for (Object[] row : rows) {
+                if ((Long) row[0] != recipeId) {
+                    builder.add(recipeId, Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+                    recipeId = (Long) row[0];
+                    count = 0;
+                }
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2 + 1);
+                    scores = Arrays.copyOf(scores, count * 2 + 1);
+                }
+                ids[count] = (Long) row[1];
+                scores[count++] = (Float) row[3];
+                position = (Integer) row[2];
+            }
+            if (rows.size() < LOAD_BATCH_SIZE) {
+                builder.add(recipeId, Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+                return builder.build();
+            }
+        }
+    }
+
+    private synchronized boolean updateIncrementallyIfLoaded() {
+        if (graph == null) {
+            return false;
+        }
+        updateIncrementally();
+        return true;
+    }
+
+    // Renew the lease right before writing: an instance that lost the job drops its graph and
+    // reloads the lists of the one that took it over
+    private boolean persistIfHeld(ItemNeighbors table, Collection<Long> recipeIds) {
+        if (!jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs)) {
+            logger.info("Another instance computes the also-liked lists now; discarding this pass");
+            graph = null;
+            return false;
+        }
+        persist(table, recipeIds);
+        return true;
+    }
+
+    // Replace the lists of the given recipes, or all lists if null, in one transaction
+    private void persist(ItemNeighbors table, Collection<Long> recipeIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        ItemNeighbors.RowConsumer collect = (recipeId, neighborIds, scores) -> {
+            for (int i = 0; i < neighborIds.length; i++) {
+                rows.add(new Object[]{recipeId, neighborIds[i], i, scores[i], now});
+            }
+        };
+        if (recipeIds == null) {
+            table.forEach(collect);
+        } else {
+            for (Long recipeId : recipeIds) {
+                collect.accept(recipeId, table.neighbors(recipeId), table.scores(recipeId));
+            }
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (recipeIds == null) {
+                jdbcTemplate.update("DELETE FROM recipe_neighbors");
+            } else {
+                List<Long> ids = new ArrayList<>(recipeIds);
+                for (int from = 0; from < ids.size(); from += MAX_ROWS_PER_STATEMENT) {
+                    List<Long> slice = ids.subList(from, Math.min(ids.size(), from + MAX_ROWS_PER_STATEMENT));
+                    jdbcTemplate.update("DELETE FROM recipe_neighbors WHERE recipe_id IN (" +
+                            String.join(", ", Collections.nCopies(slice.size(), "?")) + ")", slice.toArray());
+                }
+            }
+            for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<Object[]> slice = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+                Object[] args = slice.stream().flatMap(Arrays::stream).toArray();
+                jdbcTemplate.update(NEIGHBOR_INSERT + placeholders(slice.size()), args);
+            }
+        });
+    }
+
+    // Read (id, user id, recipe id) rows after afterId into the graph and return the last id
+    private long readInteractions(InteractionGraph target, long afterId, InteractionQuery query,
+                                  Set<Long> touchedUsers) {
+        Pageable page = PageRequest.of(0, LOAD_BATCH_SIZE);
+        while (true) {
+            List<Object[]> rows = query.rowsAfter(afterId, page);
+            for (Object[] row : rows) {
+                Long userId = (Long) row[1];
+                Long recipeId = (Long) row[2];
+                if (userId != null && recipeId != null && target.add(userId, recipeId) && touchedUsers != null) {
+                    touchedUsers.add(userId);
+                }
+            }
+            if (rows.isEmpty()) {
+                return afterId;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private void recordGraphSize() {
+        graphInteractions = graph.interactionCount();
+        graphUsers = graph.userCount();
+        graphMemoryBytes = graph.memoryBytes();
+    }
+
+    private <T> T withPool(Function<ForkJoinPool, T> work) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            return work.apply(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ItemNeighbors.Settings settings() {
+        return new ItemNeighbors.Settings(neighborsPerRecipe,
+                ItemNeighbors.Measure.valueOf(measure.toUpperCase(Locale.ROOT)), minCoOccurrence);
+    }
+
+    private static String placeholders(int rows) {
+        return String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?)"));
+    }
+
+    @FunctionalInterface
+    private interface InteractionQuery {
+        List<Object[]> rowsAfter(Long afterId, Pageable page);
+    }
+}
@@ -0,0 +1,73 @@
+package com.cookmate.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Elects one instance to run a scheduled job that writes shared tables, through lease rows in
+ * job_locks. A node holds a job while its lease runs and renews it each time it claims the job
+ * again, so the same node keeps doing the work; when it stops renewing, for instance because it
+ * went down, another node takes over once the lease expires.
+ *
+ * Leases are compared with each node's clock, so they have to be long against clock skew.
+ */
+@Service
+public class JobLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLockService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String nodeId;
+
+    public JobLockService(@Value("${job-locks.node-id:}") String nodeId) {
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Claim or renew the lease on a job for leaseMs.
+     *
+     * @return true if this node holds the job, false if another node does or the lock table
+     *         could not be reached
+     */
+    public boolean tryAcquire(String name, long leaseMs) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp until = Timestamp.valueOf(now.plusNanos(leaseMs * 1_000_000));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Committed on its own, whatever transaction the caller runs in
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Boolean acquired = transaction.execute(status -> jdbcTemplate.update(
+                    "UPDATE job_locks SET owner = ?, locked_until = ? WHERE name = ? AND (owner = ? OR locked_until <= ?)",
+                    nodeId, until, name, nodeId, Timestamp.valueOf(now)) > 0);
+            if (Boolean.TRUE.equals(acquired)) {
+                return true;
+            }
+            return Boolean.TRUE.equals(transaction.execute(status -> jdbcTemplate.update(
+                    "INSERT INTO job_locks (name, owner, locked_until) VALUES (?, ?, ?)", name, nodeId, until) > 0));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the row first and holds the job
+            return false;
+        } catch (Exception e) {
+            logger.error("Failed to claim job lock {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.cookmate.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records recipe views for the recently-viewed list off the request path.
+ *
+ * A view goes onto a bounded in-process queue. A scheduled flush drains the queue, coalesces
+ * repeated views of the same recipe by the same user into one, upserts them in a single batch
+ * on the (user_id, recipe_id) key, and trims each affected user's rows to the newest
+ * {@code recently-viewed.max-per-user}.
+ *
+ * The list itself is read from recently_viewed, so views persisted by any instance show up;
+ * until a view is flushed it is kept per user here and merged in by
+ * {@link #unflushedViews(Long)}. A flush that fails puts its views back on the queue for the
+ * next one. Only views that do not fit on the full queue are lost: this is a convenience
+ * list, not a record.
+ */
+@Service
+public class RecentlyViewedIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentlyViewedIngestService.class);
+
+    // INSERT IGNORE turns a view of a recipe deleted in the meantime into a warning, not a failed batch
+    private static final String UPSERT =
+            "INSERT IGNORE INTO recently_viewed (user_id, recipe_id, viewed_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE viewed_at = GREATEST(viewed_at, VALUES(viewed_at))";
+
+    private static final String TRIM =
+            "DELETE FROM recently_viewed WHERE user_id = ? AND id NOT IN (" +
+            "SELECT id FROM (SELECT id FROM recently_viewed WHERE user_id = ? " +
+            "ORDER BY viewed_at DESC, id DESC LIMIT ?) newest)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${recently-viewed.max-per-user:50}")
+    private int maxPerUser;
+
+    private final BlockingQueue<View> queue;
+    // user id -> recipe id -> newest view time, for views still on the queue
+    private final Map<Long, Map<Long, LocalDateTime>> unflushed = new ConcurrentHashMap<>();
+    private final AtomicLong droppedViews = new AtomicLong();
+
+    public RecentlyViewedIngestService(@Value("${recently-viewed.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public int getMaxPerUser() {
+        return maxPerUser;
+    }
+
+    /**
+     * Record a view; returns immediately.
+     */
+    public void recordView(Long userId, Long recipeId) {
+        View view = new View(userId, recipeId, LocalDateTime.now());
+        remember(view);
+        if (!queue.offer(view)) {
+            forget(view);
+            droppedViews.incrementAndGet();
+        }
+    }
+
+    /**
+     * The user's views recorded on this instance and not yet persisted, as recipe id to view time.
+     */
+    public Map<Long, LocalDateTime> unflushedViews(Long userId) {
+        Map<Long, LocalDateTime> views = unflushed.get(userId);
+        return views != null ? Map.copyOf(views) : Map.of();
+    }
+
+    @Scheduled(fixedDelayString = "${recently-viewed.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    /**
+     * Persist everything queued so far and return the number of coalesced upserts.
+     */
+    public synchronized int flush() {
+        List<View> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        long dropped = droppedViews.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn("Recently-viewed queue was full; {} views were not persisted", dropped);
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        // Keep the newest view per (user, recipe)
+        Map<View, LocalDateTime> coalesced = new LinkedHashMap<>();
+        Set<Long> users = new LinkedHashSet<>();
+        for (View view : drained) {
+            coalesced.merge(view, view.viewedAt, (a, b) -> a.isAfter(b) ? a : b);
+            users.add(view.userId);
+        }
+
+        try {
+            List<Object[]> upserts = new ArrayList<>(coalesced.size());
+            coalesced.forEach((view, viewedAt) ->
+                    upserts.add(new Object[]{view.userId, view.recipeId, Timestamp.valueOf(viewedAt)}));
+            jdbcTemplate.batchUpdate(UPSERT, upserts);
+
+            List<Object[]> trims = new ArrayList<>(users.size());
+            for (Long userId : users) {
+                trims.add(new Object[]{userId, userId, maxPerUser});
+            }
+            jdbcTemplate.batchUpdate(TRIM, trims);
+        } catch (Exception e) {
+            int requeued = requeue(coalesced);
+            logger.error("Failed to persist {} recently-viewed entries, {} queued for the next flush: {}",
+                    coalesced.size(), requeued, e.getMessage());
+            return 0;
+        }
+        coalesced.forEach((view, viewedAt) -> forget(new View(view.userId, view.recipeId, viewedAt)));
+        return coalesced.size();
+    }
+
+    private int requeue(Map<View, LocalDateTime> coalesced) {
+        int requeued = 0;
+        for (Map.Entry<View, LocalDateTime> entry : coalesced.entrySet()) {
+            View view = new View(entry.getKey().userId, entry.getKey().recipeId, entry.getValue());
+            if (queue.offer(view)) {
+                requeued++;
+            } else {
+                forget(view);
+                droppedViews.incrementAndGet();
+            }
+        }
+        return requeued;
+    }
+
+    private void remember(View view) {
+        unflushed.computeIfAbsent(view.userId, k -> new ConcurrentHashMap<>())
+                .merge(view.recipeId, view.viewedAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    // Drop the entry unless a newer view of the recipe is still waiting to be persisted
+    private void forget(View view) {
+        unflushed.computeIfPresent(view.userId, (userId, views) -> {
+            views.computeIfPresent(view.recipeId, (recipeId, viewedAt) ->
+                    viewedAt.isAfter(view.viewedAt) ? viewedAt : null);
+            return views.isEmpty() ? null : views;
+        });
+    }
+
+    private static final class View {
+        final Long userId;
+        final Long recipeId;
+        final LocalDateTime viewedAt;
+
+        View(Long userId, Long recipeId, LocalDateTime viewedAt) {
+            this.userId = userId;
+            this.recipeId = recipeId;
+            this.viewedAt = viewedAt;
+        }
+
+        // Identity is the (user, recipe) pair, so coalescing ignores the time
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof View)) {
+                return false;
+            }
+            View other = (View) o;
+            return userId.equals(other.userId) && recipeId.equals(other.recipeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, recipeId);
+        }
+    }
+}
@@ -2,18 +2,22 @@ package com.cookmate.backend.service;
 
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
-import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.exception.BadRequestException;
 import com.cookmate.backend.repository.RecentlyViewedRepository;
+import com.cookmate.backend.repository.RecipeRepository;
 import com.cookmate.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class RecentlyViewedService {
@@ -22,26 +26,62 @@ public class RecentlyViewedService {
     private RecentlyViewedRepository recentlyViewedRepository;
     
     @Autowired
-    private RecipeService recipeService;
+    private RecentlyViewedIngestService recentlyViewedIngestService;
+    
+    @Autowired
+    private RecipeRepository recipeRepository;
+    
+    @Autowired
+    private RecipeDtoAssembler recipeDtoAssembler;
     
     public PageResponse<RecipeDto> getRecentlyViewed(Authentication authentication, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("Page must be at least 0 and size at least 1");
+        }
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        Pageable pageable = PageRequest.of(page, size);
+        List<Long> recipeIds = recentRecipeIds(userDetails.getId());
         
-        Page<RecentlyViewed> recentlyViewedPage = recentlyViewedRepository
-                .findByUser_IdOrderByViewedAtDesc(userDetails.getId(), pageable);
-        
-        List<RecipeDto> content = recentlyViewedPage.getContent().stream()
-                .map(viewed -> recipeService.convertToDto(viewed.getRecipe()))
-                .collect(Collectors.toList());
+        long from = Math.min((long) page * size, recipeIds.size());
+        List<Long> pageIds = recipeIds.subList((int) from, (int) Math.min(from + size, recipeIds.size()));
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(pageIds);
         
+        int totalPages = (recipeIds.size() + size - 1) / size;
         return new PageResponse<>(
                 content,
-                recentlyViewedPage.getNumber(),
-                recentlyViewedPage.getSize(),
-                recentlyViewedPage.getTotalElements(),
-                recentlyViewedPage.getTotalPages(),
-                recentlyViewedPage.isLast()
+                page,
+                size,
+                (long) recipeIds.size(),
+                totalPages,
+                page + 1 >= totalPages
         );
     }
-}
\ No newline at end of file
+    
+    /**
+     * The user's capped list, newest first: the persisted views, which any instance may have
+     * written, merged with the views this instance has not flushed yet.
+     */
+    private List<Long> recentRecipeIds(Long userId) {
+        int maxPerUser = recentlyViewedIngestService.getMaxPerUser();
+        Map<Long, LocalDateTime> views = new HashMap<>();
+        for (Object[] row : recentlyViewedRepository.findViewsByUserId(userId, PageRequest.of(0, maxPerUser))) {
+            views.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+        Set<Long> unpersisted = new HashSet<>();
+        recentlyViewedIngestService.unflushedViews(userId).forEach((recipeId, viewedAt) -> {
+            if (views.putIfAbsent(recipeId, viewedAt) == null) {
+                unpersisted.add(recipeId);
+            } else {
+                views.merge(recipeId, viewedAt, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        });
+        // The join drops persisted views of deleted recipes; unflushed ones are checked here
+        if (!unpersisted.isEmpty()) {
+            unpersisted.removeAll(recipeRepository.findExistingIds(unpersisted));
+            views.keySet().removeAll(unpersisted);
+        }
+        
+        List<Long> recipeIds = new ArrayList<>(views.keySet());
+        recipeIds.sort((a, b) -> views.get(b).compareTo(views.get(a)));
+        return recipeIds.size() > maxPerUser ? recipeIds.subList(0, maxPerUser) : recipeIds;
+    }
+}
@@ -0,0 +1,276 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.repository.RecipeIngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.Allergens;
+import com.cookmate.backend.search.RecipeAllergenMasks;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every recipe's allergen and diet mask (see Allergens) in recipes.allergen_mask and in
+ * memory, and compiles each user's food allergies and dietary restrictions into the mask of
+ * what they exclude, so search, filter and recommendations drop excluded recipes with one AND
+ * per candidate.
+ *
+ * At startup the stored masks are loaded first, which makes exclusions apply at once, then
+ * every recipe is classified again from its ingredient names and the masks that differ are
+ * written back; after that masks follow the ingredient lists RecipeService writes, and changes
+ * replayed from other instances update memory only. Until the stored masks are loaded users
+ * get a pending exclusion, and {@link #retain} checks candidates against the stored masks;
+ * recipes never classified count as excluded until they are. User masks are cached and dropped when the
+ * user saves their preferences, on this instance or, through the invalidation log, any other.
+ */
+@Service
+public class RecipeAllergenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeAllergenService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final String MASK_UPDATE = "UPDATE recipes SET allergen_mask = ? WHERE id = ?";
+
+    // In memory until classified: shares a bit with every exclusion
+    private static final int UNCLASSIFIED = ~0;
+
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean enabled;
+    private final RecipeAllergenMasks masks = new RecipeAllergenMasks();
+    private final Cache<Long, Integer> userMasks;
+
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    public RecipeAllergenService(@Value("${allergens.enabled:true}") boolean enabled,
+                                 @Value("${allergens.user-cache-size:100000}") long userCacheSize) {
+        this.enabled = enabled;
+        this.userMasks = Caffeine.newBuilder()
+                .maximumSize(userCacheSize)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Allergen masks disabled; search and recommendations ignore food allergies");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "allergen-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Load the stored masks, then classify every recipe again and write back the masks that
+     * changed or were never computed. Recipes changed while this runs keep their new mask.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            long afterId = 0L;
+            Map<Long, Integer> stored;
+            while (!(stored = storedMasksAfter(afterId)).isEmpty()) {
+                stored.forEach((recipeId, mask) -> {
+                    if (!changed.contains(recipeId)) {
+                        masks.set(recipeId, mask != null ? mask : UNCLASSIFIED);
+                    }
+                });
+                afterId = lastKey(stored);
+            }
+            ready = true;
+
+            int written = 0;
+            afterId = 0L;
+            while (!(stored = storedMasksAfter(afterId)).isEmpty()) {
+                written += classify(stored, changed);
+                afterId = lastKey(stored);
+            }
+            changedDuringRebuild = null;
+            logger.info("Allergen masks built: {} recipes flagged, {} masks written in {} ms",
+                    masks.flaggedCount(), written, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build allergen masks: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public int maskOf(long recipeId) {
+        return masks.get(recipeId);
+    }
+
+    /**
+     * What the user excludes; NONE for anonymous users, users without allergies or diets,
+     * and while disabled; pending until the stored masks are loaded.
+     */
+    public AllergenExclusion exclusionFor(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return exclusionFor(((UserDetailsImpl) authentication.getPrincipal()).getId());
+        }
+        return AllergenExclusion.NONE;
+    }
+
+    public AllergenExclusion exclusionFor(Long userId) {
+        if (!enabled || userId == null) {
+            return AllergenExclusion.NONE;
+        }
+        int mask = userMasks.get(userId, this::compileUserMask);
+        return ready ? masks.exclusion(mask) : AllergenExclusion.pending(mask);
+    }
+
+    /**
+     * The ids the exclusion leaves, in order, up to limit; a pending exclusion is checked against
+     * the stored masks.
+     */
+    public List<Long> retain(AllergenExclusion exclusion, Collection<Long> recipeIds, int limit) {
+        if (exclusion.isResolved() || recipeIds.isEmpty()) {
+            return exclusion.retain(recipeIds, limit);
+        }
+        Set<Long> allowed = new HashSet<>(recipeRepository.findIdsAllowedByMask(recipeIds, exclusion.getMask()));
+        return recipeIds.stream()
+                .filter(allowed::contains)
+                .distinct()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        int mask = Allergens.classify(event.getIngredients().values());
+        masks.set(event.getRecipeId(), mask);
+        if (!CacheInvalidationService.isReplaying()) {
+            jdbcTemplate.update(MASK_UPDATE, mask, event.getRecipeId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled || !event.isDeleted()) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        masks.set(event.getRecipeId(), 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserPreferencesChanged(UserPreferencesChangedEvent event) {
+        userMasks.invalidate(event.getUserId());
+    }
+
+    private int compileUserMask(Long userId) {
+        List<String> allergies = jdbcTemplate.queryForList(
+                "SELECT food_allergies FROM user_preferences WHERE user_id = ?", String.class, userId);
+        List<String> restrictions = jdbcTemplate.queryForList(
+                "SELECT d.name FROM user_dietary_restrictions u "
+                        + "JOIN dietary_restrictions d ON d.id = u.dietary_restriction_id "
+                        + "WHERE u.user_id = ? AND d.is_active = TRUE", String.class, userId);
+        return Allergens.exclusionsOf(allergies.isEmpty() ? null : allergies.get(0), restrictions);
+    }
+
+    // One keyset batch of recipe ids, in order, with their stored masks (null if not computed)
+    private Map<Long, Integer> storedMasksAfter(long afterId) {
+        Map<Long, Integer> stored = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, allergen_mask FROM recipes WHERE id > ? ORDER BY id LIMIT ?",
+                rs -> {
+                    int mask = rs.getInt(2);
+                    Integer storedMask = rs.wasNull() ? null : mask;
+                    stored.put(rs.getLong(1), storedMask);
+                }, afterId, LOAD_BATCH_SIZE);
+        return stored;
+    }
+
+    // Classify a batch from its ingredient names; returns how many stored masks were rewritten
+    private int classify(Map<Long, Integer> stored, Set<Long> changed) {
+        Map<Long, List<String>> names = new HashMap<>();
+        for (Long recipeId : stored.keySet()) {
+            names.put(recipeId, new ArrayList<>());
+        }
+        for (Object[] row : recipeIngredientRepository.findIngredientRefsByRecipeIds(stored.keySet())) {
+            names.get((Long) row[0]).add((String) row[2]);
+        }
+        List<Object[]> updates = new ArrayList<>();
+        names.forEach((recipeId, ingredientNames) -> {
+            if (changed.contains(recipeId)) {
+                return;
+            }
+            int mask = Allergens.classify(ingredientNames);
+            masks.set(recipeId, mask);
+            Integer storedMask = stored.get(recipeId);
+            if (storedMask == null || storedMask != mask) {
+                updates.add(new Object[]{mask, recipeId});
+            }
+        });
+        if (!updates.isEmpty()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> jdbcTemplate.batchUpdate(MASK_UPDATE, updates));
+        }
+        return updates.size();
+    }
+
+    private void markChanged(Long recipeId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(recipeId);
+        }
+    }
+
+    private static long lastKey(Map<Long, Integer> stored) {
+        long last = 0L;
+        for (Long recipeId : stored.keySet()) {
+            last = recipeId;
+        }
+        return last;
+    }
+}
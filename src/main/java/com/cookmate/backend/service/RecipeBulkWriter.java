@@ -0,0 +1,162 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.InstructionRequest;
+import com.cookmate.backend.dto.RecipeIngredientRequest;
+import com.cookmate.backend.dto.RecipeRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes imported recipes with multi-row INSERTs, a few statements per chunk instead of a few
+ * per recipe. Recipe ids use IDENTITY, which turns Hibernate's JDBC batching off, so the SQL
+ * is built here.
+ *
+ * Callers run each chunk in one transaction: resolveIngredients first (it may create
+ * ingredients), then insertRecipes.
+ */
+@Service
+public class RecipeBulkWriter {
+
+    // Keeps each statement well under MySQL's placeholder and packet limits
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String RECIPE_INSERT = "INSERT INTO recipes (title, description, cuisine_type, " +
+            "meal_type, difficulty_level, prep_time, cook_time, total_time, servings, calories, protein, carbs, " +
+            "fat, fiber, image_url, video_url, is_vegetarian, is_vegan, is_gluten_free, is_dairy_free, " +
+            "average_rating, total_reviews, view_count, created_by, created_at, updated_at) VALUES ";
+    private static final int RECIPE_COLUMNS = 26;
+
+    private static final String INGREDIENT_INSERT =
+            "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, quantity, unit, notes) VALUES ";
+
+    private static final String INSTRUCTION_INSERT =
+            "INSERT INTO instructions (recipe_id, step_number, instruction, timer_minutes, image_url) VALUES ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IngredientDictionary ingredientDictionary;
+
+    /**
+     * Ids for every ingredient name of these recipes, by IngredientDictionary.normalize key,
+     * creating the ingredients that do not exist yet.
+     */
+    public Map<String, Long> resolveIngredients(List<RecipeRequest> recipes) {
+        List<String> names = new ArrayList<>();
+        for (RecipeRequest recipe : recipes) {
+            if (recipe.getIngredients() != null) {
+                for (RecipeIngredientRequest ingredient : recipe.getIngredients()) {
+                    names.add(ingredient.getIngredientName());
+                }
+            }
+        }
+        return names.isEmpty() ? Map.of() : ingredientDictionary.resolveAll(names);
+    }
+
+    /**
+     * Insert the recipes with their ingredients and instructions and return the new recipe
+     * ids in the order of the requests. ingredientIds must cover every ingredient name, as
+     * resolveIngredients returns them.
+     */
+    public List<Long> insertRecipes(List<RecipeRequest> recipes, Long createdBy, Map<String, Long> ingredientIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> recipeIds = new ArrayList<>(recipes.size());
+        for (int from = 0; from < recipes.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<RecipeRequest> slice = recipes.subList(from, Math.min(recipes.size(), from + MAX_ROWS_PER_STATEMENT));
+            recipeIds.addAll(insertRecipeRows(slice, createdBy, now));
+        }
+
+        List<Object[]> ingredientRows = new ArrayList<>();
+        List<Object[]> instructionRows = new ArrayList<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            RecipeRequest recipe = recipes.get(i);
+            Long recipeId = recipeIds.get(i);
+            if (recipe.getIngredients() != null) {
+                for (RecipeIngredientRequest ingredient : recipe.getIngredients()) {
+                    Long ingredientId = ingredientIds.get(IngredientDictionary.normalize(ingredient.getIngredientName()));
+                    if (ingredientId == null) {
+                        throw new IllegalStateException("Unresolved ingredient: " + ingredient.getIngredientName());
+                    }
+                    ingredientRows.add(new Object[] { recipeId, ingredientId, ingredient.getQuantity(),
+                            ingredient.getUnit(), ingredient.getNotes() });
+                }
+            }
+            if (recipe.getInstructions() != null) {
+                for (InstructionRequest instruction : recipe.getInstructions()) {
+                    instructionRows.add(new Object[] { recipeId, instruction.getStepNumber(),
+                            instruction.getInstruction(), instruction.getTimerMinutes(), instruction.getImageUrl() });
+                }
+            }
+        }
+        insertRows(INGREDIENT_INSERT, 5, ingredientRows);
+        insertRows(INSTRUCTION_INSERT, 5, instructionRows);
+        return recipeIds;
+    }
+
+    private List<Long> insertRecipeRows(List<RecipeRequest> recipes, Long createdBy, Timestamp now) {
+        String sql = RECIPE_INSERT + placeholders(RECIPE_COLUMNS, recipes.size());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement statement = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            int p = 1;
+            for (RecipeRequest recipe : recipes) {
+                int prep = recipe.getPrepTime() != null ? recipe.getPrepTime() : 0;
+                int cook = recipe.getCookTime() != null ? recipe.getCookTime() : 0;
+                Object[] values = { recipe.getTitle(), recipe.getDescription(), recipe.getCuisineType(),
+                        recipe.getMealType(), recipe.getDifficultyLevel(), recipe.getPrepTime(), recipe.getCookTime(),
+                        prep + cook, recipe.getServings(), recipe.getCalories(), recipe.getProtein(),
+                        recipe.getCarbs(), recipe.getFat(), recipe.getFiber(), recipe.getImageUrl(),
+                        recipe.getVideoUrl(), flag(recipe.getIsVegetarian()), flag(recipe.getIsVegan()),
+                        flag(recipe.getIsGlutenFree()), flag(recipe.getIsDairyFree()), BigDecimal.ZERO,
+                        0, 0, createdBy, now, now };
+                for (Object value : values) {
+                    statement.setObject(p++, value);
+                }
+            }
+            return statement;
+        }, keys);
+
+        // One key per row, in row order: MySQL hands a multi-row insert consecutive ids
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != recipes.size()) {
+            throw new IllegalStateException("Expected " + recipes.size() + " generated recipe ids, got " + keyList.size());
+        }
+        List<Long> ids = new ArrayList<>(keyList.size());
+        for (Map<String, Object> key : keyList) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private void insertRows(String insert, int columns, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Object[]> slice = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            Object[] args = slice.stream().flatMap(Arrays::stream).toArray();
+            jdbcTemplate.update(insert + placeholders(columns, slice.size()), args);
+        }
+    }
+
+    private static String placeholders(int columns, int rows) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private static boolean flag(Boolean value) {
+        return Boolean.TRUE.equals(value);
+    }
+}
@@ -0,0 +1,157 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.RecipeCard;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.repository.RecipeCardRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the recipe_cards read model that backs the recipe list endpoints.
+ *
+ * Cards are written synchronously inside the transaction of the recipe, review or username
+ * change that affects them, so a committed write is always visible in lists. At startup the
+ * whole table is re-synced from recipes in the background; list reads switch to the cards
+ * once {@link #isReady()} and use the recipes table until then.
+ */
+@Service
+public class RecipeCardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeCardService.class);
+
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private static final Set<String> CARD_PROPERTIES = Arrays.stream(RecipeCard.class.getDeclaredFields())
+            .map(Field::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    @Autowired
+    private RecipeCardRepository recipeCardRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${readmodel.recipe-cards.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Recipe card read model disabled; list endpoints read the recipes table");
+            return;
+        }
+        Thread syncer = new Thread(this::resync, "recipe-card-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    /**
+     * Copy every recipe into recipe_cards in id batches and drop cards of recipes that no longer
+     * exist. Concurrent writes keep their own cards current, so the copy needs no locking.
+     */
+    public synchronized void resync() {
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            long synced = 0;
+            while (true) {
+                List<Long> ids = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, SYNC_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                recipeCardRepository.upsertFromRecipes(ids);
+                synced += ids.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+            int orphans = recipeCardRepository.deleteOrphans();
+            ready = true;
+            logger.info("Recipe cards synced: {} recipes, {} orphans removed in {} ms",
+                    synced, orphans, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to sync recipe cards, list endpoints stay on the recipes table: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Whether list pages sorted by this Recipe property can be served from the cards.
+     */
+    public boolean supportsSort(String property) {
+        return CARD_PROPERTIES.contains(property);
+    }
+
+    /**
+     * Apply batched view count deltas (recipe id to views) in the caller's transaction.
+     */
+    public void recordViews(Map<Long, Long> deltas) {
+        if (!enabled || deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((recipeId, delta) -> args.add(new Object[]{delta, recipeId}));
+        jdbcTemplate.batchUpdate("UPDATE recipe_cards SET view_count = view_count + ? WHERE recipe_id = ?", args);
+    }
+
+    // Synchronous listeners: they run inside the publishing transaction and roll back with it.
+    // Changes replayed from other nodes' invalidation log are already in the shared table.
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled || CacheInvalidationService.isReplaying()) {
+            return;
+        }
+        if (event.isDeleted()) {
+            recipeCardRepository.deleteByRecipeId(event.getRecipeId());
+        } else {
+            recipeCardRepository.upsertFromRecipes(List.of(event.getRecipeId()));
+        }
+    }
+
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        if (enabled && !CacheInvalidationService.isReplaying()) {
+            recipeCardRepository.upsertFromRecipes(event.getRecipeIds());
+        }
+    }
+
+    @EventListener
+    public void onRecipeRatingChanged(RecipeRatingChangedEvent event) {
+        if (enabled && !CacheInvalidationService.isReplaying()) {
+            recipeCardRepository.upsertFromRecipes(List.of(event.getRecipeId()));
+        }
+    }
+
+    @EventListener
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        if (enabled && !CacheInvalidationService.isReplaying()) {
+            recipeCardRepository.updateCreatorUsername(event.getUserId(), event.getUsername());
+        }
+    }
+}
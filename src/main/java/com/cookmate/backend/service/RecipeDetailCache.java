@@ -0,0 +1,186 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.InstructionDto;
+import com.cookmate.backend.dto.RecipeCacheStatus;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.dto.RecipeIngredientDto;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of fully assembled recipe detail DTOs, keyed by recipe id.
+ *
+ * Bounded by an estimate of each DTO's heap footprint rather than an entry count, with
+ * Caffeine's W-TinyLFU admission so a burst of one-off views cannot flush the popular recipes.
+ * Entries are dropped after commit of anything that changes what the DTO shows: recipe
+ * updates and deletes, ingredient changes, rating recalculations and the creator's username.
+ *
+ * The view count is not part of the cached state: an entry keeps the count as last written
+ * to the database, follows ViewCountService flushes, and every read overlays the views still
+ * pending in memory. Views therefore never invalidate an entry.
+ */
+@Service
+public class RecipeDetailCache {
+
+    // Object headers, boxed numbers, dates and list overhead of a RecipeDto without its strings
+    private static final int DTO_OVERHEAD_BYTES = 600;
+    private static final int INGREDIENT_OVERHEAD_BYTES = 160;
+    private static final int INSTRUCTION_OVERHEAD_BYTES = 120;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    private final boolean enabled;
+    private final long maxWeightBytes;
+    private final Cache<Long, Entry> cache;
+
+    public RecipeDetailCache(@Value("${recipe-cache.enabled:true}") boolean enabled,
+                             @Value("${recipe-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                             @Value("${recipe-cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+        this.enabled = enabled;
+        this.maxWeightBytes = maxWeightBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, Entry entry) -> entry.weight)
+                // Backstop for writes that bypass the application; invalidation is event driven
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The recipe's detail DTO, assembled by the loader on a miss, with the live view count.
+     * Returns a shallow copy: callers may set its fields but must not modify its lists.
+     * Exceptions thrown by the loader propagate and nothing is cached.
+     */
+    public RecipeDto get(Long recipeId, Function<Long, RecipeDto> loader) {
+        if (!enabled) {
+            return loader.apply(recipeId);
+        }
+        Entry entry = cache.get(recipeId, id -> new Entry(loader.apply(id)));
+        RecipeDto dto = new RecipeDto();
+        BeanUtils.copyProperties(entry.dto, dto);
+        long views = entry.viewCount + viewCountService.pendingViews(recipeId);
+        dto.setViewCount((int) views);
+        return dto;
+    }
+
+    public void invalidate(Long recipeId) {
+        cache.invalidate(recipeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        invalidate(event.getRecipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        invalidate(event.getRecipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeRatingChanged(RecipeRatingChangedEvent event) {
+        invalidate(event.getRecipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        cache.asMap().values().removeIf(entry -> event.getUserId().equals(entry.dto.getCreatedById()));
+    }
+
+    /**
+     * Move flushed views from "pending" into the cached base count. computeIfPresent waits for a
+     * load of the same recipe in progress, so a load that read the count before this flush
+     * committed still receives the delta.
+     */
+    @EventListener
+    public void onViewCountsFlushed(ViewCountsFlushedEvent event) {
+        event.getDeltas().forEach((recipeId, delta) ->
+                cache.asMap().computeIfPresent(recipeId, (id, entry) -> entry.withViews(delta)));
+    }
+
+    public RecipeCacheStatus getStatus() {
+        // Apply pending maintenance so size and weight reflect recent writes
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new RecipeCacheStatus(
+                enabled,
+                cache.estimatedSize(),
+                weight,
+                maxWeightBytes,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.missRate(),
+                stats.evictionCount(),
+                stats.evictionWeight(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0);
+    }
+
+    // Rough retained size: fixed overhead per object plus two bytes per character
+    static int estimateWeight(RecipeDto dto) {
+        long bytes = DTO_OVERHEAD_BYTES
+                + chars(dto.getTitle()) + chars(dto.getDescription()) + chars(dto.getCuisineType())
+                + chars(dto.getMealType()) + chars(dto.getDifficultyLevel()) + chars(dto.getImageUrl())
+                + chars(dto.getVideoUrl()) + chars(dto.getCreatedByUsername());
+        if (dto.getIngredients() != null) {
+            for (RecipeIngredientDto ingredient : dto.getIngredients()) {
+                bytes += INGREDIENT_OVERHEAD_BYTES + chars(ingredient.getIngredientName())
+                        + chars(ingredient.getUnit()) + chars(ingredient.getNotes());
+            }
+        }
+        if (dto.getInstructions() != null) {
+            for (InstructionDto instruction : dto.getInstructions()) {
+                bytes += INSTRUCTION_OVERHEAD_BYTES + chars(instruction.getInstruction())
+                        + chars(instruction.getImageUrl());
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String s) {
+        return s != null ? STRING_OVERHEAD_BYTES + 2L * s.length() : 0;
+    }
+
+    // Immutable so a flush and a concurrent read never see a half-updated count
+    private static final class Entry {
+        final RecipeDto dto;
+        final long viewCount;
+        final int weight;
+
+        Entry(RecipeDto dto) {
+            this(dto, dto.getViewCount() != null ? dto.getViewCount() : 0, estimateWeight(dto));
+        }
+
+        private Entry(RecipeDto dto, long viewCount, int weight) {
+            this.dto = dto;
+            this.viewCount = viewCount;
+            this.weight = weight;
+        }
+
+        Entry withViews(long delta) {
+            return new Entry(dto, viewCount + delta, weight);
+        }
+    }
+}
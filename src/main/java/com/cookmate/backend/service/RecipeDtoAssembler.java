@@ -0,0 +1,270 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.InstructionDto;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.dto.RecipeIngredientDto;
+import com.cookmate.backend.entity.Instruction;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeCard;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.repository.InstructionRepository;
+import com.cookmate.backend.repository.RecipeIngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles full recipe DTOs (ingredients, instructions and creator included) for a whole list
+ * of recipes at once. Instead of walking each recipe's lazy associations, it loads the
+ * ingredient rows with their ingredients, the instructions and any creators not already
+ * fetched with one IN query each per batch of {@value #BATCH_SIZE} recipes, so the number of
+ * statements does not grow with the length of the list.
+ */
+@Service
+public class RecipeDtoAssembler {
+
+    static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Autowired
+    private InstructionRepository instructionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public RecipeDto toDto(Recipe recipe) {
+        return toDtos(List.of(recipe)).get(0);
+    }
+
+    /**
+     * DTOs for the given recipes, in the same order.
+     */
+    @Transactional(readOnly = true)
+    public List<RecipeDto> toDtos(List<Recipe> recipes) {
+        List<RecipeDto> dtos = new ArrayList<>(recipes.size());
+        for (int from = 0; from < recipes.size(); from += BATCH_SIZE) {
+            dtos.addAll(assemble(recipes.subList(from, Math.min(from + BATCH_SIZE, recipes.size()))));
+        }
+        return dtos;
+    }
+
+    /**
+     * DTOs for the given recipe ids, in the same order, skipping ids that no longer exist.
+     */
+    @Transactional(readOnly = true)
+    public List<RecipeDto> toDtosByIds(List<Long> ids) {
+        List<RecipeDto> dtos = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            // Creators stay lazy: fetching User entities drags in their eager preferences per user
+            Map<Long, Recipe> byId = recipeRepository.findAllById(batch).stream()
+                    .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+            dtos.addAll(assemble(batch.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())));
+        }
+        return dtos;
+    }
+
+    /**
+     * List-view DTO of a recipe, without ingredients and instructions.
+     */
+    public RecipeDto toListDto(Recipe recipe) {
+        RecipeDto dto = new RecipeDto();
+        dto.setId(recipe.getId());
+        dto.setTitle(recipe.getTitle());
+        dto.setDescription(recipe.getDescription());
+        dto.setCuisineType(recipe.getCuisineType());
+        dto.setMealType(recipe.getMealType());
+        dto.setDifficultyLevel(recipe.getDifficultyLevel());
+        dto.setPrepTime(recipe.getPrepTime());
+        dto.setCookTime(recipe.getCookTime());
+        dto.setTotalTime(recipe.getTotalTime());
+        dto.setServings(recipe.getServings());
+        dto.setProtein(recipe.getProtein());
+        dto.setCarbs(recipe.getCarbs());
+        dto.setFat(recipe.getFat());
+        dto.setFiber(recipe.getFiber());
+        dto.setImageUrl(recipe.getImageUrl());
+        dto.setVideoUrl(recipe.getVideoUrl());
+        dto.setIsVegetarian(recipe.getIsVegetarian());
+        dto.setIsVegan(recipe.getIsVegan());
+        dto.setIsGlutenFree(recipe.getIsGlutenFree());
+        dto.setIsDairyFree(recipe.getIsDairyFree());
+        dto.setAverageRating(recipe.getAverageRating());
+        dto.setTotalReviews(recipe.getTotalReviews());
+        dto.setViewCount(recipe.getViewCount());
+        dto.setCreatedAt(recipe.getCreatedAt());
+
+        if (recipe.getCreatedBy() != null) {
+            dto.setCreatedById(recipe.getCreatedBy().getId());
+            dto.setCreatedByUsername(recipe.getCreatedBy().getUsername());
+        }
+
+        return dto;
+    }
+
+    /**
+     * The same list-view DTO from a recipe_cards row.
+     */
+    public RecipeDto toListDto(RecipeCard card) {
+        RecipeDto dto = new RecipeDto();
+        dto.setId(card.getId());
+        dto.setTitle(card.getTitle());
+        dto.setDescription(card.getDescription());
+        dto.setCuisineType(card.getCuisineType());
+        dto.setMealType(card.getMealType());
+        dto.setDifficultyLevel(card.getDifficultyLevel());
+        dto.setPrepTime(card.getPrepTime());
+        dto.setCookTime(card.getCookTime());
+        dto.setTotalTime(card.getTotalTime());
+        dto.setServings(card.getServings());
+        dto.setProtein(card.getProtein());
+        dto.setCarbs(card.getCarbs());
+        dto.setFat(card.getFat());
+        dto.setFiber(card.getFiber());
+        dto.setImageUrl(card.getImageUrl());
+        dto.setVideoUrl(card.getVideoUrl());
+        dto.setIsVegetarian(card.getIsVegetarian());
+        dto.setIsVegan(card.getIsVegan());
+        dto.setIsGlutenFree(card.getIsGlutenFree());
+        dto.setIsDairyFree(card.getIsDairyFree());
+        dto.setAverageRating(card.getAverageRating());
+        dto.setTotalReviews(card.getTotalReviews());
+        dto.setViewCount(card.getViewCount());
+        dto.setCreatedAt(card.getCreatedAt());
+        dto.setCreatedById(card.getCreatedById());
+        dto.setCreatedByUsername(card.getCreatedByUsername());
+        return dto;
+    }
+
+    private List<RecipeDto> assemble(List<Recipe> recipes) {
+        if (recipes.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> recipeIds = recipes.stream().map(Recipe::getId).collect(Collectors.toSet());
+
+        Map<Long, List<RecipeIngredientDto>> ingredientsByRecipe = new HashMap<>();
+        for (RecipeIngredient recipeIngredient : recipeIngredientRepository.findWithIngredientByRecipeIds(recipeIds)) {
+            ingredientsByRecipe.computeIfAbsent(recipeIngredient.getRecipe().getId(), k -> new ArrayList<>())
+                    .add(convertToIngredientDto(recipeIngredient));
+        }
+
+        Map<Long, List<InstructionDto>> instructionsByRecipe = new HashMap<>();
+        for (Instruction instruction : instructionRepository.findByRecipeIds(recipeIds)) {
+            instructionsByRecipe.computeIfAbsent(instruction.getRecipe().getId(), k -> new ArrayList<>())
+                    .add(convertToInstructionDto(instruction));
+        }
+
+        Map<Long, String> usernames = loadCreatorUsernames(recipes);
+
+        List<RecipeDto> dtos = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            RecipeDto dto = convertScalars(recipe);
+            if (recipe.getCreatedBy() != null) {
+                dto.setCreatedById(recipe.getCreatedBy().getId());
+                dto.setCreatedByUsername(usernames.get(recipe.getCreatedBy().getId()));
+            }
+            dto.setIngredients(ingredientsByRecipe.getOrDefault(recipe.getId(), List.of()));
+            dto.setInstructions(instructionsByRecipe.getOrDefault(recipe.getId(), List.of()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    // Creators fetched with their recipe are read directly; lazy ones are loaded in one query
+    private Map<Long, String> loadCreatorUsernames(List<Recipe> recipes) {
+        Map<Long, String> usernames = new HashMap<>();
+        Set<Long> unloaded = new HashSet<>();
+        for (Recipe recipe : recipes) {
+            User creator = recipe.getCreatedBy();
+            if (creator == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(creator)) {
+                usernames.put(creator.getId(), creator.getUsername());
+            } else {
+                unloaded.add(creator.getId());
+            }
+        }
+        unloaded.removeAll(usernames.keySet());
+        if (!unloaded.isEmpty()) {
+            for (Object[] row : userRepository.findUsernamesByIds(unloaded)) {
+                usernames.put((Long) row[0], (String) row[1]);
+            }
+        }
+        return usernames;
+    }
+
+    private RecipeDto convertScalars(Recipe recipe) {
+        RecipeDto dto = new RecipeDto();
+        dto.setId(recipe.getId());
+        dto.setTitle(recipe.getTitle());
+        dto.setDescription(recipe.getDescription());
+        dto.setCuisineType(recipe.getCuisineType());
+        dto.setMealType(recipe.getMealType());
+        dto.setDifficultyLevel(recipe.getDifficultyLevel());
+        dto.setPrepTime(recipe.getPrepTime());
+        dto.setCookTime(recipe.getCookTime());
+        dto.setTotalTime(recipe.getTotalTime());
+        dto.setServings(recipe.getServings());
+        dto.setCalories(recipe.getCalories());
+        dto.setProtein(recipe.getProtein());
+        dto.setCarbs(recipe.getCarbs());
+        dto.setFat(recipe.getFat());
+        dto.setFiber(recipe.getFiber());
+        dto.setImageUrl(recipe.getImageUrl());
+        dto.setVideoUrl(recipe.getVideoUrl());
+        dto.setIsVegetarian(recipe.getIsVegetarian());
+        dto.setIsVegan(recipe.getIsVegan());
+        dto.setIsGlutenFree(recipe.getIsGlutenFree());
+        dto.setIsDairyFree(recipe.getIsDairyFree());
+        dto.setAverageRating(recipe.getAverageRating());
+        dto.setTotalReviews(recipe.getTotalReviews());
+        dto.setViewCount(recipe.getViewCount());
+        dto.setCreatedAt(recipe.getCreatedAt());
+        return dto;
+    }
+
+    private RecipeIngredientDto convertToIngredientDto(RecipeIngredient recipeIngredient) {
+        RecipeIngredientDto dto = new RecipeIngredientDto();
+        dto.setId(recipeIngredient.getId());
+        dto.setIngredientId(recipeIngredient.getIngredient().getId());
+        dto.setIngredientName(recipeIngredient.getIngredient().getName());
+        dto.setQuantity(recipeIngredient.getQuantity());
+        dto.setUnit(recipeIngredient.getUnit());
+        dto.setNotes(recipeIngredient.getNotes());
+        return dto;
+    }
+
+    private InstructionDto convertToInstructionDto(Instruction instruction) {
+        InstructionDto dto = new InstructionDto();
+        dto.setId(instruction.getId());
+        dto.setStepNumber(instruction.getStepNumber());
+        dto.setInstruction(instruction.getInstruction());
+        dto.setTimerMinutes(instruction.getTimerMinutes());
+        dto.setImageUrl(instruction.getImageUrl());
+        return dto;
+    }
+}
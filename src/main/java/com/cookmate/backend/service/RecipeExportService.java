@@ -0,0 +1,207 @@
+package com.cookmate.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the recipe catalog as NDJSON: one recipe per line, with its ingredients and
+ * instructions, in ascending id order.
+ *
+ * Recipes are read through a single forward-only, read-only result set. On MySQL it is a
+ * streaming result set (fetch size Integer.MIN_VALUE), which Connector/J reads row by row
+ * without cursor fetch, so only this statement streams and the connection URL stays as it is;
+ * other databases fetch export.fetch-size rows per round trip. A streaming result set keeps
+ * its connection busy, so the child rows are read on the pool's other connections. Every
+ * export.batch-size recipes, their ingredients and instructions are loaded with two IN
+ * queries and the batch is written and flushed, so memory stays flat however large the
+ * catalog is. With updatedSince only recipes updated at or after it are exported; deleted
+ * recipes are not reported.
+ */
+@Service
+public class RecipeExportService {
+
+    private static final String RECIPES_SQL =
+            "SELECT r.id, r.title, r.description, r.cuisine_type, r.meal_type, r.difficulty_level, " +
+            "r.prep_time, r.cook_time, r.total_time, r.servings, r.calories, r.protein, r.carbs, r.fat, r.fiber, " +
+            "r.image_url, r.video_url, r.is_vegetarian, r.is_vegan, r.is_gluten_free, r.is_dairy_free, " +
+            "r.average_rating, r.total_reviews, r.view_count, r.created_by, u.username, r.created_at, r.updated_at " +
+            "FROM recipes r LEFT JOIN users u ON u.id = r.created_by ";
+
+    private static final String INGREDIENTS_SQL =
+            "SELECT ri.recipe_id, ri.id, ri.ingredient_id, i.name, ri.quantity, ri.unit, ri.notes " +
+            "FROM recipe_ingredients ri JOIN ingredients i ON i.id = ri.ingredient_id " +
+            "WHERE ri.recipe_id IN (:ids) ORDER BY ri.id";
+
+    private static final String INSTRUCTIONS_SQL =
+            "SELECT s.recipe_id, s.id, s.step_number, s.instruction, s.timer_minutes, s.image_url " +
+            "FROM instructions s WHERE s.recipe_id IN (:ids) ORDER BY s.step_number, s.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${export.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Write every recipe (or every recipe updated since the given time) to out and return how
+     * many were written. out is flushed after each batch but not closed. Not to be called in
+     * a transaction, which would put the child queries on the streaming connection.
+     */
+    public long exportRecipes(LocalDateTime updatedSince, OutputStream out) {
+        String sql = RECIPES_SQL + (updatedSince != null ? "WHERE r.updated_at >= ? " : "") + "ORDER BY r.id";
+        BatchWriter writer = new BatchWriter(out);
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            if (updatedSince != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(updatedSince));
+            }
+            return statement;
+        }, writer);
+        writer.writeBatch();
+        return writer.written;
+    }
+
+    private class BatchWriter implements RowCallbackHandler {
+        private final OutputStream out;
+        private final List<Map<String, Object>> batch = new ArrayList<>();
+        private long written;
+
+        BatchWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            batch.add(recipe(rs));
+            if (batch.size() >= batchSize) {
+                writeBatch();
+            }
+        }
+
+        void writeBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Long> ids = batch.stream().map(recipe -> (Long) recipe.get("id")).collect(Collectors.toList());
+            Map<Long, List<Map<String, Object>>> ingredients = loadChildren(INGREDIENTS_SQL, ids, RecipeExportService::ingredient);
+            Map<Long, List<Map<String, Object>>> instructions = loadChildren(INSTRUCTIONS_SQL, ids, RecipeExportService::instruction);
+            try {
+                for (Map<String, Object> recipe : batch) {
+                    Long id = (Long) recipe.get("id");
+                    recipe.put("ingredients", ingredients.getOrDefault(id, List.of()));
+                    recipe.put("instructions", instructions.getOrDefault(id, List.of()));
+                    out.write(objectMapper.writeValueAsBytes(recipe));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                // Usually the client went away; abandons the cursor
+                throw new UncheckedIOException(e);
+            }
+            written += batch.size();
+            batch.clear();
+        }
+    }
+
+    private Map<Long, List<Map<String, Object>>> loadChildren(String sql, List<Long> recipeIds, ChildMapper mapper) {
+        Map<Long, List<Map<String, Object>>> byRecipe = new HashMap<>();
+        namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("ids", recipeIds), (ResultSet rs) -> {
+            byRecipe.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(mapper.map(rs));
+        });
+        return byRecipe;
+    }
+
+    @FunctionalInterface
+    private interface ChildMapper {
+        Map<String, Object> map(ResultSet rs) throws SQLException;
+    }
+
+    // Field names follow RecipeDto, plus updatedAt for incremental exports
+    private static Map<String, Object> recipe(ResultSet rs) throws SQLException {
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("id", rs.getLong("id"));
+        recipe.put("title", rs.getString("title"));
+        recipe.put("description", rs.getString("description"));
+        recipe.put("cuisineType", rs.getString("cuisine_type"));
+        recipe.put("mealType", rs.getString("meal_type"));
+        recipe.put("difficultyLevel", rs.getString("difficulty_level"));
+        recipe.put("prepTime", rs.getObject("prep_time", Integer.class));
+        recipe.put("cookTime", rs.getObject("cook_time", Integer.class));
+        recipe.put("totalTime", rs.getObject("total_time", Integer.class));
+        recipe.put("servings", rs.getObject("servings", Integer.class));
+        recipe.put("calories", rs.getObject("calories", Integer.class));
+        recipe.put("protein", rs.getBigDecimal("protein"));
+        recipe.put("carbs", rs.getBigDecimal("carbs"));
+        recipe.put("fat", rs.getBigDecimal("fat"));
+        recipe.put("fiber", rs.getBigDecimal("fiber"));
+        recipe.put("imageUrl", rs.getString("image_url"));
+        recipe.put("videoUrl", rs.getString("video_url"));
+        recipe.put("isVegetarian", rs.getObject("is_vegetarian", Boolean.class));
+        recipe.put("isVegan", rs.getObject("is_vegan", Boolean.class));
+        recipe.put("isGlutenFree", rs.getObject("is_gluten_free", Boolean.class));
+        recipe.put("isDairyFree", rs.getObject("is_dairy_free", Boolean.class));
+        recipe.put("averageRating", rs.getBigDecimal("average_rating"));
+        recipe.put("totalReviews", rs.getObject("total_reviews", Integer.class));
+        recipe.put("viewCount", rs.getObject("view_count", Integer.class));
+        recipe.put("createdById", rs.getObject("created_by", Long.class));
+        recipe.put("createdByUsername", rs.getString("username"));
+        recipe.put("createdAt", rs.getObject("created_at", LocalDateTime.class));
+        recipe.put("updatedAt", rs.getObject("updated_at", LocalDateTime.class));
+        return recipe;
+    }
+
+    // Field names follow RecipeIngredientDto
+    private static Map<String, Object> ingredient(ResultSet rs) throws SQLException {
+        Map<String, Object> ingredient = new LinkedHashMap<>();
+        ingredient.put("id", rs.getLong(2));
+        ingredient.put("ingredientId", rs.getLong(3));
+        ingredient.put("ingredientName", rs.getString(4));
+        ingredient.put("quantity", rs.getBigDecimal(5));
+        ingredient.put("unit", rs.getString(6));
+        ingredient.put("notes", rs.getString(7));
+        return ingredient;
+    }
+
+    // Field names follow InstructionDto
+    private static Map<String, Object> instruction(ResultSet rs) throws SQLException {
+        Map<String, Object> instruction = new LinkedHashMap<>();
+        instruction.put("id", rs.getLong(2));
+        instruction.put("stepNumber", rs.getObject(3, Integer.class));
+        instruction.put("instruction", rs.getString(4));
+        instruction.put("timerMinutes", rs.getObject(5, Integer.class));
+        instruction.put("imageUrl", rs.getString(6));
+        return instruction;
+    }
+}
@@ -0,0 +1,137 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.FacetResult;
+import com.cookmate.backend.search.RecipeFacetIndex;
+import com.cookmate.backend.search.RecipeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves /api/recipes/filter and its facet counts from the in-memory columnar facet index.
+ *
+ * The index is built in the background once the application is ready and then kept current
+ * from recipe change events; until it is ready callers fall back to the SQL filter query.
+ */
+@Service
+public class RecipeFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeFacetService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Value("${search.facet-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile RecipeFacetIndex index = new RecipeFacetIndex();
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Recipe facet index disabled; filtering uses SQL");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "recipe-facet-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the facet index from the database and swap it in.
+     * Recipes changed while the rebuild runs are reloaded after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            RecipeFacetIndex fresh = new RecipeFacetIndex();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = recipeRepository.findFacetFieldsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                indexRows(fresh, rows);
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            index = fresh;
+            ready = true;
+            changedDuringRebuild = null;
+            for (Long recipeId : changed) {
+                reindex(recipeId);
+            }
+            logger.info("Recipe facet index built: {} recipes in {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build recipe facet index, filtering stays on SQL: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public FacetResult filter(RecipeFilter filter, AllergenExclusion exclusion, int offset, int limit) {
+        return index.filter(filter, exclusion, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getRecipeId());
+        }
+        try {
+            if (event.isDeleted()) {
+                index.remove(event.getRecipeId());
+            } else {
+                reindex(event.getRecipeId());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update facet index for recipe {}: {}", event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    private void reindex(Long recipeId) {
+        List<Object[]> rows = recipeRepository.findFacetFieldsById(recipeId);
+        if (rows.isEmpty()) {
+            index.remove(recipeId);
+        } else {
+            indexRows(index, rows);
+        }
+    }
+
+    private static void indexRows(RecipeFacetIndex target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            target.index((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Integer) row[4],
+                    (Boolean) row[5], (Boolean) row[6], (Boolean) row[7], (Boolean) row[8]);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.RecipeFeatureStore;
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
+import com.cookmate.backend.search.RecipeFeatureStore.Scorer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ranks and filters recipes for the recommendation strategies from the in-memory feature
+ * store, so they hydrate only the recipes they return.
+ *
+ * The store is built in the background once the application is ready and then kept current
+ * from recipe, rating and view count events. View counts flushed by other instances raise no
+ * event here, so the store is also rebuilt on a schedule. Until it is ready, or when it is
+ * disabled, queries run against the database instead and rank by rating.
+ */
+@Service
+public class RecipeFeatureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeFeatureService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Value("${recommendations.feature-store.enabled:true}")
+    private boolean enabled;
+
+    private volatile RecipeFeatureStore store = new RecipeFeatureStore();
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Recipe feature store disabled; recommendations scan the database");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "recipe-feature-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the feature store from the database and swap it in.
+     * Recipes changed while the rebuild runs are reloaded after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            RecipeFeatureStore fresh = load();
+            store = fresh;
+            ready = true;
+            changedDuringRebuild = null;
+            if (!changed.isEmpty()) {
+                reload(changed);
+            }
+            logger.info("Recipe feature store built: {} recipes in {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build recipe feature store, recommendations scan the database: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Picks up the view counts other instances flushed since the last build
+    @Scheduled(fixedDelayString = "${recommendations.feature-store.reload-interval-ms:300000}",
+            initialDelayString = "${recommendations.feature-store.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        if (isReady()) {
+            rebuild();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Ids of the n best scoring recipes passing the filter, best first.
+     */
+    public List<Long> top(int n, Filter filter, Scorer scorer) {
+        if (!isReady()) {
+            // Every caller ranks by rating, which the query reproduces
+            return recipeRepository.findTopRatedIdsMatching(filter, n);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (long id : store.top(n, filter, scorer)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Filter for recipes sharing a cuisine or meal type with the given ones.
+     */
+    public Filter similarTo(Collection<Long> recipeIds) {
+        if (isReady()) {
+            return store.similarTo(recipeIds);
+        }
+        List<String> cuisineTypes = new ArrayList<>();
+        List<String> mealTypes = new ArrayList<>();
+        if (!recipeIds.isEmpty()) {
+            for (Object[] row : recipeRepository.findCuisineAndMealTypesByIds(recipeIds)) {
+                cuisineTypes.add((String) row[1]);
+                mealTypes.add((String) row[2]);
+            }
+        }
+        return Filter.sharingCuisineOrMealType(cuisineTypes, mealTypes);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        try {
+            if (event.isDeleted()) {
+                store.remove(event.getRecipeId());
+            } else {
+                reload(List.of(event.getRecipeId()));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update feature store for recipe {}: {}", event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RecipeRatingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        try {
+            reload(List.of(event.getRecipeId()));
+        } catch (Exception e) {
+            logger.error("Failed to update feature store for recipe {}: {}", event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    // Deltas are added in place; a rebuild in progress reloads the recipes instead
+    @EventListener
+    public void onViewCountsFlushed(ViewCountsFlushedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(event.getDeltas().keySet());
+        }
+        RecipeFeatureStore current = store;
+        event.getDeltas().forEach(current::addViews);
+    }
+
+    private void markChanged(Long recipeId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(recipeId);
+        }
+    }
+
+    private RecipeFeatureStore load() {
+        RecipeFeatureStore fresh = new RecipeFeatureStore();
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = recipeRepository.findFeatureFieldsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return fresh;
+            }
+            putRows(fresh, rows);
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private void reload(Collection<Long> recipeIds) {
+        RecipeFeatureStore current = store;
+        List<Object[]> rows = recipeRepository.findFeatureFieldsByIds(recipeIds);
+        putRows(current, rows);
+        if (rows.size() < recipeIds.size()) {
+            Set<Long> found = new HashSet<>();
+            rows.forEach(row -> found.add((Long) row[0]));
+            recipeIds.stream().filter(id -> !found.contains(id)).forEach(current::remove);
+        }
+    }
+
+    private static void putRows(RecipeFeatureStore target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            BigDecimal rating = (BigDecimal) row[1];
+            Integer views = (Integer) row[2];
+            Integer reviews = (Integer) row[3];
+            LocalDateTime createdAt = (LocalDateTime) row[4];
+            target.put((Long) row[0],
+                    rating != null ? rating.doubleValue() : 0.0,
+                    views != null ? views : 0,
+                    reviews != null ? reviews : 0,
+                    // Naive local times, so differences match ChronoUnit on LocalDateTime
+                    createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : RecipeFeatureStore.NO_TIME,
+                    (String) row[5], (String) row[6],
+                    (Boolean) row[7], (Boolean) row[8], (Boolean) row[9], (Boolean) row[10]);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.ImageMigrationStatus;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves legacy recipe image blobs (recipes.image_data, no longer mapped on Recipe) to the
+ * file store and points image_url at the stored file.
+ *
+ * Each blob is copied to disk in chunks, one SUBSTRING query per chunk, so memory stays at one
+ * chunk whatever the blob size or driver (a plain MySQL result set holds a whole row, blob
+ * included, and a streaming one still reads each row whole). Then the row's image_url is
+ * rewritten and its blob columns cleared in one guarded UPDATE. The remaining
+ * blobs are the only state, so the migration is resumable: after a crash or restart it simply
+ * continues with the rows that still have image_data.
+ */
+@Service
+public class RecipeImageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImageMigrationService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${images.migration.auto-start:true}")
+    private boolean autoStart;
+
+    @Value("${images.migration.batch-size:20}")
+    private int batchSize;
+
+    // Pause between batches so the migration does not saturate the database
+    @Value("${images.migration.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${images.migration.chunk-bytes:1048576}")
+    private int chunkBytes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesMigrated = new AtomicLong();
+    private volatile long totalAtStart;
+    private volatile Long lastRecipeId;
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // False once the blob column is gone or known to be empty, so writes can skip the cleanup query
+    private volatile boolean legacyBlobsPresent = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!hasLegacyBlobColumn()) {
+            legacyBlobsPresent = false;
+            return;
+        }
+        if (autoStart) {
+            start();
+        }
+    }
+
+    /**
+     * Start a migration run in the background. Returns false if one is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(this::run, "recipe-image-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public ImageMigrationStatus getStatus() {
+        return new ImageMigrationStatus(running.get(), startedAt, finishedAt, totalAtStart,
+                migrated.get(), failed.get(), bytesMigrated.get(), lastRecipeId, lastError);
+    }
+
+    /**
+     * Drop the legacy blob of a recipe whose image has just been replaced, so the migration
+     * cannot later overwrite the new image_url with the old picture.
+     */
+    public void discardLegacyImage(Long recipeId) {
+        if (legacyBlobsPresent) {
+            jdbcTemplate.update("UPDATE recipes SET image_data = NULL, image_filename = NULL, " +
+                    "image_content_type = NULL WHERE id = ? AND image_data IS NOT NULL", recipeId);
+        }
+    }
+
+    private void run() {
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        migrated.set(0);
+        failed.set(0);
+        bytesMigrated.set(0);
+        lastError = null;
+        try {
+            totalAtStart = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM recipes WHERE image_data IS NOT NULL", Long.class);
+            logger.info("Recipe image migration started: {} blobs to move", totalAtStart);
+
+            long afterId = 0L;
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM recipes WHERE image_data IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                        Long.class, afterId, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    migrateOne(id);
+                }
+                afterId = ids.get(ids.size() - 1);
+                logger.info("Recipe image migration: {}/{} migrated, {} failed, {} MB",
+                        migrated.get(), totalAtStart, failed.get(), bytesMigrated.get() >> 20);
+                Thread.sleep(batchPauseMs);
+            }
+            if (failed.get() == 0) {
+                legacyBlobsPresent = false;
+            }
+            logger.info("Recipe image migration finished: {} migrated, {} failed", migrated.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            logger.error("Recipe image migration stopped, it resumes on the next run: {}", e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void migrateOne(Long recipeId) {
+        lastRecipeId = recipeId;
+        String filename = null;
+        try {
+            StoredBlob stored = jdbcTemplate.query(
+                    "SELECT image_filename, image_content_type, OCTET_LENGTH(image_data) " +
+                    "FROM recipes WHERE id = ? AND image_data IS NOT NULL",
+                    rs -> {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        String name = "recipe-" + recipeId + "-" + baseName(rs.getString(1), rs.getString(2));
+                        long length = rs.getLong(3);
+                        try (InputStream in = new BlobChunkStream(recipeId, length)) {
+                            return new StoredBlob(fileStorageService.storeFile(in, name), length);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    },
+                    recipeId);
+            if (stored == null) {
+                return;
+            }
+            filename = stored.filename;
+
+            // Guarded so a recipe that was deleted or got a new image meanwhile is left alone
+            // updated_at moves with the new image_url so conditional GETs see the change
+            int updated = jdbcTemplate.update("UPDATE recipes SET image_url = ?, image_data = NULL, " +
+                    "image_filename = NULL, image_content_type = NULL, updated_at = ? " +
+                    "WHERE id = ? AND image_data IS NOT NULL",
+                    "/uploads/" + filename, LocalDateTime.now(), recipeId);
+            if (updated == 0) {
+                fileStorageService.deleteFile(filename);
+                return;
+            }
+            migrated.incrementAndGet();
+            bytesMigrated.addAndGet(stored.bytes);
+            eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.UPDATED));
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            lastError = "Recipe " + recipeId + ": " + e.getMessage();
+            logger.warn("Failed to migrate image of recipe {}: {}", recipeId, e.getMessage());
+            if (filename != null) {
+                try {
+                    fileStorageService.deleteFile(filename);
+                } catch (Exception ignored) {
+                    // The orphaned file is harmless; the blob stays in place for the next run
+                }
+            }
+        }
+    }
+
+    private boolean hasLegacyBlobColumn() {
+        try {
+            Integer columns = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND COLUMN_NAME = 'image_data'",
+                    Integer.class);
+            return columns != null && columns > 0;
+        } catch (Exception e) {
+            logger.warn("Could not check for legacy recipe image blobs: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static String baseName(String filename, String contentType) {
+        if (filename != null && !filename.isBlank()) {
+            return filename.replaceAll("[^A-Za-z0-9._-]", "_");
+        }
+        if (contentType != null && contentType.startsWith("image/")) {
+            return "image." + contentType.substring("image/".length()).replaceAll("[^A-Za-z0-9]", "");
+        }
+        return "image";
+    }
+
+    /**
+     * Reads a recipe's blob one chunk per query. Ends early if the blob is cleared meanwhile;
+     * the guarded UPDATE then leaves the row alone and the partial file is deleted.
+     */
+    private final class BlobChunkStream extends InputStream {
+        private final Long recipeId;
+        private final long length;
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int offset;
+
+        BlobChunkStream(Long recipeId, long length) {
+            this.recipeId = recipeId;
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[offset++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.length - offset);
+            System.arraycopy(chunk, offset, buffer, off, count);
+            offset += count;
+            return count;
+        }
+
+        private boolean fill() {
+            if (offset < chunk.length) {
+                return true;
+            }
+            if (position >= length) {
+                return false;
+            }
+            // SUBSTRING positions are 1-based
+            List<byte[]> next = jdbcTemplate.query(
+                    "SELECT SUBSTRING(image_data, ?, ?) FROM recipes WHERE id = ? AND image_data IS NOT NULL",
+                    (rs, rowNum) -> rs.getBytes(1), position + 1, chunkBytes, recipeId);
+            if (next.isEmpty() || next.get(0) == null || next.get(0).length == 0) {
+                position = length;
+                return false;
+            }
+            chunk = next.get(0);
+            offset = 0;
+            position += chunk.length;
+            return true;
+        }
+    }
+
+    private static final class StoredBlob {
+        final String filename;
+        final long bytes;
+
+        StoredBlob(String filename, long bytes) {
+            this.filename = filename;
+            this.bytes = bytes;
+        }
+    }
+}
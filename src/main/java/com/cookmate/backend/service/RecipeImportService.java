@@ -0,0 +1,347 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.InstructionRequest;
+import com.cookmate.backend.dto.RecipeImportError;
+import com.cookmate.backend.dto.RecipeImportStatus;
+import com.cookmate.backend.dto.RecipeIngredientRequest;
+import com.cookmate.backend.dto.RecipeRequest;
+import com.cookmate.backend.event.RecipeImportFinishedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.importer.ImportFormat;
+import com.cookmate.backend.importer.ImportRow;
+import com.cookmate.backend.importer.RecipeImportReader;
+import com.cookmate.backend.importer.RecipeRowMapper;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk recipe import from NDJSON, JSON array or CSV files.
+ *
+ * The upload is spooled to a temp file and imported in the background. One thread reads
+ * chunks of recipe-import.chunk-size rows while the previous chunk is mapped and validated in
+ * parallel on a dedicated pool. Each valid chunk is written by RecipeBulkWriter in a single
+ * transaction, its ingredient names resolved in bulk through IngredientDictionary. If a chunk
+ * fails its rows are retried one transaction each, so a bad row costs only itself; rejected
+ * rows are kept (up to recipe-import.max-errors) for GET /api/admin/recipes/import/errors.
+ *
+ * Committed chunks publish RecipesImportedEvent for the card read model and list versions;
+ * IndexRebuildCoordinator rebuilds the in-memory indexes once, in the background, on
+ * RecipeImportFinishedEvent.
+ */
+@Service
+public class RecipeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private static final int MAX_REPORTED_ROW_LENGTH = 500;
+
+    @Autowired
+    private RecipeBulkWriter bulkWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${recipe-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${recipe-import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${recipe-import.max-errors:1000}")
+    private int maxErrors;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong chunksCommitted = new AtomicLong();
+    private final List<RecipeImportError> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile ImportFormat format;
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * Spool the file and start importing it in the background, the recipes created by the
+     * given user. Returns false if an import is already running.
+     */
+    public boolean start(ImportFormat format, InputStream in, Authentication authentication) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Path file;
+        try {
+            file = spool(format, in);
+        } catch (IOException | RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        reset(format);
+        Thread worker = new Thread(() -> runAndCleanUp(file, userId), "recipe-import");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Import the file on the calling thread and return how many recipes were created. Fails
+     * with IllegalStateException if an import is already running.
+     */
+    public long importFile(ImportFormat format, Path file, Long userId) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A recipe import is already running");
+        }
+        reset(format);
+        try {
+            run(file, userId);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        return imported.get();
+    }
+
+    public RecipeImportStatus getStatus() {
+        LocalDateTime start = startedAt;
+        Double rate = null;
+        if (start != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(start, end).toMillis());
+            rate = imported.get() * 1000.0 / millis;
+        }
+        return new RecipeImportStatus(running.get(), start, finishedAt, format != null ? format.name() : null,
+                rowsRead.get(), imported.get(), failed.get(), chunksCommitted.get(), rate, lastError);
+    }
+
+    /**
+     * Rows rejected by the current (or last) run, in file order per chunk.
+     */
+    public List<RecipeImportError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    private void reset(ImportFormat format) {
+        this.format = format;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        rowsRead.set(0);
+        imported.set(0);
+        failed.set(0);
+        chunksCommitted.set(0);
+        errors.clear();
+        lastError = null;
+    }
+
+    private Path spool(ImportFormat format, InputStream in) throws IOException {
+        Path file = Files.createTempFile("recipe-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void runAndCleanUp(Path file, Long userId) {
+        try {
+            run(file, userId);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete recipe import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void run(Path file, Long userId) {
+        logger.info("Recipe import started ({})", format);
+        RecipeRowMapper mapper = new RecipeRowMapper(objectMapper);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (InputStream in = Files.newInputStream(file);
+             RecipeImportReader reader = RecipeImportReader.open(format, in, objectMapper)) {
+            Future<List<MappedRow>> next = mapNextChunk(reader, mapper, pool);
+            while (true) {
+                List<MappedRow> chunk = next.get();
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                // Read and map the next chunk while this one is written
+                next = mapNextChunk(reader, mapper, pool);
+                writeChunk(chunk, userId);
+                logger.debug("Recipe import: {} rows read, {} imported, {} failed",
+                        rowsRead.get(), imported.get(), failed.get());
+            }
+            logger.info("Recipe import finished: {} imported, {} failed", imported.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            stopped(e.getCause());
+        } catch (Exception e) {
+            stopped(e);
+        } finally {
+            pool.shutdownNow();
+            eventPublisher.publishEvent(new RecipeImportFinishedEvent(imported.get()));
+        }
+    }
+
+    private void stopped(Throwable e) {
+        lastError = e.getMessage();
+        logger.error("Recipe import stopped after {} rows: {}", rowsRead.get(), e.getMessage());
+    }
+
+    private Future<List<MappedRow>> mapNextChunk(RecipeImportReader reader, RecipeRowMapper mapper, ForkJoinPool pool)
+            throws IOException {
+        List<ImportRow> rows = reader.nextBatch(chunkSize);
+        rowsRead.addAndGet(rows.size());
+        return pool.submit(() -> rows.parallelStream()
+                .map(row -> map(row, mapper))
+                .collect(Collectors.toList()));
+    }
+
+    private MappedRow map(ImportRow row, RecipeRowMapper mapper) {
+        try {
+            RecipeRequest request = mapper.map(row);
+            String violation = firstViolation(request);
+            return violation == null ? new MappedRow(row, request, null) : new MappedRow(row, null, violation);
+        } catch (IllegalArgumentException e) {
+            return new MappedRow(row, null, e.getMessage());
+        }
+    }
+
+    // RecipeRequest does not cascade validation, so its ingredients and steps are checked here
+    private String firstViolation(RecipeRequest request) {
+        String violation = firstViolation(validator.validate(request));
+        if (violation == null && request.getIngredients() != null) {
+            for (RecipeIngredientRequest ingredient : request.getIngredients()) {
+                violation = ingredient == null ? "Ingredient is empty" : firstViolation(validator.validate(ingredient));
+                if (violation != null) {
+                    return violation;
+                }
+            }
+        }
+        if (violation == null && request.getInstructions() != null) {
+            for (InstructionRequest instruction : request.getInstructions()) {
+                violation = instruction == null ? "Instruction is empty" : firstViolation(validator.validate(instruction));
+                if (violation != null) {
+                    return violation;
+                }
+            }
+        }
+        return violation;
+    }
+
+    private static <T> String firstViolation(Set<ConstraintViolation<T>> violations) {
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private void writeChunk(List<MappedRow> chunk, Long userId) {
+        List<MappedRow> valid = new ArrayList<>(chunk.size());
+        for (MappedRow row : chunk) {
+            if (row.error != null) {
+                reject(row.row, row.error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            commit(valid, userId);
+        } catch (RuntimeException e) {
+            if (valid.size() == 1) {
+                reject(valid.get(0).row, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return;
+            }
+            logger.debug("Recipe import chunk failed, retrying its rows one by one: {}", e.getMessage());
+            for (MappedRow row : valid) {
+                writeChunk(List.of(row), userId);
+            }
+        }
+    }
+
+    private void commit(List<MappedRow> rows, Long userId) {
+        List<RecipeRequest> recipes = rows.stream().map(row -> row.request).collect(Collectors.toList());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<String, Long> ingredientIds = bulkWriter.resolveIngredients(recipes);
+            List<Long> recipeIds = bulkWriter.insertRecipes(recipes, userId, ingredientIds);
+            eventPublisher.publishEvent(new RecipesImportedEvent(recipeIds));
+        });
+        imported.addAndGet(rows.size());
+        chunksCommitted.incrementAndGet();
+    }
+
+    private void reject(ImportRow row, String message) {
+        failed.incrementAndGet();
+        lastError = "Row " + row.getRowNumber() + ": " + message;
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                String raw = row.raw();
+                if (raw.length() > MAX_REPORTED_ROW_LENGTH) {
+                    raw = raw.substring(0, MAX_REPORTED_ROW_LENGTH) + "...";
+                }
+                errors.add(new RecipeImportError(row.getRowNumber(), message, raw));
+            }
+        }
+    }
+
+    private static final class MappedRow {
+        final ImportRow row;
+        final RecipeRequest request;
+        final String error;
+
+        MappedRow(ImportRow row, RecipeRequest request, String error) {
+            this.row = row;
+            this.request = request;
+            this.error = error;
+        }
+    }
+}
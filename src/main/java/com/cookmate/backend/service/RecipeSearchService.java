@@ -0,0 +1,155 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.repository.RecipeIngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.RecipeSearchIndex;
+import com.cookmate.backend.search.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the in-memory recipe search index in sync with the database and serves keyword queries.
+ *
+ * The index is built in the background once the application is ready; until then
+ * {@link #isReady()} is false and callers fall back to the SQL LIKE query.
+ */
+@Service
+public class RecipeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSearchService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Value("${search.recipe-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile RecipeSearchIndex index = new RecipeSearchIndex();
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Recipe search index disabled; keyword search uses SQL");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "recipe-search-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the whole index from the database and swap it in atomically.
+     * Recipes changed while the rebuild runs are re-indexed after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            RecipeSearchIndex fresh = new RecipeSearchIndex();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = recipeRepository.findSearchFieldsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                indexRows(fresh, rows);
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            index = fresh;
+            ready = true;
+            changedDuringRebuild = null;
+            for (Long recipeId : changed) {
+                reindex(recipeId);
+            }
+            logger.info("Recipe search index built: {} recipes in {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build recipe search index, keyword search stays on SQL: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * BM25-ranked recipe ids for the keyword, without the recipes the exclusion rules out,
+     * sliced to the requested window.
+     */
+    public SearchResult search(String keyword, AllergenExclusion exclusion, int offset, int limit) {
+        return index.search(keyword, offset, limit, exclusion);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getRecipeId());
+        }
+        try {
+            if (event.isDeleted()) {
+                index.remove(event.getRecipeId());
+            } else {
+                reindex(event.getRecipeId());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update search index for recipe {}: {}", event.getRecipeId(), e.getMessage());
+        }
+    }
+
+    private void reindex(Long recipeId) {
+        List<Object[]> rows = recipeRepository.findSearchFieldsById(recipeId);
+        if (rows.isEmpty()) {
+            index.remove(recipeId);
+        } else {
+            indexRows(index, rows);
+        }
+    }
+
+    private void indexRows(RecipeSearchIndex target, List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        Map<Long, List<String>> ingredientNames = new HashMap<>();
+        for (Object[] row : recipeIngredientRepository.findIngredientNamesByRecipeIds(ids)) {
+            ingredientNames.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            target.index(id, (String) row[1], (String) row[2], ingredientNames.get(id));
+        }
+    }
+}
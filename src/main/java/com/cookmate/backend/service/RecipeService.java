@@ -2,11 +2,21 @@ package com.cookmate.backend.service;
 
 import com.cookmate.backend.dto.*;
 import com.cookmate.backend.entity.*;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.exception.BadRequestException;
 import com.cookmate.backend.exception.ResourceNotFoundException;
 import com.cookmate.backend.exception.UnauthorizedException;
 import com.cookmate.backend.repository.*;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.FacetResult;
+import com.cookmate.backend.search.IngredientMatchResult;
+import com.cookmate.backend.search.RecipeFilter;
+import com.cookmate.backend.search.SearchResult;
+import com.cookmate.backend.service.HotListService.HotList;
 import com.cookmate.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +25,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,12 +51,49 @@ public class RecipeService {
     @Autowired
     private InstructionRepository instructionRepository;
     
-    @Autowired
-    private RecentlyViewedRepository recentlyViewedRepository;
 
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private RecipeSearchService recipeSearchService;
+    
+    @Autowired
+    private IngredientMatchService ingredientMatchService;
+    
+    @Autowired
+    private IngredientDictionary ingredientDictionary;
+    
+    @Autowired
+    private RecipeFacetService recipeFacetService;
+    
+    @Autowired
+    private RecipeCardService recipeCardService;
+    
+    @Autowired
+    private RecipeCardRepository recipeCardRepository;
+    
+    @Autowired
+    private RecipeImageMigrationService recipeImageMigrationService;
+    
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private RecentlyViewedIngestService recentlyViewedIngestService;
+    
+    @Autowired
+    private RecipeDetailCache recipeDetailCache;
+    
+    @Autowired
+    private RecipeDtoAssembler recipeDtoAssembler;
+    
+    @Autowired
+    private HotListService hotListService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Transactional
     public RecipeDto createRecipe(RecipeRequest request, Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -69,6 +121,8 @@ public class RecipeService {
             saveInstructions(savedRecipe, request.getInstructions());
         }
         
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), RecipeChangedEvent.Type.CREATED));
+        
         return convertToDto(savedRecipe);
     }
     
@@ -91,6 +145,11 @@ public class RecipeService {
         
         mapRequestToRecipe(request, recipe);
         
+        // A newly chosen image supersedes any legacy blob still waiting for migration
+        if (!Objects.equals(oldImageUrl, recipe.getImageUrl())) {
+            recipeImageMigrationService.discardLegacyImage(id);
+        }
+        
         // If the image was changed, clean up old image
         if (request.getImageData() != null && oldImageUrl != null && oldImageUrl.startsWith("/uploads/")) {
             try {
@@ -108,6 +167,10 @@ public class RecipeService {
                           (request.getCookTime() != null ? request.getCookTime() : 0);
         recipe.setTotalTime(totalTime);
         
+        // Set explicitly so edits that only touch ingredients or instructions still move
+        // updatedAt, which versions the recipe for conditional GETs
+        recipe.setUpdatedAt(LocalDateTime.now());
+        
         Recipe updatedRecipe = recipeRepository.save(recipe);
         
         // Update ingredients
@@ -122,6 +185,8 @@ public class RecipeService {
             saveInstructions(updatedRecipe, request.getInstructions());
         }
         
+        eventPublisher.publishEvent(new RecipeChangedEvent(id, RecipeChangedEvent.Type.UPDATED));
+        
         return convertToDto(updatedRecipe);
     }
     
@@ -153,31 +218,37 @@ public class RecipeService {
         }
 
         recipeRepository.delete(recipe);
-    }    @Transactional
+        
+        eventPublisher.publishEvent(new RecipeChangedEvent(id, RecipeChangedEvent.Type.DELETED));
+    }    @Transactional(readOnly = true)
     public RecipeDto getRecipeById(Long id, Authentication authentication) {
-        Recipe recipe = recipeRepository.findByIdWithDetails(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipe", "id", id));
+        // Assembled DTOs are cached; the cache overlays the live view count
+        RecipeDto dto = recipeDetailCache.get(id, this::loadRecipeDetail);
         
-        // Increment view count
-        recipe.setViewCount(recipe.getViewCount() + 1);
-        recipeRepository.save(recipe);
+        recordView(id, authentication);
+        dto.setViewCount(dto.getViewCount() + 1);
         
-        // Add to recently viewed if user is authenticated
+        return dto;
+    }
+    
+    /**
+     * Count a view of the recipe without building its DTO, e.g. when the client revalidated
+     * its cached copy.
+     */
+    public void recordView(Long id, Authentication authentication) {
+        // Count the view in memory; ViewCountService writes it behind in batches
+        viewCountService.recordView(id);
+        
+        // Queue for the recently-viewed list; written behind by RecentlyViewedIngestService
         if (authentication != null) {
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            User user = userRepository.findById(userDetails.getId()).orElse(null);
-            
-            if (user != null) {
-                RecentlyViewed recentlyViewed = recentlyViewedRepository
-                        .findByUser_IdAndRecipe_Id(user.getId(), recipe.getId())
-                        .orElse(new RecentlyViewed());
-                
-                recentlyViewed.setUser(user);
-                recentlyViewed.setRecipe(recipe);
-                recentlyViewedRepository.save(recentlyViewed);
-            }
+            recentlyViewedIngestService.recordView(userDetails.getId(), id);
         }
-        
+    }
+    
+    private RecipeDto loadRecipeDetail(Long id) {
+        Recipe recipe = recipeRepository.findByIdWithDetails(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe", "id", id));
         return convertToDto(recipe);
     }
     
@@ -186,52 +257,131 @@ public class RecipeService {
                    Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (recipeCardService.isReady() && recipeCardService.supportsSort(sortBy)) {
+            return convertCardPageResponse(recipeCardRepository.findAll(pageable));
+        }
+        
         Page<Recipe> recipePage = recipeRepository.findAllWithDetails(pageable);
         return convertToPageResponse(recipePage);
     }
     
-    public PageResponse<RecipeDto> searchRecipes(String keyword, int page, int size) {
+    /**
+     * Keyword search without the recipes the user's allergen exclusion rules out
+     */
+    public PageResponse<RecipeDto> searchRecipes(String keyword, AllergenExclusion exclusion, int page, int size) {
+        // Serve from the in-memory BM25 index once it is built; SQL LIKE is the warm-up fallback,
+        // also while the allergen masks load, as it filters by the stored ones
+        if (recipeSearchService.isReady() && exclusion.isResolved()) {
+            SearchResult result = recipeSearchService.search(keyword, exclusion, page * size, size);
+            List<RecipeDto> content = findSimpleDtosInOrder(result.getRecipeIds());
+            PageResponse<RecipeDto> response = buildPageResponse(content, page, size, result.getTotalHits());
+            response.setDidYouMean(result.getSuggestion());
+            return response;
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<Recipe> recipePage = recipeRepository.searchByKeyword(keyword, pageable);
+        Page<Recipe> recipePage = recipeRepository.searchByKeyword(keyword, exclusion.getMask(), pageable);
         return convertToPageResponse(recipePage);
     }
     
     public PageResponse<RecipeDto> filterRecipes(
             String cuisineType, String mealType, String difficultyLevel, 
             Integer maxTime, Boolean isVegetarian, Boolean isVegan, 
-            Boolean isGlutenFree, int page, int size) {
+            Boolean isGlutenFree, Boolean isDairyFree, AllergenExclusion exclusion, int page, int size) {
+        
+        // Answer from the in-memory facet bitmaps once built (and the allergen masks loaded), with
+        // per-facet counts alongside the page
+        if (recipeFacetService.isReady() && exclusion.isResolved()) {
+            RecipeFilter filter = new RecipeFilter(cuisineType, mealType, difficultyLevel, maxTime,
+                    isVegetarian, isVegan, isGlutenFree, isDairyFree);
+            FacetResult result = recipeFacetService.filter(filter, exclusion, page * size, size);
+            List<RecipeDto> content = findSimpleDtosInOrder(result.getRecipeIds());
+            PageResponse<RecipeDto> pageResponse = buildPageResponse(content, page, size, result.getTotalHits());
+            return new FacetedPageResponse<>(pageResponse.getContent(), pageResponse.getPageNumber(),
+                    pageResponse.getPageSize(), pageResponse.getTotalElements(), pageResponse.getTotalPages(),
+                    pageResponse.getLast(), result.getFacets());
+        }
         
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeRepository.findByFilters(
                 cuisineType, mealType, difficultyLevel, maxTime, 
-                isVegetarian, isVegan, isGlutenFree, pageable);
+                isVegetarian, isVegan, isGlutenFree, isDairyFree, exclusion.getMask(), pageable);
         
         return convertToPageResponse(recipePage);
     }
     
-    public PageResponse<RecipeDto> searchByIngredients(List<String> ingredients, int page, int size) {
+    public PageResponse<RecipeDto> searchByIngredients(List<String> ingredients, AllergenExclusion exclusion,
+                                                       int page, int size) {
+        // Rank by ingredient coverage from the in-memory bitmap index once it and the allergen
+        // masks are loaded
+        if (ingredientMatchService.isReady() && exclusion.isResolved()) {
+            IngredientMatchResult result = ingredientMatchService.match(ingredients, exclusion, page * size, size);
+            Map<Long, IngredientMatchResult.Match> matches = new LinkedHashMap<>();
+            result.getMatches().forEach(m -> matches.put(m.getRecipeId(), m));
+            
+            List<RecipeDto> content = findSimpleDtosInOrder(List.copyOf(matches.keySet()));
+            for (RecipeDto dto : content) {
+                IngredientMatchResult.Match match = matches.get(dto.getId());
+                dto.setMatchedIngredientCount(match.getMatchedCount());
+                dto.setTotalIngredientCount(match.getTotalCount());
+                dto.setMissingIngredients(match.getMissingIngredients());
+            }
+            PageResponse<RecipeDto> response = buildPageResponse(content, page, size, result.getTotalHits());
+            if (!result.getCorrections().isEmpty()) {
+                response.setDidYouMean(ingredients.stream()
+                        .map(name -> result.getCorrections().getOrDefault(name, name))
+                        .collect(Collectors.joining(", ")));
+            }
+            return response;
+        }
+        
         List<String> lowerCaseIngredients = ingredients.stream()
                 .map(String::toLowerCase)
                 .collect(Collectors.toList());
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Recipe> recipePage = recipeRepository.findByIngredients(lowerCaseIngredients, pageable);
+        Page<Recipe> recipePage = recipeRepository.findByIngredients(
+                lowerCaseIngredients, exclusion.getMask(), pageable);
         return convertToPageResponse(recipePage);
     }
     
     public PageResponse<RecipeDto> getTopRatedRecipes(int page, int size) {
+        PageResponse<RecipeDto> hot = hotListService.page(HotList.TOP_RATED, page, size);
+        if (hot != null) {
+            return hot;
+        }
+        if (recipeCardService.isReady()) {
+            return convertCardPageResponse(recipeCardRepository.findAll(
+                    PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "averageRating", "id"))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeRepository.findByOrderByAverageRatingDesc(pageable);
         return convertToPageResponse(recipePage);
     }
     
     public PageResponse<RecipeDto> getMostViewedRecipes(int page, int size) {
+        PageResponse<RecipeDto> hot = hotListService.page(HotList.MOST_VIEWED, page, size);
+        if (hot != null) {
+            return hot;
+        }
+        if (recipeCardService.isReady()) {
+            return convertCardPageResponse(recipeCardRepository.findAll(
+                    PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "viewCount", "id"))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeRepository.findByOrderByViewCountDesc(pageable);
         return convertToPageResponse(recipePage);
     }
     
     public PageResponse<RecipeDto> getRecentRecipes(int page, int size) {
+        PageResponse<RecipeDto> hot = hotListService.page(HotList.RECENT, page, size);
+        if (hot != null) {
+            return hot;
+        }
+        if (recipeCardService.isReady()) {
+            return convertCardPageResponse(recipeCardRepository.findAll(
+                    PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeRepository.findByOrderByCreatedAtDesc(pageable);
         return convertToPageResponse(recipePage);
@@ -239,13 +389,97 @@ public class RecipeService {
     
     public PageResponse<RecipeDto> getMyRecipes(Authentication authentication, int page, int size) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        if (recipeCardService.isReady()) {
+            return convertCardPageResponse(recipeCardRepository.findByCreatedById(userDetails.getId(),
+                    PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeRepository.findByCreatedBy_Id(userDetails.getId(), pageable);
         return convertToPageResponse(recipePage);
     }
     
+    // Cursor (keyset) variants of the list endpoints: seek on (sortKey, id) instead of OFFSET,
+    // and only count the total when the client asks for it
+    
+    public PageResponse<RecipeDto> getAllRecipes(String cursor, int size, String sortBy, String sortDir, boolean includeTotal) {
+        RecipeSortKey sortKey = RecipeSortKey.fromProperty(sortBy);
+        if (sortKey == null) {
+            throw new BadRequestException("Cursor pagination supports sortBy averageRating, viewCount or createdAt");
+        }
+        return seekPage(sortKey, sortDir.equalsIgnoreCase("asc"), null, cursor, size, includeTotal);
+    }
+    
+    public PageResponse<RecipeDto> getTopRatedRecipes(String cursor, int size, boolean includeTotal) {
+        return seekPage(RecipeSortKey.AVERAGE_RATING, false, null, cursor, size, includeTotal);
+    }
+    
+    public PageResponse<RecipeDto> getMostViewedRecipes(String cursor, int size, boolean includeTotal) {
+        return seekPage(RecipeSortKey.VIEW_COUNT, false, null, cursor, size, includeTotal);
+    }
+    
+    public PageResponse<RecipeDto> getRecentRecipes(String cursor, int size, boolean includeTotal) {
+        return seekPage(RecipeSortKey.CREATED_AT, false, null, cursor, size, includeTotal);
+    }
+    
+    public PageResponse<RecipeDto> getMyRecipes(Authentication authentication, String cursor, int size, boolean includeTotal) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return seekPage(RecipeSortKey.CREATED_AT, false, userDetails.getId(), cursor, size, includeTotal);
+    }
+    
     // Helper methods
     
+    private PageResponse<RecipeDto> seekPage(RecipeSortKey sortKey, boolean ascending, Long createdById,
+                                             String cursor, int size, boolean includeTotal) {
+        if (size <= 0) {
+            throw new BadRequestException("Page size must be greater than zero");
+        }
+        RecipeCursor after = RecipeCursor.decode(cursor, sortKey, ascending);
+        Object afterValue = after != null ? after.getValue() : null;
+        Long afterId = after != null ? after.getId() : null;
+        boolean fromCards = recipeCardService.isReady();
+        
+        // Fetch one extra row to learn whether another page exists without counting
+        List<RecipeDto> content;
+        RecipeCursor next = null;
+        if (fromCards) {
+            List<RecipeCard> cards = recipeCardRepository.findPageAfter(sortKey, ascending, createdById,
+                    afterValue, afterId, size + 1);
+            if (cards.size() > size) {
+                cards = cards.subList(0, size);
+                next = RecipeCursor.after(sortKey, ascending, cards.get(size - 1));
+            }
+            content = cards.stream().map(this::convertToSimpleDto).collect(Collectors.toList());
+        } else {
+            List<Recipe> recipes = recipeRepository.findPageAfter(sortKey, ascending, createdById,
+                    afterValue, afterId, size + 1);
+            if (recipes.size() > size) {
+                recipes = recipes.subList(0, size);
+                next = RecipeCursor.after(sortKey, ascending, recipes.get(size - 1));
+            }
+            content = recipes.stream().map(this::convertToSimpleDto).collect(Collectors.toList());
+        }
+        
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (includeTotal) {
+            if (createdById != null) {
+                totalElements = fromCards
+                        ? recipeCardRepository.countByCreatedById(createdById)
+                        : recipeRepository.countByCreatedBy_Id(createdById);
+            } else {
+                totalElements = fromCards ? recipeCardRepository.count() : recipeRepository.count();
+            }
+            totalPages = (int) ((totalElements + size - 1) / size);
+        }
+        
+        PageResponse<RecipeDto> response = new PageResponse<>(content, null, size, totalElements, totalPages, next == null);
+        if (next != null) {
+            response.setNextCursor(next.encode());
+        }
+        return response;
+    }
+    
+    
     private void mapRequestToRecipe(RecipeRequest request, Recipe recipe) {
         recipe.setTitle(request.getTitle());
         recipe.setDescription(request.getDescription());
@@ -276,10 +510,6 @@ public class RecipeService {
                     request.getImageContentType()
                 );
                 recipe.setImageUrl("/uploads/" + filename);
-                // Clear old blob data since we're using file storage
-                recipe.setImageData(null);
-                recipe.setImageFilename(null);
-                recipe.setImageContentType(null);
             } catch (Exception e) {
                 throw new RuntimeException("Could not store image file", e);
             }
@@ -287,26 +517,31 @@ public class RecipeService {
     }
     
     private void saveRecipeIngredients(Recipe recipe, List<RecipeIngredientRequest> ingredientRequests) {
+        // Existing ingredients or new ones, in one round of lookups
+        Map<String, Long> ingredientIds = ingredientDictionary.resolveAll(ingredientRequests.stream()
+                .map(RecipeIngredientRequest::getIngredientName)
+                .collect(Collectors.toList()));
+        
+        Map<Long, String> savedIngredients = new LinkedHashMap<>();
+        List<RecipeIngredient> recipeIngredients = new ArrayList<>(ingredientRequests.size());
         for (RecipeIngredientRequest ingredientRequest : ingredientRequests) {
-            // Find or create ingredient
-            Ingredient ingredient = ingredientRepository
-                    .findByNameIgnoreCase(ingredientRequest.getIngredientName())
-                    .orElseGet(() -> {
-                        Ingredient newIngredient = new Ingredient();
-                        newIngredient.setName(ingredientRequest.getIngredientName());
-                        return ingredientRepository.save(newIngredient);
-                    });
+            Long ingredientId = ingredientIds.get(IngredientDictionary.normalize(ingredientRequest.getIngredientName()));
             
             // Create recipe ingredient
             RecipeIngredient recipeIngredient = new RecipeIngredient();
             recipeIngredient.setRecipe(recipe);
-            recipeIngredient.setIngredient(ingredient);
+            recipeIngredient.setIngredient(ingredientRepository.getReferenceById(ingredientId));
             recipeIngredient.setQuantity(ingredientRequest.getQuantity());
             recipeIngredient.setUnit(ingredientRequest.getUnit());
             recipeIngredient.setNotes(ingredientRequest.getNotes());
+            recipeIngredients.add(recipeIngredient);
             
-            recipeIngredientRepository.save(recipeIngredient);
+            String name = ingredientDictionary.nameOf(ingredientId);
+            savedIngredients.put(ingredientId, name != null ? name : ingredientRequest.getIngredientName().trim());
         }
+        recipeIngredientRepository.saveAll(recipeIngredients);
+        
+        eventPublisher.publishEvent(new RecipeIngredientsChangedEvent(recipe.getId(), savedIngredients));
     }
     
     private void saveInstructions(Recipe recipe, List<InstructionRequest> instructionRequests) {
@@ -324,119 +559,61 @@ public class RecipeService {
     
     // Convert to DTO for list views (without ingredients and instructions)
     public RecipeDto convertToSimpleDto(Recipe recipe) {
-        RecipeDto dto = new RecipeDto();
-        dto.setId(recipe.getId());
-        dto.setTitle(recipe.getTitle());
-        dto.setDescription(recipe.getDescription());
-        dto.setCuisineType(recipe.getCuisineType());
-        dto.setMealType(recipe.getMealType());
-        dto.setDifficultyLevel(recipe.getDifficultyLevel());
-        dto.setPrepTime(recipe.getPrepTime());
-        dto.setCookTime(recipe.getCookTime());
-        dto.setTotalTime(recipe.getTotalTime());
-        dto.setServings(recipe.getServings());
-        
-        // Set image URL
-        dto.setImageUrl(recipe.getImageUrl());
-        dto.setProtein(recipe.getProtein());
-        dto.setCarbs(recipe.getCarbs());
-        dto.setFat(recipe.getFat());
-        dto.setFiber(recipe.getFiber());
-        dto.setImageUrl(recipe.getImageUrl());
-        dto.setVideoUrl(recipe.getVideoUrl());
-        dto.setIsVegetarian(recipe.getIsVegetarian());
-        dto.setIsVegan(recipe.getIsVegan());
-        dto.setIsGlutenFree(recipe.getIsGlutenFree());
-        dto.setIsDairyFree(recipe.getIsDairyFree());
-        dto.setAverageRating(recipe.getAverageRating());
-        dto.setTotalReviews(recipe.getTotalReviews());
-        dto.setViewCount(recipe.getViewCount());
-        dto.setCreatedAt(recipe.getCreatedAt());
-        
-        if (recipe.getCreatedBy() != null) {
-            dto.setCreatedById(recipe.getCreatedBy().getId());
-            dto.setCreatedByUsername(recipe.getCreatedBy().getUsername());
-        }
-        
-        return dto;
+        return recipeDtoAssembler.toListDto(recipe);
+    }
+    
+    // Convert a recipe_cards row to the same list-view DTO
+    public RecipeDto convertToSimpleDto(RecipeCard card) {
+        return recipeDtoAssembler.toListDto(card);
     }
     
     // Convert to DTO with full details (including ingredients and instructions)
     @Transactional(readOnly = true)
     public RecipeDto convertToDto(Recipe recipe) {
-        RecipeDto dto = new RecipeDto();
-        dto.setId(recipe.getId());
-        dto.setTitle(recipe.getTitle());
-        dto.setDescription(recipe.getDescription());
-        dto.setCuisineType(recipe.getCuisineType());
-        dto.setMealType(recipe.getMealType());
-        dto.setDifficultyLevel(recipe.getDifficultyLevel());
-        dto.setPrepTime(recipe.getPrepTime());
-        dto.setCookTime(recipe.getCookTime());
-        dto.setTotalTime(recipe.getTotalTime());
-        dto.setServings(recipe.getServings());
-        dto.setCalories(recipe.getCalories());
-        dto.setProtein(recipe.getProtein());
-        dto.setCarbs(recipe.getCarbs());
-        dto.setFat(recipe.getFat());
-        dto.setServings(recipe.getServings());
-        
-        // Set image URL
-        dto.setImageUrl(recipe.getImageUrl());
-        dto.setVideoUrl(recipe.getVideoUrl());
-        dto.setIsVegetarian(recipe.getIsVegetarian());
-        dto.setIsVegan(recipe.getIsVegan());
-        dto.setIsGlutenFree(recipe.getIsGlutenFree());
-        dto.setIsDairyFree(recipe.getIsDairyFree());
-        dto.setAverageRating(recipe.getAverageRating());
-        dto.setTotalReviews(recipe.getTotalReviews());
-        dto.setViewCount(recipe.getViewCount());
-        dto.setCreatedAt(recipe.getCreatedAt());
-        
-        if (recipe.getCreatedBy() != null) {
-            dto.setCreatedById(recipe.getCreatedBy().getId());
-            dto.setCreatedByUsername(recipe.getCreatedBy().getUsername());
-        }
-        
-        // Only load ingredients and instructions if they're initialized
-        try {
-            List<RecipeIngredientDto> ingredientDtos = recipe.getRecipeIngredients().stream()
-                    .map(this::convertToIngredientDto)
-                    .collect(Collectors.toList());
-            dto.setIngredients(ingredientDtos);
-            
-            List<InstructionDto> instructionDtos = recipe.getInstructions().stream()
-                    .map(this::convertToInstructionDto)
-                    .collect(Collectors.toList());
-            dto.setInstructions(instructionDtos);
-        } catch (Exception e) {
-            // Collections not initialized, skip them
-            dto.setIngredients(List.of());
-            dto.setInstructions(List.of());
+        return recipeDtoAssembler.toDto(recipe);
+    }
+    
+    // List-view DTOs for the given recipe ids in the same order, skipping ids that no longer exist
+    private List<RecipeDto> findSimpleDtosInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        
-        return dto;
+        Map<Long, RecipeDto> byId = recipeCardService.isReady()
+                ? recipeCardRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(RecipeCard::getId, this::convertToSimpleDto))
+                : recipeRepository.findAllByIdWithDetails(ids).stream()
+                        .collect(Collectors.toMap(Recipe::getId, this::convertToSimpleDto));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
-    private RecipeIngredientDto convertToIngredientDto(RecipeIngredient recipeIngredient) {
-        RecipeIngredientDto dto = new RecipeIngredientDto();
-        dto.setId(recipeIngredient.getId());
-        dto.setIngredientId(recipeIngredient.getIngredient().getId());
-        dto.setIngredientName(recipeIngredient.getIngredient().getName());
-        dto.setQuantity(recipeIngredient.getQuantity());
-        dto.setUnit(recipeIngredient.getUnit());
-        dto.setNotes(recipeIngredient.getNotes());
-        return dto;
+    private PageResponse<RecipeDto> buildPageResponse(List<RecipeDto> content, int page, int size, long totalElements) {
+        int totalPages = size > 0 ? (int) ((totalElements + size - 1) / size) : 0;
+        return new PageResponse<>(
+                content,
+                page,
+                size,
+                totalElements,
+                totalPages,
+                (long) (page + 1) * size >= totalElements
+        );
     }
     
-    private InstructionDto convertToInstructionDto(Instruction instruction) {
-        InstructionDto dto = new InstructionDto();
-        dto.setId(instruction.getId());
-        dto.setStepNumber(instruction.getStepNumber());
-        dto.setInstruction(instruction.getInstruction());
-        dto.setTimerMinutes(instruction.getTimerMinutes());
-        dto.setImageUrl(instruction.getImageUrl());
-        return dto;
+    private PageResponse<RecipeDto> convertCardPageResponse(Page<RecipeCard> cardPage) {
+        List<RecipeDto> content = cardPage.getContent().stream()
+                .map(this::convertToSimpleDto)
+                .collect(Collectors.toList());
+        
+        return new PageResponse<>(
+                content,
+                cardPage.getNumber(),
+                cardPage.getSize(),
+                cardPage.getTotalElements(),
+                cardPage.getTotalPages(),
+                cardPage.isLast()
+        );
     }
     
     private PageResponse<RecipeDto> convertToPageResponse(Page<Recipe> recipePage) {
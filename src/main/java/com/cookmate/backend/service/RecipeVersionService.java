@@ -0,0 +1,155 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.HotListsRefreshedEvent;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of recipe read responses, for conditional GETs answered before any DTO is built.
+ *
+ * A recipe detail or review page is versioned from a single-row projection of the recipe
+ * (updatedAt, rating and review state, the creator's username), so checking it never loads
+ * an entity. View counts are left out: a revalidated detail may show an older count.
+ *
+ * List pages draw on arbitrary sets of recipes, so they share one in-memory generation that
+ * moves on every recipe, ingredient, rating or username change; most-viewed pages also move
+ * with view count flushes. Pages served from the HotListService snapshot trail the event, so
+ * both generations move again when it swaps in lists that show the change. The generation is
+ * combined with this instance's start time, so an ETag issued before a restart never matches
+ * afterwards.
+ */
+@Service
+public class RecipeVersionService {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong contentGeneration = new AtomicLong();
+    private final AtomicLong viewGeneration = new AtomicLong();
+    private final AtomicLong usernameGeneration = new AtomicLong();
+    private volatile Instant contentChangedAt = Instant.ofEpochMilli(epoch);
+    private volatile Instant viewsChangedAt = Instant.ofEpochMilli(epoch);
+
+    /**
+     * Version of the recipe's detail, or empty if there is no such recipe.
+     */
+    public Optional<ResourceVersion> forRecipe(Long recipeId) {
+        List<Object[]> rows = recipeRepository.findVersionFieldsById(recipeId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        Instant lastModified = toInstant(row[0] != null ? row[0] : row[1]);
+        return Optional.of(ResourceVersion.of(lastModified, "recipe", recipeId, row[0], row[2], row[3], row[4]));
+    }
+
+    /**
+     * Version of the recipe's review pages, or empty if there is no such recipe. Reviewers'
+     * usernames are covered by the username generation.
+     */
+    public Optional<ResourceVersion> forRecipeReviews(Long recipeId) {
+        List<Object[]> rows = recipeRepository.findReviewVersionFieldsById(recipeId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        Instant lastModified = latest(toInstant(row[0] != null ? row[0] : row[1]), toInstant(row[3]));
+        return Optional.of(ResourceVersion.of(lastModified, "reviews", recipeId, row[0], row[2], row[3],
+                epoch, usernameGeneration.get()));
+    }
+
+    /**
+     * Version shared by all recipe list pages.
+     */
+    public ResourceVersion forRecipeLists() {
+        return ResourceVersion.of(contentChangedAt, "lists", epoch, contentGeneration.get());
+    }
+
+    /**
+     * Version of list pages ordered or filtered by view count.
+     */
+    public ResourceVersion forViewRankedLists() {
+        return ResourceVersion.of(latest(contentChangedAt, viewsChangedAt),
+                "viewed", epoch, contentGeneration.get(), viewGeneration.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        contentChanged();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        contentChanged();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipesImported(RecipesImportedEvent event) {
+        contentChanged();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RecipeRatingChangedEvent event) {
+        contentChanged();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        usernameGeneration.incrementAndGet();
+        contentChanged();
+    }
+
+    @EventListener
+    public void onViewCountsFlushed(ViewCountsFlushedEvent event) {
+        viewsChanged();
+    }
+
+    @EventListener
+    public void onHotListsRefreshed(HotListsRefreshedEvent event) {
+        if (event.isViewRankedOnly()) {
+            viewsChanged();
+        } else {
+            contentChanged();
+        }
+    }
+
+    private void contentChanged() {
+        contentChangedAt = Instant.now();
+        contentGeneration.incrementAndGet();
+    }
+
+    private void viewsChanged() {
+        viewsChangedAt = Instant.now();
+        viewGeneration.incrementAndGet();
+    }
+
+    private static Instant toInstant(Object value) {
+        return value instanceof LocalDateTime
+                ? ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant()
+                : null;
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
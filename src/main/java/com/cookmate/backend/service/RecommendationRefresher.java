@@ -0,0 +1,309 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecommendationCacheStatus;
+import com.cookmate.backend.event.RecipeEngagementEvent;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.service.RecommendationStore.PendingRefresh;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the lists of RecommendationStore current. Lists queued by reads, stale or computed in
+ * the request, are written or recomputed every drain interval, and so are the lists of users
+ * who favorite or review a recipe. Every regeneration interval the lists of users active within
+ * active-days are recomputed in batches before they go stale, and lists past max-stale deleted.
+ *
+ * Recomputations run on a fixed pool of parallelism threads, so the refresher never holds more
+ * than that many connections; 0 runs them on the scheduler thread.
+ *
+ * Queued lists are drained by the instance that queued them, but the regeneration covers every
+ * active user, so with several instances only the one holding the "recommendation-regeneration"
+ * job lock (see JobLockService) runs it. The lease is renewed before each batch.
+ */
+@Service
+public class RecommendationRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationRefresher.class);
+
+    private static final String JOB_LOCK = "recommendation-regeneration";
+
+    // Lists computed for active users who have none yet: each strategy at the default page size
+    private static final List<String> DEFAULT_LISTS = List.of(
+            RecommendationStore.listKey(RecommendationService.PERSONALIZED, 10),
+            RecommendationStore.listKey(RecommendationService.HISTORY, 10),
+            RecommendationStore.listKey(RecommendationService.PREFERENCES, 10));
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private RecommendationStore recommendationStore;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Value("${recommendations.cache.parallelism:2}")
+    private int parallelism;
+
+    @Value("${recommendations.cache.batch-size:100}")
+    private int batchSize;
+
+    @Value("${recommendations.cache.active-days:7}")
+    private int activeDays;
+
+    @Value("${recommendations.cache.regenerate-interval-ms:600000}")
+    private long regenerateIntervalMs;
+
+    // Renewed on every run, so it has to outlast the regeneration interval
+    @Value("${recommendations.cache.lock-lease-ms:1800000}")
+    private long lockLeaseMs;
+
+    private ExecutorService executor;
+
+    private final AtomicBoolean regenerating = new AtomicBoolean();
+    private final AtomicLong refreshedLists = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+
+    private volatile LocalDateTime lastRegenerationAt;
+    private volatile long lastRegenerationMs;
+    private volatile int lastRegeneratedUsers;
+    private volatile int lastRegeneratedLists;
+    private volatile int lastPrunedRows;
+
+    @PostConstruct
+    public void start() {
+        if (recommendationStore.isEnabled() && parallelism > 0) {
+            AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(parallelism, task -> {
+                Thread thread = new Thread(task, "recommendation-refresh-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue every stored list of a user who just favorited or reviewed a recipe.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(RecipeEngagementEvent event) {
+        if (recommendationStore.isEnabled() && event.getUserId() != null) {
+            recommendationStore.requestRefresh(event.getUserId(), null, null);
+        }
+    }
+
+    /**
+     * Queue every stored list of a user whose allergies or diets may have changed. A change
+     * replayed from another instance is left to that instance, which queued the lists already.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserPreferencesChanged(UserPreferencesChangedEvent event) {
+        if (recommendationStore.isEnabled() && !CacheInvalidationService.isReplaying()) {
+            recommendationStore.requestRefresh(event.getUserId(), null, null);
+        }
+    }
+
+    /**
+     * Write or recompute every queued list.
+     *
+     * @return the number of lists written
+     */
+    @Scheduled(fixedDelayString = "${recommendations.cache.drain-interval-ms:1000}")
+    public int drainPending() {
+        if (!recommendationStore.isEnabled()) {
+            return 0;
+        }
+        int written = 0;
+        List<PendingRefresh> batch;
+        while (!(batch = recommendationStore.takePending(batchSize)).isEmpty()) {
+            Map<Long, Map<String, LocalDateTime>> stored = recommendationStore.listsOf(
+                    batch.stream().filter(p -> p.getList() == null).map(PendingRefresh::getUserId).toList());
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (PendingRefresh refresh : batch) {
+                if (refresh.getList() != null) {
+                    tasks.add(() -> refresh(refresh.getUserId(), refresh.getList(), refresh.getRecipeIds()));
+                    continue;
+                }
+                Map<String, LocalDateTime> lists = stored.get(refresh.getUserId());
+                for (String list : lists != null ? lists.keySet() : DEFAULT_LISTS) {
+                    tasks.add(() -> refresh(refresh.getUserId(), list, null));
+                }
+            }
+            written += runAll(tasks);
+        }
+        return written;
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.cache.regenerate-interval-ms:600000}",
+            initialDelayString = "${recommendations.cache.regenerate-interval-ms:600000}")
+    public void scheduledRegeneration() {
+        if (!recommendationStore.isEnabled() || !jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs)
+                || !regenerating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            regenerateActiveUsers();
+        } finally {
+            regenerating.set(false);
+        }
+    }
+
+    /**
+     * Recompute, batch by batch, the lists of users active within active-days that would go
+     * stale before the next run, computing the default lists of those without any; then delete
+     * the lists past max-stale. Stops early if another instance took the job over.
+     *
+     * @return the number of lists written
+     */
+    public int regenerateActiveUsers() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueBefore = now.minusNanos(
+                Math.max(0, recommendationStore.getTtlMs() - regenerateIntervalMs) * 1_000_000);
+        int users = 0;
+        int written = 0;
+        try {
+            long afterUserId = 0L;
+            List<Long> batch;
+            do {
+                if (!jobLockService.tryAcquire(JOB_LOCK, lockLeaseMs)) {
+                    logger.info("Another instance regenerates the recommendation lists now; stopping after {} users",
+                            users);
+                    return written;
+                }
+                batch = recommendationStore.activeUserIdsAfter(afterUserId, now.minusDays(activeDays), batchSize);
+                Map<Long, Map<String, LocalDateTime>> stored = recommendationStore.listsOf(batch);
+                List<Callable<Boolean>> tasks = new ArrayList<>();
+                for (Long userId : batch) {
+                    Map<String, LocalDateTime> lists = stored.get(userId);
+                    if (lists == null) {
+                        DEFAULT_LISTS.forEach(list -> tasks.add(() -> refresh(userId, list, null)));
+                        continue;
+                    }
+                    lists.forEach((list, generatedAt) -> {
+                        if (generatedAt.isBefore(dueBefore)) {
+                            tasks.add(() -> refresh(userId, list, null));
+                        }
+                    });
+                }
+                written += runAll(tasks);
+                users += batch.size();
+                if (!batch.isEmpty()) {
+                    afterUserId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == batchSize);
+
+            lastPrunedRows = recommendationStore.deleteOlderThan(
+                    now.minusNanos(recommendationStore.getMaxStaleMs() * 1_000_000));
+            lastRegeneratedUsers = users;
+            lastRegeneratedLists = written;
+            lastRegenerationMs = System.currentTimeMillis() - start;
+            lastRegenerationAt = LocalDateTime.now();
+            logger.info("Recommendation lists regenerated: {} lists of {} active users in {} ms, {} expired rows deleted",
+                    written, users, lastRegenerationMs, lastPrunedRows);
+        } catch (Exception e) {
+            logger.error("Failed to regenerate recommendation lists: {}", e.getMessage());
+        }
+        return written;
+    }
+
+    /**
+     * Store a list: the given recipe ids, or the strategy's ids computed now if null.
+     *
+     * @return false if it could not be computed or written
+     */
+    public boolean refresh(Long userId, String list, List<Long> recipeIds) {
+        try {
+            List<Long> ids = recipeIds;
+            if (ids == null) {
+                int separator = list.lastIndexOf(':');
+                ids = recommendationService.computeIds(userId, list.substring(0, separator),
+                        Integer.parseInt(list.substring(separator + 1)));
+            }
+            recommendationStore.write(userId, list, ids);
+            refreshedLists.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            failedRefreshes.incrementAndGet();
+            logger.warn("Failed to refresh recommendation list {} of user {}: {}", list, userId, e.getMessage());
+            return false;
+        }
+    }
+
+    public RecommendationCacheStatus getStatus() {
+        return new RecommendationCacheStatus(
+                recommendationStore.isEnabled(),
+                recommendationStore.getTtlMs(),
+                recommendationStore.getMaxStaleMs(),
+                parallelism,
+                recommendationStore.getFreshHits(),
+                recommendationStore.getStaleHits(),
+                recommendationStore.getMisses(),
+                recommendationStore.pendingCount(),
+                refreshedLists.get(),
+                failedRefreshes.get(),
+                regenerating.get(),
+                lastRegenerationAt,
+                lastRegenerationMs,
+                lastRegeneratedUsers,
+                lastRegeneratedLists,
+                lastPrunedRows
+        );
+    }
+
+    // Run the tasks on the pool, or inline without one, and count those that succeeded
+    private int runAll(List<Callable<Boolean>> tasks) {
+        int succeeded = 0;
+        if (executor == null) {
+            for (Callable<Boolean> task : tasks) {
+                try {
+                    if (task.call()) {
+                        succeeded++;
+                    }
+                } catch (Exception e) {
+                    logger.warn("Recommendation refresh failed: {}", e.getMessage());
+                }
+            }
+            return succeeded;
+        }
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Recommendation refresh failed: {}", e.getMessage());
+        }
+        return succeeded;
+    }
+}
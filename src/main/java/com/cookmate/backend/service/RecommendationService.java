@@ -3,13 +3,16 @@ package com.cookmate.backend.service;
 import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
 import com.cookmate.backend.entity.Favorite;
-import com.cookmate.backend.entity.RecentlyViewed;
 import com.cookmate.backend.entity.Recipe;
 import com.cookmate.backend.repository.FavoriteRepository;
 import com.cookmate.backend.repository.RecentlyViewedRepository;
 import com.cookmate.backend.repository.RecipeRepository;
 import com.cookmate.backend.repository.ReviewRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.RecipeFeatureStore;
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
 import com.cookmate.backend.security.service.UserDetailsImpl;
+import com.cookmate.backend.service.HotListService.HotList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -18,11 +21,20 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
 public class RecommendationService {
 
+    // Strategies whose lists RecommendationStore keeps per user
+    public static final String PERSONALIZED = "personalized";
+    public static final String HISTORY = "history";
+    public static final String PREFERENCES = "preferences";
+
+    // Most candidates asked of one ranked source while the user's exclusion rules them out
+    private static final int MAX_FETCH = 1000;
+
     @Autowired
     private RecentlyViewedRepository recentlyViewedRepository;
 
@@ -36,7 +48,28 @@ public class RecommendationService {
     private ReviewRepository reviewRepository;
 
     @Autowired
-    private RecipeService recipeService;
+    private RecipeDtoAssembler recipeDtoAssembler;
+
+    @Autowired
+    private HotListService hotListService;
+
+    @Autowired
+    private RecipeFeatureService recipeFeatureService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ItemSimilarityService itemSimilarityService;
+
+    @Autowired
+    private SimilarRecipeService similarRecipeService;
+
+    @Autowired
+    private RecommendationStore recommendationStore;
+
+    @Autowired
+    private RecipeAllergenService recipeAllergenService;
 
     /**
      * Get personalized recommendations based on type.
@@ -50,7 +83,7 @@ public class RecommendationService {
             case "preferences":
                 return getRecommendationsByPreferences(authentication, Collections.emptyMap(), limit);
             case "trending":
-                return getTrendingRecipes(limit);
+                return getTrendingRecipes(authentication, limit);
             case "personalized":
             default:
                 return getPersonalizedRecommendations(authentication, limit);
@@ -58,51 +91,110 @@ public class RecommendationService {
     }
 
     /**
-     * Personalized recommendations: combines history, favorites, and top-rated recipes
+     * Personalized recommendations: recipes that users with the same favorites and views also
+     * liked, after the user's own recent views and favorites, topped up with top-rated recipes
      */
     @Transactional(readOnly = true)
     public PageResponse<RecipeDto> getPersonalizedRecommendations(Authentication authentication, int limit) {
-        List<Recipe> coll = new ArrayList<>();
+        Long userId = userIdOf(authentication);
+        List<Long> ids = recommendationStore.getOrCompute(userId, PERSONALIZED, limit,
+                () -> personalizedIds(userId, limit));
 
-        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
-            UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(withoutExcluded(userId, ids, limit));
+
+        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+    }
+
+    /**
+     * Ids of a user's recommendations of the given strategy as computed now, for refreshing
+     * the stored lists. Preferences are computed without explicit filters.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> computeIds(Long userId, String type, int limit) {
+        switch (type) {
+            case HISTORY:
+                return historyIds(userId, limit);
+            case PREFERENCES:
+                return preferenceIds(userId, Collections.emptyMap(), limit);
+            case PERSONALIZED:
+            default:
+                return personalizedIds(userId, limit);
+        }
+    }
+
+    private List<Long> personalizedIds(Long userId, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(userId);
+        // Collect ids only; the recipes are loaded once, together, by the assembler
+        List<Long> coll = new ArrayList<>();
+
+        if (userId != null) {
             int fetch = Math.max(limit / 2, 5);
 
             // Get recently viewed recipes
-            List<RecentlyViewed> rv = recentlyViewedRepository
-                    .findByUser_IdOrderByViewedAtDesc(user.getId(), PageRequest.of(0, fetch))
-                    .getContent();
-            for (RecentlyViewed r : rv) {
-                if (r.getRecipe() != null) coll.add(r.getRecipe());
-            }
+            List<Long> seeds = new ArrayList<>(
+                    recentlyViewedRepository.findRecipeIdsByUserId(userId, PageRequest.of(0, fetch)));
 
             // Get favorite recipes
             List<Favorite> favs = favoriteRepository
-                    .findByUser_Id(user.getId(), PageRequest.of(0, fetch))
+                    .findByUser_Id(userId, PageRequest.of(0, fetch))
                     .getContent();
             for (Favorite f : favs) {
-                if (f.getRecipe() != null) coll.add(f.getRecipe());
+                if (f.getRecipe() != null) seeds.add(f.getRecipe().getId());
+            }
+            coll.addAll(seeds);
+
+            // Recipes that other users of these recipes also liked
+            List<Long> alsoLiked = fetchAllowed(n -> itemSimilarityService.recommendFor(seeds, seeds, n),
+                    exclusion, limit);
+            if (alsoLiked != null) {
+                coll.addAll(alsoLiked);
             }
         }
 
         // Fill with top-rated recipes
-        int need = Math.max(limit, 20);
-        List<Recipe> top = recipeRepository
-                .findByOrderByAverageRatingDesc(PageRequest.of(0, need))
-                .getContent();
-        coll.addAll(top);
-
-        // Dedupe preserving first-seen order
-        Set<Long> seen = new LinkedHashSet<>();
-        List<Recipe> deduped = coll.stream()
-                .filter(r -> r != null && r.getId() != null)
-                .filter(r -> seen.add(r.getId()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        coll.addAll(topRatedIds(Math.max(limit, 20), exclusion));
 
-        List<RecipeDto> content = deduped.stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
+        // Dedupe preserving first-seen order, dropping what the user's allergies exclude
+        return recipeAllergenService.retain(exclusion, coll.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()), limit);
+    }
+
+    /**
+     * Recipes that users who favorited or viewed this recipe also liked; while the lists are
+     * not available, or the recipe has too few users, recipes sharing its cuisine or meal type
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<RecipeDto> getAlsoLiked(Long recipeId, Authentication authentication, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        List<Long> ids = fetchAllowed(n -> itemSimilarityService.alsoLiked(recipeId, n), exclusion, limit);
+        if (ids == null || ids.isEmpty()) {
+            Filter similar = recipeFeatureService.similarTo(List.of(recipeId)).excluding(Set.of(recipeId))
+                    .excludingAllergens(exclusion);
+            ids = recipeFeatureService.top(limit, similar, RecipeFeatureStore.BY_RATING);
+        }
+
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(ids);
+
+        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+    }
+
+    /**
+     * Recipes with the most ingredients in common with this one, rare ingredients counting
+     * most; while the index is not ready, recipes sharing its cuisine or meal type
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<RecipeDto> getSimilarRecipes(Long recipeId, Authentication authentication, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        List<Long> ids = fetchAllowed(n -> similarRecipeService.similar(recipeId, n), exclusion, limit);
+        if (ids == null) {
+            Filter similar = recipeFeatureService.similarTo(List.of(recipeId)).excluding(Set.of(recipeId))
+                    .excludingAllergens(exclusion);
+            ids = recipeFeatureService.top(limit, similar, RecipeFeatureStore.BY_RATING);
+        }
+
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(ids);
 
         return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
     }
@@ -112,94 +204,70 @@ public class RecommendationService {
      */
     @Transactional(readOnly = true)
     public PageResponse<RecipeDto> getRecommendationsByHistory(Authentication authentication, int limit) {
-        List<Recipe> recipes = new ArrayList<>();
+        Long userId = userIdOf(authentication);
+        List<Long> ids = recommendationStore.getOrCompute(userId, HISTORY, limit, () -> historyIds(userId, limit));
 
-        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
-            UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(withoutExcluded(userId, ids, limit));
 
-            // Get recently viewed recipes
-            List<RecentlyViewed> rv = recentlyViewedRepository
-                    .findByUser_IdOrderByViewedAtDesc(user.getId(), PageRequest.of(0, limit * 2))
-                    .getContent();
+        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+    }
 
-            // Extract unique recipes from viewing history
-            Set<Long> seen = new LinkedHashSet<>();
-            for (RecentlyViewed r : rv) {
-                if (r.getRecipe() != null && seen.add(r.getRecipe().getId())) {
-                    recipes.add(r.getRecipe());
-                    if (recipes.size() >= limit) break;
-                }
-            }
+    private List<Long> historyIds(Long userId, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(userId);
+        // Collect ids only; the recipes are loaded once, together, by the assembler
+        List<Long> ids = new ArrayList<>();
 
-            // If not enough from history, fill with similar recipes based on viewed cuisines/meal types
-            if (recipes.size() < limit) {
-                Set<String> viewedCuisines = recipes.stream()
-                        .map(Recipe::getCuisineType)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toSet());
-
-                Set<String> viewedMealTypes = recipes.stream()
-                        .map(Recipe::getMealType)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toSet());
-
-                // Find similar recipes
-                List<Recipe> similar = recipeRepository.findAll()
-                        .stream()
-                        .filter(r -> r.getId() != null && !seen.contains(r.getId()))
-                        .filter(r -> {
-                            boolean matchCuisine = viewedCuisines.isEmpty() || 
-                                    (r.getCuisineType() != null && viewedCuisines.contains(r.getCuisineType()));
-                            boolean matchMealType = viewedMealTypes.isEmpty() || 
-                                    (r.getMealType() != null && viewedMealTypes.contains(r.getMealType()));
-                            return matchCuisine || matchMealType;
-                        })
-                        .sorted(Comparator.comparing(Recipe::getAverageRating).reversed())
-                        .limit(limit - recipes.size())
-                        .collect(Collectors.toList());
-
-                recipes.addAll(similar);
+        if (userId != null) {
+            // Extract unique recipes from viewing history
+            Set<Long> seen = new LinkedHashSet<>(recentlyViewedRepository
+                    .findRecipeIdsByUserId(userId, PageRequest.of(0, limit * 2)));
+            seen.remove(null);
+            List<Long> history = seen.stream().limit(limit).collect(Collectors.toList());
+            ids.addAll(recipeAllergenService.retain(exclusion, history, limit));
+
+            // If not enough from history, fill with similar recipes based on viewed cuisines/meal types,
+            // ranked from the feature store
+            if (!history.isEmpty() && ids.size() < limit) {
+                Filter similar = recipeFeatureService.similarTo(history).excluding(seen).excludingAllergens(exclusion);
+                ids.addAll(recipeFeatureService.top(limit - ids.size(), similar, RecipeFeatureStore.BY_RATING));
             }
         }
 
         // Fallback to top-rated if no history or not authenticated
-        if (recipes.isEmpty()) {
-            recipes = recipeRepository
-                    .findByOrderByAverageRatingDesc(PageRequest.of(0, limit))
-                    .getContent();
+        if (ids.isEmpty()) {
+            ids = topRatedIds(limit, exclusion);
         }
-
-        List<RecipeDto> content = recipes.stream()
-                .limit(limit)
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
-
-        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+        return ids;
     }
 
     /**
-     * Recommendations based on user preferences (cuisine, meal type, dietary restrictions)
+     * Recommendations based on user preferences (cuisine, meal type, dietary restrictions);
+     * only the list without explicit preferences is stored per user
      */
     @Transactional(readOnly = true)
     public PageResponse<RecipeDto> getRecommendationsByPreferences(
             Authentication authentication, Map<String, Object> preferences, int limit) {
-        
-        List<Recipe> recipes = new ArrayList<>();
-        Set<Long> excludeIds = new HashSet<>();
+        Long userId = userIdOf(authentication);
+        List<Long> ids = preferences == null || preferences.isEmpty()
+                ? recommendationStore.getOrCompute(userId, PREFERENCES, limit,
+                        () -> preferenceIds(userId, preferences, limit))
+                : preferenceIds(userId, preferences, limit);
 
-        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
-            UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(withoutExcluded(userId, ids, limit));
 
+        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+    }
+
+    private List<Long> preferenceIds(Long userId, Map<String, Object> preferences, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(userId);
+        Set<Long> excludeIds = new HashSet<>();
+
+        if (userId != null) {
             // Exclude recipes user has already viewed or favorited
-            List<RecentlyViewed> rv = recentlyViewedRepository
-                    .findByUser_IdOrderByViewedAtDesc(user.getId(), PageRequest.of(0, 50))
-                    .getContent();
-            rv.forEach(r -> {
-                if (r.getRecipe() != null) excludeIds.add(r.getRecipe().getId());
-            });
+            excludeIds.addAll(recentlyViewedRepository.findRecipeIdsByUserId(userId, PageRequest.of(0, 50)));
 
             List<Favorite> favs = favoriteRepository
-                    .findByUser_Id(user.getId(), PageRequest.of(0, 50))
+                    .findByUser_Id(userId, PageRequest.of(0, 50))
                     .getContent();
             favs.forEach(f -> {
                 if (f.getRecipe() != null) excludeIds.add(f.getRecipe().getId());
@@ -213,94 +281,118 @@ public class RecommendationService {
         Boolean isVegan = preferences != null ? (Boolean) preferences.get("isVegan") : null;
         Boolean isGlutenFree = preferences != null ? (Boolean) preferences.get("isGlutenFree") : null;
 
-        // Find recipes matching preferences
-        recipes = recipeRepository.findAll()
-                .stream()
-                .filter(r -> r.getId() != null && !excludeIds.contains(r.getId()))
-                .filter(r -> cuisineType == null || (r.getCuisineType() != null && 
-                        r.getCuisineType().equalsIgnoreCase(cuisineType)))
-                .filter(r -> mealType == null || (r.getMealType() != null && 
-                        r.getMealType().equalsIgnoreCase(mealType)))
-                .filter(r -> isVegetarian == null || (r.getIsVegetarian() != null && 
-                        r.getIsVegetarian().equals(isVegetarian)))
-                .filter(r -> isVegan == null || (r.getIsVegan() != null && 
-                        r.getIsVegan().equals(isVegan)))
-                .filter(r -> isGlutenFree == null || (r.getIsGlutenFree() != null && 
-                        r.getIsGlutenFree().equals(isGlutenFree)))
-                .sorted(Comparator.comparing(Recipe::getAverageRating).reversed()
-                        .thenComparing(Recipe::getViewCount).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Find recipes matching preferences: from the hot list segments when they can answer,
+        // else from the feature store, else with one ordered id query; each leaves out what the
+        // user's exclusion rules out, the query by the stored masks
+        List<Long> ids = hotListService.preferredIds(cuisineType, mealType, isVegetarian, isVegan, isGlutenFree,
+                excludeIds, exclusion, limit);
+        if (ids == null && recipeFeatureService.isReady() && exclusion.isResolved()) {
+            Filter filter = new Filter()
+                    .flag(RecipeFeatureStore.VEGETARIAN, isVegetarian)
+                    .flag(RecipeFeatureStore.VEGAN, isVegan)
+                    .flag(RecipeFeatureStore.GLUTEN_FREE, isGlutenFree)
+                    .excluding(excludeIds)
+                    .excludingAllergens(exclusion);
+            if (cuisineType != null) {
+                filter.cuisineTypes(List.of(cuisineType));
+            }
+            if (mealType != null) {
+                filter.mealTypes(List.of(mealType));
+            }
+            ids = recipeFeatureService.top(limit, filter, RecipeFeatureStore.BY_RATING);
+        }
+        if (ids == null) {
+            ids = recipeRepository.findIdsByPreferences(cuisineType, mealType, isVegetarian, isVegan, isGlutenFree,
+                    excludeIds.isEmpty() ? List.of(-1L) : excludeIds, exclusion.getMask(), PageRequest.of(0, limit));
+        }
 
         // Fallback to top-rated if no matches
-        if (recipes.isEmpty()) {
-            recipes = recipeRepository
-                    .findByOrderByAverageRatingDesc(PageRequest.of(0, limit))
-                    .getContent()
+        if (ids.isEmpty()) {
+            ids = topRatedIds(limit, exclusion)
                     .stream()
-                    .filter(r -> !excludeIds.contains(r.getId()))
-                    .limit(limit)
+                    .filter(id -> !excludeIds.contains(id))
                     .collect(Collectors.toList());
         }
-
-        List<RecipeDto> content = recipes.stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
-
-        return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
+        return ids;
     }
 
     /**
-     * Trending recipes based on recent views, favorites, and ratings
+     * Trending recipes: time-decayed views, favorites and reviews, topped up with the best
+     * rated recipes when few have recent activity
      */
     @Transactional(readOnly = true)
-    public PageResponse<RecipeDto> getTrendingRecipes(int limit) {
-        // Calculate trending score: combination of ratings, reviews, views, and recency
-        List<Recipe> recipes = recipeRepository.findAll()
-                .stream()
-                .filter(r -> r.getId() != null)
-                .sorted((r1, r2) -> {
-                    // Calculate trending score
-                    double score1 = calculateTrendingScore(r1);
-                    double score2 = calculateTrendingScore(r2);
-                    return Double.compare(score2, score1); // Descending order
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
+    public PageResponse<RecipeDto> getTrendingRecipes(Authentication authentication, int limit) {
+        AllergenExclusion exclusion = recipeAllergenService.exclusionFor(authentication);
+        List<Long> trending = fetchAllowed(trendingService::topIds, exclusion, limit);
+        List<Long> ids = trending != null ? new ArrayList<>(trending) : new ArrayList<>();
+        if (ids.size() < limit) {
+            Set<Long> listed = new HashSet<>(ids);
+            for (Long id : topRatedIds(limit, exclusion)) {
+                if (ids.size() < limit && listed.add(id)) {
+                    ids.add(id);
+                }
+            }
+        }
 
-        List<RecipeDto> content = recipes.stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
+        List<RecipeDto> content = recipeDtoAssembler.toDtosByIds(ids);
 
         return new PageResponse<>(content, 0, limit, (long) content.size(), 1, true);
     }
 
-    /**
-     * Calculate trending score for a recipe
-     * Formula: (averageRating * totalReviews * viewCount) / daysSinceCreation
-     */
-    private double calculateTrendingScore(Recipe recipe) {
-        if (recipe == null) return 0.0;
-
-        double rating = recipe.getAverageRating() != null ? 
-                recipe.getAverageRating().doubleValue() : 0.0;
-        int reviews = recipe.getTotalReviews() != null ? recipe.getTotalReviews() : 0;
-        int views = recipe.getViewCount() != null ? recipe.getViewCount() : 0;
-
-        // Calculate days since creation
-        long daysSinceCreation = 1;
-        if (recipe.getCreatedAt() != null) {
-            daysSinceCreation = Math.max(1, 
-                    java.time.temporal.ChronoUnit.DAYS.between(
-                            recipe.getCreatedAt(), 
-                            java.time.LocalDateTime.now()));
+    private Long userIdOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getId();
         }
+        return null;
+    }
 
-        // Trending score: higher is better
-        // Weight recent recipes more heavily
-        double recencyWeight = Math.max(1.0, 30.0 / daysSinceCreation);
-        
-        return (rating * reviews * views * recencyWeight) / daysSinceCreation;
+    // Stored lists were computed under the recipe masks of their time; recheck them on read
+    private List<Long> withoutExcluded(Long userId, List<Long> ids, int limit) {
+        return recipeAllergenService.retain(recipeAllergenService.exclusionFor(userId), ids, limit);
+    }
+
+    // Ask a ranked source for candidates, doubling the request until limit of them survive the
+    // exclusion or the source runs out; null while the source is not available
+    private List<Long> fetchAllowed(IntFunction<List<Long>> source, AllergenExclusion exclusion, int limit) {
+        int fetch = limit;
+        while (true) {
+            List<Long> candidates = source.apply(fetch);
+            if (candidates == null) {
+                return null;
+            }
+            List<Long> allowed = recipeAllergenService.retain(exclusion, candidates, limit);
+            if (allowed.size() >= limit || candidates.size() < fetch || fetch >= MAX_FETCH) {
+                return allowed;
+            }
+            fetch = Math.min(fetch * 2, MAX_FETCH);
+        }
+    }
+
+    // Ids of the n best rated recipes the exclusion leaves, scanned from the feature store when
+    // it and the exclusion are ready, else by the stored masks in SQL
+    private List<Long> topRatedIds(int n, AllergenExclusion exclusion) {
+        if (exclusion.isEmpty()) {
+            return topRatedIds(n);
+        }
+        if (recipeFeatureService.isReady() && exclusion.isResolved()) {
+            Filter allowed = new Filter().excludingAllergens(exclusion);
+            return recipeFeatureService.top(n, allowed, RecipeFeatureStore.BY_RATING);
+        }
+        return recipeRepository.findTopRatedIds(exclusion.getMask(), PageRequest.of(0, n));
+    }
+
+    // Ids of the n best rated recipes, from the hot list when it holds that many
+    private List<Long> topRatedIds(int n) {
+        List<Long> ids = hotListService.topIds(HotList.TOP_RATED, n);
+        if (ids != null) {
+            return ids;
+        }
+        return recipeRepository
+                .findByOrderByAverageRatingDesc(PageRequest.of(0, n))
+                .getContent()
+                .stream()
+                .map(Recipe::getId)
+                .collect(Collectors.toList());
     }
 
     /**
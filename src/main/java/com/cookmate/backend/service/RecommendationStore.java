@@ -0,0 +1,272 @@
+package com.cookmate.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Precomputed recommendation lists per user, persisted to the recommendations table and served
+ * stale-while-revalidate: a list younger than the TTL is served as it is, an older one is still
+ * served up to max-stale but queued for recomputation, and past that it is recomputed in the
+ * request. Lists are keyed by strategy and size, such as "history:10", so a stored list is
+ * exactly what the strategy returns for that limit.
+ *
+ * Requests never write here: the lists they compute or find stale are queued, and
+ * RecommendationRefresher writes them in the background.
+ */
+@Service
+public class RecommendationStore {
+
+    private static final String RECOMMENDATION_INSERT =
+            "INSERT INTO recommendations (user_id, recipe_id, type, position, created_at) VALUES ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendations.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommendations.cache.ttl-ms:1800000}")
+    private long ttlMs;
+
+    @Value("${recommendations.cache.max-stale-ms:86400000}")
+    private long maxStaleMs;
+
+    // Larger limits are computed in the request and not stored
+    @Value("${recommendations.cache.max-limit:50}")
+    private int maxLimit;
+
+    // Keyed by user and list; a null list stands for every stored list of the user
+    private final Map<String, PendingRefresh> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong freshHits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public static String listKey(String type, int limit) {
+        return type + ":" + limit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public long getMaxStaleMs() {
+        return maxStaleMs;
+    }
+
+    /**
+     * The user's stored list of this type and size, or what compute returns when there is none
+     * or it is past max-stale. Stale and computed lists are queued for the refresher.
+     */
+    public List<Long> getOrCompute(Long userId, String type, int limit, Supplier<List<Long>> compute) {
+        if (!enabled || userId == null || limit > maxLimit) {
+            return compute.get();
+        }
+        String list = listKey(type, limit);
+        StoredList stored = read(userId, list);
+        if (stored != null) {
+            long ageMs = Duration.between(stored.generatedAt, LocalDateTime.now()).toMillis();
+            if (ageMs < ttlMs) {
+                freshHits.incrementAndGet();
+                return stored.recipeIds;
+            }
+            if (ageMs < maxStaleMs) {
+                staleHits.incrementAndGet();
+                requestRefresh(userId, list, null);
+                return stored.recipeIds;
+            }
+        }
+        misses.incrementAndGet();
+        List<Long> ids = compute.get();
+        requestRefresh(userId, list, ids);
+        return ids;
+    }
+
+    /**
+     * The user's stored list in order, or null if there is none.
+     */
+    public StoredList read(Long userId, String list) {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT recipe_id, created_at FROM recommendations WHERE user_id = ? AND type = ? ORDER BY position",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)},
+                userId, list);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<Long> recipeIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            recipeIds.add((Long) row[0]);
+        }
+        return new StoredList(recipeIds, ((Timestamp) rows.get(0)[1]).toLocalDateTime());
+    }
+
+    /**
+     * Replace the user's list with these recipe ids, computed now.
+     */
+    public void write(Long userId, String list, List<Long> recipeIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM recommendations WHERE user_id = ? AND type = ?", userId, list);
+            if (recipeIds.isEmpty()) {
+                return;
+            }
+            List<Object> args = new ArrayList<>(recipeIds.size() * 5);
+            for (int i = 0; i < recipeIds.size(); i++) {
+                Collections.addAll(args, userId, recipeIds.get(i), list, i, now);
+            }
+            jdbcTemplate.update(RECOMMENDATION_INSERT +
+                    String.join(", ", Collections.nCopies(recipeIds.size(), "(?, ?, ?, ?, ?)")), args.toArray());
+        });
+    }
+
+    /**
+     * When each stored list of these users was computed, by user and list.
+     */
+    public Map<Long, Map<String, LocalDateTime>> listsOf(Collection<Long> userIds) {
+        Map<Long, Map<String, LocalDateTime>> lists = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return lists;
+        }
+        jdbcTemplate.query(
+                "SELECT user_id, type, MIN(created_at) FROM recommendations WHERE user_id IN (" +
+                        String.join(", ", Collections.nCopies(userIds.size(), "?")) + ") GROUP BY user_id, type",
+                rs -> {
+                    lists.computeIfAbsent(rs.getLong(1), k -> new HashMap<>())
+                            .put(rs.getString(2), rs.getTimestamp(3).toLocalDateTime());
+                },
+                userIds.toArray());
+        return lists;
+    }
+
+    /**
+     * Up to limit ids of users who viewed or favorited a recipe since the given time, in
+     * ascending order after afterUserId.
+     */
+    public List<Long> activeUserIdsAfter(long afterUserId, LocalDateTime since, int limit) {
+        Timestamp from = Timestamp.valueOf(since);
+        return jdbcTemplate.queryForList(
+                "SELECT user_id FROM recently_viewed WHERE viewed_at >= ? AND user_id > ? " +
+                        "UNION SELECT user_id FROM favorites WHERE created_at >= ? AND user_id > ? " +
+                        "ORDER BY user_id LIMIT ?",
+                Long.class, from, afterUserId, from, afterUserId, limit);
+    }
+
+    /**
+     * Delete lists computed before the given time, which are no longer served.
+     */
+    public int deleteOlderThan(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM recommendations WHERE created_at < ?", Timestamp.valueOf(before));
+    }
+
+    /**
+     * Queue a list for recomputation, or for writing if its recipe ids are given. A null list
+     * queues every stored list of the user.
+     */
+    public void requestRefresh(Long userId, String list, List<Long> recipeIds) {
+        PendingRefresh refresh = new PendingRefresh(userId, list, recipeIds);
+        String key = userId + "|" + (list != null ? list : "*");
+        if (recipeIds != null) {
+            pending.put(key, refresh);
+        } else {
+            pending.putIfAbsent(key, refresh);
+        }
+    }
+
+    /**
+     * Remove and return up to max queued refreshes.
+     */
+    public List<PendingRefresh> takePending(int max) {
+        List<PendingRefresh> taken = new ArrayList<>();
+        Iterator<Map.Entry<String, PendingRefresh>> it = pending.entrySet().iterator();
+        while (it.hasNext() && taken.size() < max) {
+            Map.Entry<String, PendingRefresh> entry = it.next();
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                taken.add(entry.getValue());
+            }
+        }
+        return taken;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public long getFreshHits() {
+        return freshHits.get();
+    }
+
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public static final class StoredList {
+        private final List<Long> recipeIds;
+        private final LocalDateTime generatedAt;
+
+        StoredList(List<Long> recipeIds, LocalDateTime generatedAt) {
+            this.recipeIds = recipeIds;
+            this.generatedAt = generatedAt;
+        }
+
+        public List<Long> getRecipeIds() {
+            return recipeIds;
+        }
+
+        public LocalDateTime getGeneratedAt() {
+            return generatedAt;
+        }
+    }
+
+    public static final class PendingRefresh {
+        private final Long userId;
+        private final String list;
+        private final List<Long> recipeIds;
+
+        PendingRefresh(Long userId, String list, List<Long> recipeIds) {
+            this.userId = userId;
+            this.list = list;
+            this.recipeIds = recipeIds;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getList() {
+            return list;
+        }
+
+        public List<Long> getRecipeIds() {
+            return recipeIds;
+        }
+    }
+}
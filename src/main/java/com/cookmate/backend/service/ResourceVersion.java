@@ -0,0 +1,51 @@
+package com.cookmate.backend.service;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP validators of a resource: a strong ETag hashed from the state the response shows,
+ * and the time that state last changed (null when unknown).
+ */
+public final class ResourceVersion {
+
+    private final String etag;
+    private final Instant lastModified;
+
+    private ResourceVersion(String etag, Instant lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static ResourceVersion of(Instant lastModified, Object... state) {
+        return new ResourceVersion(hash(state), lastModified);
+    }
+
+    /**
+     * The same version for a representation that also depends on scope, e.g. the requesting
+     * user of a "my recipes" page.
+     */
+    public ResourceVersion scopedTo(Object scope) {
+        return new ResourceVersion(hash(etag, scope), lastModified);
+    }
+
+    /**
+     * The quoted strong ETag, as sent in the ETag header.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private static String hash(Object... state) {
+        String joined = Arrays.stream(state).map(String::valueOf).collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
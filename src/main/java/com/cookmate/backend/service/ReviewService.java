@@ -7,6 +7,8 @@ import com.cookmate.backend.dto.ReviewRequest;
 import com.cookmate.backend.entity.Recipe;
 import com.cookmate.backend.entity.Review;
 import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeEngagementEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
 import com.cookmate.backend.exception.BadRequestException;
 import com.cookmate.backend.exception.ResourceNotFoundException;
 import com.cookmate.backend.exception.UnauthorizedException;
@@ -15,6 +17,7 @@ import com.cookmate.backend.repository.ReviewRepository;
 import com.cookmate.backend.repository.UserRepository;
 import com.cookmate.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +42,9 @@ public class ReviewService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Transactional
     public ReviewDto createReview(Long recipeId, ReviewRequest request, Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -63,6 +69,7 @@ public class ReviewService {
         
         // Update recipe average rating
         updateRecipeRating(recipe);
+        eventPublisher.publishEvent(new RecipeEngagementEvent(recipeId, user.getId(), RecipeEngagementEvent.Type.REVIEWED));
         
         return convertToDto(savedReview);
     }
@@ -158,6 +165,7 @@ public class ReviewService {
         recipe.setTotalReviews(totalReviews.intValue());
         
         recipeRepository.save(recipe);
+        eventPublisher.publishEvent(new RecipeRatingChangedEvent(recipe.getId()));
     }
     
     private ReviewDto convertToDto(Review review) {
@@ -0,0 +1,167 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.repository.RecipeIngredientRepository;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.MinHashIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves "similar recipes" by shared ingredients from the in-memory MinHash/LSH index.
+ *
+ * The index is loaded in the background at startup and then maintained from the ingredient
+ * lists RecipeService writes, so a lookup ranks a few hundred candidates in memory instead of
+ * comparing recipe_ingredients pairwise.
+ */
+@Service
+public class SimilarRecipeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarRecipeService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Value("${search.similar-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.similar-index.bands:32}")
+    private int bands;
+
+    @Value("${search.similar-index.rows-per-band:2}")
+    private int rowsPerBand;
+
+    @Value("${search.similar-index.max-bucket-size:1000}")
+    private int maxBucketSize;
+
+    // Null until the first build; changes before it are in the rows it loads
+    private volatile MinHashIndex index;
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Similar recipe index disabled; similar recipes share a cuisine or meal type");
+            return;
+        }
+        Thread warmer = new Thread(this::rebuild, "similar-index-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Rebuild the index from recipe_ingredients and swap it in.
+     * Recipes changed while the rebuild runs are reloaded after the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            MinHashIndex fresh = new MinHashIndex(bands, rowsPerBand, maxBucketSize);
+            long afterId = 0L;
+            while (true) {
+                List<Long> ids = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                load(fresh, ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+            index = fresh;
+            ready = true;
+            changedDuringRebuild = null;
+            for (Long recipeId : changed) {
+                load(fresh, List.of(recipeId));
+            }
+            logger.info("Similar recipe index built: {} recipes in {} ms",
+                    fresh.recipeCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            logger.error("Failed to build similar recipe index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Ids of the recipes sharing the most distinctive ingredients with this one, best first,
+     * or null while the index is not ready or the recipe has no ingredients.
+     */
+    public List<Long> similar(Long recipeId, int limit) {
+        MinHashIndex current = index;
+        if (!isReady() || recipeId == null || !current.contains(recipeId)) {
+            return null;
+        }
+        return current.similar(recipeId, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeIngredientsChanged(RecipeIngredientsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        MinHashIndex current = index;
+        if (current != null) {
+            current.setRecipeIngredients(event.getRecipeId(), event.getIngredients().keySet());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled || !event.isDeleted()) {
+            return;
+        }
+        markChanged(event.getRecipeId());
+        MinHashIndex current = index;
+        if (current != null) {
+            current.removeRecipe(event.getRecipeId());
+        }
+    }
+
+    private void markChanged(Long recipeId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(recipeId);
+        }
+    }
+
+    private void load(MinHashIndex target, List<Long> recipeIds) {
+        Map<Long, List<Long>> byRecipe = new HashMap<>();
+        for (Long recipeId : recipeIds) {
+            byRecipe.put(recipeId, new ArrayList<>());
+        }
+        for (Object[] row : recipeIngredientRepository.findIngredientRefsByRecipeIds(recipeIds)) {
+            byRecipe.get((Long) row[0]).add((Long) row[1]);
+        }
+        byRecipe.forEach(target::setRecipeIngredients);
+    }
+}
@@ -0,0 +1,278 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.TrendingStatus;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeEngagementEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.repository.FavoriteRepository;
+import com.cookmate.backend.repository.RecentlyViewedRepository;
+import com.cookmate.backend.repository.ReviewRepository;
+import com.cookmate.backend.search.DecayedTopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trending recipes as exponentially time-decayed engagement: every view, favorite and review
+ * adds its weight to the recipe's score, and scores halve every half-life. Scores are kept in a
+ * DecayedTopK, so the trending list is read in O(K) and each event costs one ranked update.
+ *
+ * Scores live in memory. At startup, every reload interval and on demand from the admin API,
+ * they are replayed from history: favorites and reviews by creation time, and views from
+ * recently_viewed, which keeps each user's latest view of a recipe, so replayed views count
+ * viewers rather than views. Events arriving during a replay are applied again once it is
+ * swapped in.
+ *
+ * Live events only reach the instance that handles them, so between replays each instance adds
+ * its own engagement; the scheduled replay reads the shared tables and brings every instance
+ * back to the same scores.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final int REPLAY_BATCH_SIZE = 1000;
+    // Older events weigh less than 2^-10 of a new one, so a replay skips them
+    private static final int REPLAY_HALF_LIVES = 10;
+
+    @Autowired
+    private RecentlyViewedRepository recentlyViewedRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Value("${trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trending.half-life-hours:24}")
+    private double halfLifeHours;
+
+    @Value("${trending.capacity:500}")
+    private int capacity;
+
+    @Value("${trending.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${trending.favorite-weight:5}")
+    private double favoriteWeight;
+
+    @Value("${trending.review-weight:3}")
+    private double reviewWeight;
+
+    private final Object swapLock = new Object();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private final AtomicLong appliedEvents = new AtomicLong();
+    private volatile DecayedTopK scores;
+    private volatile boolean ready;
+    // Events applied while a replay runs, to apply again to its result
+    private List<Object[]> pendingDuringReplay;
+
+    private volatile LocalDateTime lastReplayAt;
+    private volatile long lastReplayMs;
+    private volatile long replayedEvents;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Trending scores disabled; trending lists top-rated recipes");
+            return;
+        }
+        startReplay();
+    }
+
+    /**
+     * Replay scores from history in the background.
+     *
+     * @return false if disabled or a replay is already running
+     */
+    public boolean startReplay() {
+        if (!enabled || !replaying.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread replayer = new Thread(() -> {
+            try {
+                replay();
+            } finally {
+                replaying.set(false);
+            }
+        }, "trending-replay");
+        replayer.setDaemon(true);
+        replayer.start();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.reload-interval-ms:900000}",
+            initialDelayString = "${trending.reload-interval-ms:900000}")
+    public void scheduledReplay() {
+        if (!isReady() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            replay();
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Rebuild every score from history and swap the result in.
+     */
+    public synchronized void replay() {
+        long start = System.currentTimeMillis();
+        long now = Instant.now().getEpochSecond();
+        synchronized (swapLock) {
+            pendingDuringReplay = new ArrayList<>();
+        }
+        try {
+            DecayedTopK fresh = new DecayedTopK(capacity, halfLifeSeconds(), now);
+            LocalDateTime since = LocalDateTime.now().minusSeconds((long) (halfLifeSeconds() * REPLAY_HALF_LIVES));
+            long events = replayHistory(fresh, viewWeight,
+                    (afterId, page) -> recentlyViewedRepository.findHistoryAfter(afterId, since, page));
+            events += replayHistory(fresh, favoriteWeight,
+                    (afterId, page) -> favoriteRepository.findHistoryAfter(afterId, since, page));
+            events += replayHistory(fresh, reviewWeight,
+                    (afterId, page) -> reviewRepository.findHistoryAfter(afterId, since, page));
+
+            List<Object[]> pending;
+            synchronized (swapLock) {
+                scores = fresh;
+                pending = pendingDuringReplay;
+                pendingDuringReplay = null;
+            }
+            for (Object[] event : pending) {
+                fresh.add((Long) event[0], (Double) event[1], (Long) event[2]);
+            }
+            ready = true;
+            replayedEvents = events;
+            lastReplayMs = System.currentTimeMillis() - start;
+            lastReplayAt = LocalDateTime.now();
+            logger.info("Trending scores replayed: {} events, {} recipes in {} ms",
+                    events, fresh.size(), lastReplayMs);
+        } catch (Exception e) {
+            synchronized (swapLock) {
+                pendingDuringReplay = null;
+            }
+            logger.error("Failed to replay trending scores: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Ids of the n most trending recipes, or null while scores are not available.
+     * Only recipes with recent engagement are listed, so there may be fewer than n.
+     */
+    public List<Long> topIds(int n) {
+        DecayedTopK current = scores;
+        if (!isReady() || current == null) {
+            return null;
+        }
+        return current.top(n);
+    }
+
+    // Flushed deltas stand in for views at flush time, at most one flush interval late
+    @EventListener
+    public void onViewCountsFlushed(ViewCountsFlushedEvent event) {
+        long now = Instant.now().getEpochSecond();
+        event.getDeltas().forEach((recipeId, delta) -> apply(recipeId, viewWeight * delta, now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(RecipeEngagementEvent event) {
+        double weight = event.getType() == RecipeEngagementEvent.Type.FAVORITED ? favoriteWeight : reviewWeight;
+        apply(event.getRecipeId(), weight, Instant.now().getEpochSecond());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        DecayedTopK current = scores;
+        if (enabled && event.isDeleted() && current != null) {
+            current.remove(event.getRecipeId());
+        }
+    }
+
+    public TrendingStatus getStatus() {
+        DecayedTopK current = scores;
+        return new TrendingStatus(
+                enabled,
+                isReady(),
+                replaying.get(),
+                halfLifeHours,
+                capacity,
+                current != null ? current.size() : 0,
+                lastReplayAt,
+                lastReplayMs,
+                replayedEvents,
+                appliedEvents.get()
+        );
+    }
+
+    private void apply(Long recipeId, double weight, long atEpochSecond) {
+        if (!enabled || recipeId == null) {
+            return;
+        }
+        DecayedTopK current;
+        synchronized (swapLock) {
+            if (pendingDuringReplay != null) {
+                pendingDuringReplay.add(new Object[]{recipeId, weight, atEpochSecond});
+            }
+            current = scores;
+        }
+        if (current != null) {
+            current.add(recipeId, weight, atEpochSecond);
+        }
+        appliedEvents.incrementAndGet();
+    }
+
+    private long replayHistory(DecayedTopK target, double weight, HistoryQuery query) {
+        long events = 0;
+        long afterId = 0L;
+        ZoneId zone = ZoneId.systemDefault();
+        Pageable page = PageRequest.of(0, REPLAY_BATCH_SIZE);
+        while (true) {
+            List<Object[]> rows = query.rowsAfter(afterId, page);
+            if (rows.isEmpty()) {
+                return events;
+            }
+            for (Object[] row : rows) {
+                LocalDateTime at = (LocalDateTime) row[2];
+                if (row[1] != null && at != null) {
+                    target.add((Long) row[1], weight, at.atZone(zone).toEpochSecond());
+                    events++;
+                }
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private double halfLifeSeconds() {
+        return halfLifeHours * 3600;
+    }
+
+    @FunctionalInterface
+    private interface HistoryQuery {
+        List<Object[]> rowsAfter(Long afterId, Pageable page);
+    }
+}
@@ -0,0 +1,190 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.ViewCounterStatus;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind recipe view counter. A view only increments an in-memory striped counter;
+ * a scheduled flusher applies the accumulated deltas to recipes.view_count (and the
+ * recipe_cards copy) as one batched relative UPDATE per flush, and drains on shutdown.
+ * Each successful flush publishes a ViewCountsFlushedEvent for in-memory copies of the count.
+ *
+ * Relative updates never lose concurrent increments, and a failed flush puts its deltas back
+ * so they are retried. Views still pending at a crash are lost, which is acceptable for a
+ * popularity signal.
+ */
+@Service
+public class ViewCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCountService.class);
+
+    private static final String UPDATE_RECIPES = "UPDATE recipes SET view_count = view_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipeCardService recipeCardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${views.flush-batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // When the oldest view not yet written was recorded, 0 if none is pending
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushAt;
+    private volatile long lastFlushDurationMs;
+    private volatile long lastFlushLagMs;
+    private volatile int lastFlushRecipes;
+    private volatile String lastError;
+
+    public void recordView(Long recipeId) {
+        add(recipeId, 1);
+    }
+
+    /**
+     * Views of the recipe recorded but not yet written to the database.
+     */
+    public long pendingViews(Long recipeId) {
+        Counter counter = counters.get(recipeId);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void drain() {
+        int flushed = flush();
+        if (flushed > 0) {
+            logger.info("Drained pending view counts of {} recipes on shutdown", flushed);
+        }
+    }
+
+    /**
+     * Write all pending view counts and return the number of recipes updated.
+     */
+    public synchronized int flush() {
+        long start = System.currentTimeMillis();
+        long pendingSince = oldestPendingAt.getAndSet(0);
+
+        Map<Long, Long> deltas = new HashMap<>();
+        counters.forEach((recipeId, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta > 0) {
+                deltas.put(recipeId, delta);
+            } else {
+                retire(recipeId, counter);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                List<Object[]> args = new ArrayList<>(deltas.size());
+                deltas.forEach((recipeId, delta) -> args.add(new Object[]{delta, recipeId}));
+                for (int from = 0; from < args.size(); from += batchSize) {
+                    jdbcTemplate.batchUpdate(UPDATE_RECIPES, args.subList(from, Math.min(from + batchSize, args.size())));
+                }
+                recipeCardService.recordViews(deltas);
+            });
+            long end = System.currentTimeMillis();
+            flushedViews.addAndGet(deltas.values().stream().mapToLong(Long::longValue).sum());
+            lastFlushAt = end;
+            lastFlushDurationMs = end - start;
+            lastFlushLagMs = pendingSince > 0 ? end - pendingSince : 0;
+            lastFlushRecipes = deltas.size();
+            eventPublisher.publishEvent(new ViewCountsFlushedEvent(deltas));
+            return deltas.size();
+        } catch (Exception e) {
+            // Put the deltas back; they go out with the next flush
+            if (pendingSince > 0) {
+                oldestPendingAt.set(pendingSince);
+            }
+            deltas.forEach(this::add);
+            failedFlushes.incrementAndGet();
+            lastError = e.getMessage();
+            logger.error("Failed to flush view counts of {} recipes, will retry: {}", deltas.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    public ViewCounterStatus getStatus() {
+        long pendingSince = oldestPendingAt.get();
+        long pendingViews = counters.values().stream().mapToLong(LongAdder::sum).sum();
+        return new ViewCounterStatus(
+                counters.size(),
+                pendingViews,
+                pendingSince > 0 ? System.currentTimeMillis() - pendingSince : 0L,
+                flushedViews.get(),
+                failedFlushes.get(),
+                lastFlushAt > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(lastFlushAt), ZoneId.systemDefault()) : null,
+                lastFlushDurationMs,
+                lastFlushLagMs,
+                lastFlushRecipes,
+                lastError);
+    }
+
+    private void add(Long recipeId, long views) {
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        while (views > 0) {
+            Counter counter = counters.computeIfAbsent(recipeId, k -> new Counter());
+            counter.add(views);
+            if (!counter.retired) {
+                return;
+            }
+            // The flusher retired this counter concurrently; move whatever it did not collect
+            views = counter.sumThenReset();
+        }
+    }
+
+    // Drop an idle counter. Views added to it after its final sum are moved by add().
+    private void retire(Long recipeId, Counter counter) {
+        counters.remove(recipeId, counter);
+        counter.retired = true;
+        long late = counter.sumThenReset();
+        if (late > 0) {
+            add(recipeId, late);
+        }
+    }
+
+    private static final class Counter extends LongAdder {
+        volatile boolean retired;
+    }
+}
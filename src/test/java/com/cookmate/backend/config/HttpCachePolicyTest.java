@@ -0,0 +1,105 @@
+package com.cookmate.backend.config;
+
+import com.cookmate.backend.service.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-19: Conditional GETs answer 304 without building the body, with anonymous and
+ * authenticated Cache-Control policies
+ */
+class HttpCachePolicyTest {
+
+    private static final Instant CHANGED_AT = Instant.parse("2025-03-01T10:15:30.250Z");
+
+    private final HttpCachePolicy policy = new HttpCachePolicy(60);
+    private final ResourceVersion version = ResourceVersion.of(CHANGED_AT, "recipe", 1L, 4.5);
+    private final AtomicInteger bodiesBuilt = new AtomicInteger();
+
+    @Test
+    void unconditionalRequestGetsBodyAndValidators() {
+        ResponseEntity<String> response = policy.respond(request(null, null), null, version, this::body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("body");
+        assertThat(response.getHeaders().getETag()).isEqualTo(version.getEtag()).doesNotStartWith("W/");
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(CHANGED_AT.toEpochMilli() / 1000 * 1000);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=60, public");
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    void matchingEtagIsNotModifiedWithoutBuildingTheBody() {
+        Authentication user = new UsernamePasswordAuthenticationToken("cook", null, List.of());
+
+        ResponseEntity<String> response = policy.respond(
+                request("\"other\", W/" + version.getEtag(), null), user, version, this::body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(bodiesBuilt).hasValue(0);
+        assertThat(response.getHeaders().getETag()).isEqualTo(version.getEtag());
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+    }
+
+    @Test
+    void staleEtagWinsOverCurrentIfModifiedSince() {
+        ResponseEntity<String> response = policy.respond(
+                request("\"stale\"", httpDate(CHANGED_AT.plusSeconds(60))), null, version, this::body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bodiesBuilt).hasValue(1);
+    }
+
+    @Test
+    void ifModifiedSinceComparesWholeSeconds() {
+        assertThat(policy.respond(request(null, httpDate(CHANGED_AT)), null, version, this::body)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(policy.respond(request(null, httpDate(CHANGED_AT.minusSeconds(1))), null, version, this::body)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(policy.respond(request(null, "yesterday"), null, version, this::body)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void scopedVersionsDoNotMatchEachOther() {
+        assertThat(version.scopedTo("alice").getEtag())
+                .isNotEqualTo(version.scopedTo("bob").getEtag())
+                .isNotEqualTo(version.getEtag())
+                .isEqualTo(version.scopedTo("alice").getEtag());
+    }
+
+    private String body() {
+        bodiesBuilt.incrementAndGet();
+        return "body";
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, String ifModifiedSince) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/1");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (ifModifiedSince != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,265 @@
+package com.cookmate.backend.controller;
+
+import com.cookmate.backend.entity.Favorite;
+import com.cookmate.backend.entity.Ingredient;
+import com.cookmate.backend.entity.Instruction;
+import com.cookmate.backend.entity.MealPlan;
+import com.cookmate.backend.entity.MealPlanRecipe;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.Review;
+import com.cookmate.backend.entity.ShoppingList;
+import com.cookmate.backend.entity.ShoppingListItem;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.monitoring.SqlBudget;
+import com.cookmate.backend.monitoring.SqlBudgetMonitor;
+import com.cookmate.backend.security.jwt.JwtUtils;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cookmate.backend.controller.SqlBudgetAssertions.stats;
+import static com.cookmate.backend.controller.SqlBudgetAssertions.withinSqlBudget;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * UT-17: Every read endpoint stays within its SQL statement budget, without N+1 queries
+ *
+ * Runs the application against an in-memory H2 database seeded with several rows per list,
+ * so an N+1 shows up as a repeated statement shape.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.cookmate=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "google.ai.enabled=false",
+        "search.recipe-index.enabled=false",
+        "search.ingredient-index.enabled=false",
+        "search.facet-index.enabled=false",
+        "search.autocomplete.enabled=false",
+        "search.similar-index.enabled=false",
+        "readmodel.recipe-cards.enabled=false",
+        "hot-lists.enabled=false",
+        "cache-invalidation.enabled=false",
+        "recommendations.feature-store.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false",
+        "images.migration.auto-start=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ControllerSqlBudgetTest {
+
+    private static final int ROWS = 6;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private SqlBudgetMonitor sqlBudgetMonitor;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private String token;
+    private Long recipeId;
+    private Long mealPlanId;
+    private Long shoppingListId;
+
+    @BeforeAll
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername("budget");
+            user.setEmail("budget@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setName("ingredient " + i);
+                entityManager.persist(ingredient);
+                ingredients.add(ingredient);
+            }
+
+            List<Recipe> recipes = new ArrayList<>();
+            for (int r = 0; r < ROWS * 2; r++) {
+                Recipe recipe = new Recipe();
+                recipe.setTitle("Budget recipe " + r);
+                recipe.setCuisineType("italian");
+                recipe.setAverageRating(new BigDecimal("4.0"));
+                recipe.setCreatedBy(user);
+                entityManager.persist(recipe);
+                for (int i = 0; i < 3; i++) {
+                    RecipeIngredient recipeIngredient = new RecipeIngredient();
+                    recipeIngredient.setRecipe(recipe);
+                    recipeIngredient.setIngredient(ingredients.get((r + i) % ingredients.size()));
+                    entityManager.persist(recipeIngredient);
+                }
+                Instruction instruction = new Instruction();
+                instruction.setRecipe(recipe);
+                instruction.setStepNumber(1);
+                instruction.setInstruction("Cook");
+                entityManager.persist(instruction);
+                recipes.add(recipe);
+            }
+
+            for (int i = 0; i < ROWS; i++) {
+                Recipe recipe = recipes.get(i);
+
+                Review review = new Review();
+                review.setRecipe(recipe);
+                review.setUser(user);
+                review.setRating(4);
+                entityManager.persist(review);
+
+                Favorite favorite = new Favorite();
+                favorite.setUser(user);
+                favorite.setRecipe(recipe);
+                entityManager.persist(favorite);
+
+                RecentlyViewed viewed = new RecentlyViewed();
+                viewed.setUser(user);
+                viewed.setRecipe(recipes.get(ROWS + i));
+                viewed.setViewedAt(LocalDateTime.now().minusMinutes(i));
+                entityManager.persist(viewed);
+
+                MealPlan mealPlan = new MealPlan();
+                mealPlan.setUser(user);
+                mealPlan.setName("Plan " + i);
+                mealPlan.setStartDate(LocalDate.now());
+                mealPlan.setEndDate(LocalDate.now().plusDays(7));
+                entityManager.persist(mealPlan);
+                for (int m = 0; m < 3; m++) {
+                    MealPlanRecipe meal = new MealPlanRecipe();
+                    meal.setMealPlan(mealPlan);
+                    meal.setRecipe(recipes.get((i * 3 + m) % recipes.size()));
+                    meal.setPlannedDate(LocalDate.now().plusDays(m));
+                    entityManager.persist(meal);
+                }
+                mealPlanId = mealPlan.getId();
+
+                ShoppingList shoppingList = new ShoppingList();
+                shoppingList.setUser(user);
+                shoppingList.setName("List " + i);
+                entityManager.persist(shoppingList);
+                for (int s = 0; s < 3; s++) {
+                    ShoppingListItem item = new ShoppingListItem();
+                    item.setShoppingList(shoppingList);
+                    item.setIngredientName("item " + s);
+                    entityManager.persist(item);
+                }
+                shoppingListId = shoppingList.getId();
+            }
+            recipeId = recipes.get(0).getId();
+        });
+        token = jwtUtils.generateTokenFromUsername("budget");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/recipes/{recipe}",
+            "/api/recipes",
+            "/api/recipes/search?keyword=budget",
+            "/api/recipes/filter?cuisineType=italian",
+            "/api/recipes/search-by-ingredients?ingredients=ingredient 1",
+            "/api/recipes/top-rated",
+            "/api/recipes/most-viewed",
+            "/api/recipes/recent",
+            "/api/recipes/my-recipes",
+            "/api/recipes/recommendations",
+            "/api/recipes/recommendations/history",
+            "/api/recipes/recommendations/preferences?cuisineType=italian",
+            "/api/recipes/recommendations/trending",
+            "/api/recipes/{recipe}/also-liked",
+            "/api/recipes/{recipe}/similar",
+            "/api/ai/recommendations",
+            "/api/favorites",
+            "/api/favorites/check/{recipe}",
+            "/api/reviews/recipe/{recipe}",
+            "/api/reviews/my-reviews",
+            "/api/recently-viewed",
+            "/api/meal-plans",
+            "/api/meal-plans/{mealPlan}",
+            "/api/meal-plans/active",
+            "/api/shopping-lists",
+            "/api/shopping-lists/{shoppingList}",
+            "/api/auth/me"
+    })
+    void readEndpointStaysWithinSqlBudget(String path) throws Exception {
+        String uri = path.replace("{recipe}", String.valueOf(recipeId))
+                .replace("{mealPlan}", String.valueOf(mealPlanId))
+                .replace("{shoppingList}", String.valueOf(shoppingListId));
+
+        mvc.perform(get(uri).header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(withinSqlBudget(sqlBudgetMonitor.getRepeatedStatementThreshold()));
+    }
+
+    @Test
+    void authenticatedRequestCountsAuthenticationQueries() throws Exception {
+        MvcResult anonymous = mvc.perform(get("/api/favorites/check/" + recipeId)).andReturn();
+        MvcResult authenticated = mvc.perform(get("/api/favorites/check/" + recipeId)
+                .header("Authorization", "Bearer " + token)).andReturn();
+
+        assertThat(stats(anonymous).getStatementCount()).isZero();
+        assertThat(stats(authenticated).getStatementCount()).isGreaterThan(1);
+    }
+
+    // The default budget is a backstop, not a decision: every read endpoint declares its own
+    @Test
+    void everyReadEndpointDeclaresABudget() {
+        List<String> undeclared = new ArrayList<>();
+        handlerMapping.getHandlerMethods().forEach((mapping, handler) -> {
+            if (handler.getBeanType().getPackageName().equals(getClass().getPackageName())
+                    && mapping.getMethodsCondition().getMethods().contains(RequestMethod.GET)
+                    && handler.getMethodAnnotation(SqlBudget.class) == null
+                    && AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), SqlBudget.class) == null) {
+                undeclared.add(mapping.toString());
+            }
+        });
+        assertThat(undeclared).as("GET endpoints without @SqlBudget").isEmpty();
+    }
+}
@@ -0,0 +1,45 @@
+package com.cookmate.backend.controller;
+
+import com.cookmate.backend.monitoring.RequestSqlStats;
+import com.cookmate.backend.monitoring.SqlBudgetFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers for the SQL statement budget SqlBudgetFilter records on each request.
+ * The filter has to be in the MockMvc chain, i.e. no {@code addFilters = false}.
+ */
+final class SqlBudgetAssertions {
+
+    private SqlBudgetAssertions() {
+    }
+
+    /**
+     * The request ran no more statements than its endpoint's budget and no statement shape
+     * repeatedly (at least repeatedThreshold times).
+     */
+    static ResultMatcher withinSqlBudget(int repeatedThreshold) {
+        return result -> {
+            RequestSqlStats stats = stats(result);
+            int budget = (Integer) result.getRequest().getAttribute(SqlBudgetFilter.BUDGET_ATTRIBUTE);
+            String endpoint = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+            assertThat(stats.getStatementCount())
+                    .as("SQL statements of %s", endpoint)
+                    .isLessThanOrEqualTo(budget);
+            Map<String, Integer> repeated = stats.repeatedShapes(repeatedThreshold);
+            assertThat(repeated)
+                    .as("statements repeated by %s", endpoint)
+                    .isEmpty();
+        };
+    }
+
+    static RequestSqlStats stats(MvcResult result) {
+        Object stats = result.getRequest().getAttribute(SqlBudgetFilter.STATS_ATTRIBUTE);
+        assertThat(stats).as("SqlBudgetFilter did not run").isNotNull();
+        return (RequestSqlStats) stats;
+    }
+}
@@ -0,0 +1,44 @@
+package com.cookmate.backend.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-18: Statements differing only in literals or IN-list length count as one repeated shape
+ */
+class RequestSqlStatsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStats.end();
+    }
+
+    @Test
+    void shapeIgnoresLiteralsWhitespaceAndInListLength() {
+        assertThat(RequestSqlStats.shapeOf("SELECT * FROM recipes WHERE id = 12"))
+                .isEqualTo(RequestSqlStats.shapeOf("select *  from recipes\n where id = 7"));
+        assertThat(RequestSqlStats.shapeOf("select * from users where username = 'o''neil'"))
+                .isEqualTo("select * from users where username = ?");
+        assertThat(RequestSqlStats.shapeOf("select * from items where list_id in (?,?,?)"))
+                .isEqualTo(RequestSqlStats.shapeOf("select * from items where list_id in (?, ?)"));
+    }
+
+    @Test
+    void inspectorCountsRepeatedShapesOnlyWhileARequestIsBound() {
+        SqlStatementInspector inspector = new SqlStatementInspector();
+        inspector.inspect("select * from recipes where id=?");
+
+        RequestSqlStats stats = RequestSqlStats.begin();
+        for (int i = 0; i < 5; i++) {
+            inspector.inspect("select * from shopping_list_items where shopping_list_id=?");
+        }
+        inspector.inspect("select * from shopping_lists where user_id=?");
+
+        assertThat(stats.getStatementCount()).isEqualTo(6);
+        assertThat(stats.repeatedShapes(5))
+                .containsOnlyKeys("select * from shopping_list_items where shopping_list_id=?");
+        assertThat(stats.repeatedShapes(6)).isEmpty();
+    }
+}
@@ -0,0 +1,86 @@
+package com.cookmate.backend.repository;
+
+import com.cookmate.backend.dto.RecipeCursor;
+import com.cookmate.backend.entity.Recipe;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-32: Keyset pages walk every recipe, including legacy rows with NULL sort values, through
+ * encoded cursors in both directions
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class RecipeKeysetPageTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (Integer rating : new Integer[]{5, null, 3, null, 3}) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Keyset recipe " + recipeIds.size());
+            recipe.setAverageRating(rating != null ? BigDecimal.valueOf(rating) : null);
+            entityManager.persist(recipe);
+            recipeIds.add(recipe.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Legacy rows predate the defaults
+        jdbcTemplate.update("UPDATE recipes SET view_count = NULL, created_at = NULL WHERE id IN (?, ?)",
+                recipeIds.get(1), recipeIds.get(3));
+    }
+
+    @Test
+    void nullRatingsComeLastDescendingAndFirstAscending() {
+        assertThat(walk(RecipeSortKey.AVERAGE_RATING, false)).containsExactly(
+                recipeIds.get(0), recipeIds.get(4), recipeIds.get(2), recipeIds.get(3), recipeIds.get(1));
+        assertThat(walk(RecipeSortKey.AVERAGE_RATING, true)).containsExactly(
+                recipeIds.get(1), recipeIds.get(3), recipeIds.get(2), recipeIds.get(4), recipeIds.get(0));
+    }
+
+    @Test
+    void nullViewCountsAndCreationTimesArePaged() {
+        assertThat(walk(RecipeSortKey.VIEW_COUNT, false)).hasSize(5).endsWith(recipeIds.get(3), recipeIds.get(1));
+        assertThat(walk(RecipeSortKey.CREATED_AT, false)).hasSize(5).endsWith(recipeIds.get(3), recipeIds.get(1));
+        assertThat(walk(RecipeSortKey.CREATED_AT, true)).hasSize(5).startsWith(recipeIds.get(1), recipeIds.get(3));
+    }
+
+    // Ids of every recipe, two per page, each page seeking from the decoded cursor of the last
+    private List<Long> walk(RecipeSortKey sortKey, boolean ascending) {
+        List<Long> ids = new ArrayList<>();
+        RecipeCursor cursor = null;
+        while (true) {
+            List<Recipe> page = recipeRepository.findPageAfter(sortKey, ascending, null,
+                    cursor != null ? cursor.getValue() : null, cursor != null ? cursor.getId() : null, 2);
+            if (page.isEmpty()) {
+                return ids;
+            }
+            page.forEach(recipe -> ids.add(recipe.getId()));
+            String encoded = RecipeCursor.after(sortKey, ascending, page.get(page.size() - 1)).encode();
+            cursor = RecipeCursor.decode(encoded, sortKey, ascending);
+        }
+    }
+}
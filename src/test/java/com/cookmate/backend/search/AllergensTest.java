@@ -0,0 +1,82 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ingredient classification, compilation of users' allergies and diets, and exclusion by mask.
+ */
+class AllergensTest {
+
+    @Test
+    void ingredientsAreClassifiedByWholeWords() {
+        assertThat(Allergens.classify("2 large Eggs")).isEqualTo(Allergens.EGG);
+        assertThat(Allergens.classify("eggplant")).isZero();
+        assertThat(Allergens.classify("Unsalted butter")).isEqualTo(Allergens.DAIRY);
+        assertThat(Allergens.classify("soy sauce")).isEqualTo(Allergens.SOY | Allergens.GLUTEN);
+        assertThat(Allergens.classify(List.of("shrimp", "bacon", "flour")))
+                .isEqualTo(Allergens.SHELLFISH | Allergens.PORK | Allergens.GLUTEN);
+    }
+
+    @Test
+    void exceptionsKeepLookalikesUnflagged() {
+        assertThat(Allergens.classify("peanut butter")).isEqualTo(Allergens.PEANUTS);
+        assertThat(Allergens.classify("coconut milk")).isZero();
+        assertThat(Allergens.classify("oyster mushrooms")).isZero();
+        assertThat(Allergens.classify("red wine vinegar")).isZero();
+        assertThat(Allergens.classify("gluten-free flour")).isZero();
+    }
+
+    @Test
+    void allergiesAndDietsCompileToExcludedBits() {
+        assertThat(Allergens.exclusionsOf("Peanuts, dairy; shellfish allergy", List.of()))
+                .isEqualTo(Allergens.PEANUTS | Allergens.DAIRY | Allergens.SHELLFISH);
+        assertThat(Allergens.exclusionsOf("tree nuts and eggs", null))
+                .isEqualTo(Allergens.TREE_NUTS | Allergens.EGG);
+        assertThat(Allergens.exclusionsOf(null, List.of("Vegetarian", "Gluten-Free")))
+                .isEqualTo(Allergens.MEAT | Allergens.PORK | Allergens.FISH | Allergens.SHELLFISH | Allergens.GLUTEN);
+        assertThat(Allergens.exclusionsOf("none", List.of("Keto"))).isZero();
+        assertThat(Allergens.names(Allergens.exclusionsOf(null, List.of("Halal")))).containsExactly("pork", "alcohol");
+    }
+
+    @Test
+    void exclusionsTestEveryMaskWithOneAnd() {
+        RecipeAllergenMasks masks = new RecipeAllergenMasks();
+        masks.set(1L, Allergens.DAIRY);
+        masks.set(2L, Allergens.PEANUTS | Allergens.EGG);
+        masks.set(5000L, Allergens.GLUTEN);
+
+        AllergenExclusion exclusion = masks.exclusion(Allergens.EGG | Allergens.GLUTEN);
+
+        assertThat(exclusion.excludes(1L)).isFalse();
+        assertThat(exclusion.excludes(2L)).isTrue();
+        assertThat(exclusion.excludes(3L)).isFalse();
+        assertThat(exclusion.excludedRecipes().toArray()).containsExactly(2, 5000);
+        assertThat(exclusion.retain(List.of(5000L, 1L, 2L, 3L), 10)).containsExactly(1L, 3L);
+
+        masks.set(1L, Allergens.DAIRY | Allergens.EGG);
+        assertThat(exclusion.excludedRecipes().toArray()).containsExactly(1, 2, 5000);
+        assertThat(masks.exclusion(0)).isSameAs(AllergenExclusion.NONE);
+    }
+
+    @Test
+    void facetFilterCountsOnlyAllowedRecipes() {
+        RecipeFacetIndex index = new RecipeFacetIndex();
+        index.index(1L, "Italian", "Dinner", "Easy", 30, false, false, false, false);
+        index.index(2L, "Italian", "Dinner", "Easy", 30, true, true, true, true);
+        index.index(3L, "Mexican", "Dinner", "Easy", 30, false, false, false, false);
+        RecipeAllergenMasks masks = new RecipeAllergenMasks();
+        masks.set(1L, Allergens.DAIRY);
+
+        FacetResult result = index.filter(new RecipeFilter(null, "Dinner", null, null, null, null, null, null),
+                masks.exclusion(Allergens.DAIRY), 0, 10);
+
+        assertThat(result.getRecipeIds()).containsExactly(2L, 3L);
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getFacets().get(RecipeFacetIndex.CUISINE_TYPE))
+                .containsEntry("Italian", 1L).containsEntry("Mexican", 1L);
+    }
+}
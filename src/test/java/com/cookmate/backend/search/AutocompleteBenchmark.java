@@ -0,0 +1,95 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.PrefixCompletionIndex.Completion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Latency percentiles and heap cost of the prefix completion index on synthetic recipe titles,
+ * for prefixes of one to five characters (the short ones match the most titles). Not part of
+ * the regular build:
+ *
+ *   mvn test -Dtest=AutocompleteBenchmark -Dbenchmark=true -DargLine=-Xmx3g
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AutocompleteBenchmark {
+
+    private static final String[] WORDS = {
+            "chicken", "beef", "pork", "tofu", "salmon", "shrimp", "rice", "pasta", "noodle", "potato",
+            "tomato", "onion", "garlic", "ginger", "basil", "cilantro", "lemon", "lime", "butter", "cream",
+            "cheese", "parmesan", "mozzarella", "spinach", "kale", "mushroom", "pepper", "chili", "curry",
+            "coconut", "soy", "honey", "maple", "vanilla", "chocolate", "almond", "walnut", "oat", "apple",
+            "banana", "berry", "mango", "avocado", "bean", "lentil", "chickpea", "quinoa", "egg", "bacon",
+            "roasted", "grilled", "baked", "fried", "steamed", "spicy", "creamy", "crispy", "quick", "easy"
+    };
+    private static final int QUERIES = 20_000;
+    private static final int UPDATES = 5_000;
+
+    @Test
+    void measureCompletionLatency() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            run(size);
+        }
+    }
+
+    private void run(int size) {
+        Random random = new Random(42);
+        List<Completion> titles = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            titles.add(new Completion(id, words(random, 2 + random.nextInt(4)), random.nextDouble() * 20));
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long buildStart = System.nanoTime();
+        PrefixCompletionIndex index = PrefixCompletionIndex.build(titles, 10_000);
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+        System.gc();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory() - heapBefore) / (1024 * 1024);
+
+        // Incremental writes sit in the delta and are merged into every query below
+        for (int i = 0; i < UPDATES; i++) {
+            index.put(1 + random.nextInt(size), words(random, 3), random.nextDouble() * 20);
+        }
+
+        String[] prefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(5, word.length())));
+        }
+        for (String prefix : prefixes) {
+            index.complete(prefix, 10);
+        }
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long t0 = System.nanoTime();
+            index.complete(prefixes[i], 10);
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        System.out.printf(Locale.ROOT,
+                "titles=%,d build=%d ms heap~%d MB  p50=%.3f ms  p99=%.3f ms  max=%.3f ms%n",
+                size, buildMs, heapMb, nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6,
+                nanos[QUERIES - 1] / 1e6);
+    }
+
+    private static String words(Random random, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(Character.toUpperCase(WORDS[random.nextInt(WORDS.length)].charAt(0)));
+            sb.append(WORDS[random.nextInt(WORDS.length)].substring(1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Decay, ranking, eviction and rebasing of the decayed top-K scores.
+ */
+class DecayedTopKTest {
+
+    private static final double HALF_LIFE = 3600;
+
+    @Test
+    void olderEventsWeighLessByHalfLife() {
+        DecayedTopK scores = new DecayedTopK(10, HALF_LIFE, 0);
+        scores.add(1L, 3, 0);
+        scores.add(2L, 2, 3600);
+
+        // At t = 3600 recipe 1 has halved to 1.5, below recipe 2's fresh 2
+        assertThat(scores.top(10)).containsExactly(2L, 1L);
+        assertThat(scores.score(1L, 3600)).isCloseTo(1.5, within(1e-9));
+        assertThat(scores.score(2L, 7200)).isCloseTo(1.0, within(1e-9));
+        assertThat(scores.score(3L, 0)).isZero();
+
+        scores.add(1L, 1, 3600);
+        assertThat(scores.top(1)).containsExactly(1L);
+    }
+
+    @Test
+    void onlyTheBestCapacityAreRankedAndOthersCanReenter() {
+        DecayedTopK scores = new DecayedTopK(2, HALF_LIFE, 0);
+        scores.add(1L, 1, 0);
+        scores.add(2L, 2, 0);
+        scores.add(3L, 3, 0);
+
+        assertThat(scores.top(5)).containsExactly(3L, 2L);
+        assertThat(scores.size()).isEqualTo(3);
+
+        scores.add(1L, 5, 0);
+        assertThat(scores.top(5)).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void removingARankedRecipePromotesTheNextBest() {
+        DecayedTopK scores = new DecayedTopK(2, HALF_LIFE, 0);
+        scores.add(1L, 1, 0);
+        scores.add(2L, 2, 0);
+        scores.add(3L, 3, 0);
+
+        scores.remove(3L);
+
+        assertThat(scores.top(5)).containsExactly(2L, 1L);
+        scores.remove(99L);
+        assertThat(scores.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebasingKeepsOrderAndDecayedScores() {
+        DecayedTopK scores = new DecayedTopK(10, HALF_LIFE, 0);
+        scores.add(1L, 4, 0);
+        scores.add(2L, 1, 0);
+
+        long later = (long) (HALF_LIFE * 100);
+        scores.add(3L, 1, later);
+
+        assertThat(scores.getOriginEpochSecond()).isEqualTo(later);
+        assertThat(scores.top(10)).containsExactly(3L, 1L, 2L);
+        assertThat(scores.score(3L, later)).isCloseTo(1.0, within(1e-9));
+    }
+}
@@ -0,0 +1,109 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Spelling-correction lookup cost against vocabulary size, compared with scanning the whole
+ * vocabulary with the same bounded edit distance. Queries are vocabulary words with one or two
+ * random edits, plus a share of words with no close match (the worst case for the index).
+ * Not part of the regular build:
+ *
+ *   mvn test -Dtest=FuzzyMatchBenchmark -Dbenchmark=true -DargLine=-Xmx3g
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FuzzyMatchBenchmark {
+
+    private static final int QUERIES = 5_000;
+    private static final int SCAN_QUERIES = 200;
+
+    @Test
+    void measureLookupAgainstVocabularySize() {
+        for (int size : new int[]{1_000, 10_000, 100_000, 500_000}) {
+            run(size);
+        }
+    }
+
+    private void run(int size) {
+        Random random = new Random(42);
+        List<String> vocabulary = new ArrayList<>(size);
+        FuzzyMatcher matcher = new FuzzyMatcher();
+        long buildStart = System.nanoTime();
+        while (vocabulary.size() < size) {
+            String word = randomWord(random, 5 + random.nextInt(8));
+            if (!matcher.contains(word)) {
+                matcher.add(word);
+                vocabulary.add(word);
+            }
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = i % 5 == 0 ? randomWord(random, 5 + random.nextInt(8))
+                    : misspell(random, vocabulary.get(random.nextInt(size)), 1 + random.nextInt(2));
+        }
+        for (String query : queries) {
+            matcher.correct(query, w -> 0);
+        }
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long t0 = System.nanoTime();
+            matcher.correct(queries[i], w -> 0);
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+
+        long scanStart = System.nanoTime();
+        for (int i = 0; i < SCAN_QUERIES; i++) {
+            scan(vocabulary, queries[i]);
+        }
+        double scanMs = (System.nanoTime() - scanStart) / 1e6 / SCAN_QUERIES;
+
+        System.out.printf(Locale.ROOT,
+                "vocabulary=%,d build=%d ms  p50=%.4f ms  p99=%.4f ms  full-scan avg=%.3f ms%n",
+                size, buildMs, nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6, scanMs);
+    }
+
+    private static String scan(List<String> vocabulary, String query) {
+        int max = FuzzyMatcher.maxDistanceFor(query.length());
+        String best = null;
+        int bestDistance = max + 1;
+        for (String word : vocabulary) {
+            int distance = FuzzyMatcher.distance(query, word, max);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = word;
+            }
+        }
+        return best;
+    }
+
+    private static String misspell(Random random, String word, int edits) {
+        StringBuilder sb = new StringBuilder(word);
+        for (int e = 0; e < edits && sb.length() > 1; e++) {
+            int at = random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0 -> sb.deleteCharAt(at);
+                case 1 -> sb.insert(at, (char) ('a' + random.nextInt(26)));
+                default -> sb.setCharAt(at, (char) ('a' + random.nextInt(26)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,73 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Edit-distance candidates, length-dependent limits and vocabulary maintenance of the spelling matcher.
+ */
+class FuzzyMatcherTest {
+
+    private static final Map<String, Integer> POPULARITY = Map.of("chicken", 50, "chickpea", 5, "tomato", 20);
+
+    private FuzzyMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new FuzzyMatcher();
+        for (String word : new String[]{"chicken", "chickpea", "tomato", "parmesan", "mozzarella", "lime", "lima"}) {
+            matcher.add(word);
+        }
+    }
+
+    @Test
+    void correctsInsertionsDeletionsSubstitutionsAndTranspositions() {
+        assertThat(correct("chiken")).isEqualTo("chicken");
+        assertThat(correct("tomatoe")).isEqualTo("tomato");
+        assertThat(correct("parmesian")).isEqualTo("parmesan");
+        assertThat(correct("mozarella")).isEqualTo("mozzarella");
+        assertThat(correct("tomtao")).isEqualTo("tomato");
+    }
+
+    @Test
+    void leavesKnownShortAndDistantWordsAlone() {
+        assertThat(correct("chicken")).isNull();
+        // Up to four characters nothing is corrected: "lim" could be either
+        assertThat(correct("limo")).isNull();
+        assertThat(correct("banana")).isNull();
+        // Two edits are only allowed on words longer than eight characters
+        assertThat(correct("mozarela")).isNull();
+    }
+
+    @Test
+    void prefersThePopularCandidateOnEqualDistance() {
+        assertThat(matcher.lookup("chicpea")).containsExactly("chickpea");
+        matcher.add("chickea");
+        assertThat(matcher.correct("chickean", w -> POPULARITY.getOrDefault(w, 0))).isEqualTo("chicken");
+    }
+
+    @Test
+    void removedWordsAreNoLongerSuggested() {
+        matcher.add("tomato");
+        matcher.remove("tomato");
+        assertThat(correct("tomatoe")).isEqualTo("tomato");
+        matcher.remove("tomato");
+        assertThat(correct("tomatoe")).isNull();
+        assertThat(matcher.size()).isEqualTo(6);
+    }
+
+    @Test
+    void distanceStopsOnceOverTheLimit() {
+        assertThat(FuzzyMatcher.distance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(FuzzyMatcher.distance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(FuzzyMatcher.distance("abcd", "abdc", 2)).isEqualTo(1);
+    }
+
+    private String correct(String word) {
+        return matcher.correct(word, w -> POPULARITY.getOrDefault(w, 0));
+    }
+}
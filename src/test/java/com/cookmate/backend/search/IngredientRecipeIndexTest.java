@@ -0,0 +1,79 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coverage ranking and incremental maintenance of the ingredient bitmap index.
+ */
+class IngredientRecipeIndexTest {
+
+    private IngredientRecipeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientRecipeIndex();
+        // 1: pasta, eggs, bacon, parmesan   2: tomato, pasta   3: tomato, onion, garlic
+        index.setRecipeIngredients(1L, Map.of(10L, "Pasta", 11L, "Eggs", 12L, "Bacon", 13L, "Parmesan"));
+        index.setRecipeIngredients(2L, Map.of(14L, "Tomato", 10L, "Pasta"));
+        index.setRecipeIngredients(3L, Map.of(14L, "Tomato", 15L, "Onion", 16L, "Garlic"));
+    }
+
+    @Test
+    void recipesAreRankedByCoverage() {
+        IngredientMatchResult result = index.match(List.of("pasta", "TOMATO", "eggs"), 0, 10);
+
+        assertThat(result.getTotalHits()).isEqualTo(3);
+        assertThat(result.getMatches()).extracting(IngredientMatchResult.Match::getRecipeId)
+                .containsExactly(2L, 1L, 3L);
+
+        IngredientMatchResult.Match carbonara = result.getMatches().get(1);
+        assertThat(carbonara.getMatchedCount()).isEqualTo(2);
+        assertThat(carbonara.getTotalCount()).isEqualTo(4);
+        assertThat(carbonara.getMissingIngredients()).containsExactlyInAnyOrder("Bacon", "Parmesan");
+    }
+
+    @Test
+    void unknownIngredientsAreIgnored() {
+        assertThat(index.match(List.of("unobtainium"), 0, 10).getTotalHits()).isZero();
+        assertThat(index.match(List.of("unobtainium", "garlic"), 0, 10).getMatches())
+                .extracting(IngredientMatchResult.Match::getRecipeId).containsExactly(3L);
+    }
+
+    @Test
+    void misspelledIngredientsAreCorrected() {
+        IngredientMatchResult result = index.match(List.of("tomatos", "parmesian", "garlic"), 0, 10);
+
+        assertThat(result.getMatches()).extracting(IngredientMatchResult.Match::getRecipeId)
+                .containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(result.getCorrections()).containsExactly(
+                Map.entry("tomatos", "Tomato"), Map.entry("parmesian", "Parmesan"));
+    }
+
+    @Test
+    void replacingIngredientsUpdatesBitmaps() {
+        index.setRecipeIngredients(2L, Map.of(15L, "Onion"));
+
+        assertThat(index.match(List.of("pasta"), 0, 10).getMatches())
+                .extracting(IngredientMatchResult.Match::getRecipeId).containsExactly(1L);
+        assertThat(index.match(List.of("onion"), 0, 10).getMatches())
+                .extracting(IngredientMatchResult.Match::getRecipeId).containsExactly(2L, 3L);
+
+        index.removeRecipe(3L);
+        assertThat(index.match(List.of("garlic"), 0, 10).getTotalHits()).isZero();
+        assertThat(index.recipeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesSliceTheRanking() {
+        IngredientMatchResult secondPage = index.match(List.of("pasta", "tomato"), 1, 1);
+
+        assertThat(secondPage.getTotalHits()).isEqualTo(3);
+        assertThat(secondPage.getMatches()).hasSize(1);
+    }
+}
@@ -0,0 +1,142 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.ItemNeighbors.Measure;
+import com.cookmate.backend.search.ItemNeighbors.Settings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Co-occurrence similarity, top-M cut, incremental recomputation and seeding of the item
+ * neighbour lists, and the per-user cap of the interaction graph.
+ */
+class ItemNeighborsTest {
+
+    private static final long A = 1L;
+    private static final long B = 2L;
+    private static final long C = 3L;
+    private static final long D = 4L;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void cosineRanksByCommonUsersOverBothPopularities() {
+        ItemNeighbors neighbors = ItemNeighbors.compute(graph(), new Settings(10, Measure.COSINE, 1), pool);
+
+        assertThat(neighbors.neighbors(A)).containsExactly(B, C);
+        assertThat(neighbors.scores(A)[0]).isCloseTo(1.0f, within(1e-6f));
+        assertThat(neighbors.scores(A)[1]).isCloseTo(2 / 3f, within(1e-6f));
+        // A and B tie for C; the higher id ranks first
+        assertThat(neighbors.neighbors(C)).containsExactly(B, A, D);
+        assertThat(neighbors.scores(C)[2]).isCloseTo((float) (1 / Math.sqrt(3)), within(1e-6f));
+        assertThat(neighbors.size()).isEqualTo(4);
+        assertThat(neighbors.entryCount()).isEqualTo(8);
+    }
+
+    @Test
+    void jaccardDividesByUsersOfEither() {
+        ItemNeighbors neighbors = ItemNeighbors.compute(graph(), new Settings(10, Measure.JACCARD, 1), pool);
+
+        assertThat(neighbors.scores(A)[1]).isCloseTo(0.5f, within(1e-6f));
+        assertThat(neighbors.neighbors(D)).containsExactly(C);
+        assertThat(neighbors.scores(D)[0]).isCloseTo(1 / 3f, within(1e-6f));
+    }
+
+    @Test
+    void rareCoOccurrencesAndListsPastTheTopMAreDropped() {
+        ItemNeighbors neighbors = ItemNeighbors.compute(graph(), new Settings(1, Measure.COSINE, 2), pool);
+
+        assertThat(neighbors.neighbors(A)).containsExactly(B);
+        assertThat(neighbors.neighbors(C)).containsExactly(B);
+        assertThat(neighbors.neighbors(D)).isEmpty();
+        assertThat(neighbors.size()).isEqualTo(3);
+    }
+
+    @Test
+    void recomputeReplacesOnlyTheGivenRows() {
+        InteractionGraph graph = graph();
+        Settings settings = new Settings(10, Measure.COSINE, 1);
+        ItemNeighbors before = ItemNeighbors.compute(graph, settings, pool);
+
+        graph.add(105L, A);
+        graph.add(105L, D);
+        ItemNeighbors after = before.recompute(graph, List.of(A, D), settings, pool);
+
+        // One user in common with each; C has fewer users than A
+        assertThat(after.neighbors(D)).containsExactly(C, A);
+        assertThat(after.neighbors(A)).containsExactly(B, C, D);
+        // C keeps the list computed before A and D gained a user
+        assertThat(after.neighbors(C)).containsExactly(before.neighbors(C));
+        assertThat(before.neighbors(D)).containsExactly(C);
+    }
+
+    @Test
+    void seedsSumTheirNeighbourScores() {
+        ItemNeighbors neighbors = ItemNeighbors.compute(graph(), new Settings(10, Measure.COSINE, 1), pool);
+
+        assertThat(neighbors.similarToAll(List.of(A), List.of(A), 5)).containsExactly(B, C);
+        // C is close to both seeds, B only to A
+        assertThat(neighbors.similarToAll(List.of(A, D), List.of(A, D), 5)).containsExactly(C, B);
+        assertThat(neighbors.similarToAll(List.of(99L), List.of(), 5)).isEmpty();
+    }
+
+    @Test
+    void parallelAndSequentialComputationsAgree() {
+        Random random = new Random(7);
+        InteractionGraph graph = new InteractionGraph(50);
+        for (int i = 0; i < 20_000; i++) {
+            graph.add(1 + random.nextInt(1_000), 1 + (long) Math.abs(random.nextGaussian() * 300));
+        }
+        Settings settings = new Settings(5, Measure.COSINE, 2);
+
+        ItemNeighbors sequential = ItemNeighbors.compute(graph, settings, new ForkJoinPool(1));
+        ItemNeighbors parallel = ItemNeighbors.compute(graph, settings, new ForkJoinPool(4));
+
+        List<Long> recipes = new ArrayList<>();
+        sequential.forEach((recipeId, ids, scores) -> recipes.add(recipeId));
+        assertThat(parallel.size()).isEqualTo(sequential.size()).isGreaterThan(100);
+        for (long recipeId : recipes) {
+            assertThat(parallel.neighbors(recipeId)).containsExactly(sequential.neighbors(recipeId));
+        }
+    }
+
+    @Test
+    void graphCapsRecipesPerUserAndIgnoresRepeats() {
+        InteractionGraph graph = new InteractionGraph(2);
+
+        assertThat(graph.add(1L, 10L)).isTrue();
+        assertThat(graph.add(1L, 10L)).isFalse();
+        assertThat(graph.add(1L, 11L)).isTrue();
+        assertThat(graph.add(1L, 12L)).isFalse();
+        assertThat(graph.add(2L, 12L)).isTrue();
+
+        assertThat(graph.recipesOf(1L)).containsExactly(10L, 11L);
+        assertThat(graph.recipesOf(3L)).isEmpty();
+        assertThat(graph.interactionCount()).isEqualTo(3);
+        assertThat(graph.userCount()).isEqualTo(2);
+        assertThat(graph.recipeCount()).isEqualTo(3);
+    }
+
+    // A, B and C have three users each, two of them shared; D has one, shared with C
+    private static InteractionGraph graph() {
+        InteractionGraph graph = new InteractionGraph(100);
+        long[][] interactions = {{101, A}, {101, B}, {101, C}, {102, A}, {102, B}, {103, A}, {103, B}, {103, C},
+                {104, C}, {104, D}};
+        for (long[] interaction : interactions) {
+            graph.add(interaction[0], interaction[1]);
+        }
+        return graph;
+    }
+}
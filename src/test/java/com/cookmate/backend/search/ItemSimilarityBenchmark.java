@@ -0,0 +1,93 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.ItemNeighbors.Measure;
+import com.cookmate.backend.search.ItemNeighbors.Settings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Item-to-item neighbour computation over a synthetic favorites and views graph of one
+ * million interactions: 100,000 users with about ten recipes each out of 20,000, recipe
+ * popularity falling off as 1/rank so a few hundred recipes draw much of the interactions.
+ * Reports graph and table memory, full computation on one worker and on all processors, and
+ * an incremental pass for 1,000 active users. Not part of the regular build:
+ *
+ *   mvn test -Dtest=ItemSimilarityBenchmark -Dbenchmark=true -DargLine=-Xmx3g
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemSimilarityBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int RECIPES = 20_000;
+    private static final int INTERACTIONS = 1_000_000;
+    private static final int ACTIVE_USERS = 1_000;
+
+    @Test
+    void measureNeighbourComputationForOneMillionInteractions() {
+        Random random = new Random(42);
+        InteractionGraph graph = new InteractionGraph(200);
+        long buildStart = System.nanoTime();
+        while (graph.interactionCount() < INTERACTIONS) {
+            graph.add(1 + random.nextInt(USERS), 1 + skewedRecipe(random));
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+        System.out.printf(Locale.ROOT, "graph: %,d interactions, %,d users, %,d recipes, built in %d ms, %.1f MB%n",
+                graph.interactionCount(), graph.userCount(), graph.recipeCount(), buildMs,
+                graph.memoryBytes() / 1e6);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (Measure measure : Measure.values()) {
+            Settings settings = new Settings(20, measure, 2);
+            for (int workers : processors > 1 ? new int[]{1, processors} : new int[]{1}) {
+                ForkJoinPool pool = new ForkJoinPool(workers);
+                try {
+                    // One warm-up run, then the best of three
+                    ItemNeighbors neighbors = ItemNeighbors.compute(graph, settings, pool);
+                    long best = Long.MAX_VALUE;
+                    for (int run = 0; run < 3; run++) {
+                        long start = System.nanoTime();
+                        neighbors = ItemNeighbors.compute(graph, settings, pool);
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    System.out.printf(Locale.ROOT,
+                            "%-7s workers=%-2d full=%,d ms  recipes=%,d entries=%,d table=%.1f MB%n",
+                            measure, workers, best / 1_000_000, neighbors.size(), neighbors.entryCount(),
+                            neighbors.memoryBytes() / 1e6);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+
+        Settings settings = new Settings(20, Measure.COSINE, 2);
+        ForkJoinPool pool = new ForkJoinPool(processors);
+        try {
+            ItemNeighbors neighbors = ItemNeighbors.compute(graph, settings, pool);
+            Set<Long> affected = new HashSet<>();
+            for (int i = 0; i < ACTIVE_USERS; i++) {
+                long userId = 1 + random.nextInt(USERS);
+                graph.add(userId, 1 + skewedRecipe(random));
+                for (long recipeId : graph.recipesOf(userId)) {
+                    affected.add(recipeId);
+                }
+            }
+            long start = System.nanoTime();
+            neighbors.recompute(graph, affected, settings, pool);
+            System.out.printf(Locale.ROOT, "incremental: %,d active users, %,d lists recomputed in %,d ms%n",
+                    ACTIVE_USERS, affected.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Recipe index with popularity falling off roughly as 1/rank
+    private static int skewedRecipe(Random random) {
+        return (int) Math.min(RECIPES - 1, Math.exp(random.nextDouble() * Math.log(RECIPES)) - 1);
+    }
+}
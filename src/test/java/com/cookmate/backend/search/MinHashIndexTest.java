@@ -0,0 +1,77 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Candidate generation, weighted ranking, bucket cap and updates of the MinHash similar
+ * recipe index.
+ */
+class MinHashIndexTest {
+
+    private static final long SALT = 1L;
+    private static final long OIL = 2L;
+    private static final long SAFFRON = 100L;
+
+    @Test
+    void rareSharedIngredientsOutrankStaples() {
+        MinHashIndex index = new MinHashIndex(64, 1, Integer.MAX_VALUE);
+        for (long r = 100; r < 120; r++) {
+            index.setRecipeIngredients(r, List.of(SALT, OIL, 1000 + r, 2000 + r));
+        }
+        index.setRecipeIngredients(1L, List.of(SALT, OIL, SAFFRON));
+        index.setRecipeIngredients(2L, List.of(SALT, SAFFRON, 300L));
+        index.setRecipeIngredients(3L, List.of(SALT, OIL, 301L));
+
+        // Both share two of four ingredients with recipe 1, but 2 shares the saffron
+        assertThat(index.similar(1L, 2)).containsExactly(2L, 3L);
+        assertThat(index.similarity(1L, 2L)).isGreaterThan(index.similarity(1L, 3L));
+        assertThat(index.similarExact(1L, 2)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void identicalSetsAreAlwaysCandidates() {
+        MinHashIndex index = new MinHashIndex(32, 2, 1000);
+        for (long r = 1; r <= 200; r++) {
+            index.setRecipeIngredients(r, List.of(r * 10, r * 10 + 1, r * 10 + 2, r * 10 + 3));
+        }
+        index.setRecipeIngredients(500L, List.of(770L, 771L, 772L, 773L));
+
+        assertThat(index.similar(500L, 5)).containsExactly(77L);
+        assertThat(index.similarity(500L, 77L)).isEqualTo(1.0);
+        assertThat(index.similar(999L, 5)).isEmpty();
+    }
+
+    @Test
+    void bucketsOverTheCapAreSkipped() {
+        MinHashIndex capped = new MinHashIndex(8, 1, 3);
+        MinHashIndex uncapped = new MinHashIndex(8, 1, 10);
+        for (long r = 1; r <= 5; r++) {
+            capped.setRecipeIngredients(r, List.of(SALT, OIL));
+            uncapped.setRecipeIngredients(r, List.of(SALT, OIL));
+        }
+
+        assertThat(capped.similar(1L, 10)).isEmpty();
+        assertThat(uncapped.similar(1L, 10)).containsExactly(5L, 4L, 3L, 2L);
+    }
+
+    @Test
+    void updatesAndRemovalsLeaveTheBuckets() {
+        MinHashIndex index = new MinHashIndex(16, 1, 1000);
+        index.setRecipeIngredients(1L, List.of(SALT, SAFFRON));
+        index.setRecipeIngredients(2L, List.of(SALT, SAFFRON));
+        index.setRecipeIngredients(3L, List.of(SALT, SAFFRON));
+
+        index.setRecipeIngredients(2L, List.of(500L));
+        index.removeRecipe(3L);
+
+        assertThat(index.similar(1L, 10)).isEmpty();
+        assertThat(index.recipeCount()).isEqualTo(2);
+
+        index.setRecipeIngredients(2L, List.of());
+        assertThat(index.contains(2L)).isFalse();
+    }
+}
@@ -0,0 +1,70 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.PrefixCompletionIndex.Completion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Word-prefix matching, weight ordering and incremental updates of the completion index.
+ */
+class PrefixCompletionIndexTest {
+
+    private PrefixCompletionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = PrefixCompletionIndex.build(List.of(
+                new Completion(1L, "Spaghetti Carbonara", 5.0),
+                new Completion(2L, "Chicken Curry", 9.0),
+                new Completion(3L, "Carrot Cake", 7.0),
+                new Completion(4L, "Chocolate Chip Cookies", 3.0),
+                new Completion(5L, "Thai Green Curry", 1.0)), 100);
+    }
+
+    @Test
+    void matchesAnyWordPrefixByWeight() {
+        assertThat(ids(index.complete("car", 10))).containsExactly(3L, 1L);
+        assertThat(ids(index.complete("cur", 10))).containsExactly(2L, 5L);
+        assertThat(ids(index.complete("c", 3))).containsExactly(2L, 3L, 1L);
+        // Case and punctuation are ignored, and a prefix may span words
+        assertThat(ids(index.complete("  CHICKEN-cu", 10))).containsExactly(2L);
+        assertThat(index.complete("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void returnsEachTextOnce() {
+        // "Chocolate Chip Cookies" matches "c" on three words
+        assertThat(ids(index.complete("c", 10))).containsExactly(2L, 3L, 1L, 4L, 5L);
+    }
+
+    @Test
+    void writesOverrideTheBase() {
+        index.put(3L, "Lemon Cake", 7.0);
+        index.put(6L, "Carnitas", 8.0);
+        index.remove(2L);
+
+        assertThat(ids(index.complete("car", 10))).containsExactly(6L, 1L);
+        assertThat(ids(index.complete("cake", 10))).containsExactly(3L);
+        assertThat(index.complete("chicken", 10)).isEmpty();
+        assertThat(index.complete("lemon", 10).get(0).getText()).isEqualTo("Lemon Cake");
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void reportsWhenTheDeltaShouldBeCompacted() {
+        PrefixCompletionIndex small = new PrefixCompletionIndex(2);
+        small.put(1L, "Apple", 1.0);
+        assertThat(small.needsCompaction()).isFalse();
+        small.put(2L, "Apricot Jam", 1.0);
+        assertThat(small.needsCompaction()).isTrue();
+    }
+
+    private static List<Long> ids(List<Completion> completions) {
+        return completions.stream().map(Completion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filter combinations, facet counts and incremental updates of the facet bitmap index.
+ */
+class RecipeFacetIndexTest {
+
+    private RecipeFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeFacetIndex();
+        index.index(1L, "Italian", "Dinner", "Medium", 40, true, false, false, false);
+        index.index(2L, "Italian", "Lunch", "Easy", 15, true, true, false, true);
+        index.index(3L, "Mexican", "Dinner", "Easy", 25, false, false, true, true);
+        index.index(4L, "Indian", "Dinner", "Hard", 90, true, true, true, true);
+        index.index(5L, "italian", "Dinner", "Easy", null, null, false, false, false);
+    }
+
+    @Test
+    void filtersCombineLikeTheSqlQuery() {
+        FacetResult result = index.filter(filter("ITALIAN", "Dinner", null, null, null, null), 0, 10);
+        assertThat(result.getRecipeIds()).containsExactly(1L, 5L);
+
+        // maxTime is inclusive and skips recipes without a total time
+        assertThat(index.filter(filter(null, null, 25, null, null, null), 0, 10).getRecipeIds())
+                .containsExactly(2L, 3L);
+        // An unset flag matches neither true nor false
+        assertThat(index.filter(filter(null, null, null, false, null, null), 0, 10).getRecipeIds())
+                .containsExactly(3L);
+    }
+
+    @Test
+    void dairyFreeIsFilterable() {
+        FacetResult result = index.filter(filter(null, "Dinner", null, null, null, true), 0, 10);
+
+        assertThat(result.getRecipeIds()).containsExactly(3L, 4L);
+        assertThat(result.getTotalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void facetsIgnoreTheirOwnSelection() {
+        FacetResult result = index.filter(filter("Italian", null, null, null, true, null), 0, 10);
+
+        assertThat(result.getRecipeIds()).containsExactly(2L);
+        // Cuisine counts keep the vegan filter but not the cuisine filter
+        assertThat(result.getFacets().get(RecipeFacetIndex.CUISINE_TYPE))
+                .containsEntry("Italian", 1L).containsEntry("Indian", 1L).doesNotContainKey("Mexican");
+        // Vegan counts keep the cuisine filter but not the vegan filter
+        assertThat(result.getFacets().get(RecipeFacetIndex.IS_VEGAN))
+                .containsEntry("true", 1L).containsEntry("false", 2L);
+        assertThat(result.getFacets().get(RecipeFacetIndex.MAX_TIME))
+                .containsEntry("15", 1L).containsEntry("90", 1L);
+    }
+
+    @Test
+    void updatesMoveRecipesBetweenBitmaps() {
+        index.index(1L, "Mexican", "Lunch", "Easy", 10, false, true, true, true);
+        index.remove(3L);
+
+        assertThat(index.filter(filter("Mexican", null, null, null, null, null), 0, 10).getRecipeIds())
+                .containsExactly(1L);
+        assertThat(index.filter(filter(null, null, 15, null, null, null), 0, 10).getRecipeIds())
+                .containsExactly(1L, 2L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void pagesSliceInIdOrder() {
+        FacetResult secondPage = index.filter(filter(null, null, null, null, null, null), 2, 2);
+
+        assertThat(secondPage.getTotalHits()).isEqualTo(5);
+        assertThat(secondPage.getRecipeIds()).containsExactly(3L, 4L);
+        assertThat(index.filter(filter(null, null, null, null, null, null), 5, 2).getRecipeIds()).isEmpty();
+    }
+
+    private static RecipeFilter filter(String cuisineType, String mealType, Integer maxTime,
+                                       Boolean isVegetarian, Boolean isVegan, Boolean isDairyFree) {
+        return new RecipeFilter(cuisineType, mealType, null, maxTime, isVegetarian, isVegan, null, isDairyFree);
+    }
+}
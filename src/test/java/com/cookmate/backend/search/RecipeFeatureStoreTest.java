@@ -0,0 +1,96 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtering, ranking and incremental updates of the recipe feature store.
+ */
+class RecipeFeatureStoreTest {
+
+    private RecipeFeatureStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RecipeFeatureStore();
+        store.put(1L, 4.5, 10, 3, 1_000L, "Italian", "Dinner", true, false, null, null);
+        store.put(2L, 4.8, 3, 1, 2_000L, "italian ", "Lunch", true, true, false, null);
+        store.put(3L, 3.9, 50, 9, RecipeFeatureStore.NO_TIME, "Mexican", "Dinner", false, false, true, null);
+        store.put(4L, 4.5, 20, 4, 3_000L, "Indian", null, null, null, null, null);
+    }
+
+    @Test
+    void ranksByScoreThenViewsThenId() {
+        assertThat(store.top(3, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(2L, 4L, 1L);
+        assertThat(store.top(10, new Filter(), (rating, views, reviews, createdAt) -> reviews))
+                .containsExactly(3L, 4L, 1L, 2L);
+        assertThat(store.top(0, new Filter(), RecipeFeatureStore.BY_RATING)).isEmpty();
+    }
+
+    @Test
+    void filtersOnTypesFlagsAndExcludedIds() {
+        Filter italian = new Filter().cuisineTypes(List.of("ITALIAN"));
+        assertThat(store.top(10, italian, RecipeFeatureStore.BY_RATING)).containsExactly(2L, 1L);
+        assertThat(store.top(10, new Filter().cuisineTypes(List.of("Thai")), RecipeFeatureStore.BY_RATING)).isEmpty();
+
+        // Only flags explicitly set to the value match
+        Filter notVegan = new Filter().flag(RecipeFeatureStore.VEGAN, false);
+        assertThat(store.top(10, notVegan, RecipeFeatureStore.BY_RATING)).containsExactly(1L, 3L);
+        Filter vegetarianDinner = new Filter().mealTypes(List.of("dinner")).flag(RecipeFeatureStore.VEGETARIAN, true);
+        assertThat(store.top(10, vegetarianDinner, RecipeFeatureStore.BY_RATING)).containsExactly(1L);
+
+        assertThat(store.top(10, new Filter().excluding(Set.of(2L, 4L)), RecipeFeatureStore.BY_RATING))
+                .containsExactly(1L, 3L);
+    }
+
+    @Test
+    void similarRecipesShareACuisineOrMealType() {
+        // Recipe 2 is Italian lunch: recipe 1 shares the cuisine; 3 and 4 share neither
+        assertThat(store.top(10, store.similarTo(List.of(2L)), RecipeFeatureStore.BY_RATING))
+                .containsExactly(2L, 1L);
+        // Recipe 1 adds dinner, which brings in recipe 3
+        assertThat(store.top(10, store.similarTo(List.of(1L)).excluding(Set.of(1L)), RecipeFeatureStore.BY_RATING))
+                .containsExactly(2L, 3L);
+        // Recipe 4 has no meal type, so every recipe matches
+        assertThat(store.top(10, store.similarTo(List.of(4L)), RecipeFeatureStore.BY_RATING)).hasSize(4);
+    }
+
+    @Test
+    void updatesReplaceRemoveAndAddViews() {
+        store.put(3L, 5.0, 50, 9, RecipeFeatureStore.NO_TIME, "Mexican", "Dinner", false, false, true, null);
+        store.remove(2L);
+        store.addViews(1L, 15);
+        store.addViews(99L, 15);
+
+        assertThat(store.top(10, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(3L, 1L, 4L);
+        assertThat(store.contains(2L)).isFalse();
+        assertThat(store.size()).isEqualTo(3);
+
+        // The freed slot is reused
+        store.put(5L, 1.0, 0, 0, 4_000L, null, null, null, null, null, null);
+        assertThat(store.top(10, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(3L, 1L, 4L, 5L);
+    }
+
+    @Test
+    void manyRecipesSurviveGrowthAndRemoval() {
+        RecipeFeatureStore large = new RecipeFeatureStore();
+        for (long id = 1; id <= 5000; id++) {
+            large.put(id, id % 50 / 10.0, (int) id, 0, id, "c" + id % 7, null, null, null, null, null);
+        }
+        for (long id = 2; id <= 5000; id += 2) {
+            large.remove(id);
+        }
+
+        assertThat(large.size()).isEqualTo(2500);
+        for (long id = 1; id <= 5000; id++) {
+            assertThat(large.contains(id)).isEqualTo(id % 2 == 1);
+        }
+        assertThat(large.top(2, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(4999L, 4949L);
+    }
+}
@@ -0,0 +1,111 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the BM25 index against a LIKE '%kw%' style scan on synthetic catalogs.
+ *
+ * The scan baseline lower-cases and substring-matches title and description in the JVM,
+ * which is the work MySQL does per row for the old query minus the I/O, so the real
+ * database numbers are at least this slow. Not part of the regular build:
+ *
+ *   mvn test -Dtest=RecipeSearchBenchmark -Dbenchmark=true -DargLine=-Xmx3g
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecipeSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "chicken", "beef", "pork", "tofu", "salmon", "shrimp", "rice", "pasta", "noodle", "potato",
+            "tomato", "onion", "garlic", "ginger", "basil", "cilantro", "lemon", "lime", "butter", "cream",
+            "cheese", "parmesan", "mozzarella", "spinach", "kale", "mushroom", "pepper", "chili", "curry",
+            "coconut", "soy", "honey", "maple", "vanilla", "chocolate", "almond", "walnut", "oat", "apple",
+            "banana", "berry", "mango", "avocado", "bean", "lentil", "chickpea", "quinoa", "egg", "bacon",
+            "roasted", "grilled", "baked", "fried", "steamed", "spicy", "creamy", "crispy", "quick", "easy"
+    };
+    private static final String[] QUERIES = {
+            "chicken curry", "creamy pasta", "chocolate", "spicy shrimp noodles", "lentil", "grilled salmon lemon"
+    };
+    private static final int QUERY_ROUNDS = 20;
+
+    @Test
+    void compareIndexWithLikeScan() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            run(size);
+        }
+    }
+
+    private void run(int size) {
+        Random random = new Random(42);
+        List<String> titles = new ArrayList<>(size);
+        List<String> descriptions = new ArrayList<>(size);
+        RecipeSearchIndex index = new RecipeSearchIndex();
+
+        long buildStart = System.nanoTime();
+        for (int id = 1; id <= size; id++) {
+            String title = words(random, 3);
+            String description = words(random, 25);
+            List<String> ingredients = List.of(words(random, 1), words(random, 1), words(random, 1),
+                    words(random, 1), words(random, 1), words(random, 1));
+            titles.add(title.toLowerCase(Locale.ROOT));
+            descriptions.add(description.toLowerCase(Locale.ROOT));
+            index.index(id, title, description, ingredients);
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        // Warm both paths before measuring
+        for (String q : QUERIES) {
+            index.search(q, 0, 12);
+            likeScan(titles, descriptions, q);
+        }
+
+        long indexNanos = 0;
+        long scanNanos = 0;
+        for (int round = 0; round < QUERY_ROUNDS; round++) {
+            for (String q : QUERIES) {
+                long t0 = System.nanoTime();
+                index.search(q, 0, 12);
+                long t1 = System.nanoTime();
+                likeScan(titles, descriptions, q);
+                long t2 = System.nanoTime();
+                indexNanos += t1 - t0;
+                scanNanos += t2 - t1;
+            }
+        }
+        int queries = QUERY_ROUNDS * QUERIES.length;
+        System.out.printf(Locale.ROOT,
+                "recipes=%,d build=%d ms  bm25 avg=%.3f ms  like-scan avg=%.3f ms  speedup=%.1fx%n",
+                size, buildMs, indexNanos / 1e6 / queries, scanNanos / 1e6 / queries,
+                (double) scanNanos / Math.max(1, indexNanos));
+    }
+
+    // Content query plus count query, as Spring Data issues for a Page
+    private static long likeScan(List<String> titles, List<String> descriptions, String keyword) {
+        String kw = keyword.toLowerCase(Locale.ROOT);
+        long count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < titles.size(); i++) {
+                if (titles.get(i).contains(kw) || descriptions.get(i).contains(kw)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String words(Random random, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
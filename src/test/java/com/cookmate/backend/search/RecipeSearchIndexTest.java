@@ -0,0 +1,95 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranking, stemming and incremental updates of the in-memory recipe search index.
+ */
+class RecipeSearchIndexTest {
+
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSearchIndex();
+        index.index(1L, "Spaghetti Carbonara", "Classic Italian pasta with eggs and bacon",
+                List.of("Spaghetti", "Eggs", "Bacon", "Parmesan"));
+        index.index(2L, "Tomato Soup", "A warm soup made from roasted tomatoes",
+                List.of("Tomatoes", "Onion", "Garlic"));
+        index.index(3L, "Chicken Curry", "Spicy curry served with rice, great with tomato chutney",
+                List.of("Chicken", "Curry Paste", "Rice"));
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        SearchResult result = index.search("tomato", 0, 10);
+
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getRecipeIds()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void stemmedFormsMatchEachOther() {
+        assertThat(index.search("roasting tomatoes", 0, 10).getRecipeIds()).startsWith(2L);
+        assertThat(index.search("egg", 0, 10).getRecipeIds()).containsExactly(1L);
+    }
+
+    @Test
+    void ingredientNamesAreSearchable() {
+        assertThat(index.search("parmesan", 0, 10).getRecipeIds()).containsExactly(1L);
+    }
+
+    @Test
+    void partialWordsExpandAsPrefixes() {
+        assertThat(index.search("chick", 0, 10).getRecipeIds()).containsExactly(3L);
+    }
+
+    @Test
+    void misspelledWordsAreCorrected() {
+        SearchResult result = index.search("Chiken with parmesian", 0, 10);
+
+        assertThat(result.getRecipeIds()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(result.getSuggestion()).isEqualTo("chicken with parmesan");
+        // Known words and prefixes are left alone
+        assertThat(index.search("chick", 0, 10).getSuggestion()).isNull();
+        assertThat(index.search("soup", 0, 10).getSuggestion()).isNull();
+    }
+
+    @Test
+    void updatesReplaceAndDeletesRemoveDocuments() {
+        index.index(2L, "Gazpacho", "Cold Spanish soup", List.of("Cucumber"));
+        assertThat(index.search("tomato", 0, 10).getRecipeIds()).containsExactly(3L);
+        assertThat(index.search("gazpacho", 0, 10).getRecipeIds()).containsExactly(2L);
+
+        index.remove(3L);
+        assertThat(index.search("tomato", 0, 10).getTotalHits()).isZero();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesSliceTheRankedHits() {
+        SearchResult firstPage = index.search("soup curry pasta", 0, 2);
+        SearchResult secondPage = index.search("soup curry pasta", 2, 2);
+
+        assertThat(firstPage.getTotalHits()).isEqualTo(3);
+        assertThat(firstPage.getRecipeIds()).hasSize(2);
+        assertThat(secondPage.getRecipeIds()).hasSize(1).doesNotContainAnyElementsOf(firstPage.getRecipeIds());
+    }
+
+    @Test
+    void compactionKeepsLiveDocumentsSearchable() {
+        for (long id = 100; id < 3000; id++) {
+            index.index(id, "Filler " + id, "placeholder", List.of());
+            index.remove(id);
+        }
+        index.index(4L, "Tomato Salad", null, List.of("Tomatoes"));
+
+        assertThat(index.search("tomato", 0, 10).getRecipeIds()).containsExactlyInAnyOrder(2L, 3L, 4L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,57 @@
+package com.cookmate.backend.search;
+
+import com.cookmate.backend.search.SegmentTopLists.Diet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Segment membership, ranking and truncation of the per-segment top lists.
+ */
+class SegmentTopListsTest {
+
+    private SegmentTopLists lists;
+
+    @BeforeEach
+    void setUp() {
+        lists = SegmentTopLists.builder(3)
+                .add(1L, "Italian", "Dinner", true, false, false, 4.5, 10)
+                .add(2L, "italian ", "Lunch", true, true, false, 4.8, 3)
+                .add(3L, "Mexican", "Dinner", false, false, true, 3.9, 50)
+                .add(4L, "Indian", "Dinner", true, true, true, 4.5, 20)
+                .add(5L, "Italian", null, false, false, false, 4.5, 20)
+                .build();
+    }
+
+    @Test
+    void ranksByRatingThenViewsThenId() {
+        assertThat(lists.top(null, null, null)).containsExactly(2L, 5L, 4L);
+        assertThat(lists.isComplete(null, null, null)).isFalse();
+        assertThat(lists.recipeCount()).isEqualTo(5);
+    }
+
+    @Test
+    void segmentsCombineCuisineMealAndDiet() {
+        assertThat(lists.top("ITALIAN", null, null)).containsExactly(2L, 5L, 1L);
+        assertThat(lists.isComplete("Italian", null, null)).isTrue();
+        assertThat(lists.top(null, "Dinner", Diet.VEGETARIAN)).containsExactly(4L, 1L);
+        assertThat(lists.top("Italian", "Dinner", Diet.VEGAN)).isEmpty();
+        assertThat(lists.top(null, null, Diet.GLUTEN_FREE)).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void unknownOrBlankValuesBehaveLikeTheirSegment() {
+        assertThat(lists.top("Thai", null, null)).isEmpty();
+        assertThat(lists.isComplete("Thai", null, null)).isTrue();
+        // A blank value means any value
+        assertThat(lists.top(" ", "", null)).containsExactly(lists.top(null, null, null));
+    }
+
+    @Test
+    void topReturnsACopy() {
+        lists.top(null, null, null)[0] = 99L;
+
+        assertThat(lists.top(null, null, null)[0]).isEqualTo(2L);
+    }
+}
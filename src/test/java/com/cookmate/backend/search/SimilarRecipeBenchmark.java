@@ -0,0 +1,112 @@
+package com.cookmate.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Recall and latency of MinHash/LSH similar-recipe lookups against exact brute force over
+ * the same weighted Jaccard ranking. The synthetic catalog has 100,000 recipes of 6 to 15
+ * ingredients out of 3,000, ingredient use falling off as 1/rank; recipes come in families
+ * of variations on one base set, so most have a few close neighbours and many distant ones.
+ * Recall is the share of the exact top 10 the index returns. Not part of the regular build:
+ *
+ *   mvn test -Dtest=SimilarRecipeBenchmark -Dbenchmark=true -DargLine=-Xmx3g
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SimilarRecipeBenchmark {
+
+    private static final int RECIPES = 100_000;
+    private static final int INGREDIENTS = 3_000;
+    private static final int FAMILY_SIZE = 10;
+    private static final int QUERIES = 1_000;
+    private static final int EXACT_QUERIES = 100;
+    private static final int LIMIT = 10;
+
+    @Test
+    void measureRecallAgainstBruteForce() {
+        Random random = new Random(42);
+        List<List<Long>> recipes = new ArrayList<>(RECIPES);
+        List<Long> base = null;
+        for (int r = 0; r < RECIPES; r++) {
+            if (r % FAMILY_SIZE == 0) {
+                base = randomIngredients(random, 6 + random.nextInt(10));
+            }
+            recipes.add(vary(random, base));
+        }
+        long[] queries = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = 1 + random.nextInt(RECIPES);
+        }
+
+        // Bands, rows per band and bucket cap; 32 x 2 capped at 1,000 is the default
+        int[][] shapes = {{16, 2, 1_000}, {32, 2, Integer.MAX_VALUE}, {32, 2, 1_000}, {64, 2, 1_000}, {64, 3, 1_000}};
+        for (int[] shape : shapes) {
+            run(recipes, queries, shape[0], shape[1], shape[2]);
+        }
+    }
+
+    private void run(List<List<Long>> recipes, long[] queries, int bands, int rows, int maxBucketSize) {
+        MinHashIndex index = new MinHashIndex(bands, rows, maxBucketSize);
+        long buildStart = System.nanoTime();
+        for (int r = 0; r < recipes.size(); r++) {
+            index.setRecipeIngredients(r + 1, recipes.get(r));
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (long query : queries) {
+            index.similar(query, LIMIT);
+        }
+        long[] nanos = new long[queries.length];
+        long candidates = 0;
+        for (int q = 0; q < queries.length; q++) {
+            long t0 = System.nanoTime();
+            index.similar(queries[q], LIMIT);
+            nanos[q] = System.nanoTime() - t0;
+            candidates += index.candidateCount(queries[q]);
+        }
+        Arrays.sort(nanos);
+
+        double recall = 0;
+        long exactNanos = 0;
+        for (int q = 0; q < EXACT_QUERIES; q++) {
+            long t0 = System.nanoTime();
+            List<Long> exact = index.similarExact(queries[q], LIMIT);
+            exactNanos += System.nanoTime() - t0;
+            Set<Long> found = new HashSet<>(index.similar(queries[q], LIMIT));
+            recall += exact.isEmpty() ? 1 : (double) exact.stream().filter(found::contains).count() / exact.size();
+        }
+
+        System.out.printf(Locale.ROOT,
+                "bands=%-2d rows=%d cap=%,d build=%,d ms  candidates avg=%,d  p50=%.3f ms  p99=%.3f ms  "
+                        + "recall@%d=%.3f  brute-force avg=%.1f ms%n",
+                bands, rows, maxBucketSize, buildMs, candidates / queries.length, nanos[queries.length / 2] / 1e6,
+                nanos[queries.length * 99 / 100] / 1e6, LIMIT, recall / EXACT_QUERIES,
+                exactNanos / 1e6 / EXACT_QUERIES);
+    }
+
+    private static List<Long> randomIngredients(Random random, int size) {
+        Set<Long> ingredients = new HashSet<>();
+        while (ingredients.size() < size) {
+            double rank = Math.exp(random.nextDouble() * Math.log(INGREDIENTS)) - 1;
+            ingredients.add(1 + (long) Math.min(INGREDIENTS - 1, rank));
+        }
+        return new ArrayList<>(ingredients);
+    }
+
+    // Swap a quarter of the base ingredients on average, keeping at least one
+    private static List<Long> vary(Random random, List<Long> base) {
+        List<Long> ingredients = new ArrayList<>();
+        for (Long ingredient : base) {
+            ingredients.add(random.nextInt(4) == 0 ? randomIngredients(random, 1).get(0) : ingredient);
+        }
+        return ingredients;
+    }
+}
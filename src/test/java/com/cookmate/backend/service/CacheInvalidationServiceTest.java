@@ -0,0 +1,256 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.entity.UserPreferences;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.repository.UserPreferencesRepository;
+import com.cookmate.backend.repository.UserRepository;
+import com.cookmate.backend.search.Allergens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * UT-25: Changes reach the invalidation log only when their transaction commits, and other
+ * nodes' rows are replayed as events, including rows committed out of id order
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "cache-invalidation.node-id=node-a",
+        // Polls are driven by the tests, so replayed events reach their thread
+        "cache-invalidation.poll-interval-ms=3600000"
+})
+@Import({CacheInvalidationService.class, IndexRebuildCoordinator.class, RecipeAllergenService.class})
+@MockBean({RecipeSearchService.class, RecipeFacetService.class, IngredientMatchService.class,
+        AutocompleteService.class, RecipeFeatureService.class, SimilarRecipeService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class CacheInvalidationServiceTest {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cache_invalidation_log (id, entity_type, entity_id, change_type, origin, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private CacheInvalidationService invalidations;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private UserPreferencesRepository userPreferencesRepository;
+
+    @Autowired
+    private RecipeAllergenService recipeAllergenService;
+
+    @Autowired
+    private RecipeSearchService recipeSearchService;
+
+    @BeforeEach
+    void setUp() {
+        // Start every test at the end of the log
+        invalidations.poll();
+        events.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cache_invalidation_log");
+        userPreferencesRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void changesAreLoggedWithTheirTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new RecipeChangedEvent(41L, RecipeChangedEvent.Type.UPDATED)));
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new RecipeChangedEvent(42L, RecipeChangedEvent.Type.DELETED));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT entity_type, entity_id, change_type, origin FROM cache_invalidation_log"))
+                .containsExactly(Map.of("ENTITY_TYPE", "RECIPE", "ENTITY_ID", 41L,
+                        "CHANGE_TYPE", "UPDATED", "ORIGIN", "node-a"));
+    }
+
+    @Test
+    void otherNodesRowsAreReplayedAndOwnRowsSkipped() {
+        User user = new User();
+        user.setUsername("renamed");
+        user.setEmail("renamed@example.com");
+        user.setPassword("secret");
+        Long userId = userRepository.save(user).getId();
+        long next = head() + 1;
+        insert(next, "RECIPE", 7L, "UPDATED", "node-b");
+        insert(next + 1, "RECIPE", 7L, "RATING", "node-a");
+        insert(next + 2, "RECIPE", 8L, "RATING", "node-b");
+        insert(next + 3, "USER", userId, "USERNAME", "node-b");
+        insert(next + 4, "RECIPE", 9L, "INGREDIENTS", "node-b");
+
+        invalidations.poll();
+
+        assertThat(events.stream(RecipeChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getRecipeId()).isEqualTo(7L);
+                    assertThat(event.getType()).isEqualTo(RecipeChangedEvent.Type.UPDATED);
+                });
+        assertThat(events.stream(RecipeRatingChangedEvent.class).map(RecipeRatingChangedEvent::getRecipeId))
+                .containsExactly(8L);
+        assertThat(events.stream(UsernameChangedEvent.class).map(UsernameChangedEvent::getUsername))
+                .containsExactly("renamed");
+        assertThat(events.stream(RecipeIngredientsChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getIngredients()).isEmpty());
+        // Replays are not logged again
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cache_invalidation_log", Long.class))
+                .isEqualTo(5);
+        assertThat(invalidations.getStatus().getRowsBehind()).isZero();
+    }
+
+    @Test
+    void preferenceChangesAreLoggedAndReplayedAsNewExclusions() {
+        User user = new User();
+        user.setUsername("allergic");
+        user.setEmail("allergic@example.com");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        UserPreferences preferences = new UserPreferences();
+        preferences.setUser(user);
+        preferences.setFoodAllergies("peanuts");
+        preferences = userPreferencesRepository.save(preferences);
+        Long userId = user.getId();
+        assertThat(recipeAllergenService.exclusionFor(userId).getMask()).isEqualTo(Allergens.PEANUTS);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventPublisher.publishEvent(new UserPreferencesChangedEvent(userId)));
+        assertThat(jdbcTemplate.queryForMap("SELECT entity_type, entity_id, change_type FROM cache_invalidation_log"))
+                .containsAllEntriesOf(Map.of("ENTITY_TYPE", "USER", "ENTITY_ID", userId, "CHANGE_TYPE", "PREFERENCES"));
+
+        // Saved on another node: this node keeps its cached mask until the row is replayed
+        assertThat(recipeAllergenService.exclusionFor(userId).getMask()).isEqualTo(Allergens.PEANUTS);
+        preferences.setFoodAllergies("dairy");
+        userPreferencesRepository.save(preferences);
+        insert(head() + 1, "USER", userId, "PREFERENCES", "node-b");
+        assertThat(recipeAllergenService.exclusionFor(userId).getMask()).isEqualTo(Allergens.PEANUTS);
+
+        invalidations.poll();
+
+        assertThat(events.stream(UserPreferencesChangedEvent.class).map(UserPreferencesChangedEvent::getUserId))
+                .containsExactly(userId, userId);
+        assertThat(recipeAllergenService.exclusionFor(userId).getMask()).isEqualTo(Allergens.DAIRY);
+    }
+
+    @Test
+    void replayedImportsRebuildIndexesOffThePollingThread() throws InterruptedException {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> rebuildThread = new AtomicReference<>();
+        when(recipeSearchService.isEnabled()).thenReturn(true);
+        doAnswer(invocation -> {
+            rebuildThread.set(Thread.currentThread().getName());
+            rebuilding.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(recipeSearchService).rebuild();
+        long next = head() + 1;
+        insert(next, "IMPORT", 500L, "FINISHED", "node-b");
+        insert(next + 1, "RECIPE", 3L, "UPDATED", "node-b");
+
+        try {
+            invalidations.poll();
+
+            // The poll got past the import while its rebuild is still running
+            assertThat(rebuilding.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(rebuildThread.get()).isEqualTo("index-rebuild");
+            assertThat(events.stream(RecipeChangedEvent.class).map(RecipeChangedEvent::getRecipeId))
+                    .containsExactly(3L);
+            assertThat(invalidations.getStatus().getRowsBehind()).isZero();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void rowsCommittedOutOfIdOrderAreStillApplied() {
+        long next = head() + 1;
+        long lateBefore = invalidations.getStatus().getLateApplied();
+        insert(next + 1, "RECIPE", 2L, "UPDATED", "node-b");
+
+        invalidations.poll();
+        insert(next, "RECIPE", 1L, "UPDATED", "node-b");
+        invalidations.poll();
+
+        assertThat(events.stream(RecipeChangedEvent.class).map(RecipeChangedEvent::getRecipeId))
+                .containsExactly(2L, 1L);
+        assertThat(invalidations.getStatus().getLateApplied()).isEqualTo(lateBefore + 1);
+    }
+
+    @Test
+    void pruneDeletesRowsPastRetention() {
+        long next = head() + 1;
+        insert(next, "RECIPE", 1L, "UPDATED", "node-b");
+        jdbcTemplate.update(INSERT_SQL, next + 1, "RECIPE", 2L, "UPDATED", "node-b",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(2)));
+
+        invalidations.prune();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM cache_invalidation_log", Long.class))
+                .containsExactly(next);
+    }
+
+    private long head() {
+        Long cursor = invalidations.getStatus().getCursor();
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidation_log", Long.class);
+        return Math.max(cursor, max != null ? max : 0);
+    }
+
+    private void insert(long id, String entityType, Long entityId, String changeType, String origin) {
+        jdbcTemplate.update(INSERT_SQL, id, entityType, entityId, changeType, origin,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,217 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.PageResponse;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.HotListsRefreshedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.service.HotListService.HotList;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-24: Hot list snapshots answer first pages and preference recommendations like the SQL
+ * they stand in for, and hand deeper requests back to it
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.size=3",
+        "hot-lists.segment-size=2",
+        // Refreshes are driven by the tests; a scheduled one would not see their rows
+        "hot-lists.check-interval-ms=3600000",
+        "hot-lists.segment-min-interval-ms=0",
+        // Lists are compared with the recipes-table queries; the tests write no cards
+        "readmodel.recipe-cards.enabled=false",
+        // Preferences past the segments go to SQL
+        "recommendations.feature-store.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        "search.similar-index.enabled=false",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+@RecordApplicationEvents
+class HotListServiceTest {
+
+    @Autowired
+    private HotListService hotLists;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The warm-up sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("hot-lists-warmup")) {
+                thread.join();
+            }
+        }
+
+        User user = new User();
+        user.setUsername("hotlists");
+        user.setEmail("hotlists@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        String[] cuisines = {"Italian", "Italian", "Mexican", "Italian", "Indian", "Italian", "Mexican"};
+        for (int r = 0; r < cuisines.length; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Hot recipe " + r);
+            recipe.setCuisineType(cuisines[r]);
+            recipe.setIsVegetarian(r % 2 == 0);
+            recipe.setAverageRating(new BigDecimal("1.50").add(BigDecimal.valueOf(r * 0.5)));
+            recipe.setViewCount(100 - r);
+            recipe.setCreatedBy(user);
+            entityManager.persist(recipe);
+            recipeIds.add(recipe.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        hotLists.rebuild();
+    }
+
+    @Test
+    void firstPagesComeFromTheSnapshotAndDeepPagesFromSql() {
+        PageResponse<RecipeDto> first = hotLists.page(HotList.TOP_RATED, 0, 3);
+
+        assertThat(ids(first.getContent())).isEqualTo(recipeRepository
+                .findByOrderByAverageRatingDesc(PageRequest.of(0, 3)).getContent().stream()
+                .map(Recipe::getId).collect(Collectors.toList()));
+        assertThat(first.getTotalElements()).isEqualTo(7);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getLast()).isFalse();
+        assertThat(first.getContent().get(0).getCreatedByUsername()).isEqualTo("hotlists");
+        assertThat(ids(hotLists.page(HotList.MOST_VIEWED, 0, 2).getContent()))
+                .containsExactly(recipeIds.get(0), recipeIds.get(1));
+
+        assertThat(hotLists.page(HotList.TOP_RATED, 1, 3)).isNull();
+        assertThat(hotLists.topIds(HotList.TOP_RATED, 4)).isNull();
+        assertThat(hotLists.getStatus().getFallbacks()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesAreCopies() {
+        hotLists.page(HotList.RECENT, 0, 1).getContent().get(0).setTitle("changed");
+
+        assertThat(hotLists.page(HotList.RECENT, 0, 1).getContent().get(0).getTitle()).startsWith("Hot recipe");
+    }
+
+    @Test
+    void preferencesRankBestRatedFirstFromSegmentsOrSql() {
+        // Italian recipes are 0, 1, 3 and 5; the segment keeps the best two
+        Map<String, Object> italian = new HashMap<>();
+        italian.put("cuisineType", "italian");
+        assertThat(hotLists.preferredIds("italian", null, null, null, null, List.of(), AllergenExclusion.NONE, 2))
+                .containsExactly(recipeIds.get(5), recipeIds.get(3));
+        assertThat(ids(recommendationService.getRecommendationsByPreferences(null, italian, 2).getContent()))
+                .containsExactly(recipeIds.get(5), recipeIds.get(3));
+
+        // Beyond the segment, and with a flag required false, the query answers in the same order
+        assertThat(hotLists.preferredIds("italian", null, null, null, null, List.of(), AllergenExclusion.NONE, 3))
+                .isNull();
+        assertThat(ids(recommendationService.getRecommendationsByPreferences(null, italian, 3).getContent()))
+                .containsExactly(recipeIds.get(5), recipeIds.get(3), recipeIds.get(1));
+        italian.put("isVegetarian", false);
+        assertThat(hotLists.preferredIds("italian", null, false, null, null, List.of(), AllergenExclusion.NONE, 2))
+                .isNull();
+        assertThat(ids(recommendationService.getRecommendationsByPreferences(null, italian, 2).getContent()))
+                .containsExactly(recipeIds.get(5), recipeIds.get(3));
+    }
+
+    @Test
+    void excludedIdsAreSkippedOrHandedToSql() {
+        assertThat(hotLists.preferredIds(null, null, true, null, null, List.of(recipeIds.get(6)),
+                AllergenExclusion.NONE, 1))
+                .containsExactly(recipeIds.get(4));
+        assertThat(hotLists.preferredIds(null, null, true, null, null, List.of(recipeIds.get(6)),
+                AllergenExclusion.NONE, 2)).isNull();
+        assertThat(recipeRepository.findIdsByPreferences(null, null, true, null, null,
+                List.of(recipeIds.get(6)), 0, PageRequest.of(0, 2)))
+                .containsExactly(recipeIds.get(4), recipeIds.get(2));
+    }
+
+    @Test
+    void writeEventsTriggerARefreshThatAnnouncesChangedLists() {
+        Long worst = recipeIds.get(0);
+        entityManager.createQuery("UPDATE Recipe r SET r.averageRating = 5 WHERE r.id = :id")
+                .setParameter("id", worst)
+                .executeUpdate();
+        events.clear();
+
+        hotLists.refreshIfStale();
+        assertThat(hotLists.page(HotList.TOP_RATED, 0, 1).getContent().get(0).getId()).isNotEqualTo(worst);
+
+        hotLists.onRatingChanged(new RecipeRatingChangedEvent(worst));
+        hotLists.refreshIfStale();
+
+        assertThat(hotLists.page(HotList.TOP_RATED, 0, 1).getContent().get(0).getId()).isEqualTo(worst);
+        assertThat(hotLists.preferredIds("Italian", null, null, null, null, List.of(), AllergenExclusion.NONE, 1))
+                .containsExactly(worst);
+        assertThat(events.stream(HotListsRefreshedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.isViewRankedOnly()).isFalse());
+    }
+
+    @Test
+    void segmentRescansAreCoalescedWithinTheMinimumInterval() {
+        Long worst = recipeIds.get(0);
+        entityManager.createQuery("UPDATE Recipe r SET r.averageRating = 5 WHERE r.id = :id")
+                .setParameter("id", worst)
+                .executeUpdate();
+        ReflectionTestUtils.setField(hotLists, "segmentMinIntervalMs", 3_600_000L);
+        try {
+            hotLists.onRatingChanged(new RecipeRatingChangedEvent(worst));
+            hotLists.refreshIfStale();
+
+            // The lists follow the write; the segments wait for the interval
+            assertThat(hotLists.page(HotList.TOP_RATED, 0, 1).getContent().get(0).getId()).isEqualTo(worst);
+            assertThat(hotLists.preferredIds("Italian", null, null, null, null, List.of(), AllergenExclusion.NONE, 1))
+                    .doesNotContain(worst);
+        } finally {
+            ReflectionTestUtils.setField(hotLists, "segmentMinIntervalMs", 0L);
+        }
+
+        hotLists.refreshIfStale();
+        assertThat(hotLists.preferredIds("Italian", null, null, null, null, List.of(), AllergenExclusion.NONE, 1))
+                .containsExactly(worst);
+    }
+
+    private static List<Long> ids(List<RecipeDto> recipes) {
+        return recipes.stream().map(RecipeDto::getId).collect(Collectors.toList());
+    }
+}
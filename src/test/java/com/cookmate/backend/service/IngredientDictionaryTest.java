@@ -0,0 +1,159 @@
+package com.cookmate.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * UT-23: The ingredient dictionary resolves names from memory, creates each new name once
+ * under concurrency and forgets ids of rolled back transactions
+ */
+@DataJpaTest(properties = {
+        // Case- and accent-insensitive like MySQL's default collation
+        "spring.datasource.url=jdbc:h2:mem:dictionary;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1;" +
+                "INIT=SET COLLATION ENGLISH STRENGTH PRIMARY",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IngredientDictionary.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngredientDictionaryTest {
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO ingredients (name) VALUES ('Olive Oil'), ('Salt')");
+        dictionary.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ingredients");
+    }
+
+    @Test
+    void knownNamesResolveFromMemoryIgnoringCaseAndSpacing() {
+        Long oliveOil = jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Olive Oil'", Long.class);
+        long hitsBefore = dictionary.getStatus().getHitCount();
+
+        Map<String, Long> found = dictionary.findAll(List.of(" olive   OIL ", "Olive Oil", "pepper"));
+
+        assertThat(found).containsOnly(Map.entry("olive oil", oliveOil));
+        assertThat(dictionary.getStatus().getHitCount() - hitsBefore).isEqualTo(1);
+        assertThat(dictionary.nameOf(oliveOil)).isEqualTo("Olive Oil");
+        assertThat(count()).isEqualTo(2);
+    }
+
+    @Test
+    void namesOneEditAwayAreDistinctIngredients() {
+        Long salt = jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Salt'", Long.class);
+
+        Map<String, Long> resolved = inTransaction(() -> dictionary.resolveAll(List.of("Malt", "salt")));
+
+        assertThat(resolved.get("salt")).isEqualTo(salt);
+        assertThat(resolved.get("malt")).isNotNull().isNotEqualTo(salt)
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Malt'", Long.class));
+        assertThat(count()).isEqualTo(3);
+    }
+
+    @Test
+    void namesMatchedWithoutAccentsResolveToTheStoredIngredient() {
+        jdbcTemplate.update("INSERT INTO ingredients (name) VALUES ('Jalapeño')");
+        Long jalapeno = jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Jalapeño'", Long.class);
+
+        Map<String, Long> resolved = inTransaction(() -> dictionary.resolveAll(List.of("jalapeno", "Salt")));
+
+        assertThat(resolved.get("jalapeno")).isEqualTo(jalapeno);
+        assertThat(resolved).containsOnlyKeys("jalapeno", "salt");
+        assertThat(dictionary.findAll(List.of("JALAPENO"))).containsOnly(Map.entry("jalapeno", jalapeno));
+        assertThat(count()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentTransactionsCreateEachNameOnce() throws Exception {
+        int threads = 8;
+        List<String> names = List.of("Basil", "Thyme", "Sage", "Salt");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Long>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // Differently cased and ordered in each thread
+            List<String> mine = new ArrayList<>(names);
+            Collections.rotate(mine, t);
+            String upper = t % 2 == 0 ? mine.get(0).toUpperCase() : mine.get(0);
+            mine.set(0, upper);
+            results.add(pool.submit(() -> {
+                start.await();
+                return inTransaction(() -> dictionary.resolveAll(mine));
+            }));
+        }
+        start.countDown();
+
+        Map<String, Long> first = results.get(0).get(30, TimeUnit.SECONDS);
+        for (Future<Map<String, Long>> result : results) {
+            assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(first);
+        }
+        pool.shutdown();
+        assertThat(first).containsOnlyKeys("basil", "thyme", "sage", "salt");
+        assertThat(count()).isEqualTo(5);
+        assertThat(dictionary.findAll(names)).isEqualTo(first);
+    }
+
+    @Test
+    void idsCreatedInRolledBackTransactionsAreNotRemembered() {
+        assertThatThrownBy(() -> inTransaction(() -> {
+            dictionary.resolveAll(List.of("Saffron"));
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+        int sizeAfterRollback = dictionary.getStatus().getSize().intValue();
+
+        Map<String, Long> resolved = inTransaction(() -> dictionary.resolveAll(List.of("Saffron")));
+
+        assertThat(count()).isEqualTo(3);
+        assertThat(resolved.get("saffron"))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Saffron'", Long.class));
+        assertThat(dictionary.getStatus().getSize()).isEqualTo(sizeAfterRollback + 1);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ingredients", Integer.class);
+    }
+}
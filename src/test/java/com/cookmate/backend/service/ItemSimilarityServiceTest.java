@@ -0,0 +1,229 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Favorite;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-28: Also-liked lists are computed from favorites and views, persisted, updated from new
+ * activity, and lead personalized recommendations; only the instance holding the job writes them
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.enabled=false",
+        "trending.enabled=false",
+        // The cuisine fallback scans the test's rows rather than a store built before them
+        "recommendations.feature-store.enabled=false",
+        "also-liked.min-co-occurrence=1",
+        // Passes are driven by the tests; a scheduled one would not see their rows
+        "also-liked.incremental-interval-ms=3600000",
+        "search.similar-index.enabled=false",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+class ItemSimilarityServiceTest {
+
+    @Autowired
+    private ItemSimilarityService itemSimilarity;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The warm-up sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("also-liked-warmup")) {
+                thread.join();
+            }
+        }
+
+        for (int u = 0; u < 4; u++) {
+            User user = new User();
+            user.setUsername("alsoliked" + u);
+            user.setEmail("alsoliked" + u + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+            users.add(user);
+        }
+        for (int r = 0; r < 5; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Also liked recipe " + r);
+            recipe.setCuisineType(r == 4 ? "Thai" : "Italian");
+            recipe.setMealType(r < 2 || r == 4 ? "Lunch" : "Dinner");
+            recipe.setAverageRating(new BigDecimal("1.00").add(BigDecimal.valueOf(r)));
+            recipe.setCreatedBy(users.get(0));
+            entityManager.persist(recipe);
+            recipeIds.add(recipe.getId());
+        }
+
+        // Users 0 and 1 both like recipes 0 and 1; user 1 also viewed 2, which user 2 viewed with 3
+        favorite(0, 0);
+        favorite(0, 1);
+        favorite(1, 0);
+        favorite(1, 1);
+        view(1, 2);
+        view(2, 2);
+        view(2, 3);
+        entityManager.flush();
+
+        itemSimilarity.rebuild();
+    }
+
+    @Test
+    void rebuildRanksAndPersistsNeighbours() {
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(0), 10)).containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(2), 1)).containsExactly(recipeIds.get(3));
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(4), 10)).isEmpty();
+        assertThat(persistedNeighbors(0)).containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(itemSimilarity.getStatus().getInteractions()).isEqualTo(7);
+        assertThat(itemSimilarity.getStatus().getRecipes()).isEqualTo(4);
+    }
+
+    @Test
+    void incrementalPassRecomputesTheListsOfActiveUsers() {
+        // User 2 now also likes recipe 0: lists of recipes 0, 2 and 3 change, recipe 1's does not
+        favorite(2, 0);
+        entityManager.flush();
+
+        assertThat(itemSimilarity.updateIncrementally()).isEqualTo(3);
+
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(0), 10)).hasSize(3).endsWith(recipeIds.get(3));
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(3), 10)).contains(recipeIds.get(0));
+        assertThat(itemSimilarity.alsoLiked(recipeIds.get(1), 10)).containsExactly(recipeIds.get(0), recipeIds.get(2));
+        assertThat(persistedNeighbors(0)).hasSize(3);
+        assertThat(itemSimilarity.updateIncrementally()).isZero();
+    }
+
+    @Test
+    void alsoLikedFallsBackToSharedCuisineOrMealTypeWithoutNeighbours() {
+        assertThat(ids(recommendationService.getAlsoLiked(recipeIds.get(3), null, 10).getContent()))
+                .containsExactly(recipeIds.get(2));
+
+        // Recipe 4 has no users; recipes 0 and 1 are lunches too, best rated first
+        assertThat(ids(recommendationService.getAlsoLiked(recipeIds.get(4), null, 10).getContent()))
+                .containsExactly(recipeIds.get(1), recipeIds.get(0));
+    }
+
+    @Test
+    void personalizedRecommendationsLeadWithWhatSimilarUsersLiked() {
+        // User 2 viewed recipes 2 and 3; users of recipe 2 also liked 0 and 1
+        List<Long> ids = ids(recommendationService.getPersonalizedRecommendations(authentication(users.get(2)), 5)
+                .getContent());
+
+        // The user's own views first, then their equally similar neighbours, higher id first, then top rated
+        assertThat(ids).containsExactly(recipeIds.get(3), recipeIds.get(2), recipeIds.get(1), recipeIds.get(0),
+                recipeIds.get(4));
+    }
+
+    @Test
+    void onlyTheInstanceHoldingTheJobWritesAndTheOthersReloadItsLists() {
+        // Another instance takes the job over; this one's next pass is discarded
+        inNewTransaction("UPDATE job_locks SET owner = 'other-instance', locked_until = ? WHERE name = 'also-liked'",
+                Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+        try {
+            favorite(2, 0);
+            entityManager.flush();
+            assertThat(itemSimilarity.updateIncrementally()).isZero();
+            assertThat(persistedNeighbors(0)).hasSize(2);
+            assertThat(itemSimilarity.startRebuild()).isFalse();
+
+            // It rewrites recipe 0's list; the scheduled pass here only reloads it
+            entityManager.createNativeQuery("DELETE FROM recipe_neighbors WHERE recipe_id = ?")
+                    .setParameter(1, recipeIds.get(0))
+                    .executeUpdate();
+            entityManager.createNativeQuery("INSERT INTO recipe_neighbors " +
+                            "(recipe_id, neighbor_id, position, score, computed_at) VALUES (?, ?, 0, 0.5, ?)")
+                    .setParameter(1, recipeIds.get(0))
+                    .setParameter(2, recipeIds.get(4))
+                    .setParameter(3, Timestamp.valueOf(LocalDateTime.now().plusMinutes(1)))
+                    .executeUpdate();
+            itemSimilarity.scheduledUpdate();
+
+            assertThat(itemSimilarity.alsoLiked(recipeIds.get(0), 10)).containsExactly(recipeIds.get(4));
+            assertThat(itemSimilarity.alsoLiked(recipeIds.get(2), 1)).containsExactly(recipeIds.get(3));
+            assertThat(itemSimilarity.reloadPersisted()).isFalse();
+        } finally {
+            inNewTransaction("DELETE FROM job_locks");
+        }
+    }
+
+    private void inNewTransaction(String sql, Object... args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+    }
+
+    private void favorite(int user, int recipe) {
+        Favorite favorite = new Favorite();
+        favorite.setUser(users.get(user));
+        favorite.setRecipe(entityManager.find(Recipe.class, recipeIds.get(recipe)));
+        entityManager.persist(favorite);
+    }
+
+    private void view(int user, int recipe) {
+        RecentlyViewed viewed = new RecentlyViewed();
+        viewed.setUser(users.get(user));
+        viewed.setRecipe(entityManager.find(Recipe.class, recipeIds.get(recipe)));
+        entityManager.persist(viewed);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> persistedNeighbors(int recipe) {
+        return ((List<Number>) entityManager
+                .createNativeQuery("SELECT neighbor_id FROM recipe_neighbors WHERE recipe_id = ? ORDER BY position")
+                .setParameter(1, recipeIds.get(recipe))
+                .getResultList())
+                .stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<RecipeDto> recipes) {
+        return recipes.stream().map(RecipeDto::getId).collect(Collectors.toList());
+    }
+
+    private static Authentication authentication(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,88 @@
+package com.cookmate.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * UT-14: Recently viewed - views are coalesced and capped, and kept until a flush persists them
+ */
+@ExtendWith(MockitoExtension.class)
+class RecentlyViewedIngestServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RecentlyViewedIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecentlyViewedIngestService(100);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "maxPerUser", 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedViewsAreCoalescedIntoOneUpsert() {
+        service.recordView(1L, 10L);
+        service.recordView(1L, 11L);
+        service.recordView(1L, 10L);
+        service.recordView(2L, 10L);
+
+        assertThat(service.flush()).isEqualTo(3);
+
+        ArgumentCaptor<List<Object[]>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT IGNORE"), upserts.capture());
+        assertThat(upserts.getValue()).extracting(row -> List.of(row[0], row[1]))
+                .containsExactly(List.of(1L, 10L), List.of(1L, 11L), List.of(2L, 10L));
+        // One trim per affected user
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE"), argThat((List<Object[]> rows) -> rows.size() == 2));
+
+        assertThat(service.flush()).isZero();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void unflushedViewsAreKeptUntilPersisted() {
+        service.recordView(1L, 10L);
+        service.recordView(1L, 11L);
+        assertThat(service.unflushedViews(1L)).containsOnlyKeys(10L, 11L);
+
+        service.flush();
+
+        assertThat(service.unflushedViews(1L)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushIsRetriedByTheNextOne() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE"), anyList()))
+                .thenThrow(new RuntimeException("connection lost"))
+                .thenReturn(new int[]{1, 1});
+        service.recordView(1L, 10L);
+        service.recordView(2L, 10L);
+
+        assertThat(service.flush()).isZero();
+        assertThat(service.unflushedViews(1L)).containsOnlyKeys(10L);
+
+        assertThat(service.flush()).isEqualTo(2);
+        ArgumentCaptor<List<Object[]>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT IGNORE"), upserts.capture());
+        assertThat(upserts.getValue()).extracting(row -> List.of(row[0], row[1]))
+                .containsExactly(List.of(1L, 10L), List.of(2L, 10L));
+        assertThat(service.unflushedViews(1L)).isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.PageResponse;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.exception.BadRequestException;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * UT-34: The recently-viewed list is read from the shared table, merged with this instance's
+ * unflushed views, and leaves out recipes deleted since they were viewed
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({RecentlyViewedService.class, RecipeDtoAssembler.class})
+class RecentlyViewedServiceTest {
+
+    @Autowired
+    private RecentlyViewedService recentlyViewedService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RecentlyViewedIngestService recentlyViewedIngestService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User user;
+    private Recipe older;
+    private Recipe newer;
+    private Recipe unflushed;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("viewer");
+        user.setEmail("viewer@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        older = recipe("Older view");
+        newer = recipe("Newer view");
+        unflushed = recipe("Unflushed view");
+
+        // Persisted by any instance
+        view(older, now.minusHours(2));
+        view(newer, now.minusHours(1));
+        when(recentlyViewedIngestService.getMaxPerUser()).thenReturn(50);
+    }
+
+    @Test
+    void persistedAndUnflushedViewsAreMergedNewestFirst() {
+        Recipe deleted = recipe("Deleted since");
+        Long deletedId = deleted.getId();
+        entityManager.remove(deleted);
+        entityManager.flush();
+        when(recentlyViewedIngestService.unflushedViews(user.getId())).thenReturn(Map.of(
+                unflushed.getId(), now,
+                older.getId(), now.minusMinutes(30),
+                deletedId, now));
+
+        PageResponse<RecipeDto> first = recentlyViewedService.getRecentlyViewed(authentication(), 0, 2);
+        assertThat(first.getContent()).extracting(RecipeDto::getId)
+                .containsExactly(unflushed.getId(), older.getId());
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+
+        PageResponse<RecipeDto> second = recentlyViewedService.getRecentlyViewed(authentication(), 1, 2);
+        assertThat(second.getContent()).extracting(RecipeDto::getId).containsExactly(newer.getId());
+        assertThat(second.getLast()).isTrue();
+    }
+
+    @Test
+    void invalidPagesAreRejected() {
+        assertThatThrownBy(() -> recentlyViewedService.getRecentlyViewed(authentication(), -1, 12))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> recentlyViewedService.getRecentlyViewed(authentication(), 0, 0))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Recipe recipe(String title) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setCreatedBy(user);
+        entityManager.persist(recipe);
+        return recipe;
+    }
+
+    private void view(Recipe recipe, LocalDateTime viewedAt) {
+        RecentlyViewed view = new RecentlyViewed();
+        view.setUser(user);
+        view.setRecipe(recipe);
+        entityManager.persist(view);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE recently_viewed SET viewed_at = ? WHERE id = ?",
+                Timestamp.valueOf(viewedAt), view.getId());
+    }
+
+    private Authentication authentication() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
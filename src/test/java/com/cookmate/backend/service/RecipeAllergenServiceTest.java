@@ -0,0 +1,230 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.PageResponse;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Ingredient;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.entity.UserPreferences;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import com.cookmate.backend.event.UserPreferencesChangedEvent;
+import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.search.AllergenExclusion;
+import com.cookmate.backend.search.Allergens;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-31: Recipe allergen masks are classified from ingredients and stored, users' allergies
+ * compile to exclusion masks, and recommendations leave out the recipes they exclude
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        "recommendations.feature-store.enabled=false",
+        "search.similar-index.enabled=false",
+        "recommendations.cache.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+class RecipeAllergenServiceTest {
+
+    @Autowired
+    private RecipeAllergenService allergens;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private final List<Long> recipeIds = new ArrayList<>();
+    private final List<Ingredient> ingredients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The warm-up sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("allergen-warmup")) {
+                thread.join();
+            }
+        }
+
+        user = new User();
+        user.setUsername("allergic");
+        user.setEmail("allergic@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        for (String name : List.of("whole milk", "flour", "chicken breast", "rice")) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            entityManager.persist(ingredient);
+            ingredients.add(ingredient);
+        }
+
+        // Best rated first: a dairy and gluten bake, a chicken dish, plain rice
+        recipe(5, 0, 1);
+        recipe(4, 2, 3);
+        recipe(3, 3);
+        entityManager.flush();
+
+        allergens.rebuild();
+    }
+
+    @Test
+    void masksAreClassifiedFromIngredientsAndStored() {
+        assertThat(allergens.maskOf(recipeIds.get(0))).isEqualTo(Allergens.DAIRY | Allergens.GLUTEN);
+        assertThat(allergens.maskOf(recipeIds.get(1))).isEqualTo(Allergens.MEAT);
+        assertThat(allergens.maskOf(recipeIds.get(2))).isZero();
+        assertThat(storedMask(recipeIds.get(0))).isEqualTo(Allergens.DAIRY | Allergens.GLUTEN);
+        assertThat(storedMask(recipeIds.get(2))).isZero();
+    }
+
+    @Test
+    void ingredientChangesReclassifyTheRecipe() {
+        allergens.onRecipeIngredientsChanged(new RecipeIngredientsChangedEvent(recipeIds.get(2),
+                Map.of(ingredients.get(0).getId(), "whole milk")));
+
+        assertThat(allergens.maskOf(recipeIds.get(2))).isEqualTo(Allergens.DAIRY);
+        assertThat(storedMask(recipeIds.get(2))).isEqualTo(Allergens.DAIRY);
+    }
+
+    @Test
+    void recommendationsLeaveOutWhatTheUserExcludes() {
+        preferences("Dairy");
+
+        assertThat(allergens.exclusionFor(user.getId()).getMask()).isEqualTo(Allergens.DAIRY);
+        assertThat(ids(recommendationService.getTrendingRecipes(authentication(), 3)))
+                .containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(ids(recommendationService.getRecommendationsByHistory(authentication(), 3)))
+                .containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(ids(recommendationService.getTrendingRecipes(null, 3))).hasSize(3);
+    }
+
+    @Test
+    void sqlFallbacksLeaveOutExcludedRecipesBeforePaging() {
+        PageRequest firstTwo = PageRequest.of(0, 2);
+
+        Page<Recipe> byKeyword = recipeRepository.searchByKeyword("allergen recipe", Allergens.DAIRY, firstTwo);
+        assertThat(byKeyword.getContent()).extracting(Recipe::getId)
+                .containsExactlyInAnyOrder(recipeIds.get(1), recipeIds.get(2));
+        assertThat(byKeyword.getTotalElements()).isEqualTo(2);
+        assertThat(recipeRepository.searchByKeyword("allergen recipe", 0, firstTwo).getTotalElements()).isEqualTo(3);
+
+        Page<Recipe> filtered = recipeRepository.findByFilters(null, null, null, null, null, null, null, null,
+                Allergens.MEAT, firstTwo);
+        assertThat(filtered.getContent()).extracting(Recipe::getId)
+                .containsExactlyInAnyOrder(recipeIds.get(0), recipeIds.get(2));
+        assertThat(filtered.getTotalElements()).isEqualTo(2);
+
+        Page<Recipe> byIngredients = recipeRepository.findByIngredients(
+                List.of("rice", "flour"), Allergens.GLUTEN, firstTwo);
+        assertThat(byIngredients.getContent()).extracting(Recipe::getId)
+                .containsExactlyInAnyOrder(recipeIds.get(1), recipeIds.get(2));
+
+        // Not yet classified: left out until the mask is known, unless nothing is excluded
+        jdbcTemplate.update("UPDATE recipes SET allergen_mask = NULL WHERE id = ?", recipeIds.get(2));
+        assertThat(recipeRepository.searchByKeyword("allergen recipe", Allergens.DAIRY, firstTwo).getContent())
+                .extracting(Recipe::getId).containsExactly(recipeIds.get(1));
+        assertThat(recipeRepository.searchByKeyword("allergen recipe", 0, firstTwo).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void untilTheMasksAreLoadedCandidatesAreCheckedAgainstTheStoredMasks() {
+        preferences("Dairy");
+        jdbcTemplate.update("UPDATE recipes SET allergen_mask = NULL WHERE id = ?", recipeIds.get(2));
+        ReflectionTestUtils.setField(allergens, "ready", false);
+        try {
+            AllergenExclusion pending = allergens.exclusionFor(user.getId());
+            assertThat(pending.isResolved()).isFalse();
+            assertThat(pending.excludes(recipeIds.get(1))).isTrue();
+
+            // The dairy bake by its stored mask, plain rice because it was never classified
+            assertThat(allergens.retain(pending, recipeIds, 3)).containsExactly(recipeIds.get(1));
+            assertThat(ids(recommendationService.getTrendingRecipes(authentication(), 3)))
+                    .containsExactly(recipeIds.get(1));
+        } finally {
+            ReflectionTestUtils.setField(allergens, "ready", true);
+        }
+        assertThat(allergens.exclusionFor(user.getId()).isResolved()).isTrue();
+    }
+
+    @Test
+    void savedPreferencesRecompileTheUsersMask() {
+        assertThat(allergens.exclusionFor(user.getId()).isEmpty()).isTrue();
+
+        preferences(null);
+        jdbcTemplate.update("UPDATE user_preferences SET food_allergies = ? WHERE user_id = ?",
+                "chicken", user.getId());
+        assertThat(allergens.exclusionFor(user.getId()).isEmpty()).isTrue();
+
+        allergens.onUserPreferencesChanged(new UserPreferencesChangedEvent(user.getId()));
+        assertThat(allergens.exclusionFor(user.getId()).getMask()).isEqualTo(Allergens.MEAT);
+    }
+
+    private void preferences(String foodAllergies) {
+        UserPreferences preferences = new UserPreferences();
+        preferences.setUser(user);
+        preferences.setFoodAllergies(foodAllergies);
+        entityManager.persist(preferences);
+        entityManager.flush();
+    }
+
+    private Integer storedMask(Long recipeId) {
+        return jdbcTemplate.queryForObject("SELECT allergen_mask FROM recipes WHERE id = ?", Integer.class, recipeId);
+    }
+
+    private void recipe(int rating, int... ingredientIndexes) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Allergen recipe " + recipeIds.size());
+        recipe.setAverageRating(BigDecimal.valueOf(rating));
+        recipe.setCreatedBy(user);
+        entityManager.persist(recipe);
+        for (int i : ingredientIndexes) {
+            RecipeIngredient recipeIngredient = new RecipeIngredient();
+            recipeIngredient.setRecipe(recipe);
+            recipeIngredient.setIngredient(ingredients.get(i));
+            entityManager.persist(recipeIngredient);
+        }
+        recipeIds.add(recipe.getId());
+    }
+
+    private Authentication authentication() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static List<Long> ids(PageResponse<RecipeDto> recipes) {
+        return recipes.getContent().stream().map(RecipeDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,141 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.PageResponse;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeCard;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.repository.RecipeCardRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-35: Recipe cards are built from the recipes table, overwritten on change, dropped with
+ * their recipe, and serve the list endpoints once synced
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({RecipeCardService.class, RecipeService.class, RecipeDtoAssembler.class})
+@MockBean({FileStorageService.class, RecipeSearchService.class, IngredientMatchService.class,
+        IngredientDictionary.class, RecipeFacetService.class, RecipeImageMigrationService.class,
+        ViewCountService.class, RecentlyViewedIngestService.class, RecipeDetailCache.class, HotListService.class})
+class RecipeCardServiceTest {
+
+    @Autowired
+    private RecipeCardService recipeCardService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeCardRepository recipeCardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The startup sync sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("recipe-card-sync")) {
+                thread.join();
+            }
+        }
+
+        user = new User();
+        user.setUsername("carded");
+        user.setEmail("carded@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        recipe("Three stars", 3);
+        recipe("Five stars", 5);
+        recipe("Four stars", 4);
+        entityManager.flush();
+
+        recipeCardService.resync();
+    }
+
+    @Test
+    void cardsCopyTheRecipesAndTheirCreator() {
+        assertThat(recipeCardService.isReady()).isTrue();
+        assertThat(recipeCardRepository.count()).isEqualTo(3);
+        RecipeCard card = recipeCardRepository.findById(recipeIds.get(1)).orElseThrow();
+        assertThat(card.getTitle()).isEqualTo("Five stars");
+        assertThat(card.getAverageRating()).isEqualByComparingTo("5");
+        assertThat(card.getCreatedById()).isEqualTo(user.getId());
+        assertThat(card.getCreatedByUsername()).isEqualTo("carded");
+    }
+
+    @Test
+    void upsertOverwritesExistingCards() {
+        jdbcTemplate.update("UPDATE recipes SET title = ?, average_rating = ? WHERE id = ?",
+                "Now two stars", new BigDecimal("2.00"), recipeIds.get(1));
+
+        recipeCardRepository.upsertFromRecipes(List.of(recipeIds.get(1)));
+        entityManager.clear();
+
+        RecipeCard card = recipeCardRepository.findById(recipeIds.get(1)).orElseThrow();
+        assertThat(card.getTitle()).isEqualTo("Now two stars");
+        assertThat(card.getAverageRating()).isEqualByComparingTo("2");
+        assertThat(recipeCardRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void resyncDropsCardsOfRecipesDeletedOutsideTheApplication() {
+        jdbcTemplate.update("DELETE FROM recipes WHERE id = ?", recipeIds.get(0));
+
+        recipeCardService.resync();
+
+        assertThat(recipeCardRepository.findById(recipeIds.get(0))).isEmpty();
+        assertThat(recipeCardRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void listsAreServedFromTheCards() {
+        // Only the cards know this title, so it shows where the page was read from
+        jdbcTemplate.update("UPDATE recipe_cards SET title = ? WHERE recipe_id = ?", "Card title", recipeIds.get(2));
+
+        PageResponse<RecipeDto> topRated = recipeService.getTopRatedRecipes(0, 2);
+
+        assertThat(topRated.getContent()).extracting(RecipeDto::getId)
+                .containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(topRated.getContent()).extracting(RecipeDto::getTitle)
+                .containsExactly("Five stars", "Card title");
+        assertThat(topRated.getContent().get(0).getCreatedByUsername()).isEqualTo("carded");
+        assertThat(topRated.getTotalElements()).isEqualTo(3);
+
+        PageResponse<RecipeDto> seek = recipeService.getTopRatedRecipes(null, 2, true);
+        assertThat(seek.getContent()).extracting(RecipeDto::getTitle).containsExactly("Five stars", "Card title");
+        assertThat(seek.getNextCursor()).isNotNull();
+    }
+
+    private void recipe(String title, int rating) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setAverageRating(BigDecimal.valueOf(rating));
+        recipe.setCreatedBy(user);
+        entityManager.persist(recipe);
+        recipeIds.add(recipe.getId());
+    }
+}
@@ -0,0 +1,125 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeCacheStatus;
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.UsernameChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * UT-15: Recipe detail cache - read-through, invalidated on change, live view counts
+ */
+@ExtendWith(MockitoExtension.class)
+class RecipeDetailCacheTest {
+
+    @Mock
+    private ViewCountService viewCountService;
+
+    private RecipeDetailCache cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecipeDetailCache(true, 1_000_000, 60);
+        ReflectionTestUtils.setField(cache, "viewCountService", viewCountService);
+    }
+
+    @Test
+    void secondReadIsServedFromCache() {
+        cache.get(1L, loader(7L, 10));
+        RecipeDto dto = cache.get(1L, loader(7L, 10));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(dto.getTitle()).isEqualTo("Recipe 1");
+
+        RecipeCacheStatus status = cache.getStatus();
+        assertThat(status.getHitCount()).isEqualTo(1);
+        assertThat(status.getMissCount()).isEqualTo(1);
+        assertThat(status.getEntries()).isEqualTo(1);
+        assertThat(status.getWeightBytes()).isPositive();
+    }
+
+    @Test
+    void changesInvalidateOnlyTheAffectedRecipes() {
+        cache.get(1L, loader(7L, 0));
+        cache.get(2L, loader(8L, 0));
+        cache.get(3L, loader(7L, 0));
+
+        cache.onRecipeChanged(new RecipeChangedEvent(1L, RecipeChangedEvent.Type.UPDATED));
+        cache.get(1L, loader(7L, 0));
+        assertThat(loads.get()).isEqualTo(4);
+
+        cache.onRecipeRatingChanged(new RecipeRatingChangedEvent(2L));
+        cache.get(2L, loader(8L, 0));
+        assertThat(loads.get()).isEqualTo(5);
+
+        // Recipes 1 and 3 show user 7's name
+        cache.onUsernameChanged(new UsernameChangedEvent(7L, "renamed"));
+        cache.get(1L, loader(7L, 0));
+        cache.get(2L, loader(8L, 0));
+        cache.get(3L, loader(7L, 0));
+        assertThat(loads.get()).isEqualTo(7);
+    }
+
+    @Test
+    void viewCountFollowsPendingAndFlushedViewsWithoutReloading() {
+        when(viewCountService.pendingViews(1L)).thenReturn(3L);
+        assertThat(cache.get(1L, loader(7L, 10)).getViewCount()).isEqualTo(13);
+
+        // A flush moves the pending views into the database count
+        when(viewCountService.pendingViews(1L)).thenReturn(0L);
+        cache.onViewCountsFlushed(new ViewCountsFlushedEvent(Map.of(1L, 3L, 2L, 5L)));
+
+        assertThat(cache.get(1L, loader(7L, 10)).getViewCount()).isEqualTo(13);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void returnedDtoIsACopy() {
+        cache.get(1L, loader(7L, 10)).setTitle("changed by caller");
+
+        assertThat(cache.get(1L, loader(7L, 10)).getTitle()).isEqualTo("Recipe 1");
+    }
+
+    @Test
+    void missingRecipeIsNotCached() {
+        Function<Long, RecipeDto> missing = id -> {
+            loads.incrementAndGet();
+            throw new ResourceNotFoundException("Recipe", "id", id);
+        };
+
+        assertThatThrownBy(() -> cache.get(9L, missing)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> cache.get(9L, missing)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getStatus().getEntries()).isZero();
+    }
+
+    private Function<Long, RecipeDto> loader(Long createdById, int viewCount) {
+        return id -> {
+            loads.incrementAndGet();
+            RecipeDto dto = new RecipeDto();
+            dto.setId(id);
+            dto.setTitle("Recipe " + id);
+            dto.setCreatedById(createdById);
+            dto.setViewCount(viewCount);
+            return dto;
+        };
+    }
+}
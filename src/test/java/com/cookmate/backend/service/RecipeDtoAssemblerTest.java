@@ -0,0 +1,139 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Ingredient;
+import com.cookmate.backend.entity.Instruction;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-16: Recipe lists are assembled in a constant number of SQL statements
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import(RecipeDtoAssembler.class)
+class RecipeDtoAssemblerTest {
+
+    private static final int RECIPES = 30;
+
+    @Autowired
+    private RecipeDtoAssembler assembler;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName("ingredient " + i);
+            entityManager.persist(ingredient);
+            ingredients.add(ingredient);
+        }
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 3; u++) {
+            User user = new User();
+            user.setUsername("cook" + u);
+            user.setEmail("cook" + u + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+            users.add(user);
+        }
+        for (int r = 0; r < RECIPES; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Recipe " + r);
+            recipe.setCreatedBy(users.get(r % users.size()));
+            entityManager.persist(recipe);
+            for (int i = 0; i < 3; i++) {
+                RecipeIngredient recipeIngredient = new RecipeIngredient();
+                recipeIngredient.setRecipe(recipe);
+                recipeIngredient.setIngredient(ingredients.get((r + i) % ingredients.size()));
+                recipeIngredient.setQuantity(BigDecimal.ONE);
+                entityManager.persist(recipeIngredient);
+            }
+            // Persisted out of order; the DTO lists them by step number
+            for (int step = 2; step >= 1; step--) {
+                Instruction instruction = new Instruction();
+                instruction.setRecipe(recipe);
+                instruction.setStepNumber(step);
+                instruction.setInstruction("Step " + step);
+                entityManager.persist(instruction);
+            }
+            recipeIds.add(recipe.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void statementCountByIdsDoesNotGrowWithListSize() {
+        long few = countStatements(() -> assembler.toDtosByIds(recipeIds.subList(0, 2)));
+        long many = countStatements(() -> assembler.toDtosByIds(recipeIds));
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void statementCountForLoadedRecipesDoesNotGrowWithListSize() {
+        // Plain findAllById leaves every creator as a lazy proxy
+        long few = countStatements(() -> assembler.toDtos(recipeRepository.findAllById(recipeIds.subList(0, 2))));
+        long many = countStatements(() -> assembler.toDtos(recipeRepository.findAllById(recipeIds)));
+
+        assertThat(many).isEqualTo(few);
+        assertThat(many).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void dtosAreCompleteAndInRequestedOrder() {
+        List<Long> requested = List.of(recipeIds.get(4), recipeIds.get(1), -1L, recipeIds.get(2));
+
+        List<RecipeDto> dtos = assembler.toDtosByIds(requested);
+
+        assertThat(dtos).extracting(RecipeDto::getTitle).containsExactly("Recipe 4", "Recipe 1", "Recipe 2");
+        RecipeDto first = dtos.get(0);
+        assertThat(first.getCreatedByUsername()).isEqualTo("cook1");
+        assertThat(first.getIngredients()).extracting("ingredientName")
+                .containsExactlyInAnyOrder("ingredient 4", "ingredient 0", "ingredient 1");
+        assertThat(first.getInstructions()).extracting("stepNumber").containsExactly(1, 2);
+    }
+
+    private long countStatements(Supplier<List<RecipeDto>> assembly) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<RecipeDto> dtos = assembly.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(dtos.stream().map(RecipeDto::getCreatedByUsername).collect(Collectors.toList()))
+                .doesNotContainNull();
+        return statements;
+    }
+}
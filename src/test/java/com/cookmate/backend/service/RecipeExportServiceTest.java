@@ -0,0 +1,121 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.Ingredient;
+import com.cookmate.backend.entity.Instruction;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-21: The NDJSON catalog export writes each recipe once, with its own ingredients and
+ * instructions, across batch boundaries
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "export.fetch-size=2",
+        "export.batch-size=2"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(RecipeExportService.class)
+class RecipeExportServiceTest {
+
+    private static final int RECIPES = 5;
+
+    @Autowired
+    private RecipeExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("exporter");
+        user.setEmail("exporter@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        Ingredient flour = new Ingredient();
+        flour.setName("flour");
+        entityManager.persist(flour);
+
+        for (int r = 0; r < RECIPES; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Export recipe " + r);
+            recipe.setCreatedBy(user);
+            entityManager.persist(recipe);
+            for (int i = 0; i <= r; i++) {
+                RecipeIngredient ingredient = new RecipeIngredient();
+                ingredient.setRecipe(recipe);
+                ingredient.setIngredient(flour);
+                ingredient.setQuantity(BigDecimal.valueOf(i + 1));
+                entityManager.persist(ingredient);
+            }
+            Instruction instruction = new Instruction();
+            instruction.setRecipe(recipe);
+            instruction.setStepNumber(1);
+            instruction.setInstruction("Step of recipe " + r);
+            entityManager.persist(instruction);
+            recipeIds.add(recipe.getId());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void exportsEveryRecipeWithItsChildrenInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportRecipes(null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(RECIPES);
+        assertThat(lines).hasSize(RECIPES);
+        for (int r = 0; r < RECIPES; r++) {
+            JsonNode recipe = objectMapper.readTree(lines[r]);
+            assertThat(recipe.get("id").asLong()).isEqualTo(recipeIds.get(r));
+            assertThat(recipe.get("title").asText()).isEqualTo("Export recipe " + r);
+            assertThat(recipe.get("createdByUsername").asText()).isEqualTo("exporter");
+            assertThat(recipe.get("ingredients")).hasSize(r + 1);
+            assertThat(recipe.get("ingredients").get(0).get("ingredientName").asText()).isEqualTo("flour");
+            assertThat(recipe.get("instructions")).hasSize(1);
+            assertThat(recipe.get("instructions").get(0).get("instruction").asText()).isEqualTo("Step of recipe " + r);
+            assertThat(recipe.get("updatedAt").isTextual()).isTrue();
+        }
+    }
+
+    @Test
+    void updatedSinceExportsOnlyLaterChanges() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportRecipes(LocalDateTime.now().plusMinutes(1), out);
+
+        assertThat(written).isZero();
+        assertThat(out.size()).isZero();
+    }
+}
@@ -0,0 +1,172 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import com.cookmate.backend.search.RecipeFeatureStore;
+import com.cookmate.backend.search.RecipeFeatureStore.Filter;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-26: History and preference recommendations rank from the feature store as they did from
+ * loaded recipes, the store follows rating, view and delete events, and the database ranks the
+ * same recipes while the store is not ready
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        // Keep the hot list segments out of the preference path under test
+        "hot-lists.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        "search.similar-index.enabled=false",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+class RecipeFeatureServiceTest {
+
+    @Autowired
+    private RecipeFeatureService features;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The warm-up sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("recipe-feature-warmup")) {
+                thread.join();
+            }
+        }
+
+        user = new User();
+        user.setUsername("features");
+        user.setEmail("features@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        String[] cuisines = {"Italian", "Mexican", "Italian", "Indian", "Thai", "Mexican"};
+        String[] meals = {"Dinner", "Lunch", "Lunch", "Dinner", "Breakfast", "Breakfast"};
+        for (int r = 0; r < cuisines.length; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Feature recipe " + r);
+            recipe.setCuisineType(cuisines[r]);
+            recipe.setMealType(meals[r]);
+            recipe.setIsVegetarian(r % 2 == 0);
+            recipe.setAverageRating(new BigDecimal("2.00").add(BigDecimal.valueOf(r * 0.5)));
+            recipe.setTotalReviews(r + 1);
+            recipe.setViewCount(10 * (r + 1));
+            recipe.setCreatedBy(user);
+            entityManager.persist(recipe);
+            recipeIds.add(recipe.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        features.rebuild();
+    }
+
+    @Test
+    void historyFillsWithBestRatedRecipesSharingACuisineOrMealType() {
+        // Viewed: 0 (Italian dinner); similar are 2 (Italian) and 3 (dinner), best rated first
+        RecentlyViewed viewed = new RecentlyViewed();
+        viewed.setUser(user);
+        viewed.setRecipe(entityManager.find(Recipe.class, recipeIds.get(0)));
+        entityManager.persist(viewed);
+        entityManager.flush();
+
+        assertThat(ids(recommendationService.getRecommendationsByHistory(authentication(), 5).getContent()))
+                .containsExactly(recipeIds.get(0), recipeIds.get(3), recipeIds.get(2));
+    }
+
+    @Test
+    void preferencesFilterCaseInsensitivelyOnExplicitFlags() {
+        assertThat(ids(recommendationService.getRecommendationsByPreferences(null,
+                Map.of("cuisineType", "mexican"), 5).getContent()))
+                .containsExactly(recipeIds.get(5), recipeIds.get(1));
+        assertThat(ids(recommendationService.getRecommendationsByPreferences(null,
+                Map.of("isVegetarian", false, "mealType", "BREAKFAST"), 5).getContent()))
+                .containsExactly(recipeIds.get(5));
+    }
+
+    @Test
+    void storeFollowsRatingViewAndDeleteEvents() {
+        Long worst = recipeIds.get(0);
+        entityManager.createQuery("UPDATE Recipe r SET r.averageRating = 5 WHERE r.id = :id")
+                .setParameter("id", worst)
+                .executeUpdate();
+        assertThat(features.top(1, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(recipeIds.get(5));
+
+        features.onRatingChanged(new RecipeRatingChangedEvent(worst));
+        assertThat(features.top(1, new Filter(), RecipeFeatureStore.BY_RATING)).containsExactly(worst);
+
+        features.onViewCountsFlushed(new ViewCountsFlushedEvent(Map.of(recipeIds.get(1), 1000L)));
+        assertThat(features.top(1, new Filter(), (rating, views, reviews, createdAt) -> views))
+                .containsExactly(recipeIds.get(1));
+
+        features.onRecipeChanged(new RecipeChangedEvent(worst, RecipeChangedEvent.Type.DELETED));
+        assertThat(features.top(10, new Filter(), RecipeFeatureStore.BY_RATING)).doesNotContain(worst).hasSize(5);
+    }
+
+    @Test
+    void untilTheStoreIsReadyTheDatabaseRanksTheSameRecipes() {
+        List<Filter> filters = List.of(
+                new Filter(),
+                new Filter().cuisineTypes(List.of(" mexican ")).flag(RecipeFeatureStore.VEGETARIAN, false),
+                Filter.sharingCuisineOrMealType(List.of("Italian"), List.of("dinner")).excluding(List.of(recipeIds.get(0))),
+                new Filter().mealTypes(List.of()));
+        List<List<Long>> fromStore = new ArrayList<>();
+        for (Filter filter : filters) {
+            fromStore.add(features.top(4, filter, RecipeFeatureStore.BY_RATING));
+        }
+
+        ReflectionTestUtils.setField(features, "ready", false);
+        try {
+            for (int f = 0; f < filters.size(); f++) {
+                assertThat(features.top(4, filters.get(f), RecipeFeatureStore.BY_RATING)).isEqualTo(fromStore.get(f));
+            }
+        } finally {
+            ReflectionTestUtils.setField(features, "ready", true);
+        }
+        assertThat(fromStore.get(0)).hasSize(4);
+        assertThat(fromStore.get(2)).containsExactly(recipeIds.get(3), recipeIds.get(2));
+    }
+
+    private Authentication authentication() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static List<Long> ids(List<RecipeDto> recipes) {
+        return recipes.stream().map(RecipeDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,120 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * UT-33: Legacy image blobs are copied to the file store chunk by chunk, image_url points at
+ * the stored file and the blob columns are cleared
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "images.migration.auto-start=false",
+        "images.migration.batch-size=1",
+        "images.migration.batch-pause-ms=0",
+        "images.migration.chunk-bytes=1000"
+})
+@Import(RecipeImageMigrationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeImageMigrationServiceTest {
+
+    @Autowired
+    private RecipeImageMigrationService migrationService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    private final Map<String, byte[]> storedFiles = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // The legacy columns are no longer mapped on Recipe
+        jdbcTemplate.execute("ALTER TABLE recipes ADD COLUMN IF NOT EXISTS image_data BLOB");
+        jdbcTemplate.execute("ALTER TABLE recipes ADD COLUMN IF NOT EXISTS image_filename VARCHAR(255)");
+        jdbcTemplate.execute("ALTER TABLE recipes ADD COLUMN IF NOT EXISTS image_content_type VARCHAR(100)");
+        when(fileStorageService.storeFile(any(InputStream.class), anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(1);
+            try (InputStream in = invocation.getArgument(0)) {
+                storedFiles.put(name, in.readAllBytes());
+            }
+            return name;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void blobsAreMovedToTheFileStoreInChunks() throws InterruptedException {
+        byte[] large = new byte[4500];
+        new Random(7).nextBytes(large);
+        byte[] small = {1, 2, 3};
+        Long largeId = legacyRecipe(large, "my photo.jpg", "image/jpeg");
+        Long smallId = legacyRecipe(small, null, "image/png");
+
+        assertThat(migrationService.start()).isTrue();
+        awaitFinished();
+
+        assertThat(storedFiles.get("recipe-" + largeId + "-my_photo.jpg")).isEqualTo(large);
+        assertThat(storedFiles.get("recipe-" + smallId + "-image.png")).isEqualTo(small);
+        assertThat(imageUrl(largeId)).isEqualTo("/uploads/recipe-" + largeId + "-my_photo.jpg");
+        assertThat(imageUrl(smallId)).isEqualTo("/uploads/recipe-" + smallId + "-image.png");
+        assertThat(storedFiles).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipes WHERE image_data IS NOT NULL " +
+                "OR image_filename IS NOT NULL OR image_content_type IS NOT NULL", Integer.class)).isZero();
+        assertThat(migrationService.getStatus().getMigrated()).isEqualTo(2);
+        assertThat(migrationService.getStatus().getFailed()).isZero();
+        assertThat(migrationService.getStatus().getBytesMigrated()).isEqualTo((long) (large.length + small.length));
+    }
+
+    private Long legacyRecipe(byte[] data, String filename, String contentType) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Legacy image recipe");
+        Long id = recipeRepository.save(recipe).getId();
+        jdbcTemplate.update("UPDATE recipes SET image_data = ?, image_filename = ?, image_content_type = ? " +
+                "WHERE id = ?", data, filename, contentType, id);
+        return id;
+    }
+
+    private String imageUrl(Long recipeId) {
+        return jdbcTemplate.queryForObject("SELECT image_url FROM recipes WHERE id = ?", String.class, recipeId);
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (migrationService.getStatus().getRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(migrationService.getStatus().getRunning()).isFalse();
+    }
+}
@@ -0,0 +1,181 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeImportFinishedEvent;
+import com.cookmate.backend.event.RecipesImportedEvent;
+import com.cookmate.backend.importer.ImportFormat;
+import com.cookmate.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-22: Bulk recipe import writes valid rows in chunks, resolves each ingredient name once
+ * and reports rejected rows without losing their neighbours
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recipeimport;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "recipe-import.chunk-size=3",
+        "recipe-import.parallelism=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({RecipeImportService.class, RecipeBulkWriter.class, IngredientDictionary.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class RecipeImportServiceTest {
+
+    @Autowired
+    private RecipeImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @TempDir
+    Path tempDir;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("importer");
+        user.setEmail("importer@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+        jdbcTemplate.update("INSERT INTO ingredients (name) VALUES ('Salt')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM instructions");
+        jdbcTemplate.update("DELETE FROM recipe_ingredients");
+        jdbcTemplate.update("DELETE FROM recipes");
+        jdbcTemplate.update("DELETE FROM ingredients");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importsNdjsonAndCollectsBadRows() throws Exception {
+        String longTitle = "x".repeat(250);
+        Path file = write("recipes.ndjson",
+                recipe("Pancakes", "Flour", "salt"),
+                "{not json",
+                recipe("Bread", "flour ", "Yeast"),
+                "",
+                "{\"title\":\"No servings\"}",
+                recipe(longTitle, "flour", "Sugar"),
+                recipe("Porridge", "Oats", "SALT"));
+
+        long imported = importService.importFile(ImportFormat.NDJSON, file, userId);
+
+        assertThat(imported).isEqualTo(3);
+        assertThat(titles()).containsExactly("Bread", "Pancakes", "Porridge");
+        // Salt existed; flour is created once for all its spellings
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM ingredients ORDER BY name", String.class))
+                .containsExactly("Flour", "Oats", "Salt", "Yeast");
+        assertThat(count("SELECT COUNT(*) FROM recipe_ingredients")).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList("SELECT i.instruction FROM instructions i JOIN recipes r " +
+                "ON r.id = i.recipe_id WHERE r.title = 'Bread' ORDER BY i.step_number", String.class))
+                .containsExactly("Mix Bread", "Bake Bread");
+        assertThat(count("SELECT COUNT(*) FROM recipes WHERE total_time = 30 AND created_by = " + userId))
+                .isEqualTo(3);
+
+        assertThat(importService.getErrors())
+                .extracting(error -> error.getRowNumber())
+                .containsExactly(2L, 5L, 6L);
+        assertThat(importService.getErrors().get(1).getMessage()).isEqualTo("Servings is required");
+        assertThat(importService.getStatus().getFailed()).isEqualTo(3);
+        assertThat(importService.getStatus().getRowsRead()).isEqualTo(6);
+        assertThat(importService.getStatus().getRunning()).isFalse();
+
+        List<Long> publishedIds = events.stream(RecipesImportedEvent.class)
+                .flatMap(event -> event.getRecipeIds().stream())
+                .collect(Collectors.toList());
+        assertThat(publishedIds).containsExactlyInAnyOrderElementsOf(
+                jdbcTemplate.queryForList("SELECT id FROM recipes", Long.class));
+        assertThat(events.stream(RecipeImportFinishedEvent.class))
+                .extracting(RecipeImportFinishedEvent::getImported)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void importsCsvWithMultiLineCellsAndExactIngredientNames() throws Exception {
+        Long saltId = jdbcTemplate.queryForObject("SELECT id FROM ingredients WHERE name = 'Salt'", Long.class);
+        Path file = write("recipes.csv",
+                "Title,servings,prepTime,isVegan,ingredients,instructions",
+                "\"Soup, hot\",2,10,yes,\"Water|1|l|\nSlat|0.5|tsp|to taste\",\"Boil \"\"hard\"\"\nServe\"",
+                "Salad,1,5,maybe,Lettuce,Toss",
+                "Toast,1,,0,Bread|2|slices,Toast");
+
+        long imported = importService.importFile(ImportFormat.CSV, file, userId);
+
+        assertThat(imported).isEqualTo(2);
+        assertThat(titles()).containsExactly("Soup, hot", "Toast");
+        assertThat(count("SELECT COUNT(*) FROM recipes WHERE title = 'Soup, hot' AND is_vegan = TRUE")).isEqualTo(1);
+        // One letter off is a different ingredient, not a misspelling of Salt
+        assertThat(count("SELECT COUNT(*) FROM recipe_ingredients WHERE ingredient_id = " + saltId)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM ingredients ORDER BY name", String.class))
+                .containsExactly("Bread", "Salt", "Slat", "Water");
+        assertThat(jdbcTemplate.queryForList("SELECT instruction FROM instructions ORDER BY id", String.class))
+                .containsExactly("Boil \"hard\"", "Serve", "Toast");
+        assertThat(importService.getErrors()).hasSize(1);
+        assertThat(importService.getErrors().get(0).getRowNumber()).isEqualTo(2);
+        assertThat(importService.getErrors().get(0).getMessage()).contains("isvegan");
+    }
+
+    private String recipe(String title, String... ingredients) {
+        String items = Arrays.stream(ingredients)
+                .map(name -> "{\"ingredientName\":\"" + name + "\",\"quantity\":1,\"unit\":\"cup\"}")
+                .collect(Collectors.joining(","));
+        return "{\"title\":\"" + title + "\",\"servings\":2,\"prepTime\":10,\"cookTime\":20,\"id\":99," +
+                "\"ingredients\":[" + items + "]," +
+                "\"instructions\":[{\"instruction\":\"Mix " + title + "\"},{\"instruction\":\"Bake " + title + "\"}]}";
+    }
+
+    private Path write(String name, String... lines) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private List<String> titles() {
+        return jdbcTemplate.queryForList("SELECT title FROM recipes ORDER BY title", String.class);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
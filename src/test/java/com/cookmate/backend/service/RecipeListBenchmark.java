@@ -0,0 +1,72 @@
+package com.cookmate.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Throughput of the recipe list endpoints served from the recipes table (before) and from the
+ * recipe_cards read model (after), measured at the service layer against the configured MySQL
+ * database. Read-only: it lists whatever recipes the database holds, so load a realistic
+ * catalog first (e.g. db/insert_recipes_comprehensive.sql, ideally with image blobs).
+ * Not part of the regular build:
+ *
+ *   mvn test -Dtest=RecipeListBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecipeListBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+    private static final int PAGES = 10;
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 10_000;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeCardService recipeCardService;
+
+    @Test
+    void compareRecipesTableWithRecipeCards() {
+        recipeCardService.resync();
+
+        Map<String, IntConsumer> endpoints = new LinkedHashMap<>();
+        endpoints.put("all (createdAt desc)", page -> recipeService.getAllRecipes(page, PAGE_SIZE, "createdAt", "desc"));
+        endpoints.put("top-rated", page -> recipeService.getTopRatedRecipes(page, PAGE_SIZE));
+        endpoints.put("most-viewed", page -> recipeService.getMostViewedRecipes(page, PAGE_SIZE));
+        endpoints.put("recent", page -> recipeService.getRecentRecipes(page, PAGE_SIZE));
+        endpoints.put("top-rated (cursor)", page -> recipeService.getTopRatedRecipes(null, PAGE_SIZE, false));
+
+        endpoints.forEach((name, endpoint) -> {
+            double before = throughput(endpoint, false);
+            double after = throughput(endpoint, true);
+            System.out.printf(Locale.ROOT, "%-22s recipes table=%8.1f ops/s  recipe_cards=%8.1f ops/s  speedup=%.1fx%n",
+                    name, before, after, after / Math.max(0.001, before));
+        });
+    }
+
+    private double throughput(IntConsumer endpoint, boolean fromCards) {
+        ReflectionTestUtils.setField(recipeCardService, "ready", fromCards);
+        run(endpoint, WARMUP_MILLIS);
+        return run(endpoint, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+    }
+
+    private static long run(IntConsumer endpoint, long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        long ops = 0;
+        while (System.currentTimeMillis() < deadline) {
+            endpoint.accept((int) (ops % PAGES));
+            ops++;
+        }
+        return ops;
+    }
+}
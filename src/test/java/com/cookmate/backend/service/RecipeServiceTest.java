@@ -1,27 +1,39 @@
 package com.cookmate.backend.service;
 
+import com.cookmate.backend.dto.PageResponse;
 import com.cookmate.backend.dto.RecipeDto;
 import com.cookmate.backend.entity.Ingredient;
 import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeCard;
 import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.exception.BadRequestException;
+import com.cookmate.backend.repository.RecipeCardRepository;
 import com.cookmate.backend.repository.RecipeRepository;
+import com.cookmate.backend.repository.RecipeSortKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
  * UT-04: Filter by ingredient and cuisine
  * UT-05: View recipe details
+ * UT-11: Cursor pagination of recipe lists
+ * UT-12: Recipe lists served from the recipe card read model
  */
 @ExtendWith(MockitoExtension.class)
 class RecipeServiceTest {
@@ -29,6 +41,15 @@ class RecipeServiceTest {
     @Mock
     private RecipeRepository recipeRepository;
 
+    @Mock
+    private RecipeCardRepository recipeCardRepository;
+
+    @Mock
+    private RecipeCardService recipeCardService;
+
+    @Spy
+    private RecipeDtoAssembler recipeDtoAssembler;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -100,4 +121,78 @@ class RecipeServiceTest {
         assertThat(result).isEmpty();
         verify(recipeRepository, times(1)).findById(9999L);
     }
+
+    @Test
+    void cursorPageShouldReturnNextCursorThatSeeksPastLastRow() {
+        Recipe second = new Recipe();
+        second.setId(2L);
+        second.setAverageRating(new BigDecimal("4.50"));
+        Recipe third = new Recipe();
+        third.setId(3L);
+        third.setAverageRating(new BigDecimal("4.00"));
+
+        when(recipeRepository.findPageAfter(eq(RecipeSortKey.AVERAGE_RATING), eq(false), isNull(),
+                isNull(), isNull(), eq(3)))
+                .thenReturn(new ArrayList<>(List.of(testRecipe, second, third)));
+
+        PageResponse<RecipeDto> firstPage = recipeService.getTopRatedRecipes("", 2, false);
+
+        assertThat(firstPage.getContent()).extracting(RecipeDto::getId).containsExactly(1L, 2L);
+        assertThat(firstPage.getLast()).isFalse();
+        assertThat(firstPage.getTotalElements()).isNull();
+        assertThat(firstPage.getNextCursor()).isNotBlank();
+        verify(recipeRepository, never()).count();
+
+        when(recipeRepository.findPageAfter(eq(RecipeSortKey.AVERAGE_RATING), eq(false), isNull(),
+                eq(new BigDecimal("4.50")), eq(2L), eq(3)))
+                .thenReturn(new ArrayList<>(List.of(third)));
+        when(recipeRepository.count()).thenReturn(3L);
+
+        PageResponse<RecipeDto> secondPage = recipeService.getTopRatedRecipes(firstPage.getNextCursor(), 2, true);
+
+        assertThat(secondPage.getContent()).extracting(RecipeDto::getId).containsExactly(3L);
+        assertThat(secondPage.getLast()).isTrue();
+        assertThat(secondPage.getNextCursor()).isNull();
+        assertThat(secondPage.getTotalElements()).isEqualTo(3L);
+        assertThat(secondPage.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void cursorFromAnotherSortOrderShouldBeRejected() {
+        testRecipe.setViewCount(10);
+        when(recipeRepository.findPageAfter(any(), eq(false), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(new ArrayList<>(List.of(testRecipe, new Recipe())));
+
+        String viewCursor = recipeService.getMostViewedRecipes("", 1, false).getNextCursor();
+
+        assertThatThrownBy(() -> recipeService.getTopRatedRecipes(viewCursor, 1, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> recipeService.getTopRatedRecipes("not-a-cursor", 1, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void listPagesShouldReadRecipeCardsOnceSynced() {
+        RecipeCard card = new RecipeCard();
+        card.setId(7L);
+        card.setTitle("Pad Thai");
+        card.setViewCount(120);
+        card.setCreatedById(3L);
+        card.setCreatedByUsername("chef");
+        RecipeCard next = new RecipeCard();
+        next.setId(5L);
+        next.setViewCount(80);
+
+        when(recipeCardService.isReady()).thenReturn(true);
+        when(recipeCardRepository.findPageAfter(eq(RecipeSortKey.VIEW_COUNT), eq(false), isNull(),
+                isNull(), isNull(), eq(2)))
+                .thenReturn(new ArrayList<>(List.of(card, next)));
+
+        PageResponse<RecipeDto> page = recipeService.getMostViewedRecipes("", 1, false);
+
+        assertThat(page.getContent()).extracting(RecipeDto::getTitle).containsExactly("Pad Thai");
+        assertThat(page.getContent().get(0).getCreatedByUsername()).isEqualTo("chef");
+        assertThat(page.getNextCursor()).isNotBlank();
+        verify(recipeRepository, never()).findPageAfter(any(), anyBoolean(), any(), any(), any(), anyInt());
+    }
 }
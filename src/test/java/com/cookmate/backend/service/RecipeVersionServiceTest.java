@@ -0,0 +1,107 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.Review;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeRatingChangedEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-20: Recipe versions follow what the responses show, without loading entities
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(RecipeVersionService.class)
+class RecipeVersionServiceTest {
+
+    @Autowired
+    private RecipeVersionService versions;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("versioned");
+        user.setEmail("versioned@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        recipe = new Recipe();
+        recipe.setTitle("Versioned recipe");
+        recipe.setCreatedBy(user);
+        entityManager.persist(recipe);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void unknownRecipeHasNoVersion() {
+        assertThat(versions.forRecipe(-1L)).isEmpty();
+        assertThat(versions.forRecipeReviews(-1L)).isEmpty();
+    }
+
+    @Test
+    void recipeVersionIsStableAndIgnoresViewCounts() {
+        String etag = versions.forRecipe(recipe.getId()).orElseThrow().getEtag();
+        assertThat(versions.forRecipe(recipe.getId()).orElseThrow().getLastModified()).isNotNull();
+
+        entityManager.createQuery("UPDATE Recipe r SET r.viewCount = r.viewCount + 5 WHERE r.id = :id")
+                .setParameter("id", recipe.getId())
+                .executeUpdate();
+
+        assertThat(versions.forRecipe(recipe.getId()).orElseThrow().getEtag()).isEqualTo(etag);
+    }
+
+    @Test
+    void ratingAndReviewsChangeTheirVersions() {
+        String recipeEtag = versions.forRecipe(recipe.getId()).orElseThrow().getEtag();
+        String reviewsEtag = versions.forRecipeReviews(recipe.getId()).orElseThrow().getEtag();
+
+        Recipe managed = entityManager.find(Recipe.class, recipe.getId());
+        Review review = new Review();
+        review.setRecipe(managed);
+        review.setUser(entityManager.find(User.class, user.getId()));
+        review.setRating(5);
+        entityManager.persist(review);
+        managed.setAverageRating(new BigDecimal("5.00"));
+        managed.setTotalReviews(1);
+        entityManager.flush();
+
+        assertThat(versions.forRecipe(recipe.getId()).orElseThrow().getEtag()).isNotEqualTo(recipeEtag);
+        assertThat(versions.forRecipeReviews(recipe.getId()).orElseThrow().getEtag()).isNotEqualTo(reviewsEtag);
+    }
+
+    @Test
+    void listVersionsMoveWithEvents() {
+        String lists = versions.forRecipeLists().getEtag();
+        String viewed = versions.forViewRankedLists().getEtag();
+
+        versions.onViewCountsFlushed(new ViewCountsFlushedEvent(Map.of(recipe.getId(), 3L)));
+
+        assertThat(versions.forRecipeLists().getEtag()).isEqualTo(lists);
+        assertThat(versions.forViewRankedLists().getEtag()).isNotEqualTo(viewed);
+
+        versions.onRatingChanged(new RecipeRatingChangedEvent(recipe.getId()));
+
+        assertThat(versions.forRecipeLists().getEtag()).isNotEqualTo(lists);
+    }
+}
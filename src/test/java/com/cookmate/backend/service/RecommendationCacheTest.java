@@ -0,0 +1,214 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeEngagementEvent;
+import com.cookmate.backend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-30: Stored recommendation lists are served fresh, served stale while queued for
+ * recomputation, recomputed in the request past max-stale, and regenerated for active users by
+ * the instance holding the job
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        "recommendations.feature-store.enabled=false",
+        "search.similar-index.enabled=false",
+        // Refreshes run inline in the test's transaction, only when the test asks
+        "recommendations.cache.parallelism=0",
+        "recommendations.cache.drain-interval-ms=3600000",
+        "recommendations.cache.regenerate-interval-ms=3600000",
+        "recommendations.cache.ttl-ms=1800000",
+        "recommendations.cache.max-stale-ms=86400000",
+        "allergens.enabled=false"
+})
+@Import({RecommendationServicesConfig.class, RecommendationRefresher.class})
+class RecommendationCacheTest {
+
+    private static final String HISTORY_2 = RecommendationStore.listKey(RecommendationService.HISTORY, 2);
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private RecommendationStore store;
+
+    @Autowired
+    private RecommendationRefresher refresher;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int u = 0; u < 2; u++) {
+            User user = new User();
+            user.setUsername("cached" + u);
+            user.setEmail("cached" + u + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+            users.add(user);
+        }
+        // Without history, the history list is the best rated recipes: 0 then 1
+        for (int r = 0; r < 4; r++) {
+            recipe(4 - r);
+        }
+        entityManager.flush();
+        store.takePending(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void computedListsAreQueuedAndWrittenByTheRefresher() {
+        assertThat(history(users.get(0), 2)).containsExactly(recipeIds.get(0), recipeIds.get(1));
+        assertThat(store.read(users.get(0).getId(), HISTORY_2)).isNull();
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        assertThat(refresher.drainPending()).isEqualTo(1);
+
+        assertThat(store.read(users.get(0).getId(), HISTORY_2).getRecipeIds())
+                .containsExactly(recipeIds.get(0), recipeIds.get(1));
+    }
+
+    @Test
+    void freshListsAreServedAsStoredAndStaleOnesRevalidated() {
+        refresher.refresh(users.get(0).getId(), HISTORY_2, null);
+        recipe(5);
+        entityManager.flush();
+
+        assertThat(history(users.get(0), 2)).containsExactly(recipeIds.get(0), recipeIds.get(1));
+        assertThat(store.pendingCount()).isZero();
+
+        age(users.get(0), 2);
+        assertThat(history(users.get(0), 2)).containsExactly(recipeIds.get(0), recipeIds.get(1));
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        refresher.drainPending();
+        assertThat(history(users.get(0), 2)).containsExactly(recipeIds.get(4), recipeIds.get(0));
+    }
+
+    @Test
+    void listsPastMaxStaleAreRecomputedInTheRequest() {
+        refresher.refresh(users.get(0).getId(), HISTORY_2, null);
+        recipe(5);
+        entityManager.flush();
+        age(users.get(0), 48);
+
+        assertThat(history(users.get(0), 2)).containsExactly(recipeIds.get(4), recipeIds.get(0));
+    }
+
+    @Test
+    void engagementQueuesEveryStoredListOfTheUser() {
+        refresher.refresh(users.get(0).getId(), HISTORY_2, null);
+        refresher.refresh(users.get(0).getId(), RecommendationStore.listKey(RecommendationService.PERSONALIZED, 3), null);
+
+        refresher.onEngagement(new RecipeEngagementEvent(recipeIds.get(1), users.get(0).getId(),
+                RecipeEngagementEvent.Type.FAVORITED));
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        assertThat(refresher.drainPending()).isEqualTo(2);
+    }
+
+    @Test
+    void regenerationComputesActiveUsersListsAndDeletesExpiredOnes() {
+        RecentlyViewed view = new RecentlyViewed();
+        view.setUser(users.get(0));
+        view.setRecipe(entityManager.getReference(Recipe.class, recipeIds.get(3)));
+        entityManager.persist(view);
+        refresher.refresh(users.get(1).getId(), HISTORY_2, null);
+        entityManager.flush();
+        age(users.get(1), 48);
+
+        // The active user gets each default list; the inactive user's expired list goes
+        assertThat(refresher.regenerateActiveUsers()).isEqualTo(3);
+
+        String history = RecommendationStore.listKey(RecommendationService.HISTORY, 10);
+        assertThat(store.read(users.get(0).getId(), history).getRecipeIds()).startsWith(recipeIds.get(3));
+        assertThat(store.read(users.get(1).getId(), HISTORY_2)).isNull();
+        assertThat(refresher.getStatus().getLastPrunedRows()).isEqualTo(2);
+    }
+
+    @Test
+    void regenerationIsLeftToTheInstanceHoldingTheJob() {
+        RecentlyViewed view = new RecentlyViewed();
+        view.setUser(users.get(0));
+        view.setRecipe(entityManager.getReference(Recipe.class, recipeIds.get(3)));
+        entityManager.persist(view);
+        entityManager.flush();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO job_locks (name, owner, locked_until) VALUES ('recommendation-regeneration', " +
+                        "'other-instance', ?)", Timestamp.valueOf(LocalDateTime.now().plusHours(1))));
+        try {
+            refresher.scheduledRegeneration();
+            assertThat(refresher.regenerateActiveUsers()).isZero();
+
+            assertThat(store.listsOf(List.of(users.get(0).getId()))).isEmpty();
+        } finally {
+            transaction.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM job_locks"));
+        }
+    }
+
+    private List<Long> history(User user, int limit) {
+        return recommendationService.getRecommendationsByHistory(authentication(user), limit).getContent().stream()
+                .map(RecipeDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    // Move the user's lists back by this many hours
+    private void age(User user, int hours) {
+        jdbcTemplate.update("UPDATE recommendations SET created_at = ? WHERE user_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(hours)), user.getId());
+    }
+
+    private void recipe(int rating) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Cached recipe " + recipeIds.size());
+        recipe.setAverageRating(BigDecimal.valueOf(rating));
+        recipe.setCreatedBy(users.get(0));
+        entityManager.persist(recipe);
+        recipeIds.add(recipe.getId());
+    }
+
+    private static Authentication authentication(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,15 @@
+package com.cookmate.backend.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * RecommendationService with every collaborator it draws candidates from, for the JPA tests of
+ * any of them. A new collaborator is added here rather than to each test's import list.
+ */
+@TestConfiguration
+@Import({RecommendationService.class, RecommendationStore.class, RecipeDtoAssembler.class, RecipeCardService.class,
+        RecipeFeatureService.class, HotListService.class, TrendingService.class, ItemSimilarityService.class,
+        SimilarRecipeService.class, RecipeAllergenService.class, JobLockService.class})
+class RecommendationServicesConfig {
+}
@@ -0,0 +1,139 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Ingredient;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.RecipeIngredient;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeIngredientsChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-29: Similar recipes are ranked by shared ingredients from the MinHash index, follow
+ * ingredient and delete events, and fall back to the cuisine or meal type while it is missing
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.enabled=false",
+        "trending.enabled=false",
+        "also-liked.enabled=false",
+        // The cuisine fallback scans the test's rows rather than a store built before them
+        "recommendations.feature-store.enabled=false",
+        // One MinHash per band, so any shared ingredient can make a candidate
+        "search.similar-index.bands=64",
+        "search.similar-index.rows-per-band=1",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+class SimilarRecipeServiceTest {
+
+    @Autowired
+    private SimilarRecipeService similarRecipes;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+    private final List<Ingredient> ingredients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The warm-up sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("similar-index-warmup")) {
+                thread.join();
+            }
+        }
+
+        User user = new User();
+        user.setUsername("similar");
+        user.setEmail("similar@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        for (String name : List.of("salt", "oil", "saffron", "rice", "basil", "pasta")) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            entityManager.persist(ingredient);
+            ingredients.add(ingredient);
+        }
+
+        // Recipe 0 is a paella; 1 shares its saffron and rice, 2 only salt and oil, 3 nothing
+        recipe(user, "Spanish", 0, 1, 2, 3);
+        recipe(user, "Spanish", 0, 2, 3);
+        recipe(user, "Italian", 0, 1, 4, 5);
+        recipe(user, "Italian", 4);
+        recipe(user, "Spanish");
+        entityManager.flush();
+        entityManager.clear();
+
+        similarRecipes.rebuild();
+    }
+
+    @Test
+    void similarRecipesShareTheMostDistinctiveIngredients() {
+        assertThat(similarRecipes.similar(recipeIds.get(0), 10)).containsExactly(recipeIds.get(1), recipeIds.get(2));
+        assertThat(similarRecipes.similar(recipeIds.get(3), 10)).containsExactly(recipeIds.get(2));
+
+        List<Long> ids = recommendationService.getSimilarRecipes(recipeIds.get(0), null, 1).getContent().stream()
+                .map(RecipeDto::getId)
+                .collect(Collectors.toList());
+        assertThat(ids).containsExactly(recipeIds.get(1));
+    }
+
+    @Test
+    void ingredientAndDeleteEventsUpdateTheIndex() {
+        similarRecipes.onRecipeIngredientsChanged(new RecipeIngredientsChangedEvent(recipeIds.get(3),
+                Map.of(ingredients.get(2).getId(), "saffron", ingredients.get(3).getId(), "rice")));
+        similarRecipes.onRecipeChanged(new RecipeChangedEvent(recipeIds.get(1), RecipeChangedEvent.Type.DELETED));
+
+        assertThat(similarRecipes.similar(recipeIds.get(0), 10)).containsExactly(recipeIds.get(3), recipeIds.get(2));
+        assertThat(similarRecipes.similar(recipeIds.get(1), 10)).isNull();
+    }
+
+    @Test
+    void recipesWithoutIngredientsFallBackToTheirCuisineOrMealType() {
+        assertThat(similarRecipes.similar(recipeIds.get(4), 10)).isNull();
+
+        List<Long> ids = recommendationService.getSimilarRecipes(recipeIds.get(4), null, 10).getContent().stream()
+                .map(RecipeDto::getId)
+                .collect(Collectors.toList());
+        assertThat(ids).containsExactlyInAnyOrder(recipeIds.get(0), recipeIds.get(1));
+    }
+
+    private void recipe(User user, String cuisineType, int... ingredientIndexes) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Similar recipe " + recipeIds.size());
+        recipe.setCuisineType(cuisineType);
+        recipe.setMealType(cuisineType.equals("Spanish") ? "Dinner" : "Lunch");
+        recipe.setAverageRating(BigDecimal.ONE);
+        recipe.setCreatedBy(user);
+        entityManager.persist(recipe);
+        for (int i : ingredientIndexes) {
+            RecipeIngredient recipeIngredient = new RecipeIngredient();
+            recipeIngredient.setRecipe(recipe);
+            recipeIngredient.setIngredient(ingredients.get(i));
+            entityManager.persist(recipeIngredient);
+        }
+        recipeIds.add(recipe.getId());
+    }
+}
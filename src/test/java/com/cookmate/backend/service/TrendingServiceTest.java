@@ -0,0 +1,160 @@
+package com.cookmate.backend.service;
+
+import com.cookmate.backend.dto.RecipeDto;
+import com.cookmate.backend.entity.Favorite;
+import com.cookmate.backend.entity.RecentlyViewed;
+import com.cookmate.backend.entity.Recipe;
+import com.cookmate.backend.entity.Review;
+import com.cookmate.backend.entity.User;
+import com.cookmate.backend.event.RecipeChangedEvent;
+import com.cookmate.backend.event.RecipeEngagementEvent;
+import com.cookmate.backend.event.ViewCountsFlushedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UT-27: Trending scores are replayed from recent favorites, reviews and views, again on a
+ * schedule for other instances' engagement, follow live engagement events, and are topped up
+ * with the best rated recipes
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "hot-lists.enabled=false",
+        "trending.half-life-hours=24",
+        "also-liked.enabled=false",
+        "search.similar-index.enabled=false",
+        "recommendations.cache.enabled=false",
+        "allergens.enabled=false"
+})
+@Import(RecommendationServicesConfig.class)
+class TrendingServiceTest {
+
+    @Autowired
+    private TrendingService trending;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The startup replay sees none of this test's uncommitted rows; let it finish first
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("trending-replay")) {
+                thread.join();
+            }
+        }
+
+        User first = user("trending1");
+        User second = user("trending2");
+        for (int r = 0; r < 4; r++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Trending recipe " + r);
+            recipe.setAverageRating(new BigDecimal("1.00").add(BigDecimal.valueOf(r)));
+            recipe.setCreatedBy(first);
+            entityManager.persist(recipe);
+            recipeIds.add(recipe.getId());
+        }
+
+        // Recipe 0 is favorited (5), recipe 1 reviewed (3), recipe 2 viewed by two users (1 each);
+        // recipe 3's favorite is older than a replay reads
+        favorite(first, 0);
+        Review review = new Review();
+        review.setUser(first);
+        review.setRecipe(entityManager.find(Recipe.class, recipeIds.get(1)));
+        review.setRating(4);
+        entityManager.persist(review);
+        for (User viewer : List.of(first, second)) {
+            RecentlyViewed viewed = new RecentlyViewed();
+            viewed.setUser(viewer);
+            viewed.setRecipe(entityManager.find(Recipe.class, recipeIds.get(2)));
+            entityManager.persist(viewed);
+        }
+        Favorite old = favorite(second, 3);
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE favorites SET created_at = ? WHERE id = ?")
+                .setParameter(1, LocalDateTime.now().minusDays(30))
+                .setParameter(2, old.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        trending.replay();
+    }
+
+    @Test
+    void replayWeighsRecentHistory() {
+        assertThat(trending.topIds(10)).containsExactly(recipeIds.get(0), recipeIds.get(1), recipeIds.get(2));
+        assertThat(trending.getStatus().getReplayedEvents()).isEqualTo(4);
+        assertThat(trending.getStatus().getTracked()).isEqualTo(3);
+    }
+
+    @Test
+    void liveEventsMoveRecipesUpAndDeletesRemoveThem() {
+        trending.onViewCountsFlushed(new ViewCountsFlushedEvent(Map.of(recipeIds.get(2), 10L, recipeIds.get(3), 1L)));
+        trending.onEngagement(new RecipeEngagementEvent(recipeIds.get(1), null, RecipeEngagementEvent.Type.FAVORITED));
+
+        assertThat(trending.topIds(10))
+                .containsExactly(recipeIds.get(2), recipeIds.get(1), recipeIds.get(0), recipeIds.get(3));
+
+        trending.onRecipeChanged(new RecipeChangedEvent(recipeIds.get(2), RecipeChangedEvent.Type.DELETED));
+        assertThat(trending.topIds(10)).doesNotContain(recipeIds.get(2));
+    }
+
+    @Test
+    void scheduledReplayPicksUpEngagementOtherInstancesRecorded() {
+        // Favorites written elsewhere raise no event here
+        favorite(user("trending3"), 2);
+        favorite(user("trending4"), 2);
+        entityManager.flush();
+        assertThat(trending.topIds(1)).containsExactly(recipeIds.get(0));
+
+        trending.scheduledReplay();
+
+        assertThat(trending.topIds(10)).containsExactly(recipeIds.get(2), recipeIds.get(0), recipeIds.get(1));
+    }
+
+    @Test
+    void trendingRecommendationsAreToppedUpWithTopRated() {
+        List<Long> ids = recommendationService.getTrendingRecipes(null, 4).getContent().stream()
+                .map(RecipeDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(ids).containsExactly(recipeIds.get(0), recipeIds.get(1), recipeIds.get(2), recipeIds.get(3));
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Favorite favorite(User user, int recipe) {
+        Favorite favorite = new Favorite();
+        favorite.setUser(user);
+        favorite.setRecipe(entityManager.find(Recipe.class, recipeIds.get(recipe)));
+        entityManager.persist(favorite);
+        return favorite;
+    }
+}
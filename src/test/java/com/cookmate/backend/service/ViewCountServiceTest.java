@@ -0,0 +1,110 @@
+package com.cookmate.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * UT-13: Write-behind view counts - every view is written exactly once
+ */
+@ExtendWith(MockitoExtension.class)
+class ViewCountServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RecipeCardService recipeCardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ViewCountService viewCountService;
+
+    private final AtomicLong writtenViews = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(viewCountService, "batchSize", 2);
+    }
+
+    @Test
+    void concurrentViewsAreFlushedExactlyOnce() throws Exception {
+        recordWrittenViews();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> viewers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            viewers.add(pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    viewCountService.recordView((long) (i % 3));
+                }
+            }));
+        }
+        // Flush (and retire idle counters) while views keep arriving
+        while (viewers.stream().anyMatch(f -> !f.isDone())) {
+            viewCountService.flush();
+        }
+        for (Future<?> viewer : viewers) {
+            viewer.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        viewCountService.flush();
+
+        assertThat(writtenViews.get()).isEqualTo(80_000);
+        assertThat(viewCountService.getStatus().getPendingViews()).isZero();
+        assertThat(viewCountService.getStatus().getFlushedViews()).isEqualTo(80_000);
+    }
+
+    @Test
+    void failedFlushKeepsViewsForTheNextOne() {
+        viewCountService.recordView(1L);
+        viewCountService.recordView(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThat(viewCountService.flush()).isZero();
+        assertThat(viewCountService.pendingViews(1L)).isEqualTo(2);
+        assertThat(viewCountService.getStatus().getFailedFlushes()).isEqualTo(1);
+
+        reset(jdbcTemplate);
+        recordWrittenViews();
+        viewCountService.recordView(1L);
+        assertThat(viewCountService.flush()).isEqualTo(1);
+        assertThat(writtenViews.get()).isEqualTo(3);
+        verify(recipeCardService, times(1)).recordViews(anyMap());
+    }
+
+    private void recordWrittenViews() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            args.forEach(row -> writtenViews.addAndGet((Long) row[0]));
+            return new int[args.size()];
+        });
+    }
+}